@@ -0,0 +1,160 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded queue for {@link Experimenter} instances that have been submitted
+ * but whose experiment tasks haven't been created yet. A single background
+ * thread takes the experimenters from the queue one after the other and runs
+ * them, i.e., creates the experiment tasks inside the database and hands them
+ * over to the overseer. Thus, the thread submitting an experiment doesn't
+ * have to wait for the database. Since the IDs of the queued experiments have
+ * already been returned to the clients, {@link #close()} waits until the
+ * queue has been drained.
+ */
+public class ExperimentIngestionQueue implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExperimentIngestionQueue.class);
+
+    public static final String CAPACITY_PROPERTY_NAME = "org.aksw.gerbil.ExperimentIngestionQueue.Capacity";
+    public static final int DEFAULT_CAPACITY = 100;
+    public static final String SHUTDOWN_TIMEOUT_PROPERTY_NAME = "org.aksw.gerbil.ExperimentIngestionQueue.ShutdownTimeout";
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT = 60000;
+
+    /**
+     * The time (in ms) the ingestion thread waits for a new experimenter
+     * before it checks whether the queue has been closed.
+     */
+    private static final long POLL_TIMEOUT = 1000;
+
+    private final BlockingQueue<Experimenter> queue;
+    private final Thread ingestionThread;
+    private final long shutdownTimeout;
+    private volatile boolean running = true;
+
+    public ExperimentIngestionQueue(int capacity) {
+        this(capacity, DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * @param capacity
+     *            the maximum number of waiting experimenters
+     * @param shutdownTimeout
+     *            the maximum time (in ms) {@link #close()} waits for the
+     *            queued experimenters
+     */
+    public ExperimentIngestionQueue(int capacity, long shutdownTimeout) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity has to be positive.");
+        }
+        this.queue = new ArrayBlockingQueue<Experimenter>(capacity);
+        this.shutdownTimeout = shutdownTimeout;
+        this.ingestionThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ingest();
+            }
+        }, "experiment-ingestion");
+        this.ingestionThread.setDaemon(true);
+        this.ingestionThread.start();
+    }
+
+    /**
+     * Adds the given experimenter to the queue if the queue is not full.
+     * 
+     * @return true if the experimenter has been added, false if the queue is
+     *         full or has been closed
+     */
+    public synchronized boolean submit(Experimenter experimenter) {
+        if (!running) {
+            return false;
+        }
+        if (queue.offer(experimenter)) {
+            LOGGER.debug("Queued experiment \"{}\" ({} experiments are waiting).", experimenter.getExperimentId(),
+                    queue.size());
+            return true;
+        } else {
+            LOGGER.warn("Couldn't queue experiment \"{}\" since the queue is full.", experimenter.getExperimentId());
+            return false;
+        }
+    }
+
+    /**
+     * @return the number of experiments waiting for the creation of their
+     *         tasks
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private void ingest() {
+        Experimenter experimenter;
+        // after closing, the remaining experimenters are still ingested
+        while (running || !queue.isEmpty()) {
+            try {
+                experimenter = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (experimenter == null) {
+                continue;
+            }
+            try {
+                experimenter.run();
+            } catch (Exception e) {
+                LOGGER.error("Got an exception while creating the tasks of experiment \""
+                        + experimenter.getExperimentId() + "\".", e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting new experimenters and waits until the queued
+     * experimenters have been ingested or the shutdown timeout is reached.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            ingestionThread.join(shutdownTimeout);
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while waiting for the ingestion of the queued experiments.");
+            Thread.currentThread().interrupt();
+        }
+        if (ingestionThread.isAlive()) {
+            LOGGER.error("The ingestion hasn't been finished within {}ms. {} queued experiments won't be created.",
+                    shutdownTimeout, queue.size());
+        }
+    }
+}
@@ -24,10 +24,18 @@
 package org.aksw.gerbil;
 
 import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.datasets.FingerprintedDatasetConfiguration;
 import org.aksw.gerbil.datatypes.ExperimentTaskConfiguration;
 import org.aksw.gerbil.execute.ExperimentTask;
+import org.aksw.gerbil.execute.TaskScheduler;
 import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +49,14 @@ public class Experimenter implements Runnable {
     private ExperimentDAO experimentDAO;
     private WikipediaApiInterface wikiAPI;
     private Overseer overseer;
+    private TaskScheduler scheduler;
+    private IntArrayList queuedTaskIds;
+    private List<ExperimentTaskConfiguration> queuedConfigs;
 
+    /**
+     * Creates an experimenter that hands the tasks directly over to the given
+     * overseer.
+     */
     public Experimenter(WikipediaApiInterface wikiAPI, Overseer overseer, ExperimentDAO experimentDAO,
             ExperimentTaskConfiguration configs[], String experimentId) {
         this.configs = configs;
@@ -51,44 +66,125 @@ public class Experimenter implements Runnable {
         this.overseer = overseer;
     }
 
+    /**
+     * Creates an experimenter that adds the tasks to the durable task queue of
+     * the given scheduler.
+     */
+    public Experimenter(TaskScheduler scheduler, ExperimentDAO experimentDAO, ExperimentTaskConfiguration configs[],
+            String experimentId) {
+        this.configs = configs;
+        this.experimentId = experimentId;
+        this.experimentDAO = experimentDAO;
+        this.scheduler = scheduler;
+    }
+
     @Override
     public void run() {
         try {
             int taskId;
+            String datasetFingerprint;
+            queuedTaskIds = new IntArrayList();
+            queuedConfigs = new ArrayList<ExperimentTaskConfiguration>();
+            List<ExperimentTaskConfiguration> uncachableConfigs = new ArrayList<ExperimentTaskConfiguration>();
+            Set<String> requestedTasks = new HashSet<String>();
             for (int i = 0; i < configs.length; ++i) {
-                if (couldHaveCachedResult(configs[i])) {
-                    taskId = experimentDAO.connectCachedResultOrCreateTask(configs[i].annotatorConfig.getName(),
-                            configs[i].datasetConfig.getName(), configs[i].type.name(), configs[i].matching.name(),
-                            experimentId);
+                // identical configurations of the same experiment are executed
+                // only once
+                if (!requestedTasks.add(configs[i].annotatorConfig.getName() + '|' + configs[i].datasetConfig.getName()
+                        + '|' + configs[i].type.name() + '|' + configs[i].matching.name())) {
+                    LOGGER.info("Experiment \"{}\" contains the configuration {} twice. It will be executed only once.",
+                            experimentId, configs[i]);
+                } else if (couldHaveCachedResult(configs[i])) {
+                    datasetFingerprint = getDatasetFingerprint(configs[i]);
+                    if (datasetFingerprint != null) {
+                        taskId = experimentDAO.connectCachedResultOrCreateTask(configs[i].annotatorConfig.getName(),
+                                configs[i].datasetConfig.getName(), datasetFingerprint, configs[i].type.name(),
+                                configs[i].matching.name(), experimentId);
+                    } else {
+                        taskId = experimentDAO.connectCachedResultOrCreateTask(configs[i].annotatorConfig.getName(),
+                                configs[i].datasetConfig.getName(), configs[i].type.name(),
+                                configs[i].matching.name(), experimentId);
+                    }
+                    // If there is no experiment task result in the database
+                    if (taskId != ExperimentDAO.CACHED_EXPERIMENT_TASK_CAN_BE_USED) {
+                        startTask(taskId, configs[i]);
+                    }
                 } else {
-                    taskId = experimentDAO.createTask(configs[i].annotatorConfig.getName(),
-                            configs[i].datasetConfig.getName(), configs[i].type.name(), configs[i].matching.name(),
-                            experimentId);
+                    uncachableConfigs.add(configs[i]);
+                }
+            }
+            // the tasks that can't be cached are created at once
+            if (uncachableConfigs.size() > 0) {
+                int size = uncachableConfigs.size();
+                String annotatorNames[] = new String[size];
+                String datasetNames[] = new String[size];
+                String experimentTypes[] = new String[size];
+                String matchings[] = new String[size];
+                ExperimentTaskConfiguration config;
+                for (int i = 0; i < size; ++i) {
+                    config = uncachableConfigs.get(i);
+                    annotatorNames[i] = config.annotatorConfig.getName();
+                    datasetNames[i] = config.datasetConfig.getName();
+                    experimentTypes[i] = config.type.name();
+                    matchings[i] = config.matching.name();
                 }
-                // If there is no experiment task result in the database
-                if (taskId != ExperimentDAO.CACHED_EXPERIMENT_TASK_CAN_BE_USED) {
-                    // Create an executer which performs the task
-                    ExperimentTask task = new ExperimentTask(taskId, experimentDAO, configs[i], wikiAPI);
-                    overseer.startTask(task);
-                    // Thread t = new Thread(executer);
-                    // t.start();
-                    // if (SimpleThreadObserver.canObserveThread()) {
-                    // t = new Thread(new SimpleThreadObserver(t));
-                    // t.start();
-                    // }
+                int taskIds[] = experimentDAO.createTasks(annotatorNames, datasetNames, experimentTypes, matchings,
+                        experimentId);
+                for (int i = 0; i < size; ++i) {
+                    startTask(taskIds[i], uncachableConfigs.get(i));
                 }
             }
+            if (queuedTaskIds.size() > 0) {
+                scheduler.submit(queuedTaskIds.toIntArray(),
+                        queuedConfigs.toArray(new ExperimentTaskConfiguration[queuedConfigs.size()]));
+            }
             LOGGER.info("Experimenter finished the creation of tasks for experiment \"" + experimentId + "\"");
         } catch (Exception e) {
             LOGGER.error("Got an Exception while trying to start all needed tasks. Aborting the experiment.", e);
         }
     }
 
+    public String getExperimentId() {
+        return experimentId;
+    }
+
+    private void startTask(int taskId, ExperimentTaskConfiguration config) {
+        if (scheduler != null) {
+            // the tasks are added to the task queue at once
+            queuedTaskIds.add(taskId);
+            queuedConfigs.add(config);
+            return;
+        }
+        // Create an executer which performs the task
+        ExperimentTask task = new ExperimentTask(taskId, experimentDAO, config, wikiAPI);
+        overseer.startTask(task);
+    }
+
+    /**
+     * The result of a task could be cached if the annotator and the dataset
+     * could be cached or if the dataset is identified by the fingerprint of
+     * its content, e.g., an uploaded dataset.
+     */
     private boolean couldHaveCachedResult(ExperimentTaskConfiguration config) {
-        boolean couldBeCached = config.annotatorConfig.couldBeCached() && config.datasetConfig.couldBeCached();
+        boolean datasetCouldBeCached = config.datasetConfig.couldBeCached()
+                || (getDatasetFingerprint(config) != null);
+        boolean couldBeCached = config.annotatorConfig.couldBeCached() && datasetCouldBeCached;
         LOGGER.debug("Could be cached: {}.couldBeCached()={} && {}.couldBeCached()={} --> {}",
                 config.annotatorConfig.getName(), config.annotatorConfig.couldBeCached(),
-                config.datasetConfig.getName(), config.datasetConfig.couldBeCached(), couldBeCached);
+                config.datasetConfig.getName(), datasetCouldBeCached, couldBeCached);
         return couldBeCached;
     }
+
+    /**
+     * @return the fingerprint of the dataset if it can't be cached by its name
+     *         or null if the name should be used or the fingerprint couldn't
+     *         be created
+     */
+    private String getDatasetFingerprint(ExperimentTaskConfiguration config) {
+        if (!config.datasetConfig.couldBeCached()
+                && (config.datasetConfig instanceof FingerprintedDatasetConfiguration)) {
+            return ((FingerprintedDatasetConfiguration) config.datasetConfig).getFingerprint();
+        }
+        return null;
+    }
 }
@@ -46,6 +46,10 @@ public class NIFWebserviceAnnotatorConfiguration extends AbstractAnnotatorConfig
         this.dbpediaApi = dbpediaApi;
     }
 
+    public String getAnnotatorURL() {
+        return annotaturURL;
+    }
+
     @Override
     protected TopicSystem loadAnnotator(ExperimentType type) throws Exception {
         return new NIFBasedAnnotatorWebservice(annotaturURL, this.getName(), wikiApi, dbpediaApi);
@@ -41,9 +41,13 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class AgdistisAnnotator extends it.acubelab.batframework.systemPlugins.AgdistisAnnotator {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgdistisAnnotator.class);
+
     protected String host;
     protected int port;
     protected WikipediaApiInterface wikiApi;
@@ -105,7 +109,7 @@ public class AgdistisAnnotator extends it.acubelab.batframework.systemPlugins.Ag
             String urlDecoded = URLDecoder.decode(url, "UTF-8");
             int wikiArticle = DBpediaToWikiId.getId(wikiApi, urlDecoded);
             if (wikiArticle == -1)
-                System.err.printf("Wiki title of url %s (decoded %s) could not be found.%n", url, urlDecoded);
+                LOGGER.warn("Wiki title of url {} (decoded {}) could not be found.", url, urlDecoded);
             annotations.add(new Annotation(position, length, wikiArticle));
         }
 
@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.bat.annotator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aksw.gerbil.utils.SlidingWindowCounter;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Counts the requests sent to a single annotator. There is one counter per
+ * annotator name that is shared by all experiment tasks using this annotator,
+ * i.e., the counters show how many requests are currently waiting for an
+ * annotator and how many of them have been answered recently. Since every
+ * user defined web service gets its own counter, counters that haven't been
+ * used for {@link #COUNTER_EXPIRATION_TIME} minutes are removed.
+ */
+public class AnnotatorRequestCounter {
+
+    /**
+     * The requests are counted inside a window of 15 minutes.
+     */
+    private static final int NUMBER_OF_WINDOW_BUCKETS = 60;
+    private static final long WINDOW_BUCKET_DURATION = 15000;
+
+    private static final long COUNTER_EXPIRATION_TIME = 60;
+
+    /**
+     * Reading a counter or starting a request refreshes the access time of the
+     * counter, i.e., counters of running tasks are not removed.
+     */
+    private static final ConcurrentMap<String, AnnotatorRequestCounter> COUNTERS = CacheBuilder.newBuilder()
+            .expireAfterAccess(COUNTER_EXPIRATION_TIME, TimeUnit.MINUTES)
+            .<String, AnnotatorRequestCounter> build().asMap();
+
+    /**
+     * Returns the counter of the annotator with the given name.
+     */
+    public static AnnotatorRequestCounter getCounter(String annotatorName) {
+        AnnotatorRequestCounter counter = COUNTERS.get(annotatorName);
+        if (counter == null) {
+            counter = new AnnotatorRequestCounter(annotatorName);
+            AnnotatorRequestCounter existingCounter = COUNTERS.putIfAbsent(annotatorName, counter);
+            if (existingCounter != null) {
+                counter = existingCounter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * @return the counters of all annotators that have been used during the
+     *         last {@link #COUNTER_EXPIRATION_TIME} minutes
+     */
+    public static List<AnnotatorRequestCounter> getCounters() {
+        return new ArrayList<AnnotatorRequestCounter>(COUNTERS.values());
+    }
+
+    private final String annotatorName;
+    private final AtomicInteger runningRequests = new AtomicInteger();
+    private final AtomicLong finishedRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong summedRequestTime = new AtomicLong();
+    private final SlidingWindowCounter recentRequests = new SlidingWindowCounter(NUMBER_OF_WINDOW_BUCKETS,
+            WINDOW_BUCKET_DURATION);
+
+    protected AnnotatorRequestCounter(String annotatorName) {
+        this.annotatorName = annotatorName;
+    }
+
+    /**
+     * Has to be called before a request is sent to the annotator.
+     * 
+     * @return the start time of the request that has to be handed over to
+     *         {@link #requestFinished(long, boolean)}
+     */
+    public long requestStarted() {
+        // refresh the access time or add the counter again if it has been
+        // removed in the meantime
+        COUNTERS.putIfAbsent(annotatorName, this);
+        runningRequests.incrementAndGet();
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Has to be called after the annotator answered a request or the request
+     * failed.
+     */
+    public void requestFinished(long startTime, boolean successful) {
+        runningRequests.decrementAndGet();
+        finishedRequests.incrementAndGet();
+        if (!successful) {
+            failedRequests.incrementAndGet();
+        }
+        summedRequestTime.addAndGet(System.currentTimeMillis() - startTime);
+        recentRequests.increment();
+    }
+
+    public String getAnnotatorName() {
+        return annotatorName;
+    }
+
+    /**
+     * @return the number of requests waiting for an answer of the annotator
+     */
+    public int getRunningRequests() {
+        return runningRequests.get();
+    }
+
+    public long getFinishedRequests() {
+        return finishedRequests.get();
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.get();
+    }
+
+    /**
+     * @return the average time (in milliseconds) the annotator needed for a
+     *         request or 0 if no request has been finished
+     */
+    public long getAverageRequestTime() {
+        long finished = finishedRequests.get();
+        return finished > 0 ? summedRequestTime.get() / finished : 0;
+    }
+
+    /**
+     * @param timeSpan
+     *            the time span (in milliseconds) ending now. It can't be
+     *            larger than 15 minutes.
+     * @return the number of requests finished during the given time span
+     */
+    public long getRecentRequests(long timeSpan) {
+        return recentRequests.getCount(timeSpan);
+    }
+}
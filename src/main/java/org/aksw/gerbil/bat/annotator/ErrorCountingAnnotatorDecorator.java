@@ -45,7 +45,8 @@ import org.slf4j.LoggerFactory;
  * This is a simple decorator for an annotator which handles exceptions thrown
  * by the decorated annotator. It logs these exceptions and counts the errors.
  * This behavior makes it possible, that the BAT-Framework doesn't quit the
- * experiment even if an exception is thrown.
+ * experiment even if an exception is thrown. Additionally, the requests are
+ * counted by the {@link AnnotatorRequestCounter} of the annotator.
  * 
  * @author Michael Röder
  * 
@@ -80,10 +81,12 @@ public class ErrorCountingAnnotatorDecorator {
         protected int errorCount = 0;
         protected int maxErrors;
         protected TopicSystem decoratedAnnotator;
+        protected AnnotatorRequestCounter requestCounter;
 
         public AbstractErrorCounter(TopicSystem decoratedAnnotator, int maxErrors) {
             this.decoratedAnnotator = decoratedAnnotator;
             this.maxErrors = maxErrors;
+            this.requestCounter = AnnotatorRequestCounter.getCounter(decoratedAnnotator.getName());
         }
 
         @Override
@@ -190,9 +193,11 @@ public class ErrorCountingAnnotatorDecorator {
 
     protected static HashSet<Tag> solveC2W(AbstractErrorCounter errorCounter, String text) throws AnnotationException {
         HashSet<Tag> result = null;
+        long startTime = errorCounter.requestCounter.requestStarted();
         try {
             result = ((C2WSystem) errorCounter.getDecoratedAnnotator()).solveC2W(text);
         } catch (Exception e) {
+            errorCounter.requestCounter.requestFinished(startTime, false);
             if (errorCounter.getErrorCount() == 0) {
                 // Log only the first exception completely
                 LOGGER.error("Got an Exception from the annotator (" + errorCounter.getName() + ")", e);
@@ -204,6 +209,7 @@ public class ErrorCountingAnnotatorDecorator {
             errorCounter.increaseErrorCount();
             return new HashSet<Tag>(0);
         }
+        errorCounter.requestCounter.requestFinished(startTime, true);
         if (LOGGER.isDebugEnabled()) {
             StringBuilder builder = new StringBuilder();
             builder.append('[');
@@ -229,9 +235,11 @@ public class ErrorCountingAnnotatorDecorator {
     protected static HashSet<Annotation> solveD2W(AbstractErrorCounter errorCounter, String text,
             HashSet<Mention> mentions) {
         HashSet<Annotation> result = null;
+        long startTime = errorCounter.requestCounter.requestStarted();
         try {
             result = ((D2WSystem) errorCounter.getDecoratedAnnotator()).solveD2W(text, mentions);
         } catch (Exception e) {
+            errorCounter.requestCounter.requestFinished(startTime, false);
             if (errorCounter.getErrorCount() == 0) {
                 // Log only the first exception completely
                 LOGGER.error("Got an Exception from the annotator (" + errorCounter.getName() + ")", e);
@@ -243,6 +251,7 @@ public class ErrorCountingAnnotatorDecorator {
             errorCounter.increaseErrorCount();
             return new HashSet<Annotation>(0);
         }
+        errorCounter.requestCounter.requestFinished(startTime, true);
         if (LOGGER.isDebugEnabled()) {
             StringBuilder builder = new StringBuilder();
             builder.append('[');
@@ -271,9 +280,11 @@ public class ErrorCountingAnnotatorDecorator {
 
     protected static HashSet<Annotation> solveA2W(AbstractErrorCounter errorCounter, String text) {
         HashSet<Annotation> result = null;
+        long startTime = errorCounter.requestCounter.requestStarted();
         try {
             result = ((A2WSystem) errorCounter.getDecoratedAnnotator()).solveA2W(text);
         } catch (Exception e) {
+            errorCounter.requestCounter.requestFinished(startTime, false);
             if (errorCounter.getErrorCount() == 0) {
                 // Log only the first exception completely
                 LOGGER.error("Got an Exception from the annotator (" + errorCounter.getName() + ")", e);
@@ -285,6 +296,7 @@ public class ErrorCountingAnnotatorDecorator {
             errorCounter.increaseErrorCount();
             return new HashSet<Annotation>(0);
         }
+        errorCounter.requestCounter.requestFinished(startTime, true);
         if (LOGGER.isDebugEnabled()) {
             StringBuilder builder = new StringBuilder();
             builder.append('[');
@@ -313,9 +325,11 @@ public class ErrorCountingAnnotatorDecorator {
 
     protected static HashSet<ScoredTag> solveSc2W(AbstractErrorCounter errorCounter, String text) {
         HashSet<ScoredTag> result = null;
+        long startTime = errorCounter.requestCounter.requestStarted();
         try {
             result = ((Sc2WSystem) errorCounter.getDecoratedAnnotator()).solveSc2W(text);
         } catch (Exception e) {
+            errorCounter.requestCounter.requestFinished(startTime, false);
             if (errorCounter.getErrorCount() == 0) {
                 // Log only the first exception completely
                 LOGGER.error("Got an Exception from the annotator (" + errorCounter.getName() + ")", e);
@@ -327,6 +341,7 @@ public class ErrorCountingAnnotatorDecorator {
             errorCounter.increaseErrorCount();
             return new HashSet<ScoredTag>(0);
         }
+        errorCounter.requestCounter.requestFinished(startTime, true);
         if (LOGGER.isDebugEnabled()) {
             StringBuilder builder = new StringBuilder();
             builder.append('[');
@@ -354,9 +369,11 @@ public class ErrorCountingAnnotatorDecorator {
     protected static HashSet<ScoredAnnotation> solveSa2W(AbstractErrorCounter errorCounter, String text)
             throws AnnotationException {
         HashSet<ScoredAnnotation> result = null;
+        long startTime = errorCounter.requestCounter.requestStarted();
         try {
             result = ((Sa2WSystem) errorCounter.getDecoratedAnnotator()).solveSa2W(text);
         } catch (Exception e) {
+            errorCounter.requestCounter.requestFinished(startTime, false);
             if (errorCounter.getErrorCount() == 0) {
                 // Log only the first exception completely
                 LOGGER.error("Got an Exception from the annotator (" + errorCounter.getName() + ")", e);
@@ -368,6 +385,7 @@ public class ErrorCountingAnnotatorDecorator {
             errorCounter.increaseErrorCount();
             return new HashSet<ScoredAnnotation>(0);
         }
+        errorCounter.requestCounter.requestFinished(startTime, true);
         if (LOGGER.isDebugEnabled()) {
             StringBuilder builder = new StringBuilder();
             builder.append('[');
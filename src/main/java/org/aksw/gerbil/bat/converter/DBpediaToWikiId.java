@@ -24,9 +24,14 @@
 package org.aksw.gerbil.bat.converter;
 
 import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,18 +84,66 @@ public class DBpediaToWikiId {
      * @return Wikipedia Id or -1
      */
     public static int getId(WikipediaApiInterface wikiApi, String dbpediaUri) {
+        String title = getTitle(dbpediaUri);
+        if (title != null) {
+            try {
+                return wikiApi.getIdByTitle(title);
+            } catch (Exception e) {
+                LOGGER.error("Error while trying to get the ID for the title {}. Returning -1.", title, e);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the Wikipedia Ids of all the given URIs. The titles are
+     * prefetched with a single call to the Wikipedia API, which requests them
+     * in batches, before the single Ids are looked up.
+     * 
+     * @param wikiApi
+     *            The API used to retrieve the ids
+     * @param dbpediaUris
+     *            URIs for which the ids should be retrieved
+     * @return a mapping of every given URI to its Wikipedia Id or -1
+     */
+    public static Object2IntMap<String> getIds(WikipediaApiInterface wikiApi, Collection<String> dbpediaUris) {
+        List<String> titles = new ArrayList<String>(dbpediaUris.size());
+        String title;
+        for (String dbpediaUri : dbpediaUris) {
+            title = getTitle(dbpediaUri);
+            if (title != null) {
+                titles.add(title);
+            }
+        }
+        if (titles.size() > 0) {
+            try {
+                wikiApi.prefetchTitles(titles);
+            } catch (Exception e) {
+                LOGGER.warn("Error while prefetching {} titles. Retrieving them one by one.", titles.size(), e);
+            }
+        }
+        Object2IntMap<String> ids = new Object2IntOpenHashMap<String>(dbpediaUris.size());
+        ids.defaultReturnValue(-1);
+        for (String dbpediaUri : dbpediaUris) {
+            if (!ids.containsKey(dbpediaUri)) {
+                ids.put(dbpediaUri, getId(wikiApi, dbpediaUri));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The Wikipedia title of the given DBpedia URI or null if the URI does not
+     * point to a DBpedia resource.
+     */
+    private static String getTitle(String dbpediaUri) {
         if (dbpediaUri != null) {
             int pos = dbpediaUri.indexOf("/resource/");
             if (pos >= 0) {
-                String title = dbpediaUri.substring(pos + 10);
-                try {
-                    return wikiApi.getIdByTitle(title);
-                } catch (Exception e) {
-                    LOGGER.error("Error while trying to get the ID for the title {}. Returning -1.", title, e);
-                }
+                return dbpediaUri.substring(pos + 10);
             }
         }
-        return -1;
+        return null;
     }
 
     /**
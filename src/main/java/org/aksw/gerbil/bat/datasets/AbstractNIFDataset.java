@@ -29,49 +29,47 @@ import it.acubelab.batframework.data.Tag;
 import it.acubelab.batframework.problems.A2WDataset;
 import it.acubelab.batframework.utils.ProblemReduction;
 import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
 import org.aksw.gerbil.bat.converter.DBpediaToWikiId;
+import org.aksw.gerbil.bat.datasets.NIFStreamParser.NIFDocument;
+import org.aksw.gerbil.bat.datasets.NIFStreamParser.NIFMarking;
 import org.aksw.gerbil.datatypes.ErrorTypes;
 import org.aksw.gerbil.exceptions.GerbilException;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.hp.hpl.jena.query.ParameterizedSparqlString;
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryExecution;
-import com.hp.hpl.jena.query.QueryExecutionFactory;
-import com.hp.hpl.jena.query.QueryFactory;
-import com.hp.hpl.jena.query.QuerySolution;
-import com.hp.hpl.jena.query.ResultSet;
-import com.hp.hpl.jena.rdf.model.Model;
-import com.hp.hpl.jena.rdf.model.ModelFactory;
-import com.hp.hpl.jena.rdf.model.RDFNode;
-import com.hp.hpl.jena.shared.PrefixMapping;
-import com.hp.hpl.jena.shared.impl.PrefixMappingImpl;
-
 public abstract class AbstractNIFDataset implements A2WDataset {
 
     private static final transient Logger LOGGER = LoggerFactory
             .getLogger(AbstractNIFDataset.class);
 
-    private List<HashSet<Annotation>> annotationsList;
+    /**
+     * The texts and the views derived from the annotations are created once
+     * inside {@link #init()} and are shared read-only afterwards. They are
+     * backed by arrays since the experiments access them by index.
+     */
     private List<String> texts;
+    private List<HashSet<Annotation>> annotationsList;
+    private List<HashSet<Mention>> mentionsList;
+    private List<HashSet<Tag>> tagsList;
+    private int tagsCount;
 
     private String name;
     private WikipediaApiInterface wikiApi;
-    private boolean hasBeenInitialized = false;
+    private volatile boolean hasBeenInitialized = false;
 
     public AbstractNIFDataset(WikipediaApiInterface wikiApi, String name) {
-        texts = new LinkedList<String>();
-        annotationsList = new LinkedList<HashSet<Annotation>>();
         this.name = name;
         this.wikiApi = wikiApi;
     }
@@ -112,87 +110,78 @@ public abstract class AbstractNIFDataset implements A2WDataset {
         if (hasBeenInitialized) {
             return;
         }
-        Model dataset = ModelFactory.createDefaultModel();
-        // dataset = RDFDataMgr.loadModel(rdfpath);
         InputStream inputStream = getDataAsInputStream();
         if (inputStream == null) {
             throw new GerbilException("Couldn't get InputStream.", ErrorTypes.DATASET_LOADING_ERROR);
         }
-        RDFDataMgr.read(dataset, inputStream, getDataLanguage());
-        closeInputStream(inputStream);
-
-        PrefixMapping prefixes = new PrefixMappingImpl()
-                .withDefaultMappings(PrefixMapping.Extended);
-        prefixes.setNsPrefix("nif",
-                "http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#");
-        prefixes.setNsPrefix("dbo", "http://dbpedia.org/ontology/");
-        prefixes.setNsPrefix("itsrdf", "http://www.w3.org/2005/11/its/rdf#");
-
-        Query query = QueryFactory
-                .create("prefix nif: <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#>"
-                        + " SELECT distinct ?context ?string WHERE {?context a nif:Context . ?context nif:isString ?string .}");
-        QueryExecution exec = QueryExecutionFactory.create(query, dataset);
-        ResultSet result = exec.execSelect();
-        ParameterizedSparqlString annotationQuery = new ParameterizedSparqlString(
-                "SELECT distinct ?annotation ?begin ?end ?dbpedia ?entity WHERE {?annotation nif:referenceContext ?context . "
-                        + "?annotation nif:beginIndex ?begin . "
-                        + "?annotation nif:endIndex ?end . "
-                        + "?annotation itsrdf:taIdentRef ?dbpedia . ?annotation nif:anchorOf ?entity }",
-                prefixes);
-
-        // ParameterizedSparqlString dbpediaQuery = new
-        // ParameterizedSparqlString(
-        // "SELECT ?id WHERE { ?dbpedia dbo:wikiPageID ?id .}", prefixes);
-        int id, position, length;
-        while (result.hasNext()) {
-            QuerySolution solution = result.next();
-            RDFNode rdfNode = solution.get("context");
-            String context = rdfNode.asResource().toString();
-            LOGGER.debug("processing text {}", context);
-            annotationQuery.clearParams();
-            annotationQuery.setIri("context", context);
-            QueryExecution qAnn = QueryExecutionFactory.create(
-                    annotationQuery.asQuery(), dataset);
-            ResultSet annResult = qAnn.execSelect();
-
-            texts.add(solution.get("string").asLiteral().getString());
+        NIFStreamParser parser = new NIFStreamParser();
+        try {
+            RDFDataMgr.parse(parser, inputStream, getDataLanguage());
+        } catch (RiotException e) {
+            throw new GerbilException("Couldn't parse the NIF data.", e, ErrorTypes.DATASET_LOADING_ERROR);
+        } finally {
+            closeInputStream(inputStream);
+        }
+        List<NIFDocument> documents = parser.getDocuments();
+
+        // retrieve the Wikipedia ids of all entities at once
+        Set<String> entityUris = new HashSet<String>();
+        for (NIFDocument document : documents) {
+            for (NIFMarking marking : document.markings) {
+                entityUris.add(marking.entityUri);
+            }
+        }
+        Object2IntMap<String> ids = DBpediaToWikiId.getIds(wikiApi, entityUris);
+
+        int id;
+        List<String> loadedTexts = new ArrayList<String>(documents.size());
+        List<HashSet<Annotation>> loadedAnnotations = new ArrayList<HashSet<Annotation>>(documents.size());
+        for (NIFDocument document : documents) {
+            loadedTexts.add(document.text);
             HashSet<Annotation> annotations = new HashSet<Annotation>();
-            annotationsList.add(annotations);
-            while (annResult.hasNext()) {
-
-                QuerySolution annSolution = annResult.next();
-                String page = annSolution.get("dbpedia").asResource().getURI();
-                // logger.info("processing annotation {}", page);
-                // dbpediaQuery.setIri("dbpedia", page);
-
-                id = DBpediaToWikiId.getId(wikiApi, page);
-                position = annSolution.get("begin").asLiteral().getInt();
-                length = annSolution.get("end").asLiteral().getInt()
-                        - position;
+            loadedAnnotations.add(annotations);
+            for (NIFMarking marking : document.markings) {
+                id = ids.getInt(marking.entityUri);
                 if (id != -1) {
-                    annotations.add(new Annotation(position, length, id));
+                    annotations.add(new Annotation(marking.begin, marking.end - marking.begin, id));
                     if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Annotation: text:{} begin:{} lenght:{}",
-                                new Object[] {
-                                        annSolution.get("entity").asLiteral()
-                                                .getString(), position, length });
+                        LOGGER.debug("Annotation: text:{} begin:{} lenght:{}", new Object[] { marking.anchor,
+                                marking.begin, marking.end - marking.begin });
                     }
                 }
             }
         }
+        setData(loadedTexts, loadedAnnotations);
         hasBeenInitialized = true;
         LOGGER.info("{} dataset initialized", name);
     }
 
+    /**
+     * Stores the given texts and annotations and derives the mentions and
+     * tags from the annotations.
+     */
+    private void setData(List<String> texts, List<HashSet<Annotation>> annotationsList) {
+        this.texts = readOnlyList(texts);
+        this.annotationsList = readOnlyList(annotationsList);
+        this.mentionsList = readOnlyList(ProblemReduction.A2WToD2WMentionsInstance(this.annotationsList));
+        this.tagsList = readOnlyList(ProblemReduction.A2WToC2WList(this.annotationsList));
+        int count = 0;
+        for (HashSet<Annotation> annotations : annotationsList) {
+            count += annotations.size();
+        }
+        this.tagsCount = count;
+    }
+
+    private static <T> List<T> readOnlyList(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<T>(list));
+    }
+
     public int getTagsCount() {
         if (!hasBeenInitialized) {
             throw new IllegalStateException(
                     "This dataset hasn't been initialized. Please call init() before using the dataset.");
         }
-        int count = 0;
-        for (Set<Annotation> s : annotationsList)
-            count += s.size();
-        return count;
+        return tagsCount;
     }
 
     public List<HashSet<Tag>> getC2WGoldStandardList() {
@@ -200,7 +189,7 @@ public abstract class AbstractNIFDataset implements A2WDataset {
             throw new IllegalStateException(
                     "This dataset hasn't been initialized. Please call init() before using the dataset.");
         }
-        return ProblemReduction.A2WToC2WList(this.getA2WGoldStandardList());
+        return tagsList;
     }
 
     public int getSize() {
@@ -232,8 +221,7 @@ public abstract class AbstractNIFDataset implements A2WDataset {
             throw new IllegalStateException(
                     "This dataset hasn't been initialized. Please call init() before using the dataset.");
         }
-        return ProblemReduction
-                .A2WToD2WMentionsInstance(getA2WGoldStandardList());
+        return mentionsList;
     }
 
     public List<HashSet<Annotation>> getD2WGoldStandardList() {
@@ -31,7 +31,6 @@ import it.acubelab.batframework.utils.AnnotationException;
 import it.acubelab.batframework.utils.ProblemReduction;
 import it.acubelab.batframework.utils.WikipediaApiInterface;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.lang.MutableString;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
@@ -40,6 +39,7 @@ import java.io.InputStreamReader;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Vector;
@@ -60,8 +60,15 @@ public class Microposts2014Dataset implements A2WDataset {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Microposts2014Dataset.class);
 
-    private List<HashSet<Annotation>> annotations = new Vector<HashSet<Annotation>>();
-    private List<MutableString> tweets = new Vector<MutableString>();
+    /**
+     * The tweets, annotations and the views derived from them are created
+     * once inside the constructor and are shared read-only afterwards.
+     */
+    private List<HashSet<Annotation>> annotations;
+    private List<String> tweets;
+    private List<HashSet<Mention>> mentions;
+    private List<HashSet<Tag>> tags;
+    private int tagsCount;
     private Pattern dbpediaUrlPattern = Pattern.compile("http://dbpedia.org/resource/(.*)");
     private Pattern recordPattern = Pattern.compile("([0-9]+)(\t\".+\")(\t)*(.*)");
     private Pattern textPattern = Pattern.compile("^\"(.+)\"$");
@@ -73,6 +80,7 @@ public class Microposts2014Dataset implements A2WDataset {
             SAXException
     {
         List<List<Microposts2014Annotation>> mAnns = new ArrayList<List<Microposts2014Annotation>>();
+        List<String> tweets = new ArrayList<String>();
         List<String> titlesToPrefetch = new Vector<String>();
         BufferedReader r = new BufferedReader(
                 new InputStreamReader(new FileInputStream(file), Charset.forName("UTF-8")));
@@ -95,7 +103,7 @@ public class Microposts2014Dataset implements A2WDataset {
                 {
                     // current tweet
                     String tweet = mTweet.group(1);
-                    tweets.add(new MutableString(tweet));
+                    tweets.add(tweet);
 
                     String pairs = mRecord.group(4);
                     if (pairs != null && !pairs.equals(""))
@@ -160,6 +168,8 @@ public class Microposts2014Dataset implements A2WDataset {
         wikiApi.prefetchTitles(titlesToPrefetch);
 
         /** Create annotation list */
+        List<HashSet<Annotation>> annotations = new ArrayList<HashSet<Annotation>>(mAnns.size());
+        int tagsCount = 0;
         for (List<Microposts2014Annotation> s : mAnns) {
             HashSet<Annotation> sA = new HashSet<Annotation>();
             for (Microposts2014Annotation aA : s) {
@@ -171,7 +181,13 @@ public class Microposts2014Dataset implements A2WDataset {
             }
             HashSet<Annotation> sANonOverlapping = Annotation.deleteOverlappingAnnotations(sA);
             annotations.add(sANonOverlapping);
+            tagsCount += sANonOverlapping.size();
         }
+        this.tweets = Collections.unmodifiableList(tweets);
+        this.annotations = Collections.unmodifiableList(annotations);
+        this.mentions = Collections.unmodifiableList(ProblemReduction.A2WToD2WMentionsInstance(annotations));
+        this.tags = Collections.unmodifiableList(ProblemReduction.A2WToC2WList(annotations));
+        this.tagsCount = tagsCount;
     }
 
     /**
@@ -236,15 +252,12 @@ public class Microposts2014Dataset implements A2WDataset {
 
     @Override
     public int getTagsCount() {
-        int count = 0;
-        for (HashSet<Annotation> s : annotations)
-            count += s.size();
-        return count;
+        return tagsCount;
     }
 
     @Override
     public List<HashSet<Tag>> getC2WGoldStandardList() {
-        return ProblemReduction.A2WToC2WList(annotations);
+        return tags;
     }
 
     @Override
@@ -259,16 +272,12 @@ public class Microposts2014Dataset implements A2WDataset {
 
     @Override
     public List<String> getTextInstanceList() {
-        List<String> stringDocuments = new Vector<String>();
-        for (MutableString s : tweets) {
-            stringDocuments.add(s.toString());
-        }
-        return stringDocuments;
+        return tweets;
     }
 
     @Override
     public List<HashSet<Mention>> getMentionsInstanceList() {
-        return ProblemReduction.A2WToD2WMentionsInstance(getA2WGoldStandardList());
+        return mentions;
     }
 
     @Override
@@ -0,0 +1,197 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.bat.datasets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.gerbil.transfer.nif.vocabulary.ITSRDF;
+import org.aksw.gerbil.transfer.nif.vocabulary.NIF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.core.Quad;
+import com.hp.hpl.jena.vocabulary.RDF;
+
+/**
+ * Consumes the triples of a NIF corpus in a single pass. Instead of keeping
+ * the complete graph, it only collects the properties of the contexts and
+ * annotations it needs, grouped by their subject. Since the triples may
+ * arrive in any order, the documents are assembled inside
+ * {@link #getDocuments()} after the parsing has been finished.
+ */
+class NIFStreamParser extends StreamRDFBase {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NIFStreamParser.class);
+
+    private static final Node RDF_TYPE = RDF.type.asNode();
+    private static final Node NIF_CONTEXT = NIF.Context.asNode();
+    private static final Node NIF_IS_STRING = NIF.isString.asNode();
+    private static final Node NIF_REFERENCE_CONTEXT = NIF.referenceContext.asNode();
+    private static final Node NIF_BEGIN_INDEX = NIF.beginIndex.asNode();
+    private static final Node NIF_END_INDEX = NIF.endIndex.asNode();
+    private static final Node NIF_ANCHOR_OF = NIF.anchorOf.asNode();
+    private static final Node ITS_TA_IDENT_REF = ITSRDF.taIdentRef.asNode();
+
+    /**
+     * The contexts in the order in which they have been seen first.
+     */
+    private Map<Node, ContextState> contexts = new LinkedHashMap<Node, ContextState>();
+    private Map<Node, AnnotationState> annotations = new HashMap<Node, AnnotationState>();
+
+    @Override
+    public void triple(Triple triple) {
+        Node predicate = triple.getPredicate();
+        Node subject = triple.getSubject();
+        Node object = triple.getObject();
+        if (RDF_TYPE.equals(predicate)) {
+            if (NIF_CONTEXT.equals(object)) {
+                getContext(subject).isContext = true;
+            }
+        } else if (NIF_IS_STRING.equals(predicate)) {
+            if (object.isLiteral()) {
+                getContext(subject).text = object.getLiteralLexicalForm();
+            }
+        } else if (NIF_REFERENCE_CONTEXT.equals(predicate)) {
+            getAnnotation(subject).context = object;
+        } else if (NIF_BEGIN_INDEX.equals(predicate)) {
+            getAnnotation(subject).begin = parseIndex(object);
+        } else if (NIF_END_INDEX.equals(predicate)) {
+            getAnnotation(subject).end = parseIndex(object);
+        } else if (NIF_ANCHOR_OF.equals(predicate)) {
+            if (object.isLiteral()) {
+                getAnnotation(subject).anchor = object.getLiteralLexicalForm();
+            }
+        } else if (ITS_TA_IDENT_REF.equals(predicate)) {
+            if (object.isURI()) {
+                getAnnotation(subject).entityUris.add(object.getURI());
+            }
+        }
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        triple(quad.asTriple());
+    }
+
+    private ContextState getContext(Node node) {
+        ContextState context = contexts.get(node);
+        if (context == null) {
+            context = new ContextState();
+            contexts.put(node, context);
+        }
+        return context;
+    }
+
+    private AnnotationState getAnnotation(Node node) {
+        AnnotationState annotation = annotations.get(node);
+        if (annotation == null) {
+            annotation = new AnnotationState();
+            annotations.put(node, annotation);
+        }
+        return annotation;
+    }
+
+    private static int parseIndex(Node object) {
+        if (object.isLiteral()) {
+            try {
+                return Integer.parseInt(object.getLiteralLexicalForm().trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Got a malformed index \"{}\". It will be ignored.", object.getLiteralLexicalForm());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Assembles the documents, i.e., the contexts that have a type and a text,
+     * together with the complete annotations that are referring to them.
+     */
+    public List<NIFDocument> getDocuments() {
+        Map<Node, NIFDocument> documents = new LinkedHashMap<Node, NIFDocument>();
+        for (Map.Entry<Node, ContextState> entry : contexts.entrySet()) {
+            if (entry.getValue().isContext && (entry.getValue().text != null)) {
+                documents.put(entry.getKey(), new NIFDocument(entry.getValue().text));
+            }
+        }
+        NIFDocument document;
+        for (AnnotationState annotation : annotations.values()) {
+            if ((annotation.context != null) && (annotation.begin >= 0) && (annotation.end >= 0)
+                    && (annotation.anchor != null)) {
+                document = documents.get(annotation.context);
+                if (document != null) {
+                    for (String entityUri : annotation.entityUris) {
+                        document.markings.add(new NIFMarking(annotation.begin, annotation.end, entityUri,
+                                annotation.anchor));
+                    }
+                }
+            }
+        }
+        return new ArrayList<NIFDocument>(documents.values());
+    }
+
+    private static class ContextState {
+        public boolean isContext = false;
+        public String text;
+    }
+
+    private static class AnnotationState {
+        public Node context;
+        public int begin = -1;
+        public int end = -1;
+        public String anchor;
+        public Set<String> entityUris = new LinkedHashSet<String>(2);
+    }
+
+    public static class NIFDocument {
+        public final String text;
+        public final List<NIFMarking> markings = new ArrayList<NIFMarking>();
+
+        public NIFDocument(String text) {
+            this.text = text;
+        }
+    }
+
+    public static class NIFMarking {
+        public final int begin;
+        public final int end;
+        public final String entityUri;
+        public final String anchor;
+
+        public NIFMarking(int begin, int end, String entityUri, String anchor) {
+            this.begin = begin;
+            this.end = end;
+            this.entityUri = entityUri;
+            this.anchor = anchor;
+        }
+    }
+}
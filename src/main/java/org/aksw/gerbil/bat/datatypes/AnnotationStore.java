@@ -0,0 +1,278 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.bat.datatypes;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.data.Mention;
+import it.acubelab.batframework.data.ScoredAnnotation;
+import it.acubelab.batframework.data.ScoredTag;
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.utils.ProblemReduction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Column based store of the scored annotations or tags of all documents of
+ * a dataset. Instead of one object and one hash set entry per annotation, the
+ * positions, lengths, concepts and scores are stored in primitive arrays. The
+ * annotations of the document i are stored in the range [documentStarts[i],
+ * documentStarts[i+1]) in the order in which they have been returned by the
+ * iterator of the original set.
+ * 
+ * <p>
+ * The {@link View} class offers a view on all annotations with a score that
+ * is higher or equal to a given threshold without copying the store. At the
+ * boundaries to the BAT framework, the views can be transformed into the
+ * list of sets used by the BAT framework. These transformations have the
+ * same semantics as the corresponding methods of {@link ProblemReduction}.
+ * </p>
+ */
+public class AnnotationStore {
+
+    /**
+     * Creates a store containing the given scored annotations.
+     */
+    public static AnnotationStore fromScoredAnnotations(List<HashSet<ScoredAnnotation>> documents) {
+        AnnotationStore store = new AnnotationStore(documents, true);
+        int pos = 0;
+        for (HashSet<ScoredAnnotation> document : documents) {
+            for (ScoredAnnotation annotation : document) {
+                store.positions[pos] = annotation.getPosition();
+                store.lengths[pos] = annotation.getLength();
+                store.concepts[pos] = annotation.getConcept();
+                store.scores[pos] = annotation.getScore();
+                ++pos;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Creates a store containing the given scored tags. The store has no
+     * positions and lengths.
+     */
+    public static AnnotationStore fromScoredTags(List<HashSet<ScoredTag>> documents) {
+        AnnotationStore store = new AnnotationStore(documents, false);
+        int pos = 0;
+        for (HashSet<ScoredTag> document : documents) {
+            for (ScoredTag tag : document) {
+                store.concepts[pos] = tag.getConcept();
+                store.scores[pos] = tag.getScore();
+                ++pos;
+            }
+        }
+        return store;
+    }
+
+    private final int documentStarts[];
+    private final int positions[];
+    private final int lengths[];
+    private final int concepts[];
+    private final float scores[];
+
+    private AnnotationStore(List<? extends HashSet<?>> documents, boolean hasMentions) {
+        documentStarts = new int[documents.size() + 1];
+        for (int i = 0; i < documents.size(); ++i) {
+            documentStarts[i + 1] = documentStarts[i] + documents.get(i).size();
+        }
+        int size = documentStarts[documents.size()];
+        concepts = new int[size];
+        positions = hasMentions ? new int[size] : null;
+        lengths = hasMentions ? new int[size] : null;
+        scores = new float[size];
+    }
+
+    public int getNumberOfDocuments() {
+        return documentStarts.length - 1;
+    }
+
+    /**
+     * @return the number of annotations of all documents
+     */
+    public int size() {
+        return concepts.length;
+    }
+
+    public int getDocumentStart(int documentId) {
+        return documentStarts[documentId];
+    }
+
+    public int getDocumentEnd(int documentId) {
+        return documentStarts[documentId + 1];
+    }
+
+    public boolean hasMentions() {
+        return positions != null;
+    }
+
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getConcept(int index) {
+        return concepts[index];
+    }
+
+    public float getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * @return a view containing all annotations with a score that is higher
+     *         or equal to the given threshold
+     */
+    public View view(float threshold) {
+        return new View(threshold);
+    }
+
+    /**
+     * A view on all annotations of the store that have a score higher or
+     * equal to the threshold of the view. Creating a view does not copy any
+     * data.
+     */
+    public class View {
+
+        private final float threshold;
+
+        private View(float threshold) {
+            this.threshold = threshold;
+        }
+
+        public boolean contains(int index) {
+            return scores[index] >= threshold;
+        }
+
+        /**
+         * @return the number of annotations of all documents that are part of
+         *         this view. Since the views of a store with a higher
+         *         threshold are subsets of views with a lower threshold, two
+         *         views of the same store with the same size contain the same
+         *         annotations.
+         */
+        public int size() {
+            int size = 0;
+            for (int i = 0; i < scores.length; ++i) {
+                if (scores[i] >= threshold) {
+                    ++size;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Transforms this view into A2W annotations (see
+         * {@link ProblemReduction#Sa2WToA2WList(List, float)}).
+         */
+        public List<HashSet<Annotation>> toA2WList() {
+            checkMentions();
+            List<HashSet<Annotation>> documents = new ArrayList<HashSet<Annotation>>(getNumberOfDocuments());
+            HashSet<Annotation> annotations;
+            for (int d = 0; d < getNumberOfDocuments(); ++d) {
+                annotations = new HashSet<Annotation>();
+                for (int i = documentStarts[d]; i < documentStarts[d + 1]; ++i) {
+                    if (contains(i)) {
+                        annotations.add(new Annotation(positions[i], lengths[i], concepts[i]));
+                    }
+                }
+                documents.add(annotations);
+            }
+            return documents;
+        }
+
+        /**
+         * Transforms this view into C2W tags (see
+         * {@link ProblemReduction#Sc2WToC2WList(List, float)} and
+         * {@link ProblemReduction#A2WToC2WList(List)}).
+         */
+        public List<HashSet<Tag>> toC2WList() {
+            List<HashSet<Tag>> documents = new ArrayList<HashSet<Tag>>(getNumberOfDocuments());
+            HashSet<Tag> tags;
+            for (int d = 0; d < getNumberOfDocuments(); ++d) {
+                tags = new HashSet<Tag>();
+                for (int i = documentStarts[d]; i < documentStarts[d + 1]; ++i) {
+                    if (contains(i)) {
+                        tags.add(new Tag(concepts[i]));
+                    }
+                }
+                documents.add(tags);
+            }
+            return documents;
+        }
+
+        /**
+         * Transforms this view into D2W annotations using the given mentions
+         * (see {@link ProblemReduction#Sa2WToD2WList(List, List, float)}). For
+         * every mention, the annotation with the highest score overlapping
+         * the mention is chosen. If several annotations have the same score,
+         * the first one is chosen.
+         */
+        public List<HashSet<Annotation>> toD2WList(List<HashSet<Mention>> mentions) {
+            checkMentions();
+            List<HashSet<Annotation>> documents = new ArrayList<HashSet<Annotation>>(getNumberOfDocuments());
+            HashSet<Annotation> annotations;
+            int bestCandidate;
+            for (int d = 0; d < getNumberOfDocuments(); ++d) {
+                annotations = new HashSet<Annotation>();
+                for (Mention mention : mentions.get(d)) {
+                    bestCandidate = -1;
+                    for (int i = documentStarts[d]; i < documentStarts[d + 1]; ++i) {
+                        if (contains(i)
+                                && overlaps(positions[i], lengths[i], mention.getPosition(), mention.getLength())
+                                && ((bestCandidate < 0) || (scores[bestCandidate] < scores[i]))) {
+                            bestCandidate = i;
+                        }
+                    }
+                    if (bestCandidate >= 0) {
+                        annotations.add(new Annotation(mention.getPosition(), mention.getLength(),
+                                concepts[bestCandidate]));
+                    }
+                }
+                documents.add(annotations);
+            }
+            return documents;
+        }
+
+        private void checkMentions() {
+            if (positions == null) {
+                throw new IllegalStateException("This store contains tags without positions.");
+            }
+        }
+    }
+
+    /**
+     * Same overlap check as {@link Mention#overlaps(Mention)}.
+     */
+    private static boolean overlaps(int p1, int l1, int p2, int l2) {
+        int e1 = p1 + l1 - 1;
+        int e2 = p2 + l2 - 1;
+        return ((p1 <= p2 && p2 <= e1) || (p1 <= e2 && e2 <= e1) || (p2 <= p1 && p1 <= e2)
+                || (p2 <= e1 && e1 <= e2));
+    }
+}
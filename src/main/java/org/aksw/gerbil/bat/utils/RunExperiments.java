@@ -21,22 +21,27 @@ import it.acubelab.batframework.problems.Sa2WSystem;
 import it.acubelab.batframework.problems.Sc2WSystem;
 import it.acubelab.batframework.problems.TopicDataset;
 import it.acubelab.batframework.utils.Pair;
-import it.acubelab.batframework.utils.ProblemReduction;
 import it.acubelab.batframework.utils.WikipediaApiInterface;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Vector;
 
+import org.aksw.gerbil.bat.datatypes.AnnotationStore;
 import org.aksw.gerbil.datatypes.ExperimentTaskState;
+import org.aksw.gerbil.execute.ProgressEvent.Type;
+import org.aksw.gerbil.execute.ProgressEventBus;
+import org.aksw.gerbil.matching.MatchingFactory;
 
 /**
  * Static methods to run the experiments. A set of annotators are run on a set
  * of datasets, and the metrics are computer according to a set of match
- * relations. The result is written in resulting hash tables.
+ * relations. The result is written in resulting hash tables. The progress is
+ * published as events into the {@link ProgressEventBus}.
  * 
  * Original class implemented by the A-cube lab - Università di Pisa -
  * Dipartimento di Informatica has been adapted for GERBIL.
@@ -47,130 +52,160 @@ public class RunExperiments {
 
     private static double THRESHOLD_STEP = 1. / 128.;
 
+    private static final ProgressEventBus EVENTS = ProgressEventBus.getInstance();
+
     public static void computeMetricsA2WFakeReductionToSa2W(MatchRelation<Annotation> m, A2WSystem tagger,
             A2WDataset ds, ExperimentTaskState state, WikipediaApiInterface api,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Annotation> metrics = new Metrics<Annotation>();
+        Metrics<Annotation> metrics = MatchingFactory.createMetrics(api, m);
         float threshold = 0;
-        System.out.print("Doing annotations... ");
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
         List<HashSet<Annotation>> computedAnnotations = doA2WAnnotations(tagger, ds, state);
-        System.out.println("Done.");
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
+        // the annotations have no score, i.e., the result is the same for
+        // every threshold
+        MetricsResultSet rs = metrics.getResult(computedAnnotations, ds.getA2WGoldStandardList(), m);
         for (threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
-            MetricsResultSet rs = metrics.getResult(computedAnnotations, ds.getA2WGoldStandardList(), m);
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), 1);
     }
 
     public static void computeMetricsA2WReducedFromSa2W(MatchRelation<Annotation> m, Sa2WSystem tagger, A2WDataset ds,
             ExperimentTaskState state, WikipediaApiInterface api,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Annotation> metrics = new Metrics<Annotation>();
-        System.out.println("Doing annotations... ");
-        List<HashSet<ScoredAnnotation>> computedAnnotations = doSa2WAnnotations(tagger, ds, state);
-        System.out.println("Done with all documents.");
+        Metrics<Annotation> metrics = MatchingFactory.createMetrics(api, m);
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
+        AnnotationStore computedAnnotations = AnnotationStore.fromScoredAnnotations(doSa2WAnnotations(tagger, ds,
+                state));
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
+        AnnotationStore.View view;
+        MetricsResultSet rs = null;
+        int viewSize, lastViewSize = -1, evaluations = 0;
         for (double threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
-            System.out.println("Testing with tagger: " + tagger.getName() + " dataset: " + ds.getName()
-                    + " score threshold: " + threshold);
-            List<HashSet<Annotation>> reducedTags = ProblemReduction.Sa2WToA2WList(computedAnnotations,
-                    (float) threshold);
-            MetricsResultSet rs = metrics.getResult(reducedTags, ds.getA2WGoldStandardList(), m);
+            view = computedAnnotations.view((float) threshold);
+            viewSize = view.size();
+            if (viewSize != lastViewSize) {
+                rs = metrics.getResult(view.toA2WList(), ds.getA2WGoldStandardList(), m);
+                lastViewSize = viewSize;
+                ++evaluations;
+            }
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), evaluations);
     }
 
     public static void computeMetricsC2WReducedFromSa2W(MatchRelation<Tag> m, Sa2WSystem tagger, C2WDataset ds,
             WikipediaApiInterface api, ExperimentTaskState state,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Tag> metrics = new Metrics<Tag>();
-        System.out.println("Doing annotations... ");
-        List<HashSet<ScoredAnnotation>> computedAnnotations = doSa2WAnnotations(tagger, ds, state);
-        System.out.println("Done with all documents.");
+        Metrics<Tag> metrics = MatchingFactory.createMetrics(api, m);
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
+        AnnotationStore computedAnnotations = AnnotationStore.fromScoredAnnotations(doSa2WAnnotations(tagger, ds,
+                state));
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
+        AnnotationStore.View view;
+        MetricsResultSet rs = null;
+        int viewSize, lastViewSize = -1, evaluations = 0;
         for (double threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
-            System.out.println("Testing with tagger: " + tagger.getName() + " dataset: " + ds.getName()
-                    + " score threshold: " + threshold);
-            List<HashSet<Annotation>> reducedAnnotations = ProblemReduction.Sa2WToA2WList(computedAnnotations,
-                    (float) threshold);
-            List<HashSet<Tag>> reducedTags = ProblemReduction.A2WToC2WList(reducedAnnotations);
-            List<HashSet<Tag>> reducedGs = ds.getC2WGoldStandardList();
-            MetricsResultSet rs = metrics.getResult(reducedTags, reducedGs, m);
+            view = computedAnnotations.view((float) threshold);
+            viewSize = view.size();
+            if (viewSize != lastViewSize) {
+                rs = metrics.getResult(view.toC2WList(), ds.getC2WGoldStandardList(), m);
+                lastViewSize = viewSize;
+                ++evaluations;
+            }
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), evaluations);
     }
 
     public static void computeMetricsC2WReducedFromSc2W(MatchRelation<Tag> m, Sc2WSystem tagger, C2WDataset ds,
             WikipediaApiInterface api, ExperimentTaskState state,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Tag> metrics = new Metrics<Tag>();
+        Metrics<Tag> metrics = MatchingFactory.createMetrics(api, m);
         double threshold = 0;
-        System.out.print("Doing annotations... ");
-        List<HashSet<ScoredTag>> computedAnnotations = doSc2WTags(tagger, ds, state);
-        System.out.println("Done.");
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
+        AnnotationStore computedAnnotations = AnnotationStore.fromScoredTags(doSc2WTags(tagger, ds, state));
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
+        AnnotationStore.View view;
+        MetricsResultSet rs = null;
+        int viewSize, lastViewSize = -1, evaluations = 0;
         for (threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
-            System.out.println("Testing with tagger: " + tagger.getName() + " dataset: " + ds.getName()
-                    + " score threshold: " + threshold);
-            List<HashSet<Tag>> reducedAnnotations = ProblemReduction.Sc2WToC2WList(computedAnnotations,
-                    (float) threshold);
-            List<HashSet<Tag>> reducedGs = ds.getC2WGoldStandardList();
-            MetricsResultSet rs = metrics.getResult(reducedAnnotations, reducedGs, m);
+            view = computedAnnotations.view((float) threshold);
+            viewSize = view.size();
+            if (viewSize != lastViewSize) {
+                rs = metrics.getResult(view.toC2WList(), ds.getC2WGoldStandardList(), m);
+                lastViewSize = viewSize;
+                ++evaluations;
+            }
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), evaluations);
     }
 
     public static void computeMetricsC2W(MatchRelation<Tag> m, C2WSystem tagger, C2WDataset ds,
             WikipediaApiInterface api, ExperimentTaskState state,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Tag> metrics = new Metrics<Tag>();
+        Metrics<Tag> metrics = MatchingFactory.createMetrics(api, m);
         double threshold = 0;
-        System.out.print("Doing annotations... ");
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
         List<HashSet<Tag>> computedAnnotations = doC2WTags(tagger, ds, state);
-        System.out.println("Done.");
-        System.out.println("Testing with tagger: " + tagger.getName() + " dataset: " + ds.getName()
-                + " (no score thr.)");
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
         MetricsResultSet rs = metrics.getResult(computedAnnotations, ds.getC2WGoldStandardList(), m);
         for (threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), 1);
     }
 
     public static void computeMetricsD2WFakeReductionToSa2W(D2WSystem tagger, D2WDataset ds, ExperimentTaskState state,
             WikipediaApiInterface api,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Annotation> metrics = new Metrics<Annotation>();
         StrongAnnotationMatch m = new StrongAnnotationMatch(api);
+        Metrics<Annotation> metrics = MatchingFactory.createMetrics(api, m);
         float threshold = 0;
-        System.out.print("Doing native D2W annotations... ");
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
         List<HashSet<Annotation>> computedAnnotations = doD2WAnnotations(tagger, ds, state);
-        System.out.println("Done with all documents.");
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
+        // the annotations have no score, i.e., the result is the same for
+        // every threshold
+        MetricsResultSet rs = metrics.getResult(computedAnnotations, ds.getD2WGoldStandardList(), m);
         for (threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
-            MetricsResultSet rs = metrics.getResult(computedAnnotations, ds.getD2WGoldStandardList(), m);
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), 1);
     }
 
     public static void computeMetricsD2WReducedFromSa2W(Sa2WSystem tagger, D2WDataset ds, ExperimentTaskState state,
             WikipediaApiInterface api,
             HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> results)
             throws Exception {
-        Metrics<Annotation> metrics = new Metrics<Annotation>();
         StrongAnnotationMatch m = new StrongAnnotationMatch(api);
-        System.out.println("Doing annotations... ");
-        List<HashSet<ScoredAnnotation>> computedAnnotations = doSa2WAnnotations(tagger, ds, state);
-        System.out.println("Done with all documents.");
-        System.out.printf("Testing with tagger: %s, dataset: %s, for values of the score threshold in [0,1].%n",
-                tagger.getName(), ds.getName());
+        Metrics<Annotation> metrics = MatchingFactory.createMetrics(api, m);
+        EVENTS.publish(Type.ANNOTATION_STARTED, tagger.getName(), ds.getName());
+        AnnotationStore computedAnnotations = AnnotationStore.fromScoredAnnotations(doSa2WAnnotations(tagger, ds,
+                state));
+        EVENTS.publish(Type.ANNOTATION_FINISHED, tagger.getName(), ds.getName(), ds.getSize());
+        AnnotationStore.View view;
+        MetricsResultSet rs = null;
+        int viewSize, lastViewSize = -1, evaluations = 0;
         for (double threshold = 0; threshold <= 1; threshold += THRESHOLD_STEP) {
-
-            List<HashSet<Annotation>> reducedAnns = ProblemReduction.Sa2WToD2WList(computedAnnotations,
-                    ds.getMentionsInstanceList(), (float) threshold);
-            MetricsResultSet rs = metrics.getResult(reducedAnns, ds.getD2WGoldStandardList(), m);
+            view = computedAnnotations.view((float) threshold);
+            viewSize = view.size();
+            if (viewSize != lastViewSize) {
+                rs = metrics.getResult(view.toD2WList(ds.getMentionsInstanceList()), ds.getD2WGoldStandardList(), m);
+                lastViewSize = viewSize;
+                ++evaluations;
+            }
             updateThresholdRecords(results, m.getName(), tagger.getName(), ds.getName(), (float) threshold, rs);
         }
+        EVENTS.publish(Type.EVALUATION_FINISHED, tagger.getName(), ds.getName(), evaluations);
     }
 
     public static HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> performC2WExpVarThreshold(
@@ -180,8 +215,6 @@ public class RunExperiments {
         HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>> result = new HashMap<String, HashMap<String, HashMap<String, HashMap<Float, MetricsResultSet>>>>();
         for (MatchRelation<Tag> m : matchRels)
             for (C2WDataset ds : dss) {
-                System.out.println("Testing " + ds.getName() + " with score threshold parameter...");
-
                 if (sa2wAnnotators != null)
                     for (Sa2WSystem t : sa2wAnnotators) {
                         computeMetricsC2WReducedFromSa2W(m, t, ds, api, state, result);
@@ -196,8 +229,8 @@ public class RunExperiments {
                         computeMetricsC2W(m, t, ds, api, state, result);
                     }
 
-                System.out.println("Flushing Wikipedia API cache...");
                 api.flush();
+                EVENTS.publish(Type.CACHE_FLUSHED, null, null);
             }
         return result;
     }
@@ -210,20 +243,16 @@ public class RunExperiments {
             for (A2WDataset ds : dss) {
                 if (sa2wTaggers != null)
                     for (Sa2WSystem t : sa2wTaggers) {
-                        System.out.println("Testing " + ds.getName() + " on " + t.getName()
-                                + " with score threshold parameter...");
                         computeMetricsA2WReducedFromSa2W(metric, t, ds, state, api, result);
                     }
 
                 if (a2wTaggers != null)
                     for (A2WSystem t : a2wTaggers) {
-                        System.out.println("Testing " + ds.getName() + " on " + t.getName()
-                                + " with score threshold parameter...");
                         computeMetricsA2WFakeReductionToSa2W(metric, t, ds, state, api, result);
                     }
 
-                System.out.println("Flushing Wikipedia API cache...");
                 api.flush();
+                EVENTS.publish(Type.CACHE_FLUSHED, null, null);
             }
         }
         return result;
@@ -236,19 +265,15 @@ public class RunExperiments {
         for (D2WDataset ds : dss) {
             if (sa2wAnnotators != null)
                 for (Sa2WSystem t : sa2wAnnotators) {
-                    System.out.println("Testing " + ds.getName() + " on " + t.getName()
-                            + " with score threshold parameter...");
                     computeMetricsD2WReducedFromSa2W(t, ds, state, api, result);
                 }
             if (d2wAnnotators != null)
                 for (D2WSystem t : d2wAnnotators) {
-                    System.out.println("Testing " + ds.getName() + " on " + t.getName()
-                            + " with score threshold parameter...");
                     computeMetricsD2WFakeReductionToSa2W(t, ds, state, api, result);
                 }
 
-            System.out.println("Flushing Wikipedia API cache...");
             api.flush();
+            EVENTS.publish(Type.CACHE_FLUSHED, null, null);
         }
         return result;
     }
@@ -373,23 +398,32 @@ public class RunExperiments {
     private static <T extends Mention> List<HashSet<T>> mentionSubstraction(List<HashSet<T>> list1,
             List<HashSet<T>> list2) {
         List<HashSet<T>> list1filtered = new Vector<HashSet<T>>();
+        long spans2[];
+        int pos;
         for (int i = 0; i < list1.size(); i++) {
             HashSet<T> filtered1 = new HashSet<T>();
             list1filtered.add(filtered1);
+            // sort the (position, length) pairs of the second set to be able
+            // to search them instead of comparing every pair of mentions
+            spans2 = new long[list2.get(i).size()];
+            pos = 0;
+            for (T goldA : list2.get(i)) {
+                spans2[pos] = span(goldA);
+                ++pos;
+            }
+            Arrays.sort(spans2);
             for (T a : list1.get(i)) {
-                boolean found = false;
-                for (T goldA : list2.get(i))
-                    if (a.getPosition() == goldA.getPosition() && a.getLength() == goldA.getLength()) {
-                        found = true;
-                        break;
-                    }
-                if (found)
+                if (Arrays.binarySearch(spans2, span(a)) >= 0)
                     filtered1.add(a);
             }
         }
         return list1filtered;
     }
 
+    private static long span(Mention mention) {
+        return (((long) mention.getPosition()) << 32) | (mention.getLength() & 0xFFFFFFFFL);
+    }
+
     private static List<HashSet<MultipleAnnotation>> annotationToMulti(List<HashSet<Annotation>> d2wGoldStandardList) {
         List<HashSet<MultipleAnnotation>> res = new Vector<HashSet<MultipleAnnotation>>();
         for (HashSet<Annotation> annSet : d2wGoldStandardList) {
@@ -443,9 +477,11 @@ public class RunExperiments {
         String doc;
         HashSet<Mention> mentions;
         HashSet<Annotation> res;
-        for (int i = 0; i < ds.getTextInstanceList().size(); i++) {
-            doc = ds.getTextInstanceList().get(i);
-            mentions = ds.getMentionsInstanceList().get(i);
+        List<String> texts = ds.getTextInstanceList();
+        List<HashSet<Mention>> mentionsList = ds.getMentionsInstanceList();
+        for (int i = 0; i < texts.size(); i++) {
+            doc = texts.get(i);
+            mentions = mentionsList.get(i);
             res = annotator.solveD2W(doc, mentions);
             computedAnns.add(res);
             state.increaseExperimentStepCount();
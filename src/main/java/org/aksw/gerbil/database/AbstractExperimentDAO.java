@@ -25,6 +25,7 @@ package org.aksw.gerbil.database;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.aksw.gerbil.datatypes.ErrorTypes;
 import org.aksw.gerbil.datatypes.ExperimentTaskResult;
@@ -53,6 +54,7 @@ public abstract class AbstractExperimentDAO implements ExperimentDAO {
 
     protected long resultDurability;
     protected boolean initialized = false;
+    protected List<ExperimentTaskStateListener> listeners = new CopyOnWriteArrayList<ExperimentTaskStateListener>();
 
     public AbstractExperimentDAO() {
     }
@@ -83,7 +85,8 @@ public abstract class AbstractExperimentDAO implements ExperimentDAO {
      * only be called directly after the initialization of the database. It
      * makes sure that "old" experiment tasks which have been started but never
      * finished are set to an error state and can't be used inside the caching
-     * mechanism.
+     * mechanism. Tasks that are still waiting inside a {@link TaskQueueDAO}
+     * keep their state since they will be executed again.
      */
     protected abstract void setRunningExperimentsToError();
 
@@ -114,6 +117,60 @@ public abstract class AbstractExperimentDAO implements ExperimentDAO {
         }
     }
 
+    @Override
+    public synchronized int connectCachedResultOrCreateTask(String annotatorName, String datasetName,
+            String datasetFingerprint, String experimentType, String matching, String experimentId) {
+        int experimentTaskId = EXPERIMENT_TASK_NOT_CACHED;
+        if (resultDurability > 0) {
+            experimentTaskId = getCachedExperimentTaskIdByFingerprint(annotatorName, datasetFingerprint,
+                    experimentType, matching);
+        } else {
+            LOGGER.warn("The durability of results is <= 0. I won't be able to cache results.");
+        }
+        if (experimentTaskId == EXPERIMENT_TASK_NOT_CACHED) {
+            experimentTaskId = createTask(annotatorName, datasetName, experimentType, matching, experimentId);
+            setDatasetFingerprint(experimentTaskId, datasetFingerprint);
+            return experimentTaskId;
+        } else {
+            LOGGER.debug("Could reuse cached task (id=" + experimentTaskId + ").");
+            connectExistingTaskWithExperiment(experimentTaskId, experimentId);
+            return CACHED_EXPERIMENT_TASK_CAN_BE_USED;
+        }
+    }
+
+    /**
+     * Creates the tasks one after the other using
+     * {@link #createTask(String, String, String, String, String)}. Subclasses
+     * should override this method if they are able to create the tasks in a
+     * single transaction.
+     */
+    @Override
+    public int[] createTasks(String annotatorNames[], String datasetNames[], String experimentTypes[],
+            String matchings[], String experimentId) {
+        checkTaskArrays(annotatorNames, datasetNames, experimentTypes, matchings);
+        int taskIds[] = new int[annotatorNames.length];
+        for (int i = 0; i < taskIds.length; ++i) {
+            taskIds[i] = createTask(annotatorNames[i], datasetNames[i], experimentTypes[i], matchings[i],
+                    experimentId);
+        }
+        return taskIds;
+    }
+
+    /**
+     * Makes sure that the given arrays describing several tasks have the same
+     * length.
+     * 
+     * @throws IllegalArgumentException
+     *             if the arrays have different lengths
+     */
+    protected void checkTaskArrays(String annotatorNames[], String datasetNames[], String experimentTypes[],
+            String matchings[]) {
+        if ((annotatorNames.length != datasetNames.length) || (annotatorNames.length != experimentTypes.length)
+                || (annotatorNames.length != matchings.length)) {
+            throw new IllegalArgumentException("The given arrays describing the tasks have different lengths.");
+        }
+    }
+
     /**
      * The method checks whether there exists an experiment task with the given
      * preferences inside the database. If such a task exists, if it is not to
@@ -140,6 +197,22 @@ public abstract class AbstractExperimentDAO implements ExperimentDAO {
     protected abstract int getCachedExperimentTaskId(String annotatorName, String datasetName, String experimentType,
             String matching);
 
+    /**
+     * Works like {@link #getCachedExperimentTaskId(String, String, String, String)} but searches for a task of a
+     * dataset with the given fingerprint. This implementation doesn't store fingerprints and returns
+     * {@link #EXPERIMENT_TASK_NOT_CACHED}.
+     */
+    protected int getCachedExperimentTaskIdByFingerprint(String annotatorName, String datasetFingerprint,
+            String experimentType, String matching) {
+        return EXPERIMENT_TASK_NOT_CACHED;
+    }
+
+    /**
+     * Stores the fingerprint of the dataset of the given experiment task. This implementation does nothing.
+     */
+    protected void setDatasetFingerprint(int experimentTaskId, String datasetFingerprint) {
+    }
+
     /**
      * This method connects an already existing experiment task with an
      * experiment.
@@ -151,6 +224,28 @@ public abstract class AbstractExperimentDAO implements ExperimentDAO {
      */
     protected abstract void connectExistingTaskWithExperiment(int experimentTaskId, String experimentId);
 
+    @Override
+    public void addTaskStateListener(ExperimentTaskStateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Informs all registered listeners that the given experiment task has been
+     * finished. Implementations should call this method after the new state
+     * has been made persistent.
+     */
+    protected void notifyTaskFinished(int experimentTaskId, String annotatorName, String datasetName,
+            String experimentType, String matching, int state) {
+        for (ExperimentTaskStateListener listener : listeners) {
+            try {
+                listener.experimentTaskFinished(experimentTaskId, annotatorName, datasetName, experimentType,
+                        matching, state);
+            } catch (Exception e) {
+                LOGGER.error("Got an exception while informing a listener about a finished experiment task.", e);
+            }
+        }
+    }
+
     @Deprecated
     @Override
     public List<ExperimentTaskResult> getLatestResultsOfExperiments(String experimentType, String matching) {
@@ -95,9 +95,12 @@ public interface ExperimentDAO extends Closeable {
      * This method is called with the description of an experiment task and an
      * experiment id. The method checks whether there is already such an
      * experiment task inside the database that does not have an error code as
-     * state. If such a task exists and if it is not to old regarding the
+     * state. Note that this includes tasks that are still running, i.e., an
+     * identical task that is currently executed is not started a second time.
+     * If such a task exists and if it is not to old regarding the
      * durability of experiment task results, the experiment id is connected to
-     * the already existing task and {@link #CACHED_EXPERIMENT_TASK_CAN_BE_USED} =
+     * the already existing task (if it is not already connected to it) and
+     * {@link #CACHED_EXPERIMENT_TASK_CAN_BE_USED} =
      * {@value #CACHED_EXPERIMENT_TASK_CAN_BE_USED} is returned. Otherwise, a
      * new experiment task is created, set to unfinished by setting its state to
      * {@link #TASK_STARTED_BUT_NOT_FINISHED_YET}, connected to the given
@@ -124,6 +127,30 @@ public interface ExperimentDAO extends Closeable {
     public int connectCachedResultOrCreateTask(String annotatorName, String datasetName, String experimentType,
             String matching, String experimentId);
 
+    /**
+     * Works like {@link #connectCachedResultOrCreateTask(String, String, String, String, String)} but identifies the
+     * dataset by the fingerprint of its content instead of its name. Thus, results of datasets with the same content
+     * are reused even if they have been uploaded under different names. A newly created task is stored together with
+     * the given fingerprint.
+     * 
+     * @param annotatorName
+     *            the name with which the annotator can be identified
+     * @param datasetName
+     *            the name of the dataset that is stored if a new task is created
+     * @param datasetFingerprint
+     *            the fingerprint of the content of the dataset
+     * @param experimentType
+     *            the name of the experiment type
+     * @param matching
+     *            the name of the matching used
+     * @param experimentId
+     *            the id of the experiment
+     * @return {@link #CACHED_EXPERIMENT_TASK_CAN_BE_USED}= {@value #CACHED_EXPERIMENT_TASK_CAN_BE_USED} if there is
+     *         already an experiment task with the given preferences or the id of the newly created experiment task.
+     */
+    public int connectCachedResultOrCreateTask(String annotatorName, String datasetName, String datasetFingerprint,
+            String experimentType, String matching, String experimentId);
+
     /**
      * Creates a new experiment task with the given preferences, sets its GERBIL version value using the current
      * version, sets the task to unfinished by setting its state to {@link #TASK_STARTED_BUT_NOT_FINISHED_YET} and
@@ -144,6 +171,30 @@ public interface ExperimentDAO extends Closeable {
     public int createTask(String annotatorName, String datasetName, String experimentType, String matching,
             String experimentId);
 
+    /**
+     * Creates several new experiment tasks with the given preferences and
+     * connects them to the experiment with the given experiment id (see
+     * {@link #createTask(String, String, String, String, String)}). The i-th
+     * task is described by the i-th element of the given arrays, i.e., all
+     * arrays must have the same length. Implementations should create all
+     * tasks in a single transaction.
+     * 
+     * @param annotatorNames
+     *            the names with which the annotators can be identified
+     * @param datasetNames
+     *            the names of the datasets
+     * @param experimentTypes
+     *            the names of the experiment types
+     * @param matchings
+     *            the names of the matchings used
+     * @param experimentId
+     *            the id of the experiment
+     * @return the ids of the newly created experiment tasks in the order of
+     *         the given arrays.
+     */
+    public int[] createTasks(String annotatorNames[], String datasetNames[], String experimentTypes[],
+            String matchings[], String experimentId);
+
     /**
      * This method updates the result of the already existing experiment task,
      * identified by the given id. Additionally it should update the timestamp
@@ -208,4 +259,13 @@ public interface ExperimentDAO extends Closeable {
      * @return a list of all running experiment tasks.
      */
     public List<ExperimentTaskResult> getAllRunningExperimentTasks();
+
+    /**
+     * Adds a listener that is informed every time an experiment task has been
+     * finished.
+     * 
+     * @param listener
+     *            the listener that should be added
+     */
+    public void addTaskStateListener(ExperimentTaskStateListener listener);
 }
@@ -25,7 +25,10 @@ package org.aksw.gerbil.database;
 
 import java.io.IOException;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.sql.DataSource;
@@ -37,10 +40,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * SQL database based implementation of the {@link AbstractExperimentDAO} class.
@@ -53,84 +63,68 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExperimentDAOImpl.class);
 
-    private final static String INSERT_TASK = "INSERT INTO ExperimentTasks (annotatorName, datasetName, experimentType, matching, state, lastChanged) VALUES (:annotatorName, :datasetName, :experimentType, :matching, :state, :lastChanged)";
+    private final static String INSERT_TASK = "INSERT INTO ExperimentTasks (annotatorName, datasetName, experimentType, matching, state, lastChanged, version) VALUES (:annotatorName, :datasetName, :experimentType, :matching, :state, :lastChanged, :version)";
     private final static String SET_TASK_STATE = "UPDATE ExperimentTasks SET state=:state, lastChanged=:lastChanged WHERE id=:id";
     private final static String SET_EXPERIMENT_TASK_RESULT = "UPDATE ExperimentTasks SET microF1=:microF1 , microPrecision=:microPrecision, microRecall=:microRecall, macroF1=:macroF1, macroPrecision=:macroPrecision, macroRecall=:macroRecall, errorCount=:errorCount, lastChanged=:lastChanged WHERE id=:id";
     private final static String CONNECT_TASK_EXPERIMENT = "INSERT INTO Experiments (id, taskId) VALUES(:id, :taskId)";
+    private final static String GET_TASK_EXPERIMENT_CONNECTION = "SELECT taskId FROM Experiments WHERE id=:id AND taskId=:taskId";
     private final static String GET_TASK_STATE = "SELECT state FROM ExperimentTasks WHERE id=:id";
-    private final static String GET_EXPERIMENT_RESULTS = "SELECT annotatorName, datasetName, experimentType, matching, microF1, microPrecision, microRecall, macroF1, macroPrecision, macroRecall, state, errorCount, lastChanged, taskId FROM ExperimentTasks t, Experiments e WHERE e.id=:id AND e.taskId=t.id";
+    private final static String GET_EXPERIMENT_RESULTS = "SELECT t.annotatorName, t.datasetName, t.experimentType, t.matching, t.microF1, t.microPrecision, t.microRecall, t.macroF1, t.macroPrecision, t.macroRecall, t.state, t.errorCount, t.lastChanged, t.id, t.version FROM Experiments e JOIN ExperimentTasks t ON e.taskId=t.id WHERE e.id=:id";
     private final static String GET_CACHED_TASK = "SELECT id FROM ExperimentTasks WHERE annotatorName=:annotatorName AND datasetName=:datasetName AND experimentType=:experimentType AND matching=:matching AND lastChanged>:lastChanged AND state>:errorState ORDER BY lastChanged DESC LIMIT 1";
+    private final static String GET_CACHED_TASK_BY_FINGERPRINT = "SELECT t.id FROM DatasetFingerprints f JOIN ExperimentTasks t ON f.taskId=t.id WHERE f.fingerprint=:fingerprint AND t.annotatorName=:annotatorName AND t.experimentType=:experimentType AND t.matching=:matching AND t.lastChanged>:lastChanged AND t.state>:errorState ORDER BY t.lastChanged DESC LIMIT 1";
+    private final static String INSERT_DATASET_FINGERPRINT = "INSERT INTO DatasetFingerprints (taskId, fingerprint) VALUES (:taskId, :fingerprint)";
     private final static String GET_HIGHEST_EXPERIMENT_ID = "SELECT id FROM Experiments ORDER BY id DESC LIMIT 1";
-    private final static String SET_UNFINISHED_TASK_STATE = "UPDATE ExperimentTasks SET state=:state, lastChanged=:lastChanged WHERE state=:unfinishedState";
+    private final static String SET_UNFINISHED_TASK_STATE = "UPDATE ExperimentTasks SET state=:state, lastChanged=:lastChanged WHERE state=:unfinishedState AND NOT EXISTS (SELECT q.taskId FROM TaskQueue q WHERE q.taskId=ExperimentTasks.id AND q.state<>:queueDoneState)";
     @Deprecated
     private final static String GET_LATEST_EXPERIMENT_TASKS = "SELECT DISTINCT annotatorName, datasetName FROM ExperimentTasks WHERE experimentType=:experimentType AND matching=:matching";
     @Deprecated
     private final static String GET_LATEST_EXPERIMENT_TASK_RESULT = "SELECT annotatorName, datasetName, experimentType, matching, microF1, microPrecision, microRecall, macroF1, macroPrecision, macroRecall, state, errorCount, lastChanged FROM ExperimentTasks WHERE annotatorName=:annotatorName AND datasetName=:datasetName AND experimentType=:experimentType AND matching=:matching AND state<>:unfinishedState ORDER BY lastChanged DESC LIMIT 1";
-    private final static String GET_LATEST_EXPERIMENT_TASK_RESULTS = "SELECT tasks.annotatorName, tasks.datasetName, tasks.experimentType, tasks.matching, tasks.microF1, tasks.microPrecision, tasks.microRecall, tasks.macroF1, tasks.macroPrecision, tasks.macroRecall, tasks.state, tasks.errorCount, tasks.lastChanged, tasks.id FROM ExperimentTasks tasks, (SELECT datasetName, annotatorName, MAX(lastChanged) AS lastChanged FROM ExperimentTasks WHERE experimentType=:experimentType AND matching=:matching AND state<>:unfinishedState GROUP BY datasetName, annotatorName) pairs WHERE tasks.annotatorName=pairs.annotatorName AND tasks.datasetName=pairs.datasetName AND tasks.experimentType=:experimentType AND tasks.matching=:matching AND tasks.lastChanged=pairs.lastChanged";
-    private final static String GET_RUNNING_EXPERIMENT_TASKS = "SELECT annotatorName, datasetName, experimentType, matching, microF1, microPrecision, microRecall, macroF1, macroPrecision, macroRecall, state, errorCount, lastChanged FROM ExperimentTasks WHERE state=:unfinishedState";
+    private final static String GET_LATEST_EXPERIMENT_TASK_RESULTS = "SELECT t.annotatorName, t.datasetName, t.experimentType, t.matching, t.microF1, t.microPrecision, t.microRecall, t.macroF1, t.macroPrecision, t.macroRecall, t.state, t.errorCount, t.lastChanged, t.id, t.version FROM LatestResults l JOIN ExperimentTasks t ON l.taskId=t.id WHERE l.experimentType=:experimentType AND l.matching=:matching AND l.state<>:unfinishedState";
+    private final static String GET_RUNNING_EXPERIMENT_TASK_IDS = "SELECT id FROM ExperimentTasks WHERE state=:unfinishedState AND NOT EXISTS (SELECT q.taskId FROM TaskQueue q WHERE q.taskId=ExperimentTasks.id AND q.state<>:queueDoneState)";
+    private final static String UPDATE_LATEST_RESULT = "UPDATE LatestResults SET taskId=:id, state=:state, lastChanged=:lastChanged WHERE annotatorName=:annotatorName AND datasetName=:datasetName AND experimentType=:experimentType AND matching=:matching AND (taskId=:id OR lastChanged<=:lastChanged)";
+    private final static String INSERT_LATEST_RESULT = "INSERT INTO LatestResults (annotatorName, datasetName, experimentType, matching, taskId, state, lastChanged) SELECT annotatorName, datasetName, experimentType, matching, id, state, lastChanged FROM ExperimentTasks WHERE id=:id AND NOT EXISTS (SELECT taskId FROM LatestResults WHERE annotatorName=:annotatorName AND datasetName=:datasetName AND experimentType=:experimentType AND matching=:matching)";
+    private final static String GET_TASK_CONFIGURATION = "SELECT annotatorName, datasetName, experimentType, matching, state, lastChanged FROM ExperimentTasks WHERE id=:id";
+    private final static String GET_RUNNING_EXPERIMENT_TASKS = "SELECT annotatorName, datasetName, experimentType, matching, microF1, microPrecision, microRecall, macroF1, macroPrecision, macroRecall, state, errorCount, lastChanged, id, version FROM ExperimentTasks WHERE state=:unfinishedState";
+    private final static String VERSION_TABLE_EXISTS = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME='EXPERIMENTTASKS_VERSION'";
+    private final static String MIGRATE_TASK_VERSIONS = "UPDATE ExperimentTasks t SET version=(SELECT v.version FROM ExperimentTasks_Version v WHERE v.id=t.id) WHERE t.version IS NULL AND EXISTS (SELECT v.id FROM ExperimentTasks_Version v WHERE v.id=t.id)";
+    private final static String DROP_VERSION_TABLE = "DROP TABLE ExperimentTasks_Version";
     private final static String SHUTDOWN = "SHUTDOWN";
 
-    // FIXME remove the following two statements by removing the experiment task version workaround
-    private final static String GET_VERSION_OF_EXPERIMENT_TASK = "SELECT version FROM ExperimentTasks_Version WHERE id=:id";
-    private final static String INSERT_VERSION_OF_EXPERIMENT_TASK = "INSERT INTO ExperimentTasks_Version (id, version) VALUES(:id,:version)";
-
     private final NamedParameterJdbcTemplate template;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Template used for looking up and creating tasks that should be shared
+     * by several experiments. The serializable isolation makes sure that two
+     * identical tasks can not be created at the same time even if they are
+     * requested through different connections. A transaction that has been
+     * rolled back because of a concurrent one, e.g., a deadlock, is repeated.
+     */
+    private final TransactionTemplate serializableTransactionTemplate;
+    /**
+     * Flag indicating whether the database should be shut down when this DAO
+     * is closed. This has to be false if the database is a server that is
+     * shared with other GERBIL nodes.
+     */
+    private boolean shutdownOnClose = true;
 
     public ExperimentDAOImpl(DataSource dataSource) {
         this.template = new NamedParameterJdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.serializableTransactionTemplate = new RetryingTransactionTemplate(transactionManager);
+        this.serializableTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
     }
 
     public ExperimentDAOImpl(DataSource dataSource, long resultDurability) {
-        super(resultDurability);
-        this.template = new NamedParameterJdbcTemplate(dataSource);
+        this(dataSource);
+        setResultDurability(resultDurability);
     }
 
     @Override
     public List<ExperimentTaskResult> getResultsOfExperiment(String experimentId) {
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("id", experimentId);
-        List<ExperimentTaskResult> result = this.template.query(GET_EXPERIMENT_RESULTS, parameters,
-                new ExperimentTaskResultRowMapper());
-        // FIXME remove this ugly workaround regarding the version of an experiment task
-        for (ExperimentTaskResult e : result) {
-            addVersion(e);
-        }
-        return result;
-    }
-
-    // FIXME remove this method and implement a better version handling
-    private void addVersion(ExperimentTaskResult result) {
-        result.gerbilVersion = getVersion(result.idInDb);
-        if (result.gerbilVersion == null) {
-            result.gerbilVersion = "1.0.0";
-        }
-    }
-
-    // FIXME remove this method and implement a better version handling
-    private String getVersion(int experimentTaskId) {
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("id", experimentTaskId);
-        List<String> result = this.template.query(GET_VERSION_OF_EXPERIMENT_TASK, parameters,
-                new StringRowMapper());
-        if (result.size() > 0) {
-            return result.get(0);
-        } else {
-            return null;
-        }
-    }
-
-    // FIXME remove this method and implement a better version handling
-    private void setVersion(int experimentTaskId) {
-        String version = GerbilConfiguration.getGerbilVersion();
-        if (version == null) {
-            LOGGER.error("Couldn't get the current gerbil version. Can't add it to the experiment task #"
-                    + experimentTaskId + ". Returning.");
-            return;
-        }
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("id", experimentTaskId);
-        parameters.addValue("version", version);
-        this.template.update(INSERT_VERSION_OF_EXPERIMENT_TASK, parameters);
+        return this.template.query(GET_EXPERIMENT_RESULTS, parameters, new ExperimentTaskResultRowMapper());
     }
 
     @Override
@@ -145,11 +139,76 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         this.template.update(INSERT_TASK, params, keyHolder);
         Integer generatedKey = (Integer) keyHolder.getKey();
         connectToExperiment(experimentId, generatedKey);
-        // FIXME remove this method and implement a better version handling
-        setVersion(generatedKey);
         return generatedKey;
     }
 
+    /**
+     * Creates all tasks inside a single transaction. The tasks have to be
+     * inserted one after the other since their generated keys are needed but
+     * the connections to the experiment are inserted using a JDBC batch.
+     */
+    @Override
+    public int[] createTasks(final String annotatorNames[], final String datasetNames[],
+            final String experimentTypes[], final String matchings[], final String experimentId) {
+        checkTaskArrays(annotatorNames, datasetNames, experimentTypes, matchings);
+        return transactionTemplate.execute(new TransactionCallback<int[]>() {
+            @Override
+            public int[] doInTransaction(TransactionStatus status) {
+                int taskIds[] = new int[annotatorNames.length];
+                Timestamp lastChanged = new Timestamp(System.currentTimeMillis());
+                String version = GerbilConfiguration.getGerbilVersion();
+                MapSqlParameterSource params;
+                KeyHolder keyHolder;
+                for (int i = 0; i < taskIds.length; ++i) {
+                    params = createTaskParameters(annotatorNames[i], datasetNames[i], experimentTypes[i],
+                            matchings[i]);
+                    params.addValue("state", ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET);
+                    params.addValue("lastChanged", lastChanged);
+                    params.addValue("version", version);
+                    keyHolder = new GeneratedKeyHolder();
+                    template.update(INSERT_TASK, params, keyHolder);
+                    taskIds[i] = keyHolder.getKey().intValue();
+                }
+
+                SqlParameterSource connections[] = new SqlParameterSource[taskIds.length];
+                for (int i = 0; i < taskIds.length; ++i) {
+                    connections[i] = new MapSqlParameterSource("id", experimentId).addValue("taskId", taskIds[i]);
+                }
+                template.batchUpdate(CONNECT_TASK_EXPERIMENT, connections);
+                return taskIds;
+            }
+        });
+    }
+
+    /**
+     * Looks up a finished or running task and creates a new one if there is no
+     * such task inside a single transaction.
+     */
+    @Override
+    public synchronized int connectCachedResultOrCreateTask(final String annotatorName, final String datasetName,
+            final String experimentType, final String matching, final String experimentId) {
+        return serializableTransactionTemplate.execute(new TransactionCallback<Integer>() {
+            @Override
+            public Integer doInTransaction(TransactionStatus status) {
+                return ExperimentDAOImpl.super.connectCachedResultOrCreateTask(annotatorName, datasetName,
+                        experimentType, matching, experimentId);
+            }
+        });
+    }
+
+    @Override
+    public synchronized int connectCachedResultOrCreateTask(final String annotatorName, final String datasetName,
+            final String datasetFingerprint, final String experimentType, final String matching,
+            final String experimentId) {
+        return serializableTransactionTemplate.execute(new TransactionCallback<Integer>() {
+            @Override
+            public Integer doInTransaction(TransactionStatus status) {
+                return ExperimentDAOImpl.super.connectCachedResultOrCreateTask(annotatorName, datasetName,
+                        datasetFingerprint, experimentType, matching, experimentId);
+            }
+        });
+    }
+
     private void connectToExperiment(String experimentId, Integer taskId) {
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("id", experimentId);
@@ -167,13 +226,26 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         return parameters;
     }
 
+    /**
+     * Sets the state and the results of the task and updates the
+     * LatestResults table inside a single transaction.
+     */
     @Override
-    public void setExperimentTaskResult(int experimentTaskId, ExperimentTaskResult result) {
-        // Note that we have to set the state first if we want to override the
-        // automatic timestamp with the one from the
-        // result object
-        setExperimentState(experimentTaskId, result.state);
+    public void setExperimentTaskResult(final int experimentTaskId, final ExperimentTaskResult result) {
+        notifyTaskFinished(transactionTemplate.execute(new TransactionCallback<MapSqlParameterSource>() {
+            @Override
+            public MapSqlParameterSource doInTransaction(TransactionStatus status) {
+                // Note that we have to set the state first if we want to
+                // override the automatic timestamp with the one from the
+                // result object
+                updateExperimentState(experimentTaskId, result.state);
+                updateExperimentTaskResult(experimentTaskId, result);
+                return updateLatestResult(experimentTaskId);
+            }
+        }));
+    }
 
+    private void updateExperimentTaskResult(int experimentTaskId, ExperimentTaskResult result) {
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("id", experimentTaskId);
         parameters.addValue("microF1", result.getMicroF1Measure());
@@ -188,8 +260,22 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         this.template.update(SET_EXPERIMENT_TASK_RESULT, parameters);
     }
 
+    /**
+     * Sets the state of the task and updates the LatestResults table inside a
+     * single transaction.
+     */
     @Override
-    public void setExperimentState(int experimentTaskId, int state) {
+    public void setExperimentState(final int experimentTaskId, final int state) {
+        notifyTaskFinished(transactionTemplate.execute(new TransactionCallback<MapSqlParameterSource>() {
+            @Override
+            public MapSqlParameterSource doInTransaction(TransactionStatus status) {
+                updateExperimentState(experimentTaskId, state);
+                return updateLatestResult(experimentTaskId);
+            }
+        }));
+    }
+
+    private void updateExperimentState(int experimentTaskId, int state) {
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("id", experimentTaskId);
         parameters.addValue("state", state);
@@ -198,6 +284,51 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         this.template.update(SET_TASK_STATE, parameters);
     }
 
+    /**
+     * Makes the given task the latest result of its (annotator, dataset,
+     * experiment type, matching) configuration if it is not newer than the
+     * task that is currently stored inside the LatestResults table. Unfinished
+     * tasks are ignored. Has to be called inside a transaction after the state
+     * of the task has been changed.
+     * 
+     * @return the configuration and state of the task or null if the task is
+     *         not finished
+     */
+    private MapSqlParameterSource updateLatestResult(final int experimentTaskId) {
+        List<MapSqlParameterSource> result = this.template.query(GET_TASK_CONFIGURATION, new MapSqlParameterSource(
+                "id", experimentTaskId), new RowMapper<MapSqlParameterSource>() {
+            @Override
+            public MapSqlParameterSource mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+                MapSqlParameterSource parameters = new MapSqlParameterSource();
+                parameters.addValue("id", experimentTaskId);
+                parameters.addValue("annotatorName", resultSet.getString(1));
+                parameters.addValue("datasetName", resultSet.getString(2));
+                parameters.addValue("experimentType", resultSet.getString(3));
+                parameters.addValue("matching", resultSet.getString(4));
+                parameters.addValue("state", resultSet.getInt(5));
+                parameters.addValue("lastChanged", resultSet.getTimestamp(6));
+                return parameters;
+            }
+        });
+        if ((result.size() == 0)
+                || (((Integer) result.get(0).getValue("state")) == TASK_STARTED_BUT_NOT_FINISHED_YET)) {
+            return null;
+        }
+        MapSqlParameterSource parameters = result.get(0);
+        if (this.template.update(UPDATE_LATEST_RESULT, parameters) == 0) {
+            this.template.update(INSERT_LATEST_RESULT, parameters);
+        }
+        return parameters;
+    }
+
+    private void notifyTaskFinished(MapSqlParameterSource task) {
+        if (task != null) {
+            notifyTaskFinished((Integer) task.getValue("id"), (String) task.getValue("annotatorName"),
+                    (String) task.getValue("datasetName"), (String) task.getValue("experimentType"),
+                    (String) task.getValue("matching"), (Integer) task.getValue("state"));
+        }
+    }
+
     @Override
     public int getExperimentState(int experimentTaskId) {
         MapSqlParameterSource parameters = new MapSqlParameterSource();
@@ -225,9 +356,38 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         }
     }
 
+    @Override
+    protected int getCachedExperimentTaskIdByFingerprint(String annotatorName, String datasetFingerprint,
+            String experimentType, String matching) {
+        MapSqlParameterSource params = createTaskParameters(annotatorName, null, experimentType, matching);
+        params.addValue("fingerprint", datasetFingerprint);
+        params.addValue("lastChanged", new java.sql.Timestamp(System.currentTimeMillis() - this.resultDurability));
+        params.addValue("errorState", ErrorTypes.HIGHEST_ERROR_CODE);
+        List<Integer> result = this.template.query(GET_CACHED_TASK_BY_FINGERPRINT, params, new IntegerRowMapper());
+        if (result.size() > 0) {
+            return result.get(0);
+        } else {
+            return EXPERIMENT_TASK_NOT_CACHED;
+        }
+    }
+
+    @Override
+    protected void setDatasetFingerprint(int experimentTaskId, String datasetFingerprint) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("taskId", experimentTaskId);
+        params.addValue("fingerprint", datasetFingerprint);
+        this.template.update(INSERT_DATASET_FINGERPRINT, params);
+    }
+
     @Override
     protected void connectExistingTaskWithExperiment(int experimentTaskId, String experimentId) {
-        connectToExperiment(experimentId, experimentTaskId);
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        parameters.addValue("id", experimentId);
+        parameters.addValue("taskId", experimentTaskId);
+        // the task might have been requested twice by the same experiment
+        if (this.template.query(GET_TASK_EXPERIMENT_CONNECTION, parameters, new IntegerRowMapper()).size() == 0) {
+            this.template.update(CONNECT_TASK_EXPERIMENT, parameters);
+        }
     }
 
     @Override
@@ -240,14 +400,61 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         }
     }
 
+    @Override
+    public void initialize() {
+        if (!initialized) {
+            migrateTaskVersions();
+        }
+        super.initialize();
+    }
+
+    /**
+     * Moves the versions of a database created by GERBIL 1.1.0 from the
+     * separate ExperimentTasks_Version table into the ExperimentTasks table
+     * and drops the old table. Nothing happens if the table doesn't exist.
+     */
+    protected void migrateTaskVersions() {
+        transactionTemplate.execute(new TransactionCallback<Void>() {
+            @Override
+            public Void doInTransaction(TransactionStatus status) {
+                Integer count = template.queryForObject(VERSION_TABLE_EXISTS, new MapSqlParameterSource(),
+                        Integer.class);
+                if ((count != null) && (count > 0)) {
+                    int migrated = template.update(MIGRATE_TASK_VERSIONS, new MapSqlParameterSource());
+                    template.getJdbcOperations().execute(DROP_VERSION_TABLE);
+                    LOGGER.info("Moved the versions of {} experiment tasks into the ExperimentTasks table.", migrated);
+                }
+                return null;
+            }
+        });
+    }
+
     @Override
     protected void setRunningExperimentsToError() {
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("unfinishedState", TASK_STARTED_BUT_NOT_FINISHED_YET);
+        // tasks that are still inside the task queue will be executed again
+        parameters.addValue("queueDoneState", TaskQueueDAO.TASK_DONE);
         parameters.addValue("state", ErrorTypes.SERVER_STOPPED_WHILE_PROCESSING.getErrorCode());
         java.util.Date today = new java.util.Date();
         parameters.addValue("lastChanged", new java.sql.Timestamp(today.getTime()));
-        this.template.update(SET_UNFINISHED_TASK_STATE, parameters);
+        List<MapSqlParameterSource> tasks = transactionTemplate
+                .execute(new TransactionCallback<List<MapSqlParameterSource>>() {
+                    @Override
+                    public List<MapSqlParameterSource> doInTransaction(TransactionStatus status) {
+                        List<Integer> taskIds = template.query(GET_RUNNING_EXPERIMENT_TASK_IDS, parameters,
+                                new IntegerRowMapper());
+                        template.update(SET_UNFINISHED_TASK_STATE, parameters);
+                        List<MapSqlParameterSource> tasks = new ArrayList<MapSqlParameterSource>(taskIds.size());
+                        for (Integer taskId : taskIds) {
+                            tasks.add(updateLatestResult(taskId));
+                        }
+                        return tasks;
+                    }
+                });
+        for (MapSqlParameterSource task : tasks) {
+            notifyTaskFinished(task);
+        }
     }
 
     @Deprecated
@@ -287,18 +494,23 @@ public class ExperimentDAOImpl extends AbstractExperimentDAO {
         parameters.addValue("experimentType", experimentType);
         parameters.addValue("matching", matching);
         parameters.addValue("unfinishedState", TASK_STARTED_BUT_NOT_FINISHED_YET);
-        List<ExperimentTaskResult> result = this.template.query(GET_LATEST_EXPERIMENT_TASK_RESULTS, parameters,
+        return this.template.query(GET_LATEST_EXPERIMENT_TASK_RESULTS, parameters,
                 new ExperimentTaskResultRowMapper());
-        // FIXME remove this ugly workaround regarding the version of an experiment task
-        // We had to took this part out, because it needs to much time and the version isn't used inside the overview
-        // for (ExperimentTaskResult e : result) {
-        // addVersion(e);
-        // }
-        return result;
+    }
+
+    public boolean isShutdownOnClose() {
+        return shutdownOnClose;
+    }
+
+    public void setShutdownOnClose(boolean shutdownOnClose) {
+        this.shutdownOnClose = shutdownOnClose;
     }
 
     @Override
     public void close() throws IOException {
+        if (!shutdownOnClose) {
+            return;
+        }
         this.template.execute(SHUTDOWN, new PreparedStatementCallback<Object>() {
             @Override
             public Object doInPreparedStatement(PreparedStatement arg0) throws SQLException, DataAccessException {
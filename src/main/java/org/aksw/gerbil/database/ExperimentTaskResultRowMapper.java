@@ -50,26 +50,39 @@ import org.springframework.jdbc.core.RowMapper;
  * <li>12 - error count</li>
  * <li>13 - timestamp</li>
  * <li>14 - id inside the database (optional)</li>
+ * <li>15 - GERBIL version (optional)</li>
  * </ul>
  * 
+ * If the version column is present but empty, the task has been created before
+ * GERBIL started to store its version and {@link #DEFAULT_VERSION} is used.
+ * 
  * @author m.roeder
  * 
  */
 public class ExperimentTaskResultRowMapper implements RowMapper<ExperimentTaskResult> {
 
+    public static final String DEFAULT_VERSION = "1.0.0";
+
     @Override
     public ExperimentTaskResult mapRow(ResultSet resultSet, int rowId) throws SQLException {
         int idInDatabase = -1;
-        try {
+        String version = null;
+        int columnCount = resultSet.getMetaData().getColumnCount();
+        if (columnCount >= 14) {
             idInDatabase = resultSet.getInt(14);
-        } catch (Exception e) {
-            // nothing to do
+        }
+        if (columnCount >= 15) {
+            version = resultSet.getString(15);
+            if (version == null) {
+                version = DEFAULT_VERSION;
+            }
         }
         return new ExperimentTaskResult(resultSet.getString(1), resultSet.getString(2),
                 ExperimentType.valueOf(resultSet.getString(3)), Matching.valueOf(resultSet.getString(4)),
                 new double[] { resultSet.getDouble(5), resultSet.getDouble(6), resultSet.getDouble(7),
                         resultSet.getDouble(8), resultSet.getDouble(9), resultSet.getDouble(10) },
-                resultSet.getInt(11), resultSet.getInt(12), resultSet.getTimestamp(13).getTime(), idInDatabase);
+                resultSet.getInt(11), resultSet.getInt(12), resultSet.getTimestamp(13).getTime(), idInDatabase,
+                version);
     }
 
 }
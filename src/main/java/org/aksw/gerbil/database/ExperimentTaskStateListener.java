@@ -0,0 +1,52 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.database;
+
+/**
+ * Interface of a class that would like to be informed if an experiment task
+ * stored inside an {@link ExperimentDAO} has been finished (successfully or
+ * with an error).
+ */
+public interface ExperimentTaskStateListener {
+
+    /**
+     * Called after the finished state of the experiment task has been made
+     * persistent.
+     * 
+     * @param experimentTaskId
+     *            the id of the experiment task
+     * @param annotatorName
+     *            the name with which the annotator can be identified
+     * @param datasetName
+     *            the name of the dataset
+     * @param experimentType
+     *            the name of the experiment type
+     * @param matching
+     *            the name of the matching used
+     * @param state
+     *            the new state of the task
+     */
+    public void experimentTaskFinished(int experimentTaskId, String annotatorName, String datasetName,
+            String experimentType, String matching, int state);
+}
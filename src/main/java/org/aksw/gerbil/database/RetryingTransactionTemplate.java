@@ -0,0 +1,93 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.database;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A {@link TransactionTemplate} that executes a transaction again if it has
+ * been rolled back because of a concurrent transaction, e.g., because the
+ * database chose it as the loser of a deadlock or couldn't serialize it. Since
+ * the whole transaction is repeated, the callback must not have side effects
+ * outside of the database.
+ */
+public class RetryingTransactionTemplate extends TransactionTemplate {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryingTransactionTemplate.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    /**
+     * The maximum time (in ms) the template waits before the next attempt.
+     * The waiting time is chosen randomly so that the competing transactions
+     * do not collide again.
+     */
+    private static final long MAX_BACKOFF = 100;
+
+    private final int maxAttempts;
+
+    public RetryingTransactionTemplate(PlatformTransactionManager transactionManager) {
+        this(transactionManager, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public RetryingTransactionTemplate(PlatformTransactionManager transactionManager, int maxAttempts) {
+        super(transactionManager);
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("The maximum number of attempts has to be positive.");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+        for (int attempt = 1;; ++attempt) {
+            try {
+                return super.execute(action);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    LOGGER.error("The transaction has been rolled back {} times because of concurrent transactions."
+                            + " Giving up.", attempt);
+                    throw e;
+                }
+                LOGGER.debug("The transaction has been rolled back because of a concurrent transaction. Trying again.",
+                        e);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(MAX_BACKOFF) + 1);
+                } catch (InterruptedException e2) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
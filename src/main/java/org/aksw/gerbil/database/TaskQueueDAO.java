@@ -0,0 +1,174 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.database;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.List;
+
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.QueuedExperimentTask;
+
+/**
+ * This interface defines the methods of a durable queue containing the
+ * experiment tasks that have to be executed. Every entry of the queue has one
+ * of the states {@link #TASK_QUEUED}, {@link #TASK_LEASED},
+ * {@link #TASK_RUNNING} and {@link #TASK_DONE}. A task is leased by a worker
+ * for a limited time. If the lease expires because the worker died or the
+ * server has been stopped, the task can be leased again by every other
+ * worker.
+ */
+public interface TaskQueueDAO {
+
+    /**
+     * State of a task that is waiting for its execution.
+     */
+    public static final int TASK_QUEUED = 0;
+
+    /**
+     * State of a task that has been leased by a worker but hasn't been started
+     * yet.
+     */
+    public static final int TASK_LEASED = 1;
+
+    /**
+     * State of a task that is executed by the worker holding its lease.
+     */
+    public static final int TASK_RUNNING = 2;
+
+    /**
+     * State of a task that has been executed.
+     */
+    public static final int TASK_DONE = 3;
+
+    /**
+     * Adds the tasks with the given ids to the queue. The definitions of the
+     * annotators and datasets are the strings from which the configurations
+     * can be recreated, e.g., "NIFWS_name(uri)" for a NIF based web service.
+     * If a definition is null, the name stored together with the task is
+     * used.
+     * 
+     * @param taskIds
+     *            ids of the experiment tasks that should be executed
+     * @param annotatorDefinitions
+     *            definitions of the annotators of the single tasks
+     * @param datasetDefinitions
+     *            definitions of the datasets of the single tasks
+     */
+    public void enqueueTasks(int taskIds[], String annotatorDefinitions[], String datasetDefinitions[]);
+
+    /**
+     * Leases at most the given number of tasks for the given worker. Queued
+     * tasks as well as tasks whose lease has expired are leased in the order
+     * in which they have been queued. The attempts counter of every leased
+     * task is incremented.
+     * 
+     * @param workerId
+     *            id of the worker that would like to lease tasks
+     * @param maxNumberOfTasks
+     *            the maximum number of tasks that should be leased
+     * @param leaseDuration
+     *            the duration of the lease in milliseconds
+     * @return the leased tasks
+     */
+    public List<QueuedExperimentTask> leaseTasks(String workerId, int maxNumberOfTasks, long leaseDuration);
+
+    /**
+     * Marks the given leased task as running.
+     * 
+     * @return true if the worker still holds the lease of the task, else false
+     */
+    public boolean markTaskRunning(int taskId, String workerId, long leaseDuration);
+
+    /**
+     * Renews the leases of all tasks that are held by the given worker, i.e.,
+     * the tasks that it executes as well as the tasks that are waiting for a
+     * free thread of the worker. The leases of a worker that died are not
+     * renewed anymore and expire.
+     * 
+     * @return the number of renewed leases
+     */
+    public int renewLeases(String workerId, long leaseDuration);
+
+    /**
+     * Marks the given task as done if the given worker still holds its lease.
+     */
+    public void markTaskDone(int taskId, String workerId);
+
+    /**
+     * Puts the given task back into the queue if it has been leased by the
+     * given worker and hasn't been started. In contrast to
+     * {@link #releaseLeases(String)} the attempts counter of the task is not
+     * decremented, i.e., the release counts as a failed attempt.
+     * 
+     * @return true if the task has been released, else false
+     */
+    public boolean releaseLease(int taskId, String workerId);
+
+    /**
+     * Puts all tasks that have been leased by the given worker but haven't
+     * been started back into the queue.
+     * 
+     * @return the number of released tasks
+     */
+    public int releaseLeases(String workerId);
+
+    /**
+     * Returns the results of the tasks that have been marked as done after the
+     * given point in time by other workers than the given one.
+     * 
+     * @param timestamp
+     *            the point in time in milliseconds
+     * @param workerId
+     *            the id of the worker whose tasks should be ignored
+     * @return the current results of the tasks
+     */
+    public List<ExperimentTaskResult> getTasksDoneSince(long timestamp, String workerId);
+
+    /**
+     * Returns the queue states of the given tasks that haven't been done yet.
+     * Tasks that are not inside the queue or have been done are not contained
+     * in the returned map.
+     * 
+     * @param taskIds
+     *            the ids of the tasks
+     * @return the states of the tasks mapped to their ids
+     */
+    public Int2IntMap getStatesOfWaitingTasks(int taskIds[]);
+
+    /**
+     * Removes the tasks that have been marked as done before the given point
+     * in time from the queue.
+     * 
+     * @param timestamp
+     *            the point in time in milliseconds
+     * @return the number of removed tasks
+     */
+    public int removeTasksDoneBefore(long timestamp);
+
+    /**
+     * Returns the number of tasks inside the queue that have the given state.
+     */
+    public int getNumberOfTasks(int state);
+}
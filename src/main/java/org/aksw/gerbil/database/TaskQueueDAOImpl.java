@@ -0,0 +1,239 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.database;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.QueuedExperimentTask;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * SQL based implementation of the {@link TaskQueueDAO} interface. The queue is
+ * stored in the TaskQueue table of the database containing the experiment
+ * tasks. Several workers can lease tasks at the same time since a task is
+ * only claimed if neither its state nor its attempts counter has been changed
+ * after it has been selected. If the database rolls back the leasing
+ * transaction because of a concurrent one, the leasing is repeated.
+ */
+public class TaskQueueDAOImpl implements TaskQueueDAO {
+
+    private final static String INSERT_TASK = "INSERT INTO TaskQueue (taskId, state, attempts, annotatorDefinition, datasetDefinition, queued, lastChanged) VALUES (:taskId, :state, 0, :annotatorDefinition, :datasetDefinition, :now, :now)";
+    private final static String SET_FINISHED_TASKS_DONE = "UPDATE TaskQueue SET state=:doneState, leaseOwner=NULL, leaseExpires=NULL, lastChanged=:now WHERE (state=:queuedState OR (state<:doneState AND leaseExpires<:now)) AND EXISTS (SELECT t.id FROM ExperimentTasks t WHERE t.id=TaskQueue.taskId AND t.state<>:unfinishedState)";
+    private final static String GET_LEASABLE_TASKS = "SELECT q.taskId, q.state, q.attempts, COALESCE(q.annotatorDefinition, t.annotatorName), COALESCE(q.datasetDefinition, t.datasetName), t.experimentType, t.matching FROM TaskQueue q JOIN ExperimentTasks t ON q.taskId=t.id WHERE q.state=:queuedState OR (q.state<:doneState AND q.leaseExpires<:now) ORDER BY q.queued, q.taskId LIMIT :maxNumberOfTasks";
+    private final static String LEASE_TASK = "UPDATE TaskQueue SET state=:leasedState, attempts=attempts+1, leaseOwner=:workerId, leaseExpires=:leaseExpires, lastChanged=:now WHERE taskId=:taskId AND state=:state AND attempts=:attempts";
+    private final static String SET_TASK_RUNNING = "UPDATE TaskQueue SET state=:runningState, leaseExpires=:leaseExpires, lastChanged=:now WHERE taskId=:taskId AND state=:leasedState AND leaseOwner=:workerId";
+    private final static String RENEW_LEASES = "UPDATE TaskQueue SET leaseExpires=:leaseExpires WHERE leaseOwner=:workerId AND (state=:leasedState OR state=:runningState)";
+    private final static String SET_TASK_DONE = "UPDATE TaskQueue SET state=:doneState, leaseExpires=NULL, lastChanged=:now WHERE taskId=:taskId AND leaseOwner=:workerId";
+    private final static String RELEASE_LEASE = "UPDATE TaskQueue SET state=:queuedState, leaseOwner=NULL, leaseExpires=NULL, lastChanged=:now WHERE taskId=:taskId AND leaseOwner=:workerId AND state=:leasedState";
+    private final static String RELEASE_LEASES = "UPDATE TaskQueue SET state=:queuedState, attempts=attempts-1, leaseOwner=NULL, leaseExpires=NULL, lastChanged=:now WHERE leaseOwner=:workerId AND state=:leasedState";
+    private final static String GET_TASKS_DONE_SINCE = "SELECT t.annotatorName, t.datasetName, t.experimentType, t.matching, t.microF1, t.microPrecision, t.microRecall, t.macroF1, t.macroPrecision, t.macroRecall, t.state, t.errorCount, t.lastChanged, t.id FROM TaskQueue q JOIN ExperimentTasks t ON q.taskId=t.id WHERE q.state=:doneState AND q.lastChanged>:since AND (q.leaseOwner IS NULL OR q.leaseOwner<>:workerId)";
+    private final static String GET_STATES_OF_WAITING_TASKS = "SELECT taskId, state FROM TaskQueue WHERE state<>:doneState AND taskId IN (:taskIds)";
+    private final static String REMOVE_TASKS_DONE_BEFORE = "DELETE FROM TaskQueue WHERE state=:doneState AND lastChanged<:before";
+    private final static String COUNT_TASKS = "SELECT COUNT(*) FROM TaskQueue WHERE state=:state";
+
+    private final NamedParameterJdbcTemplate template;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskQueueDAOImpl(DataSource dataSource) {
+        this.template = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new RetryingTransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void enqueueTasks(int taskIds[], String annotatorDefinitions[], String datasetDefinitions[]) {
+        if ((taskIds.length != annotatorDefinitions.length) || (taskIds.length != datasetDefinitions.length)) {
+            throw new IllegalArgumentException("The given arrays have different lengths.");
+        }
+        if (taskIds.length == 0) {
+            return;
+        }
+        java.sql.Timestamp now = new java.sql.Timestamp(System.currentTimeMillis());
+        MapSqlParameterSource parameters[] = new MapSqlParameterSource[taskIds.length];
+        for (int i = 0; i < taskIds.length; ++i) {
+            parameters[i] = new MapSqlParameterSource();
+            parameters[i].addValue("taskId", taskIds[i]);
+            parameters[i].addValue("state", TASK_QUEUED);
+            parameters[i].addValue("annotatorDefinition", annotatorDefinitions[i]);
+            parameters[i].addValue("datasetDefinition", datasetDefinitions[i]);
+            parameters[i].addValue("now", now);
+        }
+        this.template.batchUpdate(INSERT_TASK, parameters);
+    }
+
+    @Override
+    public List<QueuedExperimentTask> leaseTasks(final String workerId, int maxNumberOfTasks, long leaseDuration) {
+        long now = System.currentTimeMillis();
+        final MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("workerId", workerId);
+        parameters.addValue("now", new java.sql.Timestamp(now));
+        parameters.addValue("leaseExpires", new java.sql.Timestamp(now + leaseDuration));
+        parameters.addValue("maxNumberOfTasks", maxNumberOfTasks);
+        parameters.addValue("unfinishedState", ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET);
+        return transactionTemplate.execute(new TransactionCallback<List<QueuedExperimentTask>>() {
+            @Override
+            public List<QueuedExperimentTask> doInTransaction(TransactionStatus status) {
+                // tasks that have been finished by a worker which died before
+                // it could remove them from the queue don't have to be
+                // executed again
+                template.update(SET_FINISHED_TASKS_DONE, parameters);
+                final IntArrayList states = new IntArrayList();
+                List<QueuedExperimentTask> candidates = template.query(GET_LEASABLE_TASKS, parameters,
+                        new RowMapper<QueuedExperimentTask>() {
+                            @Override
+                            public QueuedExperimentTask mapRow(ResultSet rs, int rowNum) throws SQLException {
+                                states.add(rs.getInt(2));
+                                return new QueuedExperimentTask(rs.getInt(1), rs.getInt(3), rs.getString(4), rs
+                                        .getString(5), rs.getString(6), rs.getString(7));
+                            }
+                        });
+                List<QueuedExperimentTask> leasedTasks = new ArrayList<QueuedExperimentTask>(candidates.size());
+                QueuedExperimentTask candidate;
+                for (int i = 0; i < candidates.size(); ++i) {
+                    candidate = candidates.get(i);
+                    parameters.addValue("taskId", candidate.taskId);
+                    parameters.addValue("state", states.getInt(i));
+                    parameters.addValue("attempts", candidate.attempts);
+                    // the task is only claimed if no other worker has leased
+                    // it in the meantime
+                    if (template.update(LEASE_TASK, parameters) > 0) {
+                        ++candidate.attempts;
+                        leasedTasks.add(candidate);
+                    }
+                }
+                return leasedTasks;
+            }
+        });
+    }
+
+    @Override
+    public boolean markTaskRunning(int taskId, String workerId, long leaseDuration) {
+        long now = System.currentTimeMillis();
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("taskId", taskId);
+        parameters.addValue("workerId", workerId);
+        parameters.addValue("now", new java.sql.Timestamp(now));
+        parameters.addValue("leaseExpires", new java.sql.Timestamp(now + leaseDuration));
+        return this.template.update(SET_TASK_RUNNING, parameters) > 0;
+    }
+
+    @Override
+    public int renewLeases(String workerId, long leaseDuration) {
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("workerId", workerId);
+        parameters.addValue("leaseExpires", new java.sql.Timestamp(System.currentTimeMillis() + leaseDuration));
+        return this.template.update(RENEW_LEASES, parameters);
+    }
+
+    @Override
+    public void markTaskDone(int taskId, String workerId) {
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("taskId", taskId);
+        parameters.addValue("workerId", workerId);
+        parameters.addValue("now", new java.sql.Timestamp(System.currentTimeMillis()));
+        this.template.update(SET_TASK_DONE, parameters);
+    }
+
+    @Override
+    public boolean releaseLease(int taskId, String workerId) {
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("taskId", taskId);
+        parameters.addValue("workerId", workerId);
+        parameters.addValue("now", new java.sql.Timestamp(System.currentTimeMillis()));
+        return this.template.update(RELEASE_LEASE, parameters) > 0;
+    }
+
+    @Override
+    public int releaseLeases(String workerId) {
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("workerId", workerId);
+        parameters.addValue("now", new java.sql.Timestamp(System.currentTimeMillis()));
+        return this.template.update(RELEASE_LEASES, parameters);
+    }
+
+    @Override
+    public List<ExperimentTaskResult> getTasksDoneSince(long timestamp, String workerId) {
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("since", new java.sql.Timestamp(timestamp));
+        parameters.addValue("workerId", workerId);
+        return this.template.query(GET_TASKS_DONE_SINCE, parameters, new ExperimentTaskResultRowMapper());
+    }
+
+    @Override
+    public Int2IntMap getStatesOfWaitingTasks(int taskIds[]) {
+        final Int2IntMap states = new Int2IntOpenHashMap();
+        if (taskIds.length == 0) {
+            return states;
+        }
+        MapSqlParameterSource parameters = createStateParameters();
+        parameters.addValue("taskIds", new IntArrayList(taskIds));
+        this.template.query(GET_STATES_OF_WAITING_TASKS, parameters, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                states.put(rs.getInt(1), rs.getInt(2));
+            }
+        });
+        return states;
+    }
+
+    @Override
+    public int removeTasksDoneBefore(long timestamp) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        parameters.addValue("doneState", TASK_DONE);
+        parameters.addValue("before", new java.sql.Timestamp(timestamp));
+        return this.template.update(REMOVE_TASKS_DONE_BEFORE, parameters);
+    }
+
+    @Override
+    public int getNumberOfTasks(int state) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        parameters.addValue("state", state);
+        return this.template.queryForObject(COUNT_TASKS, parameters, Integer.class);
+    }
+
+    private MapSqlParameterSource createStateParameters() {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        parameters.addValue("queuedState", TASK_QUEUED);
+        parameters.addValue("leasedState", TASK_LEASED);
+        parameters.addValue("runningState", TASK_RUNNING);
+        parameters.addValue("doneState", TASK_DONE);
+        return parameters;
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.dataid;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File based cache for the DataIDs of experiments. The DataID of an experiment
+ * can not change anymore if all its tasks have reached a final state (i.e.,
+ * they are finished or have an error code). The DataIDs of these experiments
+ * are stored gzip compressed inside the cache directory. Since the DataID
+ * contains the URL of the GERBIL instance, the file name contains the
+ * experiment id and a hash of the URLs used by the {@link DataIDGenerator}.
+ * 
+ * <p>
+ * Note that the tasks of an experiment are created asynchronously, i.e., all
+ * tasks that exist so far could be finished while further tasks are still
+ * added. Since tasks are never removed from an experiment, the file name
+ * contains the number of tasks, too. Thus, a DataID that has been cached
+ * before all tasks have been created is not returned anymore when more tasks
+ * exist and it is replaced by the DataID of the larger experiment.
+ * </p>
+ */
+public class DataIDCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataIDCache.class);
+
+    private static final String CACHE_DIRECTORY_PROPERTY_NAME = "org.aksw.gerbil.dataid.DataIDCache.Directory";
+    private static final String FILE_SUFFIX = ".jsonld.gz";
+    private static final String CHARSET_NAME = "UTF-8";
+    /**
+     * Experiment ids that do not match this pattern are not cached, since they
+     * can not be used as file names.
+     */
+    private static final Pattern VALID_EXPERIMENT_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static DataIDCache instance = null;
+
+    /**
+     * Returns the cache using the directory defined in the GERBIL properties
+     * or null if no directory is defined or it couldn't be created.
+     */
+    public static synchronized DataIDCache getInstance() {
+        if (instance == null) {
+            String directoryName = GerbilConfiguration.getInstance().getString(CACHE_DIRECTORY_PROPERTY_NAME);
+            if (directoryName == null) {
+                LOGGER.warn("The DataID cache directory is not defined ({}). DataIDs won't be cached.",
+                        CACHE_DIRECTORY_PROPERTY_NAME);
+                return null;
+            }
+            File directory = new File(directoryName);
+            if (!directory.exists() && !directory.mkdirs()) {
+                LOGGER.error("Couldn't create the DataID cache directory \"" + directory.getAbsolutePath()
+                        + "\". DataIDs won't be cached.");
+                return null;
+            }
+            instance = new DataIDCache(directory);
+        }
+        return instance;
+    }
+
+    private final File directory;
+
+    public DataIDCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the DataID of the experiment with the given results. If it is
+     * not cached, it is generated using the given generator and added to the
+     * cache if all tasks of the experiment have reached a final state.
+     */
+    public String getDataID(DataIDGenerator generator, List<ExperimentTaskResult> results, String experimentId) {
+        if ((results.size() == 0) || !VALID_EXPERIMENT_ID.matcher(experimentId).matches()) {
+            return generator.createDataIDModel(results, experimentId);
+        }
+        File file = getFile(generator, experimentId, results.size());
+        if (file.exists()) {
+            String dataid = readDataID(file);
+            if (dataid != null) {
+                return dataid;
+            }
+        }
+        if (isExperimentFinished(results)) {
+            if (writeDataID(generator, results, experimentId, file)) {
+                removeOutdatedDataIDs(generator, experimentId, file);
+                String dataid = readDataID(file);
+                if (dataid != null) {
+                    return dataid;
+                }
+            }
+        }
+        return generator.createDataIDModel(results, experimentId);
+    }
+
+    private File getFile(DataIDGenerator generator, String experimentId, int numberOfTasks) {
+        return new File(directory, getFilePrefix(generator, experimentId) + numberOfTasks + FILE_SUFFIX);
+    }
+
+    private String getFilePrefix(DataIDGenerator generator, String experimentId) {
+        String urls = generator.getGerbilURL() + ' ' + generator.getGerbilFullURL();
+        return experimentId + '_' + Integer.toHexString(urls.hashCode()) + '_';
+    }
+
+    /**
+     * Removes the DataIDs of the given experiment that have been cached while
+     * it had less tasks.
+     */
+    private void removeOutdatedDataIDs(DataIDGenerator generator, String experimentId, File currentFile) {
+        Pattern outdatedFileName = Pattern.compile(Pattern.quote(getFilePrefix(generator, experimentId)) + "[0-9]+"
+                + Pattern.quote(FILE_SUFFIX));
+        File files[] = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (outdatedFileName.matcher(file.getName()).matches() && !file.equals(currentFile) && !file.delete()) {
+                LOGGER.warn("Couldn't remove the outdated DataID \"{}\".", file.getAbsolutePath());
+            }
+        }
+    }
+
+    protected static boolean isExperimentFinished(List<ExperimentTaskResult> results) {
+        for (ExperimentTaskResult result : results) {
+            if (result.state == ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readDataID(File file) {
+        InputStream in = null;
+        try {
+            in = new GZIPInputStream(new FileInputStream(file));
+            return IOUtils.toString(in, CHARSET_NAME);
+        } catch (IOException e) {
+            LOGGER.error("Couldn't read cached DataID from \"" + file.getAbsolutePath() + "\".", e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Streams the DataID into a temporary file which is renamed after it has
+     * been written completely. Thus, other threads won't read a file that is
+     * not complete.
+     */
+    private boolean writeDataID(DataIDGenerator generator, List<ExperimentTaskResult> results,
+            String experimentId, File file) {
+        File tempFile = null;
+        Writer out = null;
+        try {
+            tempFile = File.createTempFile(experimentId, ".tmp", directory);
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)),
+                    CHARSET_NAME));
+            generator.writeDataID(results, experimentId, out);
+            out.close();
+            out = null;
+            if (tempFile.renameTo(file) || file.exists()) {
+                return true;
+            }
+            LOGGER.error("Couldn't move cached DataID to \"" + file.getAbsolutePath() + "\".");
+        } catch (IOException e) {
+            LOGGER.error("Couldn't write DataID to the cache.", e);
+        } finally {
+            IOUtils.closeQuietly(out);
+            if ((tempFile != null) && tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+        return false;
+    }
+}
@@ -23,8 +23,9 @@
  */
 package org.aksw.gerbil.dataid;
 
-import java.io.ByteArrayOutputStream;
-import java.io.OutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Calendar;
 import java.util.Iterator;
 import java.util.List;
@@ -33,19 +34,26 @@ import org.aksw.gerbil.dataid.vocabs.CUBE;
 import org.aksw.gerbil.dataid.vocabs.GERBIL;
 import org.aksw.gerbil.datatypes.ExperimentTaskResult;
 import org.aksw.gerbil.web.ExperimentTaskStateHelper;
-import org.apache.jena.riot.RDFDataMgr;
+import org.json.simple.JSONValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import com.github.jsonldjava.jena.JenaJSONLD;
 import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
-import com.hp.hpl.jena.rdf.model.Model;
-import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Literal;
+import com.hp.hpl.jena.rdf.model.Property;
 import com.hp.hpl.jena.rdf.model.Resource;
-import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.rdf.model.ResourceFactory;
 import com.hp.hpl.jena.vocabulary.RDFS;
-import com.hp.hpl.jena.vocabulary.XSD;
 
+/**
+ * Generates the DataID of an experiment as JSON-LD. The JSON-LD is written
+ * directly into a {@link Writer} using one node object per experiment task,
+ * i.e., no RDF model has to be created in memory.
+ */
 public class DataIDGenerator {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataIDGenerator.class);
+
     private static final String EXPERIMENT_PREFIX = "#experiment_";
     private static final String DATASET_DATAID = "dataId/corpora/";
     private static final String ANNOTATOR_DATAID = "dataId/annotators/";
@@ -59,103 +67,149 @@ public class DataIDGenerator {
         this.gerbilFullURL = gerbilFullURL;
     }
 
-    public String createDataIDModel(List<ExperimentTaskResult> results, String eID) {
+    public String getGerbilURL() {
+        return gerbilURL;
+    }
 
-        // create an empty JENA Model
-        Model model = ModelFactory.createDefaultModel();
+    public String getGerbilFullURL() {
+        return gerbilFullURL;
+    }
 
-        // setting namespaces
-        model.setNsPrefix("gerbil", GERBIL.getURI());
-        model.setNsPrefix("rdf", RDF.getURI());
-        model.setNsPrefix("rdfs", RDFS.getURI());
-        model.setNsPrefix("xsd", XSD.getURI());
-        model.setNsPrefix("qb", CUBE.getURI());
+    public String createDataIDModel(List<ExperimentTaskResult> results, String eID) {
+        StringWriter writer = new StringWriter();
+        try {
+            writeDataID(results, eID, writer);
+        } catch (IOException e) {
+            // can not happen since we are writing into memory
+            LOGGER.error("Couldn't create DataID of experiment " + eID + ".", e);
+            return "";
+        }
+        return writer.toString();
+    }
 
-        // If the experiment is not existing (== there are no results), return
-        // an empty String
+    /**
+     * Writes the DataID of the experiment with the given results as JSON-LD to
+     * the given writer. If the experiment is not existing (== there are no
+     * results), nothing is written.
+     */
+    public void writeDataID(List<ExperimentTaskResult> results, String eID, Writer out) throws IOException {
         if (results.size() == 0) {
-            return "";
+            return;
         }
+        // all IRIs are written in their full form. Thus, we don't need a
+        // context
+        out.write("{\"@graph\":[");
 
-        Resource experiment = createExperimentResource(model, eID);
+        String experimentURI = gerbilFullURL + EXPERIMENT_PREFIX + eID;
+        writeExperiment(out, experimentURI, eID, results.get(0));
 
         int experimentNumber = 0;
         Iterator<ExperimentTaskResult> resultIterator = results.iterator();
-        ExperimentTaskResult result;
         // iterating over the experiments
         while (resultIterator.hasNext()) {
-            result = resultIterator.next();
-            // If this is the first experiment result, use it to get further
-            // properties of the experiment (matching, ...)
-            if (experimentNumber == 0) {
-                Resource r = GERBIL.getExperimentTypeResource(result.type);
-                if (r != null) {
-                    experiment.addProperty(GERBIL.experimentType, r);
-                }
-                r = GERBIL.getMatchingResource(result.matching);
-                if (r != null) {
-                    experiment.addProperty(GERBIL.matching, r);
-                }
-            }
-            // create experiment task
-            addExperimentTask(model, result, experiment, experimentNumber);
-
+            out.write(",\n");
+            writeExperimentTask(out, resultIterator.next(), experimentURI, experimentNumber);
             ++experimentNumber;
         }
-
-        // writing dataid result to output (this should be removed)
-        // RDFDataMgr.write(System.out, model, RDFFormat.TURTLE);
-
-        OutputStream o = new ByteArrayOutputStream();
-
-        // creating json-ld output format
-        RDFDataMgr.write(o, model, JenaJSONLD.JSONLD);
-
-        return o.toString();
+        out.write("]}");
     }
 
-    private Resource createExperimentResource(Model model, String eID) {
-        // create experiment resource
-        Resource experiment = model.createResource(gerbilFullURL + EXPERIMENT_PREFIX + eID);
-        experiment.addProperty(RDF.type, CUBE.Dataset);
-        experiment.addProperty(RDF.type, GERBIL.Experiment);
-
-        model.add(experiment, RDFS.label, "Experiment " + eID);
-        model.add(experiment, CUBE.structure, GERBIL.DSD);
-
-        return experiment;
+    private void writeExperiment(Writer out, String experimentURI, String eID, ExperimentTaskResult firstResult)
+            throws IOException {
+        out.write("{\"@id\":");
+        out.write(toJSONString(experimentURI));
+        out.write(",\"@type\":[");
+        out.write(toJSONString(CUBE.Dataset.getURI()));
+        out.write(',');
+        out.write(toJSONString(GERBIL.Experiment.getURI()));
+        out.write(']');
+        writeProperty(out, RDFS.label, "Experiment " + eID);
+        writeProperty(out, CUBE.structure, GERBIL.DSD);
+        // use the first experiment result to get further properties of the
+        // experiment (matching, ...)
+        Resource r = GERBIL.getExperimentTypeResource(firstResult.type);
+        if (r != null) {
+            writeProperty(out, GERBIL.experimentType, r);
+        }
+        r = GERBIL.getMatchingResource(firstResult.matching);
+        if (r != null) {
+            writeProperty(out, GERBIL.matching, r);
+        }
+        out.write('}');
     }
 
-    private void addExperimentTask(Model model, ExperimentTaskResult result, Resource experiment, int experimentNumber) {
-        // create Resource
-        Resource experimentTask = model.createResource(experiment.getURI() + "_task_" + experimentNumber);
-        experimentTask.addProperty(RDF.type, CUBE.Observation);
+    private void writeExperimentTask(Writer out, ExperimentTaskResult result, String experimentURI,
+            int experimentNumber) throws IOException {
+        out.write("{\"@id\":");
+        out.write(toJSONString(experimentURI + "_task_" + experimentNumber));
+        out.write(",\"@type\":");
+        out.write(toJSONString(CUBE.Observation.getURI()));
 
         // add annotator and dataset
-        experimentTask.addProperty(GERBIL.annotator,
+        writeProperty(out, GERBIL.annotator,
                 gerbilURL + DATASET_DATAID + DataIDUtils.treatsNames(result.annotator) + DATAID_EXTENSION);
-        experimentTask.addProperty(GERBIL.dataset,
+        writeProperty(out, GERBIL.dataset,
                 gerbilURL + ANNOTATOR_DATAID + DataIDUtils.treatsNames(result.dataset) + DATAID_EXTENSION);
 
         // set the status of this task
-        model.add(experimentTask, GERBIL.statusCode, model.createTypedLiteral(result.state));
+        writeProperty(out, GERBIL.statusCode, ResourceFactory.createTypedLiteral(result.state));
 
         // If this task has been finished
         if (ExperimentTaskStateHelper.taskFinished(result)) {
-        	model.add(experimentTask, CUBE.dataset, model.createResource(experiment.getURI()));
+            writeProperty(out, CUBE.dataset, ResourceFactory.createResource(experimentURI));
             // creating and setting literals for the current experiment
-            model.add(experimentTask, GERBIL.microF1, model.createTypedLiteral(String.valueOf(result.getMicroF1Measure()),XSDDatatype.XSDdecimal));
-            model.add(experimentTask, GERBIL.microPrecision, model.createTypedLiteral(String.valueOf(result.getMicroPrecision()),XSDDatatype.XSDdecimal));
-            model.add(experimentTask, GERBIL.microRecall, model.createTypedLiteral(String.valueOf(result.getMicroRecall()),XSDDatatype.XSDdecimal));
-            model.add(experimentTask, GERBIL.macroF1, model.createTypedLiteral(String.valueOf(result.getMacroF1Measure()),XSDDatatype.XSDdecimal));
-            model.add(experimentTask, GERBIL.macroPrecision, model.createTypedLiteral(String.valueOf(result.getMacroPrecision()),XSDDatatype.XSDdecimal));
-            model.add(experimentTask, GERBIL.macroRecall, model.createTypedLiteral(String.valueOf(result.getMacroRecall()), XSDDatatype.XSDdecimal));
-            model.add(experimentTask, GERBIL.errorCount, model.createTypedLiteral(String.valueOf(result.errorCount)));
+            writeDecimal(out, GERBIL.microF1, result.getMicroF1Measure());
+            writeDecimal(out, GERBIL.microPrecision, result.getMicroPrecision());
+            writeDecimal(out, GERBIL.microRecall, result.getMicroRecall());
+            writeDecimal(out, GERBIL.macroF1, result.getMacroF1Measure());
+            writeDecimal(out, GERBIL.macroPrecision, result.getMacroPrecision());
+            writeDecimal(out, GERBIL.macroRecall, result.getMacroRecall());
+            writeProperty(out, GERBIL.errorCount, ResourceFactory.createTypedLiteral(String.valueOf(result.errorCount)));
         }
 
         Calendar cal = Calendar.getInstance();
         cal.setTimeInMillis(result.timestamp);
-        model.add(experimentTask, GERBIL.timestamp, model.createTypedLiteral(cal));
+        writeProperty(out, GERBIL.timestamp, ResourceFactory.createTypedLiteral(cal));
+        out.write('}');
+    }
+
+    private static void writeDecimal(Writer out, Property property, double value) throws IOException {
+        writeProperty(out, property,
+                ResourceFactory.createTypedLiteral(String.valueOf(value), XSDDatatype.XSDdecimal));
+    }
+
+    private static void writeProperty(Writer out, Property property, String plainLiteral) throws IOException {
+        writeKey(out, property);
+        out.write(toJSONString(plainLiteral));
     }
 
+    private static void writeProperty(Writer out, Property property, Resource resource) throws IOException {
+        writeKey(out, property);
+        out.write("{\"@id\":");
+        out.write(toJSONString(resource.getURI()));
+        out.write('}');
+    }
+
+    private static void writeProperty(Writer out, Property property, Literal literal) throws IOException {
+        writeKey(out, property);
+        if (literal.getDatatypeURI() == null) {
+            out.write(toJSONString(literal.getLexicalForm()));
+        } else {
+            out.write("{\"@value\":");
+            out.write(toJSONString(literal.getLexicalForm()));
+            out.write(",\"@type\":");
+            out.write(toJSONString(literal.getDatatypeURI()));
+            out.write('}');
+        }
+    }
+
+    private static void writeKey(Writer out, Property property) throws IOException {
+        out.write(',');
+        out.write(toJSONString(property.getURI()));
+        out.write(':');
+    }
+
+    private static String toJSONString(String value) {
+        return '"' + JSONValue.escape(value) + '"';
+    }
 }
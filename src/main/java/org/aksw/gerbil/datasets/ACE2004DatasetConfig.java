@@ -59,4 +59,10 @@ public class ACE2004DatasetConfig extends AbstractDatasetConfiguration {
         }
         return new ACE2004Dataset(textsFolder, annotationsFolder, wikiAPI);
     }
+
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(ACE2004_TEXTS_FOLDER_PROPERTY_NAME),
+                GerbilConfiguration.getInstance().getString(ACE2004_ANNOTATIONS_FOLDER_PROPERTY_NAME));
+    }
 }
@@ -95,4 +95,9 @@ public class AIDACoNLLDatasetConfig extends AbstractDatasetConfiguration {
         }
         return null;
     }
+
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(DATASET_FILE_PROPERTY_NAME));
+    }
 }
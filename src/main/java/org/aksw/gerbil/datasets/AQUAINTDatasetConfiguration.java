@@ -59,4 +59,10 @@ public class AQUAINTDatasetConfiguration extends AbstractDatasetConfiguration {
         return new AQUAINTDataset(textsPath, annotationsPath, wikiApi);
     }
 
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(TEXTS_PATH_PROPERTY_NAME),
+                GerbilConfiguration.getInstance().getString(ANNOTATIONS_PATH_PROPERTY_NAME));
+    }
+
 }
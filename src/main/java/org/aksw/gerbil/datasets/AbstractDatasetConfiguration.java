@@ -25,13 +25,23 @@ package org.aksw.gerbil.datasets;
 
 import it.acubelab.batframework.problems.TopicDataset;
 
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
 import org.aksw.gerbil.datatypes.AbstractAdapterConfiguration;
 import org.aksw.gerbil.datatypes.ErrorTypes;
 import org.aksw.gerbil.datatypes.ExperimentType;
 import org.aksw.gerbil.exceptions.GerbilException;
+import org.aksw.gerbil.utils.DatasetStatisticsPipeline;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 public abstract class AbstractDatasetConfiguration extends AbstractAdapterConfiguration implements DatasetConfiguration {
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
     public AbstractDatasetConfiguration(String datasetName, boolean couldBeCached,
             ExperimentType... applicableForExperiment) {
         super(datasetName, couldBeCached, applicableForExperiment);
@@ -41,11 +51,24 @@ public abstract class AbstractDatasetConfiguration extends AbstractAdapterConfig
     public TopicDataset getDataset(ExperimentType experimentType) throws GerbilException {
         for (int i = 0; i < applicableForExperiments.length; ++i) {
             if (applicableForExperiments[i].equalsOrContainsType(experimentType)) {
+                TopicDataset dataset;
                 try {
-                    return loadDataset();
+                    dataset = loadDataset();
                 } catch (Exception e) {
                     throw new GerbilException(e, ErrorTypes.DATASET_LOADING_ERROR);
                 }
+                if (dataset != null) {
+                    // the dataset is loaded again when it is analyzed so that
+                    // the pipeline does not have to keep it in memory
+                    DatasetStatisticsPipeline.getInstance().datasetLoaded(getStatisticsKey(), getName(),
+                            new DatasetStatisticsPipeline.DatasetLoader() {
+                                @Override
+                                public TopicDataset loadDataset() throws Exception {
+                                    return AbstractDatasetConfiguration.this.loadDataset();
+                                }
+                            });
+                }
+                return dataset;
             }
         }
         return null;
@@ -53,4 +76,58 @@ public abstract class AbstractDatasetConfiguration extends AbstractAdapterConfig
 
     protected abstract TopicDataset loadDataset() throws Exception;
 
+    /**
+     * Returns the key identifying the version of this dataset for the
+     * {@link DatasetStatisticsPipeline}. The pipeline stores this key and
+     * doesn't load the dataset again as long as it doesn't change. Thus, it
+     * has to be created without loading the dataset. Datasets that are read
+     * from files should override this method using
+     * {@link #createStatisticsKey(String...)}.
+     * 
+     * @return the key identifying the version of this dataset
+     */
+    protected String getStatisticsKey() {
+        if (this instanceof FingerprintedDatasetConfiguration) {
+            return getName() + '|' + ((FingerprintedDatasetConfiguration) this).getFingerprint();
+        }
+        return getName();
+    }
+
+    /**
+     * Creates a statistics key from the name of this dataset and the length
+     * and modification date of the given files. A folder is represented by
+     * the files it contains. Thus, the key changes if one of the files is
+     * changed without reading their content. To keep the key short, the
+     * states of the files are hashed.
+     * 
+     * @param files
+     *            the files and folders the dataset is read from
+     * @return the key identifying the version of this dataset
+     */
+    protected String createStatisticsKey(String... files) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (int i = 0; i < files.length; ++i) {
+            if (files[i] != null) {
+                putFileState(new File(files[i]), hasher);
+            }
+        }
+        return getName() + '|' + hasher.hash().toString();
+    }
+
+    private static void putFileState(File file, Hasher hasher) {
+        if (file.isDirectory()) {
+            File children[] = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (int i = 0; i < children.length; ++i) {
+                    putFileState(children[i], hasher);
+                }
+            }
+        } else {
+            hasher.putString(file.getPath(), UTF8);
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+        }
+    }
+
 }
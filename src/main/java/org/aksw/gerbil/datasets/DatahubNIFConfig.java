@@ -27,18 +27,14 @@ import it.acubelab.batframework.problems.TopicDataset;
 import it.acubelab.batframework.utils.WikipediaApiInterface;
 
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 
 import org.aksw.gerbil.bat.datasets.FileBasedNIFDataset;
 import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.datasets.datahub.DatahubCorpusDownloader;
 import org.aksw.gerbil.datatypes.ExperimentType;
 import org.apache.jena.riot.Lang;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.client.RestTemplate;
 
 public class DatahubNIFConfig extends AbstractDatasetConfiguration {
 
@@ -47,34 +43,43 @@ public class DatahubNIFConfig extends AbstractDatasetConfiguration {
 
     private WikipediaApiInterface wikiApi;
     private String datasetUrl;
-    private RestTemplate rt;
+    private DatahubCorpusDownloader downloader;
 
     public DatahubNIFConfig(WikipediaApiInterface wikiApi, String datasetName, String datasetUrl, boolean couldBeCached) {
         super(datasetName, couldBeCached, ExperimentType.Sa2KB);
         this.wikiApi = wikiApi;
         this.datasetUrl = datasetUrl;
-        rt = new RestTemplate();
+        downloader = new DatahubCorpusDownloader();
+    }
+
+    public String getDatasetUrl() {
+        return datasetUrl;
     }
 
     /**
-     * We have to synchronize this method. Otherwise every experiment thread would check the file and try to download
-     * the data or try to use the file even the download hasn't been completed.
+     * The downloader makes sure that experiment threads needing the same corpus wait for a single download and never
+     * use a file before its download has been completed.
      */
     @Override
-    protected synchronized TopicDataset loadDataset() throws Exception {
-        String nifFile = GerbilConfiguration.getInstance().getString(DATAHUB_DATASET_FILE_PROPERTY_NAME) + getName();
+    protected TopicDataset loadDataset() throws Exception {
+        String nifFile = getNifFile();
         logger.debug("FILE {}", nifFile);
-        File f = new File(nifFile);
-        if (!f.exists()) {
-            logger.debug("file {} does not exist. need to download", nifFile);
-            String data = rt.getForObject(datasetUrl, String.class);
-            Path path = Paths.get(nifFile);
-            Files.createDirectories(path.getParent());
-            Path file = Files.createFile(path);
-            Files.write(file, data.getBytes(), StandardOpenOption.WRITE);
-        }
+        downloader.download(datasetUrl, new File(nifFile));
         FileBasedNIFDataset dataset = new FileBasedNIFDataset(wikiApi, nifFile, getName(), Lang.TTL);
         dataset.init();
         return dataset;
     }
+
+    /**
+     * The key is created from the downloaded file, i.e., checking it doesn't
+     * need a request to the server.
+     */
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(getNifFile()) + '|' + datasetUrl;
+    }
+
+    private String getNifFile() {
+        return GerbilConfiguration.getInstance().getString(DATAHUB_DATASET_FILE_PROPERTY_NAME) + getName();
+    }
 }
@@ -59,4 +59,10 @@ public class IITBDatasetConfig extends AbstractDatasetConfiguration {
         return new IITBDataset(crawlFolder, annotationsFile, wikiAPI);
     }
 
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(IITB_CRAWL_FOLDER_PROPERTY_NAME),
+                GerbilConfiguration.getInstance().getString(IITB_ANNOTATIONS_FILE_PROPERTY_NAME));
+    }
+
 }
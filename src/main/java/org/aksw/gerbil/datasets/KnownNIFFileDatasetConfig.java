@@ -75,4 +75,10 @@ public class KnownNIFFileDatasetConfig extends AbstractDatasetConfiguration {
         dataset.init();
         return dataset;
     }
+
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(
+                NIF_DATASET_FILE_PROPERTY_NAME + dataset.name()));
+    }
 }
@@ -59,4 +59,10 @@ public class MSNBCDatasetConfig extends AbstractDatasetConfiguration {
         }
         return new MSNBCDataset(textsFolder, annotationsFolder, wikiAPI);
     }
+
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(MSNBC_TEXTS_FOLDER_PROPERTY_NAME),
+                GerbilConfiguration.getInstance().getString(MSNBC_ANNOTATIONS_FOLDER_PROPERTY_NAME));
+    }
 }
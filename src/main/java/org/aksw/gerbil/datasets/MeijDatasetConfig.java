@@ -60,4 +60,11 @@ public class MeijDatasetConfig extends AbstractDatasetConfiguration {
         return new MeijDataset(tweetsFile, tagsFile, rankFile);
     }
 
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(MEIJ_TWEETS_FILE_PROPERTY_NAME),
+                GerbilConfiguration.getInstance().getString(MEIJ_TAGS_FILE_PROPERTY_NAME), GerbilConfiguration
+                        .getInstance().getString(MEIJ_RANK_FILE_PROPERTY_NAME));
+    }
+
 }
@@ -91,4 +91,10 @@ public class Microposts2014Config extends AbstractDatasetConfiguration {
         return null;
     }
 
+    @Override
+    protected String getStatisticsKey() {
+        return createStatisticsKey(GerbilConfiguration.getInstance().getString(
+                DATASET_FILE_PROPERTY_NAME.concat(chunk == Microposts2014Chunk.TRAIN ? ".Train" : ".Test")));
+    }
+
 }
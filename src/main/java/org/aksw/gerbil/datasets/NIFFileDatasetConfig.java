@@ -26,24 +26,170 @@ package org.aksw.gerbil.datasets;
 import it.acubelab.batframework.problems.TopicDataset;
 import it.acubelab.batframework.utils.WikipediaApiInterface;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.aksw.gerbil.bat.datasets.FileBasedNIFDataset;
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.datatypes.ErrorTypes;
 import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.exceptions.GerbilException;
 import org.apache.jena.riot.Lang;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Configuration of a dataset stored in a NIF file, e.g., an uploaded dataset.
+ * The content of the file is identified by its SHA-256 hash. Parsed datasets
+ * are cached under this hash, i.e., a file that is used by several tasks is
+ * parsed only once as long as it is not evicted from the cache.
+ * 
+ * <p>
+ * If the fingerprint of the file is known when the configuration is created,
+ * e.g., because the file has been stored under its hash (see
+ * {@link #getFingerprintFromFileName(String)}), this fingerprint is used
+ * without reading the file and the content of the file is checked against it
+ * before the dataset is loaded. Thus, a task can not produce a result for a
+ * file content that differs from the one it has been cached for.
+ * </p>
+ */
+public class NIFFileDatasetConfig extends AbstractDatasetConfiguration implements FingerprintedDatasetConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NIFFileDatasetConfig.class);
 
-public class NIFFileDatasetConfig extends AbstractDatasetConfiguration {
+    public static final String CACHE_SIZE_PROPERTY_NAME = "org.aksw.gerbil.datasets.NIFFileDatasetConfig.CacheSize";
+    public static final int DEFAULT_CACHE_SIZE = 10;
+    private static final int MAX_NUMBER_OF_FINGERPRINTS = 1000;
+
+    /**
+     * Suffix of files that are stored under the SHA-256 hash of their content.
+     */
+    public static final String FINGERPRINTED_FILE_SUFFIX = ".ttl";
+    private static final Pattern FINGERPRINTED_FILE_NAME_PATTERN = Pattern.compile("([0-9a-f]{64})"
+            + Pattern.quote(FINGERPRINTED_FILE_SUFFIX));
+
+    /**
+     * The parsed datasets mapped to the fingerprints and names of their files.
+     * The values are soft references so that the datasets can be removed if
+     * the memory is needed.
+     */
+    private static final Cache<String, TopicDataset> DATASET_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(GerbilConfiguration.getInstance().getInt(CACHE_SIZE_PROPERTY_NAME, DEFAULT_CACHE_SIZE))
+            .softValues().build();
+    /**
+     * The fingerprints of files mapped to their path, length and modification
+     * date. Thus, a file is hashed again only if it has been changed.
+     */
+    private static final Cache<String, String> FINGERPRINTS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_NUMBER_OF_FINGERPRINTS).build();
 
     private String file;
     private WikipediaApiInterface wikiApi;
+    /**
+     * The fingerprint the content of the file must have or null if it is not
+     * known in advance.
+     */
+    private String expectedFingerprint;
 
     public NIFFileDatasetConfig(WikipediaApiInterface wikiApi, String name, String file, boolean couldBeCached,
             ExperimentType... applicableForExperiment) {
+        this(wikiApi, name, file, null, couldBeCached, applicableForExperiment);
+    }
+
+    public NIFFileDatasetConfig(WikipediaApiInterface wikiApi, String name, String file,
+            String expectedFingerprint, boolean couldBeCached, ExperimentType... applicableForExperiment) {
         super(name, couldBeCached, applicableForExperiment);
         this.wikiApi = wikiApi;
         this.file = file;
+        this.expectedFingerprint = expectedFingerprint;
+    }
+
+    /**
+     * Returns the fingerprint that is part of the name of a file that has
+     * been stored under the hash of its content, i.e., a name of the form
+     * "&lt;SHA-256 hash&gt;.ttl".
+     * 
+     * @param fileName
+     *            the name of the file (without its directory)
+     * @return the fingerprint or null if the name has not the expected form
+     */
+    public static String getFingerprintFromFileName(String fileName) {
+        Matcher matcher = FINGERPRINTED_FILE_NAME_PATTERN.matcher(fileName);
+        if (matcher.matches()) {
+            return matcher.group(1);
+        }
+        return null;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    @Override
+    public String getFingerprint() {
+        if (expectedFingerprint != null) {
+            return expectedFingerprint;
+        }
+        return calculateFingerprint();
+    }
+
+    private String calculateFingerprint() {
+        final File nifFile = new File(file);
+        if (!nifFile.exists()) {
+            return null;
+        }
+        try {
+            return FINGERPRINTS.get(nifFile.getAbsolutePath() + '|' + nifFile.length() + '|' + nifFile.lastModified(),
+                    new Callable<String>() {
+                        @Override
+                        public String call() throws IOException {
+                            return Files.hash(nifFile, Hashing.sha256()).toString();
+                        }
+                    });
+        } catch (ExecutionException e) {
+            LOGGER.error("Couldn't create the fingerprint of \"" + file + "\".", e.getCause());
+            return null;
+        }
     }
 
     @Override
     protected TopicDataset loadDataset() throws Exception {
+        if (!(new File(file).exists())) {
+            throw new GerbilException("The dataset file \"" + file
+                    + "\" does not exist. Note that all nodes executing tasks have to share the upload directory.",
+                    ErrorTypes.DATASET_LOADING_ERROR);
+        }
+        String fingerprint = calculateFingerprint();
+        if ((expectedFingerprint != null) && !expectedFingerprint.equals(fingerprint)) {
+            throw new GerbilException("The content of the dataset file \"" + file
+                    + "\" does not match the expected fingerprint " + expectedFingerprint + ".",
+                    ErrorTypes.DATASET_LOADING_ERROR);
+        }
+        if (fingerprint == null) {
+            return parseDataset();
+        }
+        try {
+            return DATASET_CACHE.get(fingerprint + '|' + getName(), new Callable<TopicDataset>() {
+                @Override
+                public TopicDataset call() throws Exception {
+                    return parseDataset();
+                }
+            });
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private TopicDataset parseDataset() throws Exception {
         FileBasedNIFDataset dataset = new FileBasedNIFDataset(wikiApi, file, getName(), Lang.TTL);
         dataset.init();
         return dataset;
@@ -0,0 +1,361 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.datasets.datahub;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Downloads corpus files. The data is streamed into a temporary ".part" file
+ * that is renamed when the download has been completed, i.e., when the number
+ * of received bytes matches the length announced by the server. If a download
+ * has been interrupted or truncated, the next download continues it using a
+ * range request.
+ * Downloaded files are revalidated using the ETag and Last-Modified headers of
+ * the server which are stored next to the file. If several threads need the
+ * same file at the same time, only one of them downloads it while the others
+ * wait for the result.
+ */
+public class DatahubCorpusDownloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatahubCorpusDownloader.class);
+
+    private static final String PART_FILE_SUFFIX = ".part";
+    private static final String META_FILE_SUFFIX = ".meta";
+    private static final String URL_KEY = "url";
+    private static final String ETAG_KEY = "eTag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 60000;
+    private static final long TRANSFER_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The downloads that are currently running mapped by the absolute path of
+     * their target file.
+     */
+    private static final ConcurrentMap<String, FutureTask<File>> RUNNING_DOWNLOADS = new ConcurrentHashMap<String, FutureTask<File>>();
+
+    private RestTemplate rt;
+
+    public DatahubCorpusDownloader() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(CONNECT_TIMEOUT);
+        requestFactory.setReadTimeout(READ_TIMEOUT);
+        rt = new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Makes sure that the given file contains the current version of the
+     * resource with the given URL. If the file exists but can't be
+     * revalidated, it is used as it is.
+     * 
+     * @param url
+     *            the URL of the corpus
+     * @param file
+     *            the file in which the corpus should be stored
+     * @return the file
+     * @throws IOException
+     *             if the file does not exist and couldn't be downloaded
+     */
+    public File download(final String url, final File file) throws IOException {
+        String key = file.getAbsolutePath();
+        FutureTask<File> download = new FutureTask<File>(new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                return downloadOrRevalidate(url, file);
+            }
+        });
+        FutureTask<File> runningDownload = RUNNING_DOWNLOADS.putIfAbsent(key, download);
+        if (runningDownload == null) {
+            try {
+                download.run();
+            } finally {
+                RUNNING_DOWNLOADS.remove(key, download);
+            }
+            runningDownload = download;
+        } else {
+            LOGGER.debug("Waiting for the running download of {}.", url);
+        }
+        try {
+            return runningDownload.get();
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while waiting for the download of " + url, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Couldn't download " + url, e.getCause());
+        }
+    }
+
+    protected File downloadOrRevalidate(String url, File file) throws IOException {
+        File metaFile = new File(file.getPath() + META_FILE_SUFFIX);
+        if (file.exists()) {
+            Properties validators = readValidators(metaFile, url);
+            if (validators == null) {
+                // the file has been downloaded without validators or for
+                // another URL, so we can not revalidate it
+                return file;
+            }
+            try {
+                if (transfer(url, file, validators)) {
+                    LOGGER.info("Updated {} since it has been changed at {}.", file, url);
+                } else {
+                    LOGGER.debug("{} is still up to date.", file);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Couldn't revalidate " + file + ". Using the existing file.", e);
+            }
+            return file;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if ((parent != null) && !parent.exists()) {
+            parent.mkdirs();
+        }
+        LOGGER.info("Downloading {} to {}.", url, file);
+        try {
+            transfer(url, file, null);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) {
+                throw e;
+            }
+            // the partial file does not fit to the resource, start again
+            deletePartialDownload(file);
+            transfer(url, file, null);
+        }
+        return file;
+    }
+
+    /**
+     * Requests the resource and streams it into the ".part" file of the given
+     * file. A partial download with validators is continued. If the resource
+     * has been transferred completely, the ".part" file replaces the given
+     * file.
+     * 
+     * @param validators
+     *            the validators of the existing file or null if there is no
+     *            file that could be revalidated
+     * @return true if the file has been replaced, false if the server answered
+     *         that it has not been modified
+     */
+    private boolean transfer(final String url, final File file, final Properties validators) throws IOException {
+        final File partFile = new File(file.getPath() + PART_FILE_SUFFIX);
+        final File partMetaFile = new File(partFile.getPath() + META_FILE_SUFFIX);
+        final Properties partValidators = partFile.exists() ? readValidators(partMetaFile, url) : null;
+        final long offset = (partValidators != null) ? partFile.length() : 0;
+        Boolean completed = rt.execute(url, HttpMethod.GET, new RequestCallback() {
+            @Override
+            public void doWithRequest(ClientHttpRequest request) throws IOException {
+                HttpHeaders headers = request.getHeaders();
+                if (offset > 0) {
+                    headers.set("Range", "bytes=" + offset + "-");
+                    headers.set("If-Range", getValidator(partValidators));
+                } else if (validators != null) {
+                    if (validators.getProperty(ETAG_KEY) != null) {
+                        headers.set("If-None-Match", validators.getProperty(ETAG_KEY));
+                    }
+                    if (validators.getProperty(LAST_MODIFIED_KEY) != null) {
+                        headers.set("If-Modified-Since", validators.getProperty(LAST_MODIFIED_KEY));
+                    }
+                }
+            }
+        }, new ResponseExtractor<Boolean>() {
+            @Override
+            public Boolean extractData(ClientHttpResponse response) throws IOException {
+                HttpStatus status = response.getStatusCode();
+                if (status == HttpStatus.NOT_MODIFIED) {
+                    return Boolean.FALSE;
+                }
+                HttpHeaders headers = response.getHeaders();
+                long position = 0;
+                long expectedLength = headers.getContentLength();
+                if ((status == HttpStatus.PARTIAL_CONTENT) && startsAt(headers, offset)) {
+                    LOGGER.info("Continuing the download of {} at byte {}.", url, offset);
+                    position = offset;
+                    expectedLength = getCompleteLength(headers, offset);
+                } else if (status != HttpStatus.OK) {
+                    throw new IOException("Got an unexpected response status " + status + " for " + url);
+                } else {
+                    // store the validators first to be able to continue an
+                    // interrupted download
+                    writeValidators(partMetaFile, url, headers);
+                }
+                long length = streamToFile(response.getBody(), partFile, position);
+                // HttpURLConnection reports the end of the stream if the
+                // connection has been closed before the body was complete
+                if ((expectedLength >= 0) && (length != expectedLength)) {
+                    throw new IOException("The download of " + url + " ended after " + length + " of "
+                            + expectedLength + " bytes. Keeping the partial file to continue it later.");
+                }
+                return Boolean.TRUE;
+            }
+        });
+        if (!Boolean.TRUE.equals(completed)) {
+            return false;
+        }
+        move(partMetaFile, new File(file.getPath() + META_FILE_SUFFIX));
+        move(partFile, file);
+        return true;
+    }
+
+    /**
+     * @return the length of the file after the stream has been written to it
+     */
+    private static long streamToFile(InputStream in, File file, long position) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(in);
+        FileChannel target = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            target.truncate(position);
+            long transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE);
+            while (transferred > 0) {
+                position += transferred;
+                transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE);
+            }
+            target.force(false);
+        } finally {
+            IOUtils.closeQuietly(target);
+            IOUtils.closeQuietly(source);
+        }
+        return position;
+    }
+
+    private static boolean startsAt(HttpHeaders headers, long offset) {
+        // Content-Range: bytes <start>-<end>/<length>
+        String contentRange = headers.getFirst("Content-Range");
+        return (contentRange != null) && contentRange.startsWith("bytes " + offset + "-");
+    }
+
+    /**
+     * @return the complete length of the resource given by the Content-Range
+     *         header or, if it is unknown, the offset plus the length of the
+     *         body. If both are unknown, -1 is returned.
+     */
+    private static long getCompleteLength(HttpHeaders headers, long offset) {
+        String contentRange = headers.getFirst("Content-Range");
+        int pos = contentRange.lastIndexOf('/');
+        if (pos >= 0) {
+            try {
+                return Long.parseLong(contentRange.substring(pos + 1).trim());
+            } catch (NumberFormatException e) {
+                // the length is unknown ("*")
+            }
+        }
+        long contentLength = headers.getContentLength();
+        return contentLength >= 0 ? offset + contentLength : -1;
+    }
+
+    private static String getValidator(Properties validators) {
+        String eTag = validators.getProperty(ETAG_KEY);
+        return eTag != null ? eTag : validators.getProperty(LAST_MODIFIED_KEY);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deletePartialDownload(File file) {
+        File partFile = new File(file.getPath() + PART_FILE_SUFFIX);
+        partFile.delete();
+        new File(partFile.getPath() + META_FILE_SUFFIX).delete();
+    }
+
+    /**
+     * @return the validators stored in the given file or null if the file
+     *         does not exist, belongs to another URL or contains no validator
+     */
+    private static Properties readValidators(File metaFile, String url) {
+        if (!metaFile.exists()) {
+            return null;
+        }
+        Properties validators = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(metaFile);
+            validators.load(in);
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't read " + metaFile + ".", e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        if (!url.equals(validators.getProperty(URL_KEY)) || (getValidator(validators) == null)) {
+            return null;
+        }
+        return validators;
+    }
+
+    private static void writeValidators(File metaFile, String url, HttpHeaders headers) throws IOException {
+        Properties validators = new Properties();
+        validators.setProperty(URL_KEY, url);
+        if (headers.getETag() != null) {
+            validators.setProperty(ETAG_KEY, headers.getETag());
+        }
+        if (headers.getFirst("Last-Modified") != null) {
+            validators.setProperty(LAST_MODIFIED_KEY, headers.getFirst("Last-Modified"));
+        }
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(metaFile);
+            validators.store(out, null);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+}
@@ -23,25 +23,62 @@
  */
 package org.aksw.gerbil.datasets.datahub;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.aksw.gerbil.config.GerbilConfiguration;
 import org.aksw.gerbil.datasets.datahub.model.Dataset;
 import org.aksw.gerbil.datasets.datahub.model.Resource;
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+/**
+ * Discovers the NIF corpora that are available at Datahub. Since the catalog
+ * needs one request per tag and per dataset, it is not loaded while the
+ * application is started. Instead, the datasets of the last successful
+ * discovery are loaded from a local snapshot file and the catalog is refreshed
+ * in the background. The refresh uses conditional requests, i.e., the
+ * metadata of datasets that haven't been changed is not transferred again,
+ * and fetches the metadata of several datasets concurrently. The
+ * {@link CatalogListener} is informed with the complete list of datasets
+ * after every refresh.
+ */
 public class DatahubNIFLoader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DatahubNIFLoader.class);
@@ -49,111 +86,451 @@ public class DatahubNIFLoader {
     private static final String DATAHUB_NIF_CORPUS_META_INF_URL_PROPERTY_NAME = "org.aksw.gerbil.datasets.DatahubNIFLoader.metaInfURL";
     private static final String DATAHUB_TAG_INF_URL_PROPERTY_NAME = "org.aksw.gerbil.datasets.DatahubNIFLoader.tagInfURL";
     private static final String DATAHUB_NEEDED_TAGS_ARRAY_PROPERTY_NAME = "org.aksw.gerbil.datasets.DatahubNIFLoader.corpusTags";
+    private static final String SNAPSHOT_FILE_PROPERTY_NAME = "org.aksw.gerbil.datasets.DatahubNIFLoader.snapshotFile";
+    private static final String REFRESH_INTERVAL_PROPERTY_NAME = "org.aksw.gerbil.datasets.DatahubNIFLoader.refreshInterval";
+    private static final String NUMBER_OF_FETCHING_THREADS_PROPERTY_NAME = "org.aksw.gerbil.datasets.DatahubNIFLoader.fetchingThreads";
+
+    private static final long DEFAULT_REFRESH_INTERVAL = 86400000;
+    private static final int DEFAULT_NUMBER_OF_FETCHING_THREADS = 4;
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 30000;
+    // add only files with less than 20mb
+    private static final long MAX_CONTENT_LENGTH = 20000000;
+    private static final Charset SNAPSHOT_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Is informed about the datasets that have been found by a refresh of the
+     * catalog.
+     */
+    public static interface CatalogListener {
+
+        /**
+         * @param datasets
+         *            the names of all datasets mapped to the URLs of their NIF
+         *            files
+         */
+        public void catalogUpdated(Map<String, String> datasets);
+    }
 
     private RestTemplate rt;
+    private String taggedCorpusURL;
+    private String nifCorpusMetaInfURL;
     private String neededTags[];
-    private Map<String, String> datasets;
+    private File snapshotFile;
+    private int numberOfFetchingThreads;
+    /**
+     * The responses of the last refresh for the tag requests.
+     */
+    private Map<String, CatalogEntry> tagEntries = new HashMap<String, CatalogEntry>();
+    /**
+     * The responses of the last refresh for the dataset requests. The values
+     * of an entry contain the URL of the NIF file or are empty if the dataset
+     * has no suitable file.
+     */
+    private Map<String, CatalogEntry> datasetEntries = new HashMap<String, CatalogEntry>();
+    private volatile Map<String, String> datasets = Collections.emptyMap();
+    private ScheduledExecutorService refreshExecutor;
 
+    /**
+     * Creates a loader using the URLs, tags and snapshot file defined in the
+     * properties.
+     */
     public DatahubNIFLoader() {
-        rt = new RestTemplate();
-        init();
+        this(GerbilConfiguration.getInstance().getString(DATAHUB_TAG_INF_URL_PROPERTY_NAME), GerbilConfiguration
+                .getInstance().getString(DATAHUB_NIF_CORPUS_META_INF_URL_PROPERTY_NAME), GerbilConfiguration
+                .getInstance().getStringArray(DATAHUB_NEEDED_TAGS_ARRAY_PROPERTY_NAME), getSnapshotFileFromConfig(),
+                GerbilConfiguration.getInstance().getInt(NUMBER_OF_FETCHING_THREADS_PROPERTY_NAME,
+                        DEFAULT_NUMBER_OF_FETCHING_THREADS));
     }
 
-    private void init() {
-        neededTags = GerbilConfiguration.getInstance().getStringArray(
-                DATAHUB_NEEDED_TAGS_ARRAY_PROPERTY_NAME);
+    /**
+     * @param taggedCorpusURL
+     *            the URL to which a tag is appended to get the datasets having
+     *            this tag
+     * @param nifCorpusMetaInfURL
+     *            the URL to which the name of a dataset is appended to get its
+     *            metadata
+     * @param neededTags
+     *            the tags a dataset must have
+     * @param snapshotFile
+     *            the file the catalog is loaded from and stored in or null if
+     *            it shouldn't be stored locally
+     * @param numberOfFetchingThreads
+     *            the number of concurrent requests
+     */
+    protected DatahubNIFLoader(String taggedCorpusURL, String nifCorpusMetaInfURL, String neededTags[],
+            File snapshotFile, int numberOfFetchingThreads) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(CONNECT_TIMEOUT);
+        requestFactory.setReadTimeout(READ_TIMEOUT);
+        rt = new RestTemplate(requestFactory);
+        this.taggedCorpusURL = taggedCorpusURL;
+        this.nifCorpusMetaInfURL = nifCorpusMetaInfURL;
+        this.neededTags = neededTags;
         if (neededTags == null) {
-            LOGGER.error("Couldn't load the needed property \"{}\".",
-                    DATAHUB_NEEDED_TAGS_ARRAY_PROPERTY_NAME);
-            neededTags = new String[0];
+            LOGGER.error("Couldn't load the needed property \"{}\".", DATAHUB_NEEDED_TAGS_ARRAY_PROPERTY_NAME);
+            this.neededTags = new String[0];
+        }
+        this.numberOfFetchingThreads = numberOfFetchingThreads;
+        this.snapshotFile = snapshotFile;
+        if (snapshotFile != null) {
+            loadSnapshot();
+        }
+    }
+
+    private static File getSnapshotFileFromConfig() {
+        String snapshotFileName = GerbilConfiguration.getInstance().getString(SNAPSHOT_FILE_PROPERTY_NAME);
+        if (snapshotFileName == null) {
+            LOGGER.warn("The property \"{}\" is not set. The Datahub catalog won't be stored locally.",
+                    SNAPSHOT_FILE_PROPERTY_NAME);
+            return null;
+        }
+        return new File(snapshotFileName);
+    }
+
+    /**
+     * Refreshes the catalog now and in the interval defined in the
+     * properties using a background thread.
+     * 
+     * @param listener
+     *            the listener that is informed after every refresh
+     */
+    public synchronized void startRefreshing(final CatalogListener listener) {
+        if (refreshExecutor != null) {
+            return;
+        }
+        long refreshInterval = GerbilConfiguration.getInstance().getLong(REFRESH_INTERVAL_PROPERTY_NAME,
+                DEFAULT_REFRESH_INTERVAL);
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("datahub-refresh").build());
+        refreshExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listener.catalogUpdated(refresh());
+                } catch (Exception e) {
+                    LOGGER.error("Couldn't refresh the Datahub catalog.", e);
+                }
+            }
+        }, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads the current catalog from Datahub. Datasets whose metadata couldn't
+     * be retrieved are taken from the last refresh.
+     * 
+     * @return the names of all datasets mapped to the URLs of their NIF files
+     */
+    public synchronized Map<String, String> refresh() throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfFetchingThreads, new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("datahub-fetch-%d").build());
+        try {
+            Set<String> nifDataSets = getNIFDataSets(executor);
+            if (nifDataSets == null) {
+                LOGGER.warn("Couldn't refresh the Datahub catalog. Keeping the {} known datasets.", datasets.size());
+                return datasets;
+            }
+            getNIFDataSetsMetaInformation(nifDataSets, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        Map<String, String> newDatasets = new HashMap<String, String>();
+        for (Entry<String, CatalogEntry> entry : datasetEntries.entrySet()) {
+            if (entry.getValue().values.length > 0) {
+                newDatasets.put(entry.getKey(), entry.getValue().values[0]);
+            }
         }
-        List<String> nifDataSets = getNIFDataSets();
-        getNIFDataSetsMetaInformation(nifDataSets);
+        datasets = Collections.unmodifiableMap(newDatasets);
+        LOGGER.info("Refreshed the Datahub catalog in {}ms. Found {} datasets.", System.currentTimeMillis()
+                - startTime, newDatasets.size());
+        storeSnapshot();
+        return datasets;
     }
 
-    private void getNIFDataSetsMetaInformation(List<String> nifDataSets) {
-        datasets = Maps.newHashMap();
-        String nifCorpusMetaInfURL = GerbilConfiguration.getInstance().getString(
-                DATAHUB_NIF_CORPUS_META_INF_URL_PROPERTY_NAME);
+    private void getNIFDataSetsMetaInformation(Set<String> nifDataSets, ExecutorService executor)
+            throws InterruptedException {
         if (nifCorpusMetaInfURL == null) {
             LOGGER.error("Couldn't load the needed property \"{}\". Aborting.",
                     DATAHUB_NIF_CORPUS_META_INF_URL_PROPERTY_NAME);
+            datasetEntries = new HashMap<String, CatalogEntry>();
             return;
         }
         // go through all datasets tagged with nif
-        for (String d : nifDataSets) {
-            ResponseEntity<Dataset.Response> entity = rt.getForEntity(nifCorpusMetaInfURL + d,
-                    Dataset.Response.class);
-            if (entity.getStatusCode().equals(HttpStatus.OK)) {
-                Dataset.Response body = entity.getBody();
-                List<Resource> resources = body.getResult().getResources();
-                // go through the downloadable Resources
-                for (Resource r : resources) {
-                    String url = r.getUrl();
-                    LOGGER.debug("checking {}", url);
-                    HttpHeaders headers = rt.headForHeaders(url);
-                    long contentLength = headers.getContentLength();
+        List<String> names = new ArrayList<String>(nifDataSets);
+        List<Callable<CatalogEntry>> requests = new ArrayList<Callable<CatalogEntry>>(names.size());
+        for (final String d : names) {
+            final CatalogEntry cachedEntry = datasetEntries.get(d);
+            requests.add(new Callable<CatalogEntry>() {
+                @Override
+                public CatalogEntry call() {
+                    return requestDatasetMetaInformation(d, nifCorpusMetaInfURL + d, cachedEntry);
+                }
+            });
+        }
+        List<Future<CatalogEntry>> responses = executor.invokeAll(requests);
+        Map<String, CatalogEntry> newDatasetEntries = new HashMap<String, CatalogEntry>();
+        CatalogEntry entry;
+        for (int i = 0; i < names.size(); ++i) {
+            entry = getResult(responses.get(i));
+            if (entry != null) {
+                newDatasetEntries.put(names.get(i), entry);
+            }
+        }
+        datasetEntries = newDatasetEntries;
+    }
+
+    private CatalogEntry requestDatasetMetaInformation(String d, String url, CatalogEntry cachedEntry) {
+        try {
+            ResponseEntity<Dataset.Response> entity = conditionalGet(url, cachedEntry, Dataset.Response.class);
+            if (entity.getStatusCode().equals(HttpStatus.NOT_MODIFIED)) {
+                return cachedEntry;
+            }
+            if (!entity.getStatusCode().equals(HttpStatus.OK)) {
+                LOGGER.warn("Couldn't get the meta data of {}. Status: {}", d, entity.getStatusCode());
+                return cachedEntry;
+            }
+            List<Resource> resources = entity.getBody().getResult().getResources();
+            String nifUrl = null;
+            // go through the downloadable Resources
+            for (Resource r : resources) {
+                String resourceUrl = r.getUrl();
+                // add if less than 20mb ends with ttl (turtle) but not with
+                // dataid.ttl (we aint gonna need it yet)
+                if (resourceUrl.endsWith(".ttl") && !resourceUrl.endsWith("dataid.ttl")) {
+                    LOGGER.debug("checking {}", resourceUrl);
+                    long contentLength = rt.headForHeaders(resourceUrl).getContentLength();
                     LOGGER.debug("{} bytes", contentLength);
-                    // FIXME - put the magic number in application.properties
-                    // add if less than 20mb ends with ttl (turtle) but not with dataid.ttl (we aint gonna need it yet)
-                    if (contentLength < 20_000_000 && url.endsWith(".ttl") && !url.endsWith("dataid.ttl")) {
-                        LOGGER.debug("{}: {} has less than 20mb and is turtle > add to Dataset", d, url);
-                        datasets.put(d, url);
+                    if (contentLength < MAX_CONTENT_LENGTH) {
+                        LOGGER.debug("{}: {} has less than 20mb and is turtle > add to Dataset", d, resourceUrl);
+                        nifUrl = resourceUrl;
                     }
                 }
             }
+            return new CatalogEntry(entity.getHeaders(), nifUrl != null ? new String[] { nifUrl } : new String[0]);
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't get the meta data of {}. Exception: {}", d, e.getMessage());
+            return cachedEntry;
         }
+    }
 
+    /**
+     * @return the names of the datasets that have all needed tags or null if
+     *         the datasets of a tag couldn't be retrieved
+     */
+    private Set<String> getNIFDataSets(ExecutorService executor) throws InterruptedException {
+        if (taggedCorpusURL == null) {
+            LOGGER.error("Couldn't load the needed property \"{}\". Aborting.", DATAHUB_TAG_INF_URL_PROPERTY_NAME);
+            return null;
+        }
+        List<Callable<CatalogEntry>> requests = new ArrayList<Callable<CatalogEntry>>(neededTags.length);
+        for (int i = 0; i < neededTags.length; ++i) {
+            final String tag = neededTags[i];
+            final CatalogEntry cachedEntry = tagEntries.get(tag);
+            requests.add(new Callable<CatalogEntry>() {
+                @Override
+                public CatalogEntry call() {
+                    return requestTaggedCorpora(tag, taggedCorpusURL + tag, cachedEntry);
+                }
+            });
+        }
+        List<Future<CatalogEntry>> responses = executor.invokeAll(requests);
+        Map<String, CatalogEntry> newTagEntries = new HashMap<String, CatalogEntry>();
+        Set<String> taggedCorpora = null;
+        CatalogEntry entry;
+        for (int i = 0; i < neededTags.length; ++i) {
+            entry = getResult(responses.get(i));
+            if (entry == null) {
+                // without the corpora of this tag the intersection can't be
+                // created
+                return null;
+            }
+            newTagEntries.put(neededTags[i], entry);
+            LOGGER.debug("corpora with \"{}\" tag {}", neededTags[i], entry.values);
+            if (taggedCorpora == null) {
+                taggedCorpora = Sets.newHashSet(entry.values);
+            } else {
+                taggedCorpora.retainAll(Sets.newHashSet(entry.values));
+            }
+        }
+        tagEntries = newTagEntries;
+        return taggedCorpora != null ? taggedCorpora : Collections.<String> emptySet();
     }
 
-    private List<String> getNIFDataSets() {
-        List<String> result = Lists.newArrayList();
+    private CatalogEntry requestTaggedCorpora(String tag, String url, CatalogEntry cachedEntry) {
+        try {
+            ResponseEntity<String[]> forEntity = conditionalGet(url, cachedEntry, String[].class);
+            if (forEntity.getStatusCode().equals(HttpStatus.NOT_MODIFIED)) {
+                return cachedEntry;
+            }
+            if (forEntity.getStatusCode().equals(HttpStatus.OK)) {
+                return new CatalogEntry(forEntity.getHeaders(), forEntity.getBody());
+            }
+            LOGGER.warn("Couldn't get any datasets with the {} tag from DataHubIO. Status: {}", tag,
+                    forEntity.getStatusCode());
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't get any datasets with the {} tag from DataHubIO. Exception: {}", tag,
+                    e.getMessage());
+        }
+        return cachedEntry;
+    }
 
-        String taggedCorpusURL = GerbilConfiguration.getInstance().getString(
-                DATAHUB_TAG_INF_URL_PROPERTY_NAME);
-        if (taggedCorpusURL == null) {
-            LOGGER.error("Couldn't load the needed property \"{}\". Aborting.",
-                    DATAHUB_TAG_INF_URL_PROPERTY_NAME);
-        } else {
-            Set<String> requestResult, taggedCorpora = null;
-            String[] body;
-            for (int i = 0; i < neededTags.length; ++i) {
-                try {
-                    ResponseEntity<String[]> forEntity = rt.getForEntity(taggedCorpusURL + neededTags[i],
-                            String[].class);
-                    if (forEntity.getStatusCode().equals(HttpStatus.OK)) {
-                        body = forEntity.getBody();
-                        if (taggedCorpora == null) {
-                            taggedCorpora = Sets.newHashSet(body);
-                            LOGGER.debug("corpora with \"{}\" tag {}", neededTags[i], taggedCorpora);
-                        } else {
-                            requestResult = Sets.newHashSet(body);
-                            LOGGER.debug("corpora with \"{}\" tag {}", neededTags[i], requestResult);
-                            taggedCorpora = Sets.intersection(taggedCorpora, requestResult);
-                        }
-                    } else {
-                        LOGGER.warn("Couldn't get any datasets with the {} tag from DataHubIO. Status: ",
-                                neededTags[i], forEntity.getStatusCode());
-                    }
-                } catch (Exception e) {
-                    LOGGER.warn("Couldn't get any datasets with the {} tag from DataHubIO. Exception: {}",
-                            neededTags[i], e);
+    /**
+     * Sends a GET request that is answered with 304 (Not Modified) if the
+     * resource hasn't been changed since the given entry has been retrieved.
+     */
+    private <T> ResponseEntity<T> conditionalGet(String url, CatalogEntry cachedEntry, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cachedEntry != null) {
+            if (cachedEntry.eTag != null) {
+                headers.setIfNoneMatch(cachedEntry.eTag);
+            }
+            if (cachedEntry.lastModified != null) {
+                headers.set("If-Modified-Since", cachedEntry.lastModified);
+            }
+        }
+        return rt.exchange(url, HttpMethod.GET, new HttpEntity<Void>(headers), responseType);
+    }
+
+    private static CatalogEntry getResult(Future<CatalogEntry> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                throw (InterruptedException) e;
+            }
+            LOGGER.warn("Got an exception while requesting the Datahub catalog.", e);
+            return null;
+        }
+    }
+
+    private void loadSnapshot() {
+        if (!snapshotFile.exists()) {
+            LOGGER.info("There is no snapshot of the Datahub catalog at {}.", snapshotFile.getAbsolutePath());
+            return;
+        }
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(snapshotFile), SNAPSHOT_CHARSET);
+            JSONObject snapshot = (JSONObject) new JSONParser().parse(reader);
+            tagEntries = CatalogEntry.fromJSON((JSONObject) snapshot.get("tags"));
+            datasetEntries = CatalogEntry.fromJSON((JSONObject) snapshot.get("datasets"));
+            Map<String, String> snapshotDatasets = new HashMap<String, String>();
+            for (Entry<String, CatalogEntry> entry : datasetEntries.entrySet()) {
+                if (entry.getValue().values.length > 0) {
+                    snapshotDatasets.put(entry.getKey(), entry.getValue().values[0]);
                 }
             }
+            datasets = Collections.unmodifiableMap(snapshotDatasets);
+            LOGGER.info("Loaded {} Datahub datasets from the snapshot.", snapshotDatasets.size());
+        } catch (Exception e) {
+            LOGGER.error("Couldn't load the snapshot of the Datahub catalog. It will be replaced.", e);
+            tagEntries = new HashMap<String, CatalogEntry>();
+            datasetEntries = new HashMap<String, CatalogEntry>();
+        } finally {
+            IOUtils.closeQuietly(reader);
         }
-        return result;
     }
 
-    public static void main(String[] args) {
-        DatahubNIFLoader d = new DatahubNIFLoader();
-        // d.init();
+    @SuppressWarnings("unchecked")
+    private void storeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        JSONObject snapshot = new JSONObject();
+        snapshot.put("tags", CatalogEntry.toJSON(tagEntries));
+        snapshot.put("datasets", CatalogEntry.toJSON(datasetEntries));
+        // write into a temporary file first so that the snapshot is replaced
+        // only if it has been written completely
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            File parent = snapshotFile.getAbsoluteFile().getParentFile();
+            if ((parent != null) && !parent.exists()) {
+                parent.mkdirs();
+            }
+            writer = new OutputStreamWriter(new FileOutputStream(tempFile), SNAPSHOT_CHARSET);
+            snapshot.writeJSONString(writer);
+            writer.close();
+            writer = null;
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.error("Couldn't store the snapshot of the Datahub catalog.", e);
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
 
-        for (Entry<String, String> e : d.datasets.entrySet()) {
+    public static void main(String[] args) throws InterruptedException {
+        DatahubNIFLoader d = new DatahubNIFLoader();
+        for (Entry<String, String> e : d.refresh().entrySet()) {
             LOGGER.debug("{}: {}", e.getKey(), e.getValue());
         }
     }
 
+    /**
+     * @return the datasets of the last refresh or the snapshot if the catalog
+     *         hasn't been refreshed
+     */
     public Map<String, String> getDataSets() {
         return datasets;
     }
+
+    /**
+     * The result of a request together with the headers needed for a
+     * conditional request.
+     */
+    protected static class CatalogEntry {
+
+        public final String eTag;
+        public final String lastModified;
+        public final String values[];
+
+        public CatalogEntry(String eTag, String lastModified, String values[]) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.values = values != null ? values : new String[0];
+        }
+
+        public CatalogEntry(HttpHeaders headers, String values[]) {
+            this(headers.getETag(), headers.getFirst("Last-Modified"), values);
+        }
+
+        @SuppressWarnings("unchecked")
+        public static JSONObject toJSON(Map<String, CatalogEntry> entries) {
+            JSONObject jsonEntries = new JSONObject();
+            JSONObject jsonEntry;
+            JSONArray jsonValues;
+            for (Entry<String, CatalogEntry> entry : entries.entrySet()) {
+                jsonEntry = new JSONObject();
+                jsonEntry.put("eTag", entry.getValue().eTag);
+                jsonEntry.put("lastModified", entry.getValue().lastModified);
+                jsonValues = new JSONArray();
+                Collections.addAll(jsonValues, entry.getValue().values);
+                jsonEntry.put("values", jsonValues);
+                jsonEntries.put(entry.getKey(), jsonEntry);
+            }
+            return jsonEntries;
+        }
+
+        public static Map<String, CatalogEntry> fromJSON(JSONObject jsonEntries) {
+            Map<String, CatalogEntry> entries = new HashMap<String, CatalogEntry>();
+            if (jsonEntries == null) {
+                return entries;
+            }
+            JSONObject jsonEntry;
+            JSONArray jsonValues;
+            for (Object key : jsonEntries.keySet()) {
+                jsonEntry = (JSONObject) jsonEntries.get(key);
+                jsonValues = (JSONArray) jsonEntry.get("values");
+                String values[] = new String[jsonValues != null ? jsonValues.size() : 0];
+                for (int i = 0; i < values.length; ++i) {
+                    values[i] = (String) jsonValues.get(i);
+                }
+                entries.put((String) key, new CatalogEntry((String) jsonEntry.get("eTag"),
+                        (String) jsonEntry.get("lastModified"), values));
+            }
+            return entries;
+        }
+    }
 }
@@ -200,6 +200,14 @@ public class ExperimentTaskResult {
         this.gerbilVersion = gerbilVersion;
     }
 
+    public int getIdInDb() {
+        return idInDb;
+    }
+
+    public void setIdInDb(int idInDb) {
+        this.idInDb = idInDb;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -2,7 +2,10 @@ package org.aksw.gerbil.datatypes;
 
 public class ExperimentTaskState {
 
-    private int numberOfExperimentSteps = 0;
+    /**
+     * Volatile since the progress is read by other threads.
+     */
+    private volatile int numberOfExperimentSteps = 0;
     private int maxNumberOfExperimentSteps = 0;
 
     public ExperimentTaskState(int maxNumberOfExperimentSteps) {
@@ -13,6 +16,14 @@ public class ExperimentTaskState {
         ++numberOfExperimentSteps;
     }
 
+    public int getNumberOfExperimentSteps() {
+        return numberOfExperimentSteps;
+    }
+
+    public int getMaxNumberOfExperimentSteps() {
+        return maxNumberOfExperimentSteps;
+    }
+
     public double getExperimentTaskProcess() {
         return ((double) numberOfExperimentSteps) / (double) maxNumberOfExperimentSteps;
     }
@@ -0,0 +1,67 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.datatypes;
+
+/**
+ * An experiment task that has been leased from the durable task queue. It
+ * contains the names of the task configuration so that the task can be
+ * recreated by every node that has access to the database.
+ */
+public class QueuedExperimentTask {
+
+    public int taskId;
+    /**
+     * The number of times this task has been leased (including the current
+     * lease).
+     */
+    public int attempts;
+    /**
+     * The name or definition of the annotator that can be resolved using the
+     * {@link org.aksw.gerbil.utils.AnnotatorMapping}.
+     */
+    public String annotatorName;
+    /**
+     * The name or definition of the dataset that can be resolved using the
+     * {@link org.aksw.gerbil.utils.DatasetMapping}.
+     */
+    public String datasetName;
+    public String experimentType;
+    public String matching;
+
+    public QueuedExperimentTask(int taskId, int attempts, String annotatorName, String datasetName,
+            String experimentType, String matching) {
+        this.taskId = taskId;
+        this.attempts = attempts;
+        this.annotatorName = annotatorName;
+        this.datasetName = datasetName;
+        this.experimentType = experimentType;
+        this.matching = matching;
+    }
+
+    @Override
+    public String toString() {
+        return "queuedTask(id=" + taskId + ",attempts=" + attempts + ",\"" + annotatorName + "\",\"" + datasetName
+                + "\",\"" + experimentType + "\",\"" + matching + "\")";
+    }
+}
@@ -65,7 +65,7 @@ public class ExperimentTask implements Task {
     private ExperimentTaskConfiguration configuration;
     private int experimentTaskId;
     private WikipediaApiInterface wikiAPI;
-    private ExperimentTaskState taskState = null;
+    private volatile ExperimentTaskState taskState = null;
 
     public ExperimentTask(int experimentTaskId, ExperimentDAO experimentDAO,
             ExperimentTaskConfiguration configuration, WikipediaApiInterface wikiAPI) {
@@ -239,6 +239,18 @@ public class ExperimentTask implements Task {
         return configuration.toString();
     }
 
+    public int getExperimentTaskId() {
+        return experimentTaskId;
+    }
+
+    /**
+     * @return the state of the task or null if the task hasn't started the
+     *         annotation of the documents, yet
+     */
+    public ExperimentTaskState getTaskState() {
+        return taskState;
+    }
+
     @Override
     public String getProgress() {
         if (taskState != null) {
@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.execute;
+
+/**
+ * An immutable event describing the progress of an experiment task. The
+ * events are published by the experiment engine into the
+ * {@link ProgressEventBus}.
+ */
+public class ProgressEvent {
+
+    public static enum Type {
+        /**
+         * The annotator started to annotate the documents of the dataset.
+         */
+        ANNOTATION_STARTED,
+        /**
+         * The annotator annotated all documents of the dataset. The value is
+         * the number of documents.
+         */
+        ANNOTATION_FINISHED,
+        /**
+         * The results for all score thresholds have been calculated. The
+         * value is the number of thresholds for which the metrics had to be
+         * calculated.
+         */
+        EVALUATION_FINISHED,
+        /**
+         * The cache of the Wikipedia API has been flushed.
+         */
+        CACHE_FLUSHED
+    }
+
+    private final long sequenceNumber;
+    private final long timestamp;
+    private final Type type;
+    private final String annotatorName;
+    private final String datasetName;
+    private final long value;
+
+    protected ProgressEvent(long sequenceNumber, long timestamp, Type type, String annotatorName,
+            String datasetName, long value) {
+        this.sequenceNumber = sequenceNumber;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.annotatorName = annotatorName;
+        this.datasetName = datasetName;
+        this.value = value;
+    }
+
+    /**
+     * @return the position of this event in the sequence of all events
+     *         published by the bus
+     */
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the name of the annotator or null if the event is not related
+     *         to an annotator
+     */
+    public String getAnnotatorName() {
+        return annotatorName;
+    }
+
+    public String getDatasetName() {
+        return datasetName;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(type);
+        if (annotatorName != null) {
+            builder.append(" annotator=");
+            builder.append(annotatorName);
+        }
+        if (datasetName != null) {
+            builder.append(" dataset=");
+            builder.append(datasetName);
+        }
+        if (value != 0) {
+            builder.append(" value=");
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.execute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.aksw.gerbil.execute.ProgressEvent.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A lock-free ring buffer for {@link ProgressEvent}s. Publishing an event only
+ * increments an atomic counter and sets an element of the buffer, i.e., the
+ * threads of the experiment tasks never wait for each other or for the
+ * consumers. Consumers either read the latest events directly or register a
+ * {@link ProgressEventListener} that is called asynchronously by a dispatching
+ * thread. If the consumers are too slow, the oldest events are overwritten.
+ */
+public class ProgressEventBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressEventBus.class);
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final long DISPATCH_INTERVAL = 200;
+
+    private static final ProgressEventBus INSTANCE = new ProgressEventBus(DEFAULT_CAPACITY);
+
+    public static ProgressEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    private final AtomicReferenceArray<ProgressEvent> buffer;
+    private final int mask;
+    private final AtomicLong nextSequenceNumber = new AtomicLong();
+    private final List<ProgressEventListener> listeners = new CopyOnWriteArrayList<ProgressEventListener>();
+    private Thread dispatcher;
+
+    /**
+     * @param capacity
+     *            the number of events the buffer can hold. It is rounded up
+     *            to the next power of two.
+     */
+    public ProgressEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        buffer = new AtomicReferenceArray<ProgressEvent>(size);
+        mask = size - 1;
+    }
+
+    public void publish(Type type, String annotatorName, String datasetName) {
+        publish(type, annotatorName, datasetName, 0);
+    }
+
+    public void publish(Type type, String annotatorName, String datasetName, long value) {
+        long sequenceNumber = nextSequenceNumber.getAndIncrement();
+        buffer.set((int) (sequenceNumber & mask), new ProgressEvent(sequenceNumber, System.currentTimeMillis(), type,
+                annotatorName, datasetName, value));
+    }
+
+    /**
+     * Copies the events starting with the given sequence number into the given
+     * list. Events that have already been overwritten are skipped.
+     * 
+     * @param fromSequenceNumber
+     *            the sequence number of the first event that should be read
+     * @param events
+     *            the list to which the events are added
+     * @return the sequence number of the next event that hasn't been read
+     */
+    public long readEvents(long fromSequenceNumber, List<ProgressEvent> events) {
+        long end = nextSequenceNumber.get();
+        long sequenceNumber = Math.max(fromSequenceNumber, end - buffer.length());
+        ProgressEvent event;
+        while (sequenceNumber < end) {
+            event = buffer.get((int) (sequenceNumber & mask));
+            if ((event == null) || (event.getSequenceNumber() < sequenceNumber)) {
+                // the event is still being published
+                break;
+            }
+            // if the event has a higher number, the event we are looking for
+            // has already been overwritten
+            if (event.getSequenceNumber() == sequenceNumber) {
+                events.add(event);
+            }
+            ++sequenceNumber;
+        }
+        return sequenceNumber;
+    }
+
+    /**
+     * @return the latest events (at most the given number)
+     */
+    public List<ProgressEvent> getLatestEvents(int count) {
+        List<ProgressEvent> events = new ArrayList<ProgressEvent>(count);
+        readEvents(Math.max(0, nextSequenceNumber.get() - count), events);
+        return events;
+    }
+
+    /**
+     * Adds a listener that is informed about all events published after it
+     * has been added. The dispatching thread is started with the first
+     * listener.
+     */
+    public synchronized void addListener(ProgressEventListener listener) {
+        listeners.add(listener);
+        if (dispatcher == null) {
+            dispatcher = new Thread(new Dispatcher(nextSequenceNumber.get()), "progress-event-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    public void removeListener(ProgressEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    private class Dispatcher implements Runnable {
+
+        private long nextEvent;
+
+        public Dispatcher(long nextEvent) {
+            this.nextEvent = nextEvent;
+        }
+
+        @Override
+        public void run() {
+            List<ProgressEvent> events = new ArrayList<ProgressEvent>();
+            long next, lostEvents;
+            while (true) {
+                try {
+                    Thread.sleep(DISPATCH_INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                next = readEvents(nextEvent, events);
+                lostEvents = next - nextEvent - events.size();
+                nextEvent = next;
+                if (events.isEmpty() && (lostEvents == 0)) {
+                    continue;
+                }
+                for (ProgressEventListener listener : listeners) {
+                    try {
+                        listener.handleEvents(events, lostEvents);
+                    } catch (Exception e) {
+                        LOGGER.error("Got an exception while dispatching progress events.", e);
+                    }
+                }
+                events = new ArrayList<ProgressEvent>();
+            }
+        }
+    }
+}
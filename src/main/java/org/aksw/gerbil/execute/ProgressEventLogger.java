@@ -21,54 +21,28 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package org.aksw.gerbil.utils;
+package org.aksw.gerbil.execute;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * An OutputStream that writes contents to a Logger upon each call to flush().
- * 
- * Main parts copied from https://blogs.oracle.com/nickstephen/entry/java_redirecting_system_out_and
+ * Writes the {@link ProgressEvent}s to the log.
  */
-public class ConsoleLogger extends ByteArrayOutputStream {
+public class ProgressEventLogger implements ProgressEventListener {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleLogger.class);
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressEventLogger.class);
 
-    private String lineSeparator = System.getProperty("line.separator");
-    private boolean logAsError = false;
-
-    public ConsoleLogger(boolean logAsError) {
-        super();
-        this.logAsError = logAsError;
-    }
-
-    /**
-     * upon flush() write the existing contents of the OutputStream
-     * to the logger as a log record.
-     * 
-     * @throws java.io.IOException
-     *             in case of error
-     */
-    public void flush() throws IOException {
-        String record;
-        synchronized (this) {
-            super.flush();
-            record = this.toString();
-            super.reset();
-
-            if (record.length() == 0 || record.equals(lineSeparator)) {
-                // avoid empty records
-                return;
-            }
-
-            if (logAsError) {
-                LOGGER.error(record);
-            } else {
-                LOGGER.info(record);
+    @Override
+    public void handleEvents(List<ProgressEvent> events, long lostEvents) {
+        if (lostEvents > 0) {
+            LOGGER.warn("{} progress events have been lost.", lostEvents);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            for (ProgressEvent event : events) {
+                LOGGER.debug(event.toString());
             }
         }
     }
@@ -0,0 +1,502 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.execute;
+
+import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aksw.gerbil.annotators.AnnotatorConfiguration;
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.ExperimentTaskStateListener;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.datasets.DatasetConfiguration;
+import org.aksw.gerbil.datatypes.ErrorTypes;
+import org.aksw.gerbil.datatypes.ExperimentTaskConfiguration;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.ExperimentTaskState;
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.datatypes.QueuedExperimentTask;
+import org.aksw.gerbil.matching.Matching;
+import org.aksw.gerbil.utils.AnnotatorMapping;
+import org.aksw.gerbil.utils.DatasetMapping;
+import org.aksw.gerbil.utils.SingletonWikipediaApi;
+import org.aksw.gerbil.utils.SlidingWindowCounter;
+import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
+import org.aksw.simba.topicmodeling.concurrent.tasks.Task;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The scheduler polls the durable {@link TaskQueueDAO} for experiment tasks,
+ * leases as many of them as it has free slots and hands them over to the
+ * {@link Overseer}. While the tasks are waiting for a thread of the overseer
+ * or are executed, their leases are renewed regularly (heartbeat). Since
+ * tasks are only removed from the queue after they have been executed, tasks
+ * that have been waiting or running while the server has been stopped or a
+ * worker died are leased again after their leases expired. A task that has
+ * been leased more than the maximum number of attempts is set to an error
+ * state. Tasks that have been done are removed from the queue after
+ * {@link #DONE_TASK_RETENTION} milliseconds.
+ * 
+ * <p>
+ * Several schedulers can share the same database. A scheduler with zero slots
+ * only submits tasks and leaves their execution to other workers (see
+ * {@link Worker}). The registered {@link ExperimentTaskStateListener}s are
+ * informed about tasks that have been finished by other workers.
+ * </p>
+ */
+public class TaskScheduler implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskScheduler.class);
+
+    public static final String POLL_INTERVAL_PROPERTY_NAME = "org.aksw.gerbil.execute.TaskScheduler.PollInterval";
+    public static final String LEASE_DURATION_PROPERTY_NAME = "org.aksw.gerbil.execute.TaskScheduler.LeaseDuration";
+    public static final String MAX_ATTEMPTS_PROPERTY_NAME = "org.aksw.gerbil.execute.TaskScheduler.MaxAttempts";
+    public static final String MAX_RUNNING_TASKS_PROPERTY_NAME = "org.aksw.gerbil.execute.TaskScheduler.MaxRunningTasks";
+    public static final long DEFAULT_POLL_INTERVAL = 5000;
+    public static final long DEFAULT_LEASE_DURATION = 300000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final int DEFAULT_MAX_RUNNING_TASKS = 20;
+    /**
+     * The tasks finished by other workers are searched inside this time frame
+     * (in addition to the poll interval) to cope with clocks of different
+     * nodes that are not in sync.
+     */
+    private static final long CLOCK_SKEW_TOLERANCE = 60000;
+    /**
+     * Tasks that have been done are kept inside the queue for one hour, so
+     * that other workers can inform their listeners about them.
+     */
+    public static final long DONE_TASK_RETENTION = 3600000;
+    /**
+     * The finished tasks are counted inside a window of one hour.
+     */
+    private static final int NUMBER_OF_WINDOW_BUCKETS = 60;
+    private static final long WINDOW_BUCKET_DURATION = 60000;
+
+    private final TaskQueueDAO taskQueue;
+    private final ExperimentDAO experimentDAO;
+    private final Overseer overseer;
+    private final WikipediaApiInterface wikiAPI;
+    private final String workerId;
+    private final int maxRunningTasks;
+    private final long pollInterval;
+    private final long leaseDuration;
+    private final int maxAttempts;
+    private final AtomicInteger runningTasks = new AtomicInteger(0);
+    private final AtomicLong finishedTasks = new AtomicLong(0);
+    private final SlidingWindowCounter recentlyFinishedTasks = new SlidingWindowCounter(NUMBER_OF_WINDOW_BUCKETS,
+            WINDOW_BUCKET_DURATION);
+    /**
+     * The tasks that are currently executed by this scheduler mapped to their
+     * ids.
+     */
+    private final Map<Integer, ExperimentTask> executedTasks = new ConcurrentHashMap<Integer, ExperimentTask>();
+    private final List<ExperimentTaskStateListener> listeners = new CopyOnWriteArrayList<ExperimentTaskStateListener>();
+    /**
+     * Ids of the tasks of other workers the listeners have been informed
+     * about.
+     */
+    private IntOpenHashSet notifiedTaskIds = new IntOpenHashSet();
+    private final Thread schedulerThread;
+    private volatile boolean running = true;
+
+    public TaskScheduler(TaskQueueDAO taskQueue, ExperimentDAO experimentDAO, Overseer overseer,
+            WikipediaApiInterface wikiAPI, String workerId, int maxRunningTasks, long pollInterval,
+            long leaseDuration, int maxAttempts) {
+        if ((maxRunningTasks < 0) || (pollInterval <= 0) || (leaseDuration <= 0) || (maxAttempts <= 0)) {
+            throw new IllegalArgumentException(
+                    "The poll interval, the lease duration and the attempts have to be positive and the number of tasks must not be negative.");
+        }
+        this.taskQueue = taskQueue;
+        this.experimentDAO = experimentDAO;
+        this.overseer = overseer;
+        this.wikiAPI = wikiAPI;
+        this.workerId = workerId;
+        this.maxRunningTasks = maxRunningTasks;
+        this.pollInterval = pollInterval;
+        this.leaseDuration = leaseDuration;
+        this.maxAttempts = maxAttempts;
+        this.schedulerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                schedule();
+            }
+        }, "task-scheduler");
+        this.schedulerThread.setDaemon(true);
+    }
+
+    /**
+     * Creates a scheduler with the given number of slots that uses the poll
+     * interval, lease duration and maximum number of attempts defined in the
+     * {@link GerbilConfiguration}.
+     */
+    public static TaskScheduler create(TaskQueueDAO taskQueue, ExperimentDAO experimentDAO, Overseer overseer,
+            int maxRunningTasks) {
+        Configuration config = GerbilConfiguration.getInstance();
+        long pollInterval = config.getLong(POLL_INTERVAL_PROPERTY_NAME, DEFAULT_POLL_INTERVAL);
+        long leaseDuration = config.getLong(LEASE_DURATION_PROPERTY_NAME, DEFAULT_LEASE_DURATION);
+        int maxAttempts = config.getInt(MAX_ATTEMPTS_PROPERTY_NAME, DEFAULT_MAX_ATTEMPTS);
+        return new TaskScheduler(taskQueue, experimentDAO, overseer, SingletonWikipediaApi.getInstance(),
+                createWorkerId(), maxRunningTasks, pollInterval, leaseDuration, maxAttempts);
+    }
+
+    /**
+     * Creates an id for a worker that is unique even if several workers are
+     * running on the same host.
+     */
+    public static String createWorkerId() {
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            hostName = "unknown";
+        }
+        return hostName + '-' + UUID.randomUUID().toString();
+    }
+
+    /**
+     * Starts polling the task queue.
+     */
+    public void start() {
+        if (maxRunningTasks > 0) {
+            LOGGER.info("Starting task scheduler \"{}\" executing up to {} tasks.", workerId, maxRunningTasks);
+        } else {
+            LOGGER.info("Starting task scheduler \"{}\". The tasks will be executed by other workers.", workerId);
+        }
+        schedulerThread.start();
+    }
+
+    /**
+     * Adds the tasks with the given ids and configurations to the task queue
+     * and wakes up the scheduler.
+     */
+    public void submit(int taskIds[], ExperimentTaskConfiguration configurations[]) {
+        String annotatorDefinitions[] = new String[configurations.length];
+        String datasetDefinitions[] = new String[configurations.length];
+        for (int i = 0; i < configurations.length; ++i) {
+            annotatorDefinitions[i] = AnnotatorMapping.getAnnotatorDefinition(configurations[i].annotatorConfig);
+            datasetDefinitions[i] = DatasetMapping.getDatasetDefinition(configurations[i].datasetConfig);
+        }
+        taskQueue.enqueueTasks(taskIds, annotatorDefinitions, datasetDefinitions);
+        wakeUp();
+    }
+
+    /**
+     * Registers a listener that is informed about tasks that have been
+     * finished by other workers. Note that tasks executed by this scheduler
+     * are reported by the {@link ExperimentDAO}.
+     */
+    public void addTaskStateListener(ExperimentTaskStateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Makes the scheduler poll the task queue immediately.
+     */
+    public synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    /**
+     * @return the number of tasks that have been handed over to the overseer
+     *         and haven't been finished
+     */
+    public int getNumberOfRunningTasks() {
+        return runningTasks.get();
+    }
+
+    /**
+     * Returns the state of the task with the given id if it is currently
+     * executed by this scheduler.
+     * 
+     * @return the state of the task or null if the task is not executed by
+     *         this scheduler or hasn't started the annotation of documents
+     */
+    public ExperimentTaskState getTaskState(int taskId) {
+        ExperimentTask task = executedTasks.get(taskId);
+        if (task != null) {
+            return task.getTaskState();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the task with the given id is currently executed by this
+     *         scheduler, else false
+     */
+    public boolean isExecutingTask(int taskId) {
+        return executedTasks.containsKey(taskId);
+    }
+
+    /**
+     * @return the tasks that are currently executed by this scheduler
+     */
+    public List<ExperimentTask> getExecutedTasks() {
+        return new ArrayList<ExperimentTask>(executedTasks.values());
+    }
+
+    /**
+     * @return the number of tasks this scheduler has executed since it has
+     *         been started
+     */
+    public long getNumberOfFinishedTasks() {
+        return finishedTasks.get();
+    }
+
+    /**
+     * @param timeSpan
+     *            the time span (in milliseconds) ending now. It can't be
+     *            larger than one hour.
+     * @return the number of tasks this scheduler finished during the given
+     *         time span
+     */
+    public long getNumberOfRecentlyFinishedTasks(long timeSpan) {
+        return recentlyFinishedTasks.getCount(timeSpan);
+    }
+
+    public int getMaxRunningTasks() {
+        return maxRunningTasks;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    private void schedule() {
+        long lastHeartbeat = System.currentTimeMillis();
+        long lastPurge = 0;
+        while (running) {
+            try {
+                // renew the leases before a third of their duration is over
+                if ((System.currentTimeMillis() - lastHeartbeat) > (leaseDuration / 3)) {
+                    taskQueue.renewLeases(workerId, leaseDuration);
+                    lastHeartbeat = System.currentTimeMillis();
+                }
+                if ((System.currentTimeMillis() - lastPurge) > DONE_TASK_RETENTION) {
+                    purgeDoneTasks();
+                    lastPurge = System.currentTimeMillis();
+                }
+                pollTaskQueue();
+                if (listeners.size() > 0) {
+                    notifyAboutTasksOfOtherWorkers();
+                }
+            } catch (Exception e) {
+                LOGGER.error("Got an exception while polling the task queue. Trying again later.", e);
+            }
+            synchronized (this) {
+                if (running) {
+                    try {
+                        wait(pollInterval);
+                    } catch (InterruptedException e) {
+                        // the scheduler has been closed
+                    }
+                }
+            }
+        }
+    }
+
+    private void pollTaskQueue() {
+        int freeSlots = maxRunningTasks - runningTasks.get();
+        if (freeSlots <= 0) {
+            return;
+        }
+        List<QueuedExperimentTask> tasks = taskQueue.leaseTasks(workerId, freeSlots, leaseDuration);
+        for (QueuedExperimentTask task : tasks) {
+            try {
+                startTask(task);
+            } catch (Exception e) {
+                // the lease would be renewed although the task is not
+                // executed. Thus, it is given back to the queue.
+                LOGGER.error("Couldn't start the task " + task + ". Releasing it.", e);
+                try {
+                    taskQueue.releaseLease(task.taskId, workerId);
+                } catch (Exception e2) {
+                    LOGGER.error("Couldn't release the task " + task + ".", e2);
+                }
+            }
+        }
+    }
+
+    private void purgeDoneTasks() {
+        // the done tasks have to be kept as long as they can be reported to
+        // the listeners of other workers
+        long retention = Math.max(DONE_TASK_RETENTION, (2 * pollInterval) + CLOCK_SKEW_TOLERANCE);
+        int removedTasks = taskQueue.removeTasksDoneBefore(System.currentTimeMillis() - retention);
+        if (removedTasks > 0) {
+            LOGGER.info("Removed {} done tasks from the task queue.", removedTasks);
+        }
+    }
+
+    private void notifyAboutTasksOfOtherWorkers() {
+        List<ExperimentTaskResult> results = taskQueue.getTasksDoneSince(System.currentTimeMillis()
+                - (2 * pollInterval) - CLOCK_SKEW_TOLERANCE, workerId);
+        IntOpenHashSet currentTaskIds = new IntOpenHashSet(results.size());
+        for (ExperimentTaskResult result : results) {
+            currentTaskIds.add(result.idInDb);
+            if (!notifiedTaskIds.contains(result.idInDb)) {
+                for (ExperimentTaskStateListener listener : listeners) {
+                    try {
+                        listener.experimentTaskFinished(result.idInDb, result.annotator, result.dataset,
+                                result.type.name(), result.matching.name(), result.state);
+                    } catch (Exception e) {
+                        LOGGER.error("Got an exception while informing a listener about a finished task.", e);
+                    }
+                }
+            }
+        }
+        // tasks that are out of the time frame won't be returned again
+        notifiedTaskIds = currentTaskIds;
+    }
+
+    private void startTask(QueuedExperimentTask task) {
+        if (task.attempts > maxAttempts) {
+            LOGGER.error("The task {} has been started {} times without being finished. Giving up.", task,
+                    task.attempts - 1);
+            abortTask(task, ErrorTypes.SERVER_STOPPED_WHILE_PROCESSING);
+            return;
+        }
+        ExperimentTaskConfiguration configuration;
+        try {
+            configuration = createConfiguration(task);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Couldn't recreate the configuration of the task " + task + ".", e);
+            abortTask(task, ErrorTypes.UNEXPECTED_EXCEPTION);
+            return;
+        }
+        if (configuration.annotatorConfig == null) {
+            LOGGER.error("Couldn't find the annotator of the task {}.", task);
+            abortTask(task, ErrorTypes.ANNOTATOR_LOADING_ERROR);
+        } else if (configuration.datasetConfig == null) {
+            LOGGER.error("Couldn't find the dataset of the task {}.", task);
+            abortTask(task, ErrorTypes.DATASET_LOADING_ERROR);
+        } else {
+            runningTasks.incrementAndGet();
+            try {
+                overseer.startTask(new LeasedExperimentTask(task.taskId, new ExperimentTask(task.taskId,
+                        experimentDAO, configuration, wikiAPI)));
+            } catch (RuntimeException e) {
+                runningTasks.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    private ExperimentTaskConfiguration createConfiguration(QueuedExperimentTask task) {
+        AnnotatorConfiguration annotatorConfig = AnnotatorMapping.getAnnotatorConfig(task.annotatorName);
+        DatasetConfiguration datasetConfig = DatasetMapping.getDatasetConfig(task.datasetName);
+        return new ExperimentTaskConfiguration(annotatorConfig, datasetConfig,
+                ExperimentType.valueOf(task.experimentType), Matching.valueOf(task.matching));
+    }
+
+    private void abortTask(QueuedExperimentTask task, ErrorTypes error) {
+        experimentDAO.setExperimentState(task.taskId, error.getErrorCode());
+        taskQueue.markTaskDone(task.taskId, workerId);
+    }
+
+    /**
+     * Stops polling the task queue and puts the leased tasks that haven't
+     * been started back into the queue. The leases of tasks that are still
+     * running aren't renewed anymore so that they are executed again after
+     * a restart.
+     */
+    @Override
+    public void close() {
+        running = false;
+        wakeUp();
+        try {
+            schedulerThread.join(pollInterval);
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while waiting for the scheduler thread.");
+        }
+        try {
+            taskQueue.releaseLeases(workerId);
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't release the leases of this scheduler.", e);
+        }
+    }
+
+    /**
+     * Wrapper of an {@link ExperimentTask} that keeps the task queue up to
+     * date.
+     */
+    protected class LeasedExperimentTask implements Task {
+
+        private final int taskId;
+        private final ExperimentTask task;
+
+        public LeasedExperimentTask(int taskId, ExperimentTask task) {
+            this.taskId = taskId;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (taskQueue.markTaskRunning(taskId, workerId, leaseDuration)) {
+                    executedTasks.put(taskId, task);
+                    try {
+                        task.run();
+                    } finally {
+                        executedTasks.remove(taskId);
+                    }
+                    taskQueue.markTaskDone(taskId, workerId);
+                    finishedTasks.incrementAndGet();
+                    recentlyFinishedTasks.increment();
+                } else {
+                    LOGGER.warn("Lost the lease of task {} before it could be started.", taskId);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Got an exception while executing the task " + taskId + ".", e);
+            } finally {
+                runningTasks.decrementAndGet();
+                wakeUp();
+            }
+        }
+
+        @Override
+        public String getId() {
+            return task.getId();
+        }
+
+        @Override
+        public String getProgress() {
+            return task.getProgress();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.execute;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.utils.DatasetMapping;
+import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
+import org.aksw.simba.topicmodeling.concurrent.overseers.pool.ExecutorBasedOverseer;
+import org.aksw.simba.topicmodeling.concurrent.reporter.LogReporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * A headless worker that executes experiment tasks of a database shared with
+ * other GERBIL nodes. The worker leases tasks from the durable task queue,
+ * keeps them alive with heartbeats and executes them using the normal
+ * {@link ExperimentTask}. The results are written back to the shared database.
+ * Thus, the web node only has to submit the tasks and display the results
+ * (set its <code>org.aksw.gerbil.execute.TaskScheduler.MaxRunningTasks</code>
+ * to 0) while the throughput scales with the number of workers.
+ * 
+ * <p>
+ * Note that all nodes have to use the same database server, i.e.,
+ * <code>gerbil.jdbc.url</code> should point to a HSQLDB server and
+ * <code>gerbil.jdbc.shutdownOnClose</code> has to be false. Additionally,
+ * the definitions of uploaded datasets contain file names relative to
+ * <code>org.aksw.gerbil.UploadPath</code>. Thus, this directory has to be
+ * shared with the web node, e.g., using a network file system, and has to be
+ * configured for the worker. The worker does not start if the directory can
+ * not be read.
+ * </p>
+ */
+public class Worker implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Worker.class);
+
+    public static final String MAX_RUNNING_TASKS_PROPERTY_NAME = "org.aksw.gerbil.execute.Worker.MaxRunningTasks";
+    public static final int DEFAULT_MAX_RUNNING_TASKS = 20;
+
+    public static void main(String[] args) {
+        int maxRunningTasks = GerbilConfiguration.getInstance().getInt(MAX_RUNNING_TASKS_PROPERTY_NAME,
+                DEFAULT_MAX_RUNNING_TASKS);
+        final Worker worker = new Worker(maxRunningTasks);
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                worker.close();
+            }
+        });
+        worker.start();
+        worker.awaitTermination();
+    }
+
+    private final int maxRunningTasks;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private ClassPathXmlApplicationContext context;
+    private TaskScheduler scheduler;
+
+    public Worker(int maxRunningTasks) {
+        if (maxRunningTasks <= 0) {
+            throw new IllegalArgumentException("A worker has to be able to run at least one task.");
+        }
+        this.maxRunningTasks = maxRunningTasks;
+    }
+
+    public synchronized void start() {
+        LOGGER.info("Starting headless worker.");
+        checkUploadDirectory();
+        context = new ClassPathXmlApplicationContext("/spring/database/database-context.xml");
+        // The DAO is not initialized since this would set the running tasks of
+        // the other nodes to an error state
+        ExperimentDAO experimentDAO = context.getBean(ExperimentDAO.class);
+        TaskQueueDAO taskQueue = context.getBean(TaskQueueDAO.class);
+        Overseer overseer = new ExecutorBasedOverseer(maxRunningTasks);
+        @SuppressWarnings("unused")
+        LogReporter reporter = new LogReporter(overseer);
+        ProgressEventBus.getInstance().addListener(new ProgressEventLogger());
+        scheduler = TaskScheduler.create(taskQueue, experimentDAO, overseer, maxRunningTasks);
+        scheduler.start();
+    }
+
+    /**
+     * Makes sure that the directory containing the uploaded datasets is
+     * available since the worker could not execute tasks using these datasets
+     * otherwise.
+     * 
+     * @throws IllegalStateException
+     *             if the directory is not configured or can not be read
+     */
+    private static void checkUploadDirectory() {
+        String uploadPath = GerbilConfiguration.getInstance().getString(
+                DatasetMapping.UPLOADED_FILES_PATH_PROPERTY_KEY);
+        if (uploadPath == null) {
+            throw new IllegalStateException("The upload directory (\""
+                    + DatasetMapping.UPLOADED_FILES_PATH_PROPERTY_KEY
+                    + "\") is not configured. It has to point to the directory shared with the web node.");
+        }
+        File uploadDir = new File(uploadPath);
+        if (!uploadDir.isDirectory() || !uploadDir.canRead()) {
+            throw new IllegalStateException("The upload directory \"" + uploadDir.getAbsolutePath()
+                    + "\" can not be read. It has to point to the directory shared with the web node.");
+        }
+        LOGGER.info("Reading uploaded datasets from \"{}\".", uploadDir.getAbsolutePath());
+    }
+
+    /**
+     * Blocks until the worker has been closed.
+     */
+    public void awaitTermination() {
+        try {
+            terminated.await();
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while waiting for the termination of the worker.");
+        }
+    }
+
+    /**
+     * Stops the scheduler and closes the connection to the database. Tasks
+     * that are still running will be executed by another worker after their
+     * leases expired.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.close();
+            scheduler = null;
+        }
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+        terminated.countDown();
+        LOGGER.info("Headless worker stopped.");
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import org.aksw.gerbil.utils.SingletonWikipediaApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maps concept IDs to their canonical IDs, i.e., the IDs that are returned by
+ * {@link WikipediaApiInterface#dereference(int)}. The IDs that are not known
+ * are dereferenced in a single pass using a batched prefetch of the Wikipedia
+ * API. After that, the mapping is used by the {@link MatchingsCounter}s to
+ * compare plain ints.
+ * 
+ * <p>
+ * Since the canonical ID of a concept does not depend on the dataset, there is
+ * one instance that is shared by all tasks. The mapping is published as an
+ * immutable snapshot that is replaced if new IDs are added. Thus, reading the
+ * mapping does not need any locking. If the mapping would grow larger than
+ * its maximum size, the new snapshot contains only the IDs that are currently
+ * needed.
+ * </p>
+ * 
+ * <p>
+ * The given {@link WikipediaApiInterface} has to be thread safe if it is
+ * shared by several threads, as the {@link SingletonWikipediaApi} is.
+ * </p>
+ */
+public class CanonicalConceptIds {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CanonicalConceptIds.class);
+
+    public static final int DEFAULT_MAX_SIZE = 1000000;
+
+    private static final CanonicalConceptIds INSTANCE = new CanonicalConceptIds(DEFAULT_MAX_SIZE);
+
+    /**
+     * Returns the instance that is shared by all tasks.
+     */
+    public static CanonicalConceptIds getInstance() {
+        return INSTANCE;
+    }
+
+    private final int maxSize;
+    private volatile Int2IntMap mapping = Int2IntMaps.unmodifiable(new Int2IntOpenHashMap());
+
+    public CanonicalConceptIds() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize
+     *            the number of IDs above which the IDs that are not needed
+     *            anymore are removed from the mapping
+     */
+    public CanonicalConceptIds(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the current snapshot of the mapping. It must not be modified.
+     */
+    public Int2IntMap getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Makes sure that the canonical IDs of all concepts of the given
+     * documents are known.
+     * 
+     * @return a snapshot of the mapping that contains all concepts of the
+     *         given documents.
+     * @throws IOException
+     *             if the Wikipedia API could not dereference an ID
+     */
+    public Int2IntMap canonicalize(List<? extends Collection<? extends Tag>> documents, WikipediaApiInterface wikiApi)
+            throws IOException {
+        Int2IntMap currentMapping = mapping;
+        IntOpenHashSet concepts = new IntOpenHashSet();
+        boolean missingIds = false;
+        for (Collection<? extends Tag> document : documents) {
+            for (Tag tag : document) {
+                concepts.add(tag.getConcept());
+                if (!missingIds && !currentMapping.containsKey(tag.getConcept())) {
+                    missingIds = true;
+                }
+            }
+        }
+        if (!missingIds) {
+            return currentMapping;
+        }
+        return addConcepts(concepts.toIntArray(), wikiApi);
+    }
+
+    /**
+     * Dereferences the given IDs that are not known and publishes a new
+     * snapshot containing all given IDs.
+     */
+    protected Int2IntMap addConcepts(int concepts[], WikipediaApiInterface wikiApi) throws IOException {
+        synchronized (this) {
+            // another thread might have added them in the meantime
+            IntArrayList missingIds = new IntArrayList(concepts.length);
+            for (int i = 0; i < concepts.length; ++i) {
+                if (!mapping.containsKey(concepts[i])) {
+                    missingIds.add(concepts[i]);
+                }
+            }
+            if (missingIds.size() == 0) {
+                return mapping;
+            }
+            LOGGER.debug("Dereferencing {} concept IDs.", missingIds.size());
+            Int2IntOpenHashMap newMapping;
+            if ((mapping.size() + missingIds.size()) > maxSize) {
+                // keep only the known IDs that are needed by the caller
+                newMapping = new Int2IntOpenHashMap(concepts.length);
+                for (int i = 0; i < concepts.length; ++i) {
+                    if (mapping.containsKey(concepts[i])) {
+                        newMapping.put(concepts[i], mapping.get(concepts[i]));
+                    }
+                }
+            } else {
+                newMapping = new Int2IntOpenHashMap(mapping.size() + missingIds.size());
+                newMapping.putAll(mapping);
+            }
+            try {
+                wikiApi.prefetchWids(missingIds);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Couldn't prefetch the redirects of the concepts.", e);
+            }
+            int id;
+            for (int i = 0; i < missingIds.size(); ++i) {
+                id = missingIds.getInt(i);
+                newMapping.put(id, wikiApi.dereference(id));
+            }
+            mapping = Int2IntMaps.unmodifiable(newMapping);
+            return mapping;
+        }
+    }
+}
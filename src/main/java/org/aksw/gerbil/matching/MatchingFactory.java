@@ -23,8 +23,10 @@
  */
 package org.aksw.gerbil.matching;
 
+import it.acubelab.batframework.data.Annotation;
 import it.acubelab.batframework.data.Tag;
 import it.acubelab.batframework.metrics.MatchRelation;
+import it.acubelab.batframework.metrics.Metrics;
 import it.acubelab.batframework.metrics.StrongAnnotationMatch;
 import it.acubelab.batframework.metrics.StrongTagMatch;
 import it.acubelab.batframework.metrics.WeakAnnotationMatch;
@@ -61,4 +63,32 @@ public class MatchingFactory {
         }
         return null;
     }
+
+    /**
+     * Creates the {@link Metrics} instance that should be used for the given
+     * {@link MatchRelation}. For the match relations created by this factory,
+     * a {@link MatchingsCounterBasedMetrics} instance is returned that
+     * produces the same results as the original BAT implementation without
+     * its quadratic comparison. For all other relations the original
+     * {@link Metrics} class is used.
+     * 
+     * @param wikiApi
+     *            the Wikipedia API used to dereference the concepts
+     * @param relation
+     *            the match relation
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <T extends Tag> Metrics<T> createMetrics(WikipediaApiInterface wikiApi, MatchRelation<T> relation) {
+        if (relation instanceof StrongAnnotationMatch) {
+            return (Metrics) new MatchingsCounterBasedMetrics<Annotation>((MatchRelation) relation,
+                    new StrongAnnotationMatchingsCounter(), wikiApi, CanonicalConceptIds.getInstance());
+        } else if (relation instanceof WeakAnnotationMatch) {
+            return (Metrics) new MatchingsCounterBasedMetrics<Annotation>((MatchRelation) relation,
+                    new WeakAnnotationMatchingsCounter(), wikiApi, CanonicalConceptIds.getInstance());
+        } else if (relation instanceof StrongTagMatch) {
+            return (Metrics) new MatchingsCounterBasedMetrics<Tag>((MatchRelation) relation,
+                    new StrongEntityMatchingsCounter(), wikiApi, CanonicalConceptIds.getInstance());
+        }
+        return new Metrics<T>();
+    }
 }
@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.metrics.MatchRelation;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.HashSet;
+
+/**
+ * A counter that determines the number of true positives, false positives and
+ * false negatives of a single document. It has to produce exactly the same
+ * counts as the BAT {@link it.acubelab.batframework.metrics.Metrics} class
+ * would produce for the {@link MatchRelation} the counter belongs to, but
+ * without comparing every annotation with every other annotation.
+ * 
+ * <p>
+ * The given sets have to be preprocessed by the {@link MatchRelation} already.
+ * The concepts are dereferenced using a given map that has been created
+ * before. Thus, a counter does not need the Wikipedia API and can be used by
+ * several threads at the same time.
+ * </p>
+ * 
+ * @param <T>
+ *            the type of the counted elements
+ */
+public interface MatchingsCounter<T extends Tag> {
+
+    public static final int TRUE_POSITIVES_ID = 0;
+    public static final int FALSE_POSITIVES_ID = 1;
+    public static final int FALSE_NEGATIVES_ID = 2;
+
+    /**
+     * Counts the matchings of a single document.
+     * 
+     * @param computed
+     *            the (preprocessed) annotations of the annotator
+     * @param goldStandard
+     *            the (preprocessed) annotations of the gold standard
+     * @param redirects
+     *            a map containing the dereferenced ID of every concept of the
+     *            two given sets
+     * @return an array containing the number of true positives, false positives
+     *         and false negatives (use {@link #TRUE_POSITIVES_ID},
+     *         {@link #FALSE_POSITIVES_ID} and {@link #FALSE_NEGATIVES_ID} to
+     *         access them)
+     */
+    public int[] countMatchings(HashSet<T> computed, HashSet<T> goldStandard, Int2IntMap redirects);
+}
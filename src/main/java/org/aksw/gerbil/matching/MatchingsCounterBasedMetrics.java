@@ -0,0 +1,193 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.metrics.MatchRelation;
+import it.acubelab.batframework.metrics.Metrics;
+import it.acubelab.batframework.metrics.MetricsResultSet;
+import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@link Metrics} implementation that uses a {@link MatchingsCounter} to
+ * compute the single document counts instead of comparing every annotation
+ * with every other annotation. The preprocessing of the {@link MatchRelation}
+ * and the computation of the micro and macro measures are the same as in the
+ * BAT framework. Thus, the results are identical.
+ * 
+ * <p>
+ * The concepts are mapped to their canonical IDs by the shared
+ * {@link CanonicalConceptIds} before the matching starts. Since this mapping
+ * is shared by all tasks, the concepts of a gold standard are dereferenced
+ * only once. After that, the documents
+ * are split into chunks that are counted in parallel using a
+ * {@link ForkJoinPool}. Every document writes only its own entries of the
+ * count arrays and the sums are computed sequentially afterwards, so the
+ * result does not depend on the number of threads.
+ * </p>
+ * 
+ * <p>
+ * If this class is called with a different {@link MatchRelation} than the one
+ * it has been created for, the original implementation is used.
+ * </p>
+ * 
+ * @param <T>
+ *            the type of the counted elements
+ */
+public class MatchingsCounterBasedMetrics<T extends Tag> extends Metrics<T> {
+
+    /**
+     * The number of documents below which a chunk is not split any further.
+     */
+    private static final int DOCUMENTS_PER_CHUNK = 16;
+
+    /**
+     * Pool that is shared by all instances of this class. Its threads are
+     * daemon threads and do not need to be shut down.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+    private MatchRelation<T> matchRelation;
+    private MatchingsCounter<T> counter;
+    private WikipediaApiInterface wikiApi;
+    private CanonicalConceptIds conceptIds;
+
+    public MatchingsCounterBasedMetrics(MatchRelation<T> matchRelation, MatchingsCounter<T> counter,
+            WikipediaApiInterface wikiApi, CanonicalConceptIds conceptIds) {
+        this.matchRelation = matchRelation;
+        this.counter = counter;
+        this.wikiApi = wikiApi;
+        this.conceptIds = conceptIds;
+    }
+
+    @Override
+    public MetricsResultSet getResult(List<HashSet<T>> outputOrig, List<HashSet<T>> goldStandardOrig,
+            MatchRelation<T> m) throws IOException {
+        if (m != matchRelation) {
+            return super.getResult(outputOrig, goldStandardOrig, m);
+        }
+        List<HashSet<T>> output = m.preProcessOutput(outputOrig);
+        List<HashSet<T>> goldStandard = m.preProcessGoldStandard(goldStandardOrig);
+        if (output.size() != goldStandard.size()) {
+            throw new IllegalArgumentException("The number of annotated documents (" + output.size()
+                    + ") differs from the number of gold standard documents (" + goldStandard.size() + ").");
+        }
+        conceptIds.canonicalize(goldStandard, wikiApi);
+        Int2IntMap redirects = conceptIds.canonicalize(output, wikiApi);
+
+        int tps[] = new int[output.size()];
+        int fps[] = new int[output.size()];
+        int fns[] = new int[goldStandard.size()];
+        CountingAction<T> action = new CountingAction<T>(counter, output, goldStandard, redirects, tps, fps, fns,
+                0, tps.length);
+        if (tps.length > DOCUMENTS_PER_CHUNK) {
+            POOL.invoke(action);
+        } else {
+            action.compute();
+        }
+
+        int tp = 0, fp = 0, fn = 0;
+        for (int i = 0; i < tps.length; ++i) {
+            tp += tps[i];
+            fp += fps[i];
+            fn += fns[i];
+        }
+        return createResultSet(tp, fp, fn, tps, fps, fns);
+    }
+
+    /**
+     * Creates the result set from the given counts using the same operations
+     * (and operation order) as {@link Metrics#getResult(List, List, MatchRelation)}.
+     */
+    protected MetricsResultSet createResultSet(int tp, int fp, int fn, int tps[], int fps[], int fns[]) {
+        float microPrecision = precision(tp, fp);
+        float microRecall = recall(tp, fp, fn);
+        float microF1 = F1(microRecall, microPrecision);
+        float macroPrecision = macroPrecision(tps, fps);
+        float macroRecall = macroRecall(tps, fps, fns);
+        float macroF1 = macroF1(tps, fps, fns);
+        float precisions[] = precisions(tps, fps);
+        float recalls[] = recalls(tps, fps, fns);
+        float f1s[] = f1s(tps, fps, fns);
+        return new MetricsResultSet(microF1, microRecall, microPrecision, macroF1, macroRecall, macroPrecision, tp,
+                fn, fp, precisions, recalls, f1s, tps, fps, fns);
+    }
+
+    /**
+     * Counts the matchings of the documents in [start, end) and splits itself
+     * if this range is larger than {@link MatchingsCounterBasedMetrics#DOCUMENTS_PER_CHUNK}.
+     */
+    private static class CountingAction<T extends Tag> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MatchingsCounter<T> counter;
+        private final List<HashSet<T>> output;
+        private final List<HashSet<T>> goldStandard;
+        private final Int2IntMap redirects;
+        private final int tps[];
+        private final int fps[];
+        private final int fns[];
+        private final int start;
+        private final int end;
+
+        public CountingAction(MatchingsCounter<T> counter, List<HashSet<T>> output, List<HashSet<T>> goldStandard,
+                Int2IntMap redirects, int[] tps, int[] fps, int[] fns, int start, int end) {
+            this.counter = counter;
+            this.output = output;
+            this.goldStandard = goldStandard;
+            this.redirects = redirects;
+            this.tps = tps;
+            this.fps = fps;
+            this.fns = fns;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if ((end - start) > DOCUMENTS_PER_CHUNK) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new CountingAction<T>(counter, output, goldStandard, redirects, tps, fps, fns, start,
+                        middle), new CountingAction<T>(counter, output, goldStandard, redirects, tps, fps, fns,
+                        middle, end));
+            } else {
+                int counts[];
+                for (int i = start; i < end; ++i) {
+                    counts = counter.countMatchings(output.get(i), goldStandard.get(i), redirects);
+                    tps[i] = counts[MatchingsCounter.TRUE_POSITIVES_ID];
+                    fps[i] = counts[MatchingsCounter.FALSE_POSITIVES_ID];
+                    fns[i] = counts[MatchingsCounter.FALSE_NEGATIVES_ID];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Annotation;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Collection;
+
+/**
+ * The annotations of a single document in primitive arrays, sorted by their
+ * dereferenced concept, their position and their length.
+ */
+class SortedAnnotations {
+
+    final Annotation annotations[];
+    final int concepts[];
+    final int positions[];
+    final int lengths[];
+    /**
+     * The maximum length of all annotations with the same concept as the
+     * annotation at the given index.
+     */
+    final int maxLengthOfConcept[];
+    final boolean containsNegativeLength;
+
+    public SortedAnnotations(Collection<? extends Annotation> annotations, Int2IntMap redirects) {
+        int size = annotations.size();
+        final Annotation unsorted[] = annotations.toArray(new Annotation[size]);
+        final int unsortedConcepts[] = new int[size];
+        for (int i = 0; i < size; ++i) {
+            unsortedConcepts[i] = redirects.get(unsorted[i].getConcept());
+        }
+        int order[] = new int[size];
+        for (int i = 0; i < size; ++i) {
+            order[i] = i;
+        }
+        IntArrays.quickSort(order, new AbstractIntComparator() {
+            @Override
+            public int compare(int i1, int i2) {
+                return SortedAnnotations.compare(unsortedConcepts[i1], unsorted[i1].getPosition(),
+                        unsorted[i1].getLength(), unsortedConcepts[i2], unsorted[i2].getPosition(),
+                        unsorted[i2].getLength());
+            }
+        });
+
+        this.annotations = new Annotation[size];
+        concepts = new int[size];
+        positions = new int[size];
+        lengths = new int[size];
+        maxLengthOfConcept = new int[size];
+        boolean containsNegativeLength = false;
+        for (int i = 0; i < size; ++i) {
+            this.annotations[i] = unsorted[order[i]];
+            concepts[i] = unsortedConcepts[order[i]];
+            positions[i] = this.annotations[i].getPosition();
+            lengths[i] = this.annotations[i].getLength();
+            if (lengths[i] < 0) {
+                containsNegativeLength = true;
+            }
+        }
+        this.containsNegativeLength = containsNegativeLength;
+        int groupStart = 0, maxLength;
+        while (groupStart < size) {
+            int groupEnd = groupStart;
+            maxLength = Integer.MIN_VALUE;
+            while ((groupEnd < size) && (concepts[groupEnd] == concepts[groupStart])) {
+                if (lengths[groupEnd] > maxLength) {
+                    maxLength = lengths[groupEnd];
+                }
+                ++groupEnd;
+            }
+            for (int i = groupStart; i < groupEnd; ++i) {
+                maxLengthOfConcept[i] = maxLength;
+            }
+            groupStart = groupEnd;
+        }
+    }
+
+    public int size() {
+        return annotations.length;
+    }
+
+    /**
+     * Compares the annotation at the given index with the annotation at the
+     * given index of the other array using the sort order of this class.
+     */
+    public int compare(int index, SortedAnnotations other, int otherIndex) {
+        return compare(concepts[index], positions[index], lengths[index], other.concepts[otherIndex],
+                other.positions[otherIndex], other.lengths[otherIndex]);
+    }
+
+    /**
+     * Returns the index of the first annotation with the given concept and a
+     * position that is greater or equal to the given position or the index of
+     * the first annotation of the next concept if there is no such annotation.
+     */
+    public int firstIndexOf(int concept, long position) {
+        int low = 0, high = concepts.length, middle;
+        while (low < high) {
+            middle = (low + high) >>> 1;
+            if ((concepts[middle] < concept) || ((concepts[middle] == concept) && (positions[middle] < position))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(int concept1, int position1, int length1, int concept2, int position2, int length2) {
+        if (concept1 != concept2) {
+            return concept1 < concept2 ? -1 : 1;
+        }
+        if (position1 != position2) {
+            return position1 < position2 ? -1 : 1;
+        }
+        if (length1 != length2) {
+            return length1 < length2 ? -1 : 1;
+        }
+        return 0;
+    }
+}
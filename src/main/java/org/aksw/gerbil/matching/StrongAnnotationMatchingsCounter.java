@@ -0,0 +1,72 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.metrics.StrongAnnotationMatch;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.HashSet;
+
+/**
+ * {@link MatchingsCounter} for the {@link StrongAnnotationMatch}. Both sets
+ * are sorted by (concept, position, length) and merged in a single pass.
+ */
+public class StrongAnnotationMatchingsCounter implements MatchingsCounter<Annotation> {
+
+    @Override
+    public int[] countMatchings(HashSet<Annotation> computed, HashSet<Annotation> goldStandard, Int2IntMap redirects) {
+        SortedAnnotations sortedComputed = new SortedAnnotations(computed, redirects);
+        SortedAnnotations sortedGold = new SortedAnnotations(goldStandard, redirects);
+        int tp = 0, fp = 0, fn = 0;
+        int c = 0, g = 0, groupEnd, comparison;
+        while ((c < sortedComputed.size()) && (g < sortedGold.size())) {
+            comparison = sortedComputed.compare(c, sortedGold, g);
+            if (comparison < 0) {
+                ++fp;
+                ++c;
+            } else if (comparison > 0) {
+                ++fn;
+                ++g;
+            } else {
+                // all computed annotations of this group are true positives,
+                // all gold annotations of this group have been found
+                groupEnd = c + 1;
+                while ((groupEnd < sortedComputed.size()) && (sortedComputed.compare(groupEnd, sortedGold, g) == 0)) {
+                    ++groupEnd;
+                }
+                tp += groupEnd - c;
+                c = groupEnd;
+                groupEnd = g + 1;
+                while ((groupEnd < sortedGold.size()) && (sortedGold.compare(groupEnd, sortedGold, g) == 0)) {
+                    ++groupEnd;
+                }
+                g = groupEnd;
+            }
+        }
+        fp += sortedComputed.size() - c;
+        fn += sortedGold.size() - g;
+        return new int[] { tp, fp, fn };
+    }
+}
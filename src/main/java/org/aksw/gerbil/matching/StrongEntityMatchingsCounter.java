@@ -0,0 +1,79 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.metrics.StrongTagMatch;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * {@link MatchingsCounter} for the {@link StrongTagMatch}. The dereferenced
+ * concepts of both sets are sorted and merged in a single pass.
+ */
+public class StrongEntityMatchingsCounter implements MatchingsCounter<Tag> {
+
+    @Override
+    public int[] countMatchings(HashSet<Tag> computed, HashSet<Tag> goldStandard, Int2IntMap redirects) {
+        int computedConcepts[] = sortedConcepts(computed, redirects);
+        int goldConcepts[] = sortedConcepts(goldStandard, redirects);
+        int tp = 0, fp = 0, fn = 0;
+        int c = 0, g = 0, concept;
+        while ((c < computedConcepts.length) && (g < goldConcepts.length)) {
+            if (computedConcepts[c] < goldConcepts[g]) {
+                ++fp;
+                ++c;
+            } else if (computedConcepts[c] > goldConcepts[g]) {
+                ++fn;
+                ++g;
+            } else {
+                concept = computedConcepts[c];
+                while ((c < computedConcepts.length) && (computedConcepts[c] == concept)) {
+                    ++tp;
+                    ++c;
+                }
+                while ((g < goldConcepts.length) && (goldConcepts[g] == concept)) {
+                    ++g;
+                }
+            }
+        }
+        fp += computedConcepts.length - c;
+        fn += goldConcepts.length - g;
+        return new int[] { tp, fp, fn };
+    }
+
+    private int[] sortedConcepts(Collection<Tag> tags, Int2IntMap redirects) {
+        int concepts[] = new int[tags.size()];
+        int pos = 0;
+        for (Tag tag : tags) {
+            concepts[pos] = redirects.get(tag.getConcept());
+            ++pos;
+        }
+        IntArrays.quickSort(concepts);
+        return concepts;
+    }
+}
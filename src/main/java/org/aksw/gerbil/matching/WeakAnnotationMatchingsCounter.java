@@ -0,0 +1,89 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.metrics.WeakAnnotationMatch;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.HashSet;
+
+/**
+ * {@link MatchingsCounter} for the {@link WeakAnnotationMatch}. The gold
+ * standard is sorted by (concept, position). For every computed annotation
+ * only the gold annotations of the same concept that start inside the window
+ * [position - maximum length of the concept, position + length] are checked,
+ * since no other annotation can overlap it. The overlap itself is checked
+ * using {@link Annotation#overlaps(Annotation)} to keep the exact semantics of
+ * the BAT framework. If an annotation has a negative length, all annotations
+ * of the same concept are checked.
+ */
+public class WeakAnnotationMatchingsCounter implements MatchingsCounter<Annotation> {
+
+    @Override
+    public int[] countMatchings(HashSet<Annotation> computed, HashSet<Annotation> goldStandard, Int2IntMap redirects) {
+        SortedAnnotations sortedComputed = new SortedAnnotations(computed, redirects);
+        SortedAnnotations sortedGold = new SortedAnnotations(goldStandard, redirects);
+        boolean goldFound[] = new boolean[sortedGold.size()];
+        boolean useWindow = !(sortedComputed.containsNegativeLength || sortedGold.containsNegativeLength);
+        int tp = 0, fp = 0, fn = 0;
+        int concept, g;
+        long windowEnd;
+        boolean found;
+        for (int c = 0; c < sortedComputed.size(); ++c) {
+            concept = sortedComputed.concepts[c];
+            if (useWindow) {
+                g = sortedGold.firstIndexOf(concept, Integer.MIN_VALUE);
+                if ((g < sortedGold.size()) && (sortedGold.concepts[g] == concept)) {
+                    g = sortedGold.firstIndexOf(concept, ((long) sortedComputed.positions[c])
+                            - sortedGold.maxLengthOfConcept[g]);
+                }
+                windowEnd = ((long) sortedComputed.positions[c]) + sortedComputed.lengths[c];
+            } else {
+                g = sortedGold.firstIndexOf(concept, Integer.MIN_VALUE);
+                windowEnd = Long.MAX_VALUE;
+            }
+            found = false;
+            while ((g < sortedGold.size()) && (sortedGold.concepts[g] == concept)
+                    && (sortedGold.positions[g] <= windowEnd)) {
+                if (sortedComputed.annotations[c].overlaps(sortedGold.annotations[g])) {
+                    found = true;
+                    goldFound[g] = true;
+                }
+                ++g;
+            }
+            if (found) {
+                ++tp;
+            } else {
+                ++fp;
+            }
+        }
+        for (int i = 0; i < goldFound.length; ++i) {
+            if (!goldFound[i]) {
+                ++fn;
+            }
+        }
+        return new int[] { tp, fp, fn };
+    }
+}
@@ -23,28 +23,34 @@
  */
 package org.aksw.gerbil.tools;
 
-import it.acubelab.batframework.data.Annotation;
-import it.acubelab.batframework.data.Tag;
-import it.acubelab.batframework.problems.C2WDataset;
-import it.acubelab.batframework.problems.D2WDataset;
+import it.acubelab.batframework.problems.TopicDataset;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.io.StringReader;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.gerbil.datasets.DatasetConfiguration;
 import org.aksw.gerbil.datatypes.ExperimentType;
 import org.aksw.gerbil.exceptions.GerbilException;
 import org.aksw.gerbil.utils.DatasetMapping;
+import org.aksw.gerbil.utils.DatasetMetaData;
+import org.aksw.gerbil.utils.DatasetMetaDataCalculator;
 import org.aksw.gerbil.utils.SingletonWikipediaApi;
 import org.apache.commons.io.IOUtils;
-import org.apache.lucene.analysis.WhitespaceTokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Calculates the {@link DatasetMetaData} of all known datasets and writes them
+ * to a file.
+ */
 public class DatasetAnalyzer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DatasetAnalyzer.class);
@@ -52,95 +58,61 @@ public class DatasetAnalyzer {
     public static void main(String[] args) {
         List<DatasetConfiguration> datasetConfigs = DatasetMapping.getDatasetConfigurations();
         PrintStream output = null;
+        // the datasets share the Wikipedia API while they are loaded and are
+        // analyzed one after the other
+        ExecutorService executor = Executors.newSingleThreadExecutor();
         try {
             output = new PrintStream("datasetAnalyzation.log");
-            DatasetAnalyzer analyzer = new DatasetAnalyzer(output);
-            for (DatasetConfiguration config : datasetConfigs) {
+            List<Future<String>> results = new ArrayList<Future<String>>(datasetConfigs.size());
+            for (final DatasetConfiguration config : datasetConfigs) {
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return analyzeDataset(config);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); ++i) {
                 try {
-                    analyzer.analyzeDataset(config);
-                    SingletonWikipediaApi.getInstance().flush();
-                } catch (GerbilException e) {
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    e.printStackTrace();
+                    output.println(results.get(i).get());
+                } catch (ExecutionException e) {
+                    LOGGER.error("Couldn't analyze " + datasetConfigs.get(i).getName() + ".", e.getCause());
                 }
             }
+            SingletonWikipediaApi.getInstance().flush();
         } catch (FileNotFoundException e) {
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
         } finally {
+            executor.shutdownNow();
             IOUtils.closeQuietly(output);
         }
     }
 
-    private PrintStream output;
-
-    public DatasetAnalyzer(PrintStream output) {
-        this.output = output;
-    }
-
-    public void analyzeDataset(DatasetConfiguration config) throws GerbilException {
-        analyzeAsD2W(config);
-        analyzeAsC2W(config);
-    }
-
-    private void analyzeAsC2W(DatasetConfiguration config) throws GerbilException {
-        D2WDataset dataset = (D2WDataset) config.getDataset(ExperimentType.D2KB);
+    public static String analyzeDataset(DatasetConfiguration config) throws GerbilException {
+        TopicDataset dataset = config.getDataset(ExperimentType.D2KB);
         if (dataset == null) {
-            return;
-        }
-        output.print("D2W dataset: " + config.getName());
-        output.print(" size=" + dataset.getSize());
-        List<HashSet<Annotation>> goldStandard = dataset.getD2WGoldStandardList();
-        double annotationsSum = 0;
-        for (HashSet<Annotation> annotations : goldStandard) {
-            annotationsSum += annotations.size();
+            dataset = config.getDataset(ExperimentType.C2KB);
         }
-        // analyze texts
-        int tokensSum = 0;
-        for (String text : dataset.getTextInstanceList()) {
-            tokensSum += countTokensInText(text);
-        }
-        output.print(" Annotations=" + annotationsSum);
-        output.print(" Annotations/doc=" + (annotationsSum / dataset.getSize()));
-        output.print(" tokens=" + tokensSum);
-        output.print(" tokens/doc=" + ((double) tokensSum / (double) dataset.getSize()));
-        output.println(" Annotations/tokens=" + ((double) annotationsSum / (double) tokensSum));
-    }
-
-    private int countTokensInText(String text) {
-        WhitespaceTokenizer tokenizer = new WhitespaceTokenizer(new StringReader(text));
-        int tokens = 0;
-        try {
-            while (tokenizer.incrementToken()) {
-                ++tokens;
-            }
-        } catch (IOException e) {
-            LOGGER.error("Error while tokenizing text. Returning.", e);
-        }
-        return tokens;
-    }
-
-    private void analyzeAsD2W(DatasetConfiguration config) throws GerbilException {
-        C2WDataset dataset = (C2WDataset) config.getDataset(ExperimentType.C2KB);
         if (dataset == null) {
-            return;
-        }
-        output.print("C2W dataset: " + config.getName());
-        output.print(" size=" + dataset.getSize());
-        List<HashSet<Tag>> goldStandard = dataset.getC2WGoldStandardList();
-        double annotationsSum = 0;
-        for (HashSet<Tag> annotations : goldStandard) {
-            annotationsSum += annotations.size();
-        }
-        // analyze texts
-        int tokensSum = 0;
-        for (String text : dataset.getTextInstanceList()) {
-            tokensSum += countTokensInText(text);
+            return config.getName() + ": not applicable";
         }
-        output.print(" Tags=" + annotationsSum);
-        output.print(" Tags/doc=" + (annotationsSum / dataset.getSize()));
-        output.print(" tokens=" + tokensSum);
-        output.print(" tokens/doc=" + ((double) tokensSum / (double) dataset.getSize()));
-        output.println(" Tags/tokens=" + ((double) annotationsSum / (double) tokensSum));
+        DatasetMetaData metadata = DatasetMetaDataCalculator.calculateMetaData(dataset);
+        StringBuilder builder = new StringBuilder();
+        builder.append(config.getName());
+        builder.append(": size=");
+        builder.append(metadata.numberOfDocuments);
+        builder.append(" entities=");
+        builder.append(metadata.numberOfEntities);
+        builder.append(" entities/doc=");
+        builder.append(metadata.entitiesPerDoc);
+        builder.append(" tokens/doc=");
+        builder.append(metadata.avgDocumentLength);
+        builder.append(" entities/tokens=");
+        builder.append(metadata.entitiesPerToken);
+        return builder.toString();
     }
 }
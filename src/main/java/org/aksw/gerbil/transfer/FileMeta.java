@@ -23,15 +23,14 @@
  */
 package org.aksw.gerbil.transfer;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-
 /**
- * Container file to upload files with blueimp/jQuery plugin
+ * Container file to upload files with blueimp/jQuery plugin. It contains only
+ * the meta data of an uploaded file, i.e., the content of the file is not sent
+ * back to the client.
  * 
  * @author didier
  *
  */
-@JsonIgnoreProperties({"bytes"})
 public class FileMeta {
     private String name;
     private String size;
@@ -41,7 +40,10 @@ public class FileMeta {
     private String deleteType;
     private String error;
     private String fileType;
-    private byte[] bytes;
+    private String hash;
+    private String storedName;
+    private int numberOfDocuments;
+    private int numberOfAnnotations;
 
     public String getName() {
         return name;
@@ -107,12 +109,42 @@ public class FileMeta {
         return fileType;
     }
 
-    public byte[] getBytes() {
-        return bytes;
+    /**
+     * @return the SHA-256 hash of the file content as hex string
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * @return the name under which the file is stored on the server
+     */
+    public String getStoredName() {
+        return storedName;
+    }
+
+    public void setStoredName(String storedName) {
+        this.storedName = storedName;
+    }
+
+    public int getNumberOfDocuments() {
+        return numberOfDocuments;
+    }
+
+    public void setNumberOfDocuments(int numberOfDocuments) {
+        this.numberOfDocuments = numberOfDocuments;
+    }
+
+    public int getNumberOfAnnotations() {
+        return numberOfAnnotations;
     }
 
-    public void setBytes(byte[] bytes) {
-        this.bytes = bytes;
+    public void setNumberOfAnnotations(int numberOfAnnotations) {
+        this.numberOfAnnotations = numberOfAnnotations;
     }
 
 }
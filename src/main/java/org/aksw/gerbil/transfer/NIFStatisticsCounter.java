@@ -0,0 +1,80 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.transfer;
+
+import org.aksw.gerbil.transfer.nif.vocabulary.NIF;
+import org.apache.jena.riot.system.StreamRDFBase;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.core.Quad;
+import com.hp.hpl.jena.vocabulary.RDF;
+
+/**
+ * Counts the contexts (i.e., documents) and annotations of a NIF file while
+ * it is parsed. Since the triples are not stored, the memory consumption
+ * doesn't depend on the size of the file. Every annotation (or marking) of a
+ * document refers to the context of this document using
+ * <code>nif:referenceContext</code>.
+ */
+public class NIFStatisticsCounter extends StreamRDFBase {
+
+    private static final Node RDF_TYPE = RDF.type.asNode();
+    private static final Node NIF_CONTEXT = NIF.Context.asNode();
+    private static final Node NIF_REFERENCE_CONTEXT = NIF.referenceContext.asNode();
+
+    private int numberOfTriples = 0;
+    private int numberOfContexts = 0;
+    private int numberOfAnnotations = 0;
+
+    @Override
+    public void triple(Triple triple) {
+        ++numberOfTriples;
+        Node predicate = triple.getPredicate();
+        if (RDF_TYPE.equals(predicate)) {
+            if (NIF_CONTEXT.equals(triple.getObject())) {
+                ++numberOfContexts;
+            }
+        } else if (NIF_REFERENCE_CONTEXT.equals(predicate)) {
+            ++numberOfAnnotations;
+        }
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        triple(quad.asTriple());
+    }
+
+    public int getNumberOfTriples() {
+        return numberOfTriples;
+    }
+
+    public int getNumberOfContexts() {
+        return numberOfContexts;
+    }
+
+    public int getNumberOfAnnotations() {
+        return numberOfAnnotations;
+    }
+}
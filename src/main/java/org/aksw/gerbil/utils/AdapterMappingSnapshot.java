@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.gerbil.datatypes.AdapterConfiguration;
+import org.aksw.gerbil.datatypes.ExperimentType;
+
+/**
+ * An immutable snapshot of a mapping from names to adapter configurations.
+ * The sorted names of the adapters that are applicable for an
+ * {@link ExperimentType} are computed once when the snapshot is created, so
+ * that they can be read by several threads without locking. A mapping that
+ * changes at runtime has to be replaced by a new snapshot.
+ * 
+ * @param <T>
+ *            the type of the adapter configurations
+ */
+class AdapterMappingSnapshot<T extends AdapterConfiguration> {
+
+    private final Map<String, T> mapping;
+    private final Map<ExperimentType, List<String>> namesPerType;
+
+    public AdapterMappingSnapshot(Map<String, T> mapping) {
+        this.mapping = Collections.unmodifiableMap(new HashMap<String, T>(mapping));
+        namesPerType = new EnumMap<ExperimentType, List<String>>(ExperimentType.class);
+        List<String> names;
+        for (ExperimentType type : ExperimentType.values()) {
+            names = new ArrayList<String>();
+            for (Map.Entry<String, T> entry : mapping.entrySet()) {
+                if (entry.getValue().isApplicableForExperiment(type)) {
+                    names.add(entry.getKey());
+                }
+            }
+            Collections.sort(names);
+            namesPerType.put(type, Collections.unmodifiableList(names));
+        }
+    }
+
+    public T get(String name) {
+        return mapping.get(name);
+    }
+
+    /**
+     * @return the sorted, unmodifiable list of the names of all adapters that
+     *         are applicable for the given experiment type
+     */
+    public List<String> getNames(ExperimentType type) {
+        return namesPerType.get(type);
+    }
+
+    public Map<String, T> getMapping() {
+        return mapping;
+    }
+
+    public Collection<T> getConfigurations() {
+        return mapping.values();
+    }
+}
@@ -26,9 +26,8 @@ package org.aksw.gerbil.utils;
 import it.acubelab.batframework.systemPlugins.DBPediaApi;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.aksw.gerbil.annotators.AgdistisAnnotatorConfig;
 import org.aksw.gerbil.annotators.AnnotatorConfiguration;
@@ -49,7 +48,8 @@ import org.slf4j.LoggerFactory;
  * This class is a very ugly workaround performing the mapping from annotator
  * names to {@link AnnotatorConfiguration} objects and from an
  * {@link ExperimentType} to a list of {@link AnnotatorConfiguration}s that are
- * usable for this {@link ExperimentType}.
+ * usable for this {@link ExperimentType}. The mapping is published as an
+ * immutable {@link AdapterMappingSnapshot} that is read without locking.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  */
@@ -59,9 +59,17 @@ public class AnnotatorMapping {
 
     private static final String NIF_WS_SUFFIX = "(NIF WS)";
 
-    private static AnnotatorMapping instance = null;
+    private static volatile AnnotatorMapping instance = null;
 
-    private synchronized static AnnotatorMapping getInstance() {
+    private static AnnotatorMapping getInstance() {
+        AnnotatorMapping annotators = instance;
+        if (annotators == null) {
+            annotators = createInstance();
+        }
+        return annotators;
+    }
+
+    private synchronized static AnnotatorMapping createInstance() {
         if (instance == null) {
             Map<String, AnnotatorConfiguration> mapping = new HashMap<String, AnnotatorConfiguration>();
             mapping.put(BabelfyAnnotatorConfig.ANNOTATOR_NAME,
@@ -88,9 +96,9 @@ public class AnnotatorMapping {
     }
 
     public static AnnotatorConfiguration getAnnotatorConfig(String name) {
-        AnnotatorMapping annotators = getInstance();
-        if (annotators.mapping.containsKey(name)) {
-            return annotators.mapping.get(name);
+        AnnotatorConfiguration config = getInstance().snapshot.get(name);
+        if (config != null) {
+            return config;
         } else {
             if (name.startsWith("NIFWS_")) {
                 // This describes a NIF based web service
@@ -112,20 +120,32 @@ public class AnnotatorMapping {
         }
     }
 
-    public static Set<String> getAnnotatorsForExperimentType(ExperimentType type) {
-        AnnotatorMapping annotators = getInstance();
-        Set<String> names = new HashSet<String>();
-        for (String datasetName : annotators.mapping.keySet()) {
-            if (annotators.mapping.get(datasetName).isApplicableForExperiment(type)) {
-                names.add(datasetName);
-            }
+    /**
+     * Returns the string from which the given configuration can be recreated
+     * using {@link #getAnnotatorConfig(String)}. For NIF based web services
+     * this is the "NIFWS_name(uri)" definition, for all other annotators it
+     * is their name.
+     */
+    public static String getAnnotatorDefinition(AnnotatorConfiguration config) {
+        String name = config.getName();
+        if ((config instanceof NIFWebserviceAnnotatorConfiguration) && name.endsWith(NIF_WS_SUFFIX)) {
+            return "NIFWS_" + name.substring(0, name.length() - NIF_WS_SUFFIX.length()) + '('
+                    + ((NIFWebserviceAnnotatorConfiguration) config).getAnnotatorURL() + ')';
         }
-        return names;
+        return name;
+    }
+
+    /**
+     * @return the sorted, unmodifiable list of the names of all annotators
+     *         that are applicable for the given experiment type
+     */
+    public static List<String> getAnnotatorsForExperimentType(ExperimentType type) {
+        return getInstance().snapshot.getNames(type);
     }
 
-    private final Map<String, AnnotatorConfiguration> mapping;
+    private final AdapterMappingSnapshot<AnnotatorConfiguration> snapshot;
 
     private AnnotatorMapping(Map<String, AnnotatorConfiguration> mapping) {
-        this.mapping = mapping;
+        this.snapshot = new AdapterMappingSnapshot<AnnotatorConfiguration>(mapping);
     }
 }
@@ -27,10 +27,9 @@ import it.acubelab.batframework.utils.WikipediaApiInterface;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.gerbil.config.GerbilConfiguration;
 import org.aksw.gerbil.datasets.ACE2004DatasetConfig;
@@ -53,7 +52,8 @@ import org.slf4j.LoggerFactory;
 /**
  * This class is a very ugly workaround performing the mapping from dataset names to {@link DatasetConfiguration}
  * objects and from an {@link ExperimentType} to a list of {@link DatasetConfiguration}s that are usable for this
- * {@link ExperimentType}.
+ * {@link ExperimentType}. The mapping is published as an immutable {@link AdapterMappingSnapshot} that is read without
+ * locking and replaced as a whole if the datasets from Datahub have been refreshed.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  * @author Giuseppe Rizzo <giuse.rizzo@gmail.com>
@@ -62,12 +62,21 @@ public class DatasetMapping {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DatasetMapping.class);
 
-    private static final String UPLOADED_FILES_PATH_PROPERTY_KEY = "org.aksw.gerbil.UploadPath";
+    public static final String UPLOADED_FILES_PATH_PROPERTY_KEY = "org.aksw.gerbil.UploadPath";
+    private static final String DATAHUB_DATASETS_ENABLED_PROPERTY_KEY = "org.aksw.gerbil.datasets.DatahubNIFLoader.enabled";
     private static final String UPLOADED_DATASET_SUFFIX = "(uploaded)";
 
-    private static DatasetMapping instance = null;
+    private static volatile DatasetMapping instance = null;
 
-    private synchronized static DatasetMapping getInstance() {
+    private static DatasetMapping getInstance() {
+        DatasetMapping datasets = instance;
+        if (datasets == null) {
+            datasets = createInstance();
+        }
+        return datasets;
+    }
+
+    private synchronized static DatasetMapping createInstance() {
         if (instance == null) {
             Map<String, DatasetConfiguration> nameDatasetMapping = new HashMap<String, DatasetConfiguration>();
             WikipediaApiInterface wikiApi = SingletonWikipediaApi.getInstance();
@@ -99,34 +108,47 @@ public class DatasetMapping {
                         nifDatasets[i]));
             }
 
-            // load Datahub data
-            DatahubNIFLoader datahub = new DatahubNIFLoader();
-            Map<String, String> datasets = datahub.getDataSets();
-            for (String datasetName : datasets.keySet()) {
-                nameDatasetMapping.put(datasetName,
-                        new DatahubNIFConfig(wikiApi, datasetName, datasets.get(datasetName), true));
+            final DatasetMapping mapping = new DatasetMapping(nameDatasetMapping, wikiApi);
+
+            if (GerbilConfiguration.getInstance().getBoolean(DATAHUB_DATASETS_ENABLED_PROPERTY_KEY, false)) {
+                // load the Datahub datasets from the local snapshot and
+                // refresh them in the background
+                DatahubNIFLoader datahub = new DatahubNIFLoader();
+                mapping.setDatahubDatasets(datahub.getDataSets());
+                datahub.startRefreshing(new DatahubNIFLoader.CatalogListener() {
+                    @Override
+                    public void catalogUpdated(Map<String, String> datasets) {
+                        mapping.setDatahubDatasets(datasets);
+                    }
+                });
+            } else {
+                LOGGER.info("The datasets from Datahub are disabled (\"{}\").", DATAHUB_DATASETS_ENABLED_PROPERTY_KEY);
             }
-
-            instance = new DatasetMapping(nameDatasetMapping);
+            instance = mapping;
         }
         return instance;
     }
 
-    public static Set<String> getDatasetsForExperimentType(ExperimentType type) {
-        DatasetMapping datasets = getInstance();
-        Set<String> names = new HashSet<String>();
-        for (String datasetName : datasets.mapping.keySet()) {
-            if (datasets.mapping.get(datasetName).isApplicableForExperiment(type)) {
-                names.add(datasetName);
-            }
-        }
-        return names;
+    /**
+     * @return the sorted, unmodifiable list of the names of all datasets that are applicable for the given experiment
+     *         type
+     */
+    public static List<String> getDatasetsForExperimentType(ExperimentType type) {
+        return getInstance().snapshot.getNames(type);
+    }
+
+    /**
+     * @return the version of the dataset mapping. It is increased every time
+     *         the datasets from Datahub are replaced.
+     */
+    public static int getMappingVersion() {
+        return getInstance().mappingVersion.get();
     }
 
     public static DatasetConfiguration getDatasetConfig(String name) {
-        DatasetMapping datasets = getInstance();
-        if (datasets.mapping.containsKey(name)) {
-            return datasets.mapping.get(name);
+        DatasetConfiguration config = getInstance().snapshot.get(name);
+        if (config != null) {
+            return config;
         } else {
             if (name.startsWith("NIFDS_")) {
                 String uploadedFilesPath = GerbilConfiguration.getInstance()
@@ -143,29 +165,89 @@ public class DatasetMapping {
                             + "\". Returning null.");
                     return null;
                 }
-                String uri = uploadedFilesPath + name.substring(pos + 1, name.length() - 1);
+                String fileName = name.substring(pos + 1, name.length() - 1);
+                String uri = uploadedFilesPath + fileName;
                 // remove "NIFDS_" from the name
                 name = name.substring(6, pos) + UPLOADED_DATASET_SUFFIX;
                 LOGGER.error("name={}, uri={}", name, uri);
+                // files stored under their hash have a fixed content
                 return new NIFFileDatasetConfig(SingletonWikipediaApi.getInstance(), name, uri,
-                        false, ExperimentType.Sa2KB);
+                        NIFFileDatasetConfig.getFingerprintFromFileName(fileName), false, ExperimentType.Sa2KB);
             }
             LOGGER.error("Got an unknown annotator name\"" + name + "\". Returning null.");
             return null;
         }
     }
 
+    /**
+     * Returns the string from which the given configuration can be recreated
+     * using {@link #getDatasetConfig(String)}. For uploaded datasets this is
+     * the "NIFDS_name(file)" definition, for all other datasets it is their
+     * name.
+     */
+    public static String getDatasetDefinition(DatasetConfiguration config) {
+        String name = config.getName();
+        if ((config instanceof NIFFileDatasetConfig) && name.endsWith(UPLOADED_DATASET_SUFFIX)) {
+            String file = ((NIFFileDatasetConfig) config).getFile();
+            String uploadedFilesPath = GerbilConfiguration.getInstance().getString(UPLOADED_FILES_PATH_PROPERTY_KEY);
+            if ((uploadedFilesPath != null) && file.startsWith(uploadedFilesPath)) {
+                file = file.substring(uploadedFilesPath.length());
+            }
+            return "NIFDS_" + name.substring(0, name.length() - UPLOADED_DATASET_SUFFIX.length()) + '(' + file
+                    + ')';
+        }
+        return name;
+    }
+
     public static List<DatasetConfiguration> getDatasetConfigurations() {
         return getInstance().getDatasetConfigs();
     }
 
-    private final Map<String, DatasetConfiguration> mapping;
+    /**
+     * The datasets that are not loaded from Datahub.
+     */
+    private final Map<String, DatasetConfiguration> staticMapping;
+    private final WikipediaApiInterface wikiApi;
+    /**
+     * The current mapping. It is never changed but replaced as a whole if the
+     * Datahub catalog has been refreshed.
+     */
+    private volatile AdapterMappingSnapshot<DatasetConfiguration> snapshot;
+    private final AtomicInteger mappingVersion = new AtomicInteger();
+
+    private DatasetMapping(Map<String, DatasetConfiguration> staticMapping, WikipediaApiInterface wikiApi) {
+        this.staticMapping = staticMapping;
+        this.wikiApi = wikiApi;
+        this.snapshot = new AdapterMappingSnapshot<DatasetConfiguration>(staticMapping);
+    }
 
-    private DatasetMapping(Map<String, DatasetConfiguration> mapping) {
-        this.mapping = mapping;
+    /**
+     * Replaces the datasets from Datahub with the given datasets.
+     * 
+     * @param datasets
+     *            the names of the Datahub datasets mapped to the URLs of their
+     *            NIF files
+     */
+    protected void setDatahubDatasets(Map<String, String> datasets) {
+        Map<String, DatasetConfiguration> newMapping = new HashMap<String, DatasetConfiguration>(staticMapping);
+        AdapterMappingSnapshot<DatasetConfiguration> currentSnapshot = snapshot;
+        DatasetConfiguration config;
+        for (String datasetName : datasets.keySet()) {
+            if (!newMapping.containsKey(datasetName)) {
+                // reuse the configuration if the URL of the dataset hasn't changed
+                config = currentSnapshot.get(datasetName);
+                if (!(config instanceof DatahubNIFConfig)
+                        || !datasets.get(datasetName).equals(((DatahubNIFConfig) config).getDatasetUrl())) {
+                    config = new DatahubNIFConfig(wikiApi, datasetName, datasets.get(datasetName), true);
+                }
+                newMapping.put(datasetName, config);
+            }
+        }
+        snapshot = new AdapterMappingSnapshot<DatasetConfiguration>(newMapping);
+        mappingVersion.incrementAndGet();
     }
 
     protected List<DatasetConfiguration> getDatasetConfigs() {
-        return new ArrayList<DatasetConfiguration>(this.mapping.values());
+        return new ArrayList<DatasetConfiguration>(snapshot.getConfigurations());
     }
 }
@@ -1,7 +1,8 @@
 package org.aksw.gerbil.utils;
 
 /**
- * Simple structure that contains some meta data of a dataset.
+ * Simple structure that contains some meta data of a dataset. Values that are
+ * not known are set to {@link Double#NaN}.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  * 
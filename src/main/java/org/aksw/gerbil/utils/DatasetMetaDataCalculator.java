@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.problems.C2WDataset;
+import it.acubelab.batframework.problems.D2WDataset;
+import it.acubelab.batframework.problems.TopicDataset;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Calculates the {@link DatasetMetaData} of a dataset and a hash of its
+ * content. The amounts of the entity types can not be derived from the
+ * dataset itself and are set to {@link Double#NaN}.
+ */
+public class DatasetMetaDataCalculator {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    public static DatasetMetaData calculateMetaData(TopicDataset dataset) {
+        DatasetMetaData metadata = new DatasetMetaData();
+        metadata.numberOfDocuments = dataset.getSize();
+        long tokens = 0;
+        for (String text : dataset.getTextInstanceList()) {
+            tokens += countTokens(text);
+        }
+        long entities = 0;
+        if (dataset instanceof D2WDataset) {
+            for (HashSet<Annotation> annotations : ((D2WDataset) dataset).getD2WGoldStandardList()) {
+                entities += annotations.size();
+            }
+        } else if (dataset instanceof C2WDataset) {
+            for (HashSet<Tag> tags : ((C2WDataset) dataset).getC2WGoldStandardList()) {
+                entities += tags.size();
+            }
+        }
+        metadata.numberOfEntities = (int) entities;
+        if (metadata.numberOfDocuments > 0) {
+            metadata.avgDocumentLength = (double) tokens / metadata.numberOfDocuments;
+            metadata.entitiesPerDoc = (double) entities / metadata.numberOfDocuments;
+        }
+        if (tokens > 0) {
+            metadata.entitiesPerToken = (double) entities / tokens;
+        }
+        metadata.amountOfPersons = Double.NaN;
+        metadata.amountOfOrganizations = Double.NaN;
+        metadata.amountOfLocations = Double.NaN;
+        metadata.amountOfOthers = Double.NaN;
+        return metadata;
+    }
+
+    /**
+     * Counts the tokens of the given text that are separated by whitespace.
+     */
+    public static int countTokens(String text) {
+        int tokens = 0;
+        boolean inToken = false;
+        for (int i = 0; i < text.length(); ++i) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                inToken = false;
+            } else if (!inToken) {
+                inToken = true;
+                ++tokens;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Calculates a SHA-256 hash of the texts and the gold standard of the
+     * given dataset.
+     */
+    public static String calculateContentHash(TopicDataset dataset) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        List<String> texts = dataset.getTextInstanceList();
+        List<HashSet<Annotation>> annotations = (dataset instanceof D2WDataset) ? ((D2WDataset) dataset)
+                .getD2WGoldStandardList() : null;
+        List<HashSet<Tag>> tags = ((annotations == null) && (dataset instanceof C2WDataset)) ? ((C2WDataset) dataset)
+                .getC2WGoldStandardList() : null;
+        List<String> markings = new ArrayList<String>();
+        for (int i = 0; i < texts.size(); ++i) {
+            hasher.putInt(texts.get(i).length());
+            hasher.putString(texts.get(i), CHARSET);
+            markings.clear();
+            if (annotations != null) {
+                for (Annotation annotation : annotations.get(i)) {
+                    markings.add(annotation.getPosition() + ":" + annotation.getLength() + ":"
+                            + annotation.getConcept());
+                }
+            } else if (tags != null) {
+                for (Tag tag : tags.get(i)) {
+                    markings.add(Integer.toString(tag.getConcept()));
+                }
+            }
+            // the order of the sets is not defined
+            Collections.sort(markings);
+            hasher.putInt(markings.size());
+            for (String marking : markings) {
+                hasher.putString(marking, CHARSET);
+                hasher.putChar('\n');
+            }
+        }
+        return hasher.hash().toString();
+    }
+}
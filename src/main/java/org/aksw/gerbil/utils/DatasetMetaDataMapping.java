@@ -4,7 +4,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Very ugly way to manage the mapping of datasets to their metadata objects.
+ * Very ugly way to manage the mapping of datasets to their metadata objects. The statistics calculated by the
+ * {@link DatasetStatisticsPipeline} are preferred over the values given here. Since the amounts of the entity types
+ * can not be calculated, they are taken from the values given here if possible.
  * 
  * FIXME: This should be part of the dataset objects or their metadata/configuration classes.
  * 
@@ -46,10 +48,17 @@ public class DatasetMetaDataMapping {
     }
 
     public DatasetMetaData getMetaData(String datasetName) {
-        if (mapping.containsKey(datasetName)) {
-            return mapping.get(datasetName);
-        } else {
-            return null;
+        DatasetMetaData knownMetaData = mapping.get(datasetName);
+        DatasetMetaData calculatedMetaData = DatasetStatisticsPipeline.getInstance().getMetaData(datasetName);
+        if (calculatedMetaData == null) {
+            return knownMetaData;
         }
+        if (knownMetaData == null) {
+            return calculatedMetaData;
+        }
+        return new DatasetMetaData(calculatedMetaData.entitiesPerDoc, calculatedMetaData.entitiesPerToken,
+                calculatedMetaData.avgDocumentLength, calculatedMetaData.numberOfDocuments,
+                calculatedMetaData.numberOfEntities, knownMetaData.amountOfPersons,
+                knownMetaData.amountOfOrganizations, knownMetaData.amountOfLocations, knownMetaData.amountOfOthers);
     }
 }
@@ -0,0 +1,310 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import it.acubelab.batframework.problems.TopicDataset;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Calculates the {@link DatasetMetaData} of every dataset when it is loaded
+ * for the first time. The calculation is done by a single background thread
+ * without delaying the experiment tasks that loaded the datasets. Only a
+ * {@link DatasetLoader} is queued, i.e., the queue does not keep the loaded
+ * datasets in memory and the background thread loads the dataset again
+ * (typically from the cache of the dataset configuration). Since datasets use
+ * the shared {@link SingletonWikipediaApi} while they are loaded, they are
+ * analyzed one after the other. The statistics are stored keyed by the hash
+ * of the dataset content, so that they are calculated only once for every
+ * version of a dataset. Since this hash is known only after loading the
+ * dataset, the hash is stored together with the key of the dataset version,
+ * which can be created without loading the dataset. Thus, a dataset is not
+ * loaded again after a restart as long as its key doesn't change.
+ */
+public class DatasetStatisticsPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetStatisticsPipeline.class);
+
+    private static final String STORE_FILE_PROPERTY_NAME = "org.aksw.gerbil.utils.DatasetStatisticsPipeline.storeFile";
+    private static final Charset STORE_CHARSET = Charset.forName("UTF-8");
+
+    private static DatasetStatisticsPipeline instance = null;
+
+    public static synchronized DatasetStatisticsPipeline getInstance() {
+        if (instance == null) {
+            String storeFileName = GerbilConfiguration.getInstance().getString(STORE_FILE_PROPERTY_NAME);
+            if (storeFileName == null) {
+                LOGGER.warn("The property \"{}\" is not set. The dataset statistics won't be stored.",
+                        STORE_FILE_PROPERTY_NAME);
+            }
+            instance = new DatasetStatisticsPipeline(storeFileName != null ? new File(storeFileName) : null);
+        }
+        return instance;
+    }
+
+    private final File storeFile;
+    private final ExecutorService executor;
+    /**
+     * The keys of the datasets that have been submitted for analysis since
+     * this instance has been created.
+     */
+    private final Set<String> submittedDatasets = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Map<String, String> datasetHashes = new ConcurrentHashMap<String, String>();
+    /**
+     * The content hashes of the dataset versions mapped to the keys of these
+     * versions.
+     */
+    private final Map<String, String> keyHashes = new ConcurrentHashMap<String, String>();
+    private final Map<String, DatasetMetaData> statistics = new ConcurrentHashMap<String, DatasetMetaData>();
+    /**
+     * Increased every time the statistics of a dataset have changed.
+     */
+    private final AtomicInteger version = new AtomicInteger();
+
+    protected DatasetStatisticsPipeline(File storeFile) {
+        this.storeFile = storeFile;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("dataset-statistics-%d").build());
+        if ((storeFile != null) && storeFile.exists()) {
+            loadStore();
+        }
+    }
+
+    /**
+     * Submits the given dataset for analysis if this version of the dataset
+     * hasn't been analyzed before.
+     * 
+     * @param key
+     *            identifies the version of the dataset, e.g., its name and
+     *            the fingerprint of its file
+     * @param name
+     *            the name of the dataset
+     * @param loader
+     *            loads the dataset when it is analyzed
+     */
+    public void datasetLoaded(final String key, final String name, final DatasetLoader loader) {
+        if (!submittedDatasets.add(key)) {
+            return;
+        }
+        String hash = keyHashes.get(key);
+        if ((hash != null) && statistics.containsKey(hash)) {
+            // this version has already been analyzed
+            if (!hash.equals(datasetHashes.put(name, hash))) {
+                storeStatistics();
+                version.incrementAndGet();
+            }
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                TopicDataset dataset;
+                try {
+                    dataset = loader.loadDataset();
+                } catch (Exception e) {
+                    LOGGER.error("Couldn't load " + name + " for calculating its statistics.", e);
+                    return;
+                }
+                if (dataset != null) {
+                    analyzeDataset(key, name, dataset);
+                }
+            }
+        });
+    }
+
+    protected void analyzeDataset(String key, String name, TopicDataset dataset) {
+        try {
+            long startTime = System.currentTimeMillis();
+            String hash = DatasetMetaDataCalculator.calculateContentHash(dataset);
+            if (!statistics.containsKey(hash)) {
+                statistics.put(hash, DatasetMetaDataCalculator.calculateMetaData(dataset));
+                LOGGER.info("Calculated the statistics of {} in {}ms.", name, System.currentTimeMillis()
+                        - startTime);
+            }
+            keyHashes.put(key, hash);
+            boolean changed = !hash.equals(datasetHashes.put(name, hash));
+            // the new key has to be stored even if the hash is known
+            storeStatistics();
+            if (changed) {
+                version.incrementAndGet();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Couldn't calculate the statistics of " + name + ".", e);
+        }
+    }
+
+    /**
+     * @return the statistics of the latest known version of the dataset with
+     *         the given name or null if it hasn't been analyzed
+     */
+    public DatasetMetaData getMetaData(String name) {
+        String hash = datasetHashes.get(name);
+        if (hash == null) {
+            return null;
+        }
+        return statistics.get(hash);
+    }
+
+    /**
+     * @return the version of the statistics. It is increased every time the
+     *         statistics of a dataset have changed.
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Loads a dataset for its analysis.
+     */
+    public static interface DatasetLoader {
+
+        public TopicDataset loadDataset() throws Exception;
+    }
+
+    private void loadStore() {
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(storeFile), STORE_CHARSET);
+            JSONObject store = (JSONObject) new JSONParser().parse(reader);
+            JSONObject jsonHashes = (JSONObject) store.get("datasets");
+            for (Object name : jsonHashes.keySet()) {
+                datasetHashes.put((String) name, (String) jsonHashes.get(name));
+            }
+            JSONObject jsonKeys = (JSONObject) store.get("keys");
+            if (jsonKeys != null) {
+                for (Object key : jsonKeys.keySet()) {
+                    keyHashes.put((String) key, (String) jsonKeys.get(key));
+                }
+            }
+            JSONObject jsonStatistics = (JSONObject) store.get("statistics");
+            for (Object hash : jsonStatistics.keySet()) {
+                statistics.put((String) hash, fromJSON((JSONObject) jsonStatistics.get(hash)));
+            }
+            LOGGER.info("Loaded the statistics of {} datasets.", datasetHashes.size());
+        } catch (Exception e) {
+            LOGGER.error("Couldn't load the stored dataset statistics. They will be calculated again.", e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void storeStatistics() {
+        if (storeFile == null) {
+            return;
+        }
+        JSONObject jsonHashes = new JSONObject();
+        jsonHashes.putAll(datasetHashes);
+        JSONObject jsonStatistics = new JSONObject();
+        // store only the statistics of datasets that are still known
+        for (String hash : datasetHashes.values()) {
+            if (statistics.containsKey(hash)) {
+                jsonStatistics.put(hash, toJSON(statistics.get(hash)));
+            }
+        }
+        // store only the keys of versions whose statistics are stored
+        JSONObject jsonKeys = new JSONObject();
+        for (Map.Entry<String, String> entry : keyHashes.entrySet()) {
+            if (jsonStatistics.containsKey(entry.getValue())) {
+                jsonKeys.put(entry.getKey(), entry.getValue());
+            }
+        }
+        JSONObject store = new JSONObject();
+        store.put("datasets", jsonHashes);
+        store.put("keys", jsonKeys);
+        store.put("statistics", jsonStatistics);
+        // write into a temporary file first so that the store is replaced
+        // only if it has been written completely
+        File tempFile = new File(storeFile.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            File parent = storeFile.getAbsoluteFile().getParentFile();
+            if ((parent != null) && !parent.exists()) {
+                parent.mkdirs();
+            }
+            writer = new OutputStreamWriter(new FileOutputStream(tempFile), STORE_CHARSET);
+            store.writeJSONString(writer);
+            writer.close();
+            writer = null;
+            Files.move(tempFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.error("Couldn't store the dataset statistics.", e);
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject toJSON(DatasetMetaData metadata) {
+        JSONObject json = new JSONObject();
+        json.put("numberOfDocuments", metadata.numberOfDocuments);
+        json.put("numberOfEntities", metadata.numberOfEntities);
+        json.put("avgDocumentLength", metadata.avgDocumentLength);
+        json.put("entitiesPerDoc", metadata.entitiesPerDoc);
+        json.put("entitiesPerToken", metadata.entitiesPerToken);
+        return json;
+    }
+
+    private static DatasetMetaData fromJSON(JSONObject json) {
+        DatasetMetaData metadata = new DatasetMetaData();
+        metadata.numberOfDocuments = ((Number) json.get("numberOfDocuments")).intValue();
+        metadata.numberOfEntities = ((Number) json.get("numberOfEntities")).intValue();
+        metadata.avgDocumentLength = ((Number) json.get("avgDocumentLength")).doubleValue();
+        metadata.entitiesPerDoc = ((Number) json.get("entitiesPerDoc")).doubleValue();
+        metadata.entitiesPerToken = ((Number) json.get("entitiesPerToken")).doubleValue();
+        // the amounts of the entity types can not be calculated
+        metadata.amountOfPersons = Double.NaN;
+        metadata.amountOfOrganizations = Double.NaN;
+        metadata.amountOfLocations = Double.NaN;
+        metadata.amountOfOthers = Double.NaN;
+        return metadata;
+    }
+}
@@ -26,13 +26,25 @@ package org.aksw.gerbil.utils;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathExpressionException;
 
 import org.aksw.gerbil.config.GerbilConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
 
 import it.acubelab.batframework.utils.WikipediaApiInterface;
 
+/**
+ * The Wikipedia API instance shared by all experiment tasks, dataset loaders
+ * and tools. Since the {@link WikipediaApiInterface} itself is not thread
+ * safe, all its public methods are synchronized on this instance. Callers
+ * that need several calls to be executed atomically (e.g., a prefetch
+ * followed by the single lookups) can synchronize on the instance, too.
+ */
 public class SingletonWikipediaApi extends WikipediaApiInterface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SingletonWikipediaApi.class);
@@ -105,4 +117,36 @@ public class SingletonWikipediaApi extends WikipediaApiInterface {
     public synchronized void flush() throws FileNotFoundException, IOException {
         super.flush();
     }
+
+    @Override
+    public synchronized int getIdByTitle(String title) throws IOException {
+        return super.getIdByTitle(title);
+    }
+
+    @Override
+    public synchronized String getTitlebyId(int wid) throws IOException {
+        return super.getTitlebyId(wid);
+    }
+
+    @Override
+    public synchronized boolean isRedirect(int wid) throws IOException {
+        return super.isRedirect(wid);
+    }
+
+    @Override
+    public synchronized int dereference(int wid) throws IOException {
+        return super.dereference(wid);
+    }
+
+    @Override
+    public synchronized void prefetchTitles(List<String> titlesToPrefetch) throws IOException,
+            ParserConfigurationException, SAXException, XPathExpressionException {
+        super.prefetchTitles(titlesToPrefetch);
+    }
+
+    @Override
+    public synchronized void prefetchWids(List<Integer> widsToPrefetch) throws IOException,
+            ParserConfigurationException, SAXException, XPathExpressionException {
+        super.prefetchWids(widsToPrefetch);
+    }
 }
@@ -0,0 +1,102 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+/**
+ * Counts events inside a sliding time window. The window is split into a
+ * fixed number of buckets that are reused in a round robin manner, i.e., the
+ * counter needs a constant amount of memory and counting an event is a simple
+ * array access.
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketDuration;
+    private final long counts[];
+    /**
+     * The ids of the time slots the buckets are currently used for.
+     */
+    private final long bucketIds[];
+
+    /**
+     * @param numberOfBuckets
+     *            the number of buckets the window is split into
+     * @param bucketDuration
+     *            the time (in milliseconds) covered by a single bucket
+     */
+    public SlidingWindowCounter(int numberOfBuckets, long bucketDuration) {
+        if ((numberOfBuckets <= 0) || (bucketDuration <= 0)) {
+            throw new IllegalArgumentException("The number of buckets and their duration have to be positive.");
+        }
+        this.bucketDuration = bucketDuration;
+        this.counts = new long[numberOfBuckets];
+        this.bucketIds = new long[numberOfBuckets];
+    }
+
+    public void increment() {
+        increment(System.currentTimeMillis());
+    }
+
+    protected synchronized void increment(long time) {
+        long bucketId = time / bucketDuration;
+        int pos = (int) (bucketId % counts.length);
+        if (bucketIds[pos] != bucketId) {
+            bucketIds[pos] = bucketId;
+            counts[pos] = 0;
+        }
+        ++counts[pos];
+    }
+
+    /**
+     * Returns the number of events that happened during the given time span.
+     * The time span is rounded up to whole buckets and can't be larger than
+     * the window of this counter.
+     * 
+     * @param timeSpan
+     *            the time span (in milliseconds) ending now
+     * @return the number of events inside this time span
+     */
+    public long getCount(long timeSpan) {
+        return getCount(System.currentTimeMillis(), timeSpan);
+    }
+
+    protected synchronized long getCount(long time, long timeSpan) {
+        long currentBucketId = time / bucketDuration;
+        long oldestBucketId = currentBucketId
+                - Math.min(counts.length, (timeSpan + bucketDuration - 1) / bucketDuration) + 1;
+        long sum = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            if ((bucketIds[i] >= oldestBucketId) && (bucketIds[i] <= currentBucketId)) {
+                sum += counts[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the time span (in milliseconds) covered by this counter
+     */
+    public long getWindowDuration() {
+        return counts.length * bucketDuration;
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import org.aksw.gerbil.database.ExperimentTaskStateListener;
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.matching.Matching;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache for the JSON representation of the experiment overview of every
+ * experiment type and matching. An overview is removed from the cache as soon
+ * as an experiment task with the same experiment type and matching has been
+ * finished. All overviews are removed if the data they are based on, i.e., the
+ * available datasets and their statistics, has changed (see
+ * {@link #updateSourceVersion(String)}).
+ * 
+ * Since an overview could be computed while a task is finished, every
+ * overview has to be created with the version of the cache that has been
+ * retrieved using {@link #getVersion()} before the results have been loaded.
+ * If the cache has been changed in the meantime, the overview is not cached.
+ */
+public class ExperimentOverviewCache implements ExperimentTaskStateListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExperimentOverviewCache.class);
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private final ConcurrentHashMap<String, CachedOverview> overviews = new ConcurrentHashMap<String, CachedOverview>();
+    private final AtomicInteger version = new AtomicInteger();
+    private final AtomicReference<String> sourceVersion = new AtomicReference<String>();
+
+    public CachedOverview get(ExperimentType experimentType, Matching matching) {
+        return overviews.get(generateKey(experimentType.name(), matching.name()));
+    }
+
+    /**
+     * Creates a {@link CachedOverview} instance for the given JSON string and
+     * adds it to the cache if the cache hasn't been changed since the given
+     * version has been retrieved.
+     * 
+     * @return the newly created overview
+     */
+    public CachedOverview put(ExperimentType experimentType, Matching matching, String json, int version) {
+        CachedOverview overview = new CachedOverview(json);
+        String key = generateKey(experimentType.name(), matching.name());
+        overviews.put(key, overview);
+        // if the cache has been changed in the meantime, the overview could be
+        // outdated
+        if (this.version.get() != version) {
+            overviews.remove(key, overview);
+        }
+        return overview;
+    }
+
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Removes all overviews if the given version of the data the overviews
+     * are based on differs from the version given by the previous call. Has
+     * to be called before an overview is retrieved.
+     * 
+     * @param sourceVersion
+     *            identifies the current version of the datasets and their
+     *            statistics
+     */
+    public void updateSourceVersion(String sourceVersion) {
+        String previousVersion = this.sourceVersion.getAndSet(sourceVersion);
+        if ((previousVersion != null) && !previousVersion.equals(sourceVersion)) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Removes all overviews from the cache.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        overviews.clear();
+    }
+
+    @Override
+    public void experimentTaskFinished(int experimentTaskId, String annotatorName, String datasetName,
+            String experimentType, String matching, int state) {
+        version.incrementAndGet();
+        overviews.remove(generateKey(experimentType, matching));
+    }
+
+    private static String generateKey(String experimentType, String matching) {
+        return experimentType + '|' + matching;
+    }
+
+    /**
+     * The cached JSON representation of an overview together with its gzip
+     * compressed version, their ETags and the time of its creation. Since the
+     * two versions have different content codings, they have different
+     * strong ETags.
+     */
+    public static class CachedOverview {
+
+        private final byte json[];
+        private final byte gzippedJson[];
+        private final String eTag;
+        private final String gzippedETag;
+        private final long lastModified;
+
+        public CachedOverview(String json) {
+            this.json = json.getBytes(CHARSET);
+            this.gzippedJson = gzip(this.json);
+            this.eTag = "\"" + Integer.toHexString(json.hashCode()) + "\"";
+            this.gzippedETag = "\"" + Integer.toHexString(json.hashCode()) + "-gzip\"";
+            // HTTP dates have a resolution of seconds
+            this.lastModified = (System.currentTimeMillis() / 1000) * 1000;
+        }
+
+        /**
+         * Returns true if the client already has the uncompressed version of
+         * the overview.
+         * 
+         * @see #isNotModified(String, long, boolean)
+         */
+        public boolean isNotModified(String ifNoneMatch, long ifModifiedSince) {
+            return isNotModified(ifNoneMatch, ifModifiedSince, false);
+        }
+
+        /**
+         * Returns true if the client already has this version of the
+         * overview, i.e., if one of the ETags sent by the client matches the
+         * ETag of the requested version or, if the client didn't send ETags,
+         * the client version has not been modified since the given date.
+         * 
+         * @param ifNoneMatch
+         *            the value of the If-None-Match header or null
+         * @param ifModifiedSince
+         *            the value of the If-Modified-Since header or -1
+         * @param gzipped
+         *            true if the gzip compressed version is requested
+         */
+        public boolean isNotModified(String ifNoneMatch, long ifModifiedSince, boolean gzipped) {
+            if (ifNoneMatch != null) {
+                return ifNoneMatch.contains(getETag(gzipped)) || ifNoneMatch.trim().equals("*");
+            }
+            return (ifModifiedSince >= 0) && (lastModified <= ifModifiedSince);
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * @return the ETag of the gzip compressed version if gzipped is true,
+         *         else the ETag of the uncompressed version
+         */
+        public String getETag(boolean gzipped) {
+            return gzipped ? gzippedETag : eTag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        private static byte[] gzip(byte data[]) {
+            ByteArrayOutputStream bout = new ByteArrayOutputStream(data.length / 4 + 64);
+            GZIPOutputStream gout = null;
+            try {
+                gout = new GZIPOutputStream(bout);
+                gout.write(data);
+                gout.finish();
+            } catch (IOException e) {
+                // can not happen since we are writing into memory
+                LOGGER.error("Couldn't compress the experiment overview.", e);
+                return null;
+            } finally {
+                IOUtils.closeQuietly(gout);
+            }
+            return bout.toByteArray();
+        }
+    }
+}
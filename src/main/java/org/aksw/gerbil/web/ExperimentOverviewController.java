@@ -2,30 +2,39 @@ package org.aksw.gerbil.web;
 
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
 
 import org.aksw.gerbil.database.ExperimentDAO;
 import org.aksw.gerbil.datatypes.ExperimentTaskResult;
 import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.execute.TaskScheduler;
 import org.aksw.gerbil.matching.Matching;
 import org.aksw.gerbil.utils.AnnotatorMapping;
 import org.aksw.gerbil.utils.DatasetMapping;
 import org.aksw.gerbil.utils.DatasetMetaData;
 import org.aksw.gerbil.utils.DatasetMetaDataMapping;
+import org.aksw.gerbil.utils.DatasetStatisticsPipeline;
 import org.aksw.gerbil.utils.PearsonsSampleCorrelationCoefficient;
+import org.aksw.gerbil.web.ExperimentOverviewCache.CachedOverview;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 public class ExperimentOverviewController {
@@ -34,6 +43,7 @@ public class ExperimentOverviewController {
 
     private static final double NOT_AVAILABLE_SENTINAL = -2;
     private static final int MIN_NUMBER_OF_VALUES_FOR_CORR_CALC = 5;
+    private static final MediaType JSON_MEDIA_TYPE = new MediaType("application", "json", Charset.forName("UTF-8"));
     private static final String CORRELATION_TABLE_COLUMN_HEADINGS[] = { "number of documents", "avg. document length",
             "number of entities", "entities per document", "entities per token", "amount of persons",
             "amount of organizations", "amount of locations", "amount of others"/*
@@ -45,22 +55,76 @@ public class ExperimentOverviewController {
     @Qualifier("experimentDAO")
     private ExperimentDAO dao;
 
+    @Autowired
+    private TaskScheduler scheduler;
+
+    private final ExperimentOverviewCache cache = new ExperimentOverviewCache();
+
+    @PostConstruct
+    public void init() {
+        dao.addTaskStateListener(cache);
+        // tasks executed by headless workers are reported by the scheduler
+        scheduler.addTaskStateListener(cache);
+    }
+
+    /**
+     * Returns the overview of the latest results for the given experiment type
+     * and matching. The overview is cached until the next experiment task with
+     * the same experiment type and matching has been finished or the datasets
+     * or their statistics have been changed. It is sent
+     * together with an ETag and a Last-Modified header so that clients can
+     * reuse their copy.
+     */
     @RequestMapping("/experimentoverview")
-    public @ResponseBody
-    String experimentoverview(@RequestParam(value = "experimentType") String experimentType,
-            @RequestParam(value = "matching") String matchingString) {
+    public ResponseEntity<byte[]> experimentoverview(@RequestParam(value = "experimentType") String experimentType,
+            @RequestParam(value = "matching") String matchingString, HttpServletRequest request) {
         LOGGER.debug("Got request on /experimentoverview(experimentType={}, matching={}", experimentType,
                 matchingString);
         Matching matching = MainController.getMatching(matchingString);
         ExperimentType eType = ExperimentType.valueOf(experimentType);
 
-        String annotatorNames[] = loadAnnotators(eType);
-        String datasetNames[] = loadDatasets(eType);
+        cache.updateSourceVersion(DatasetMapping.getMappingVersion() + "|"
+                + DatasetStatisticsPipeline.getInstance().getVersion());
+        CachedOverview overview = cache.get(eType, matching);
+        if (overview == null) {
+            int cacheVersion = cache.getVersion();
+            String annotatorNames[] = loadAnnotators(eType);
+            String datasetNames[] = loadDatasets(eType);
+
+            double results[][] = loadLatestResults(eType, matching, annotatorNames, datasetNames);
+            double correlations[][] = calculateCorrelations(results, datasetNames);
+            overview = cache.put(eType, matching,
+                    generateJson(results, correlations, annotatorNames, datasetNames), cacheVersion);
+        }
 
-        double results[][] = loadLatestResults(eType, matching, annotatorNames, datasetNames);
-        double correlations[][] = calculateCorrelations(results, datasetNames);
-        return generateJson(results, correlations, annotatorNames, datasetNames);
+        String acceptedEncodings = request.getHeader("Accept-Encoding");
+        boolean gzipped = (overview.getGzippedJson() != null) && (acceptedEncodings != null)
+                && acceptedEncodings.contains("gzip");
+        HttpHeaders headers = new HttpHeaders();
+        // the compressed and the uncompressed version have different ETags
+        headers.setETag(overview.getETag(gzipped));
+        headers.setLastModified(overview.getLastModified());
+        headers.setCacheControl("no-cache");
+        headers.add("Vary", "Accept-Encoding");
+        if (overview.isNotModified(request.getHeader("If-None-Match"), getIfModifiedSince(request), gzipped)) {
+            return new ResponseEntity<byte[]>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(JSON_MEDIA_TYPE);
+        if (gzipped) {
+            headers.add("Content-Encoding", "gzip");
+            return new ResponseEntity<byte[]>(overview.getGzippedJson(), headers, HttpStatus.OK);
+        } else {
+            return new ResponseEntity<byte[]>(overview.getJson(), headers, HttpStatus.OK);
+        }
+    }
 
+    private static long getIfModifiedSince(HttpServletRequest request) {
+        try {
+            return request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            // the header couldn't be parsed
+            return -1;
+        }
     }
 
     private double[][] loadLatestResults(ExperimentType experimentType, Matching matching, String[] annotatorNames,
@@ -96,95 +160,63 @@ public class ExperimentOverviewController {
     }
 
     private String[] loadAnnotators(ExperimentType eType) {
-        Set<String> annotators = AnnotatorMapping.getAnnotatorsForExperimentType(eType);
-        String annotatorNames[] = annotators.toArray(new String[annotators.size()]);
-        Arrays.sort(annotatorNames);
-        return annotatorNames;
+        List<String> annotators = AnnotatorMapping.getAnnotatorsForExperimentType(eType);
+        return annotators.toArray(new String[annotators.size()]);
     }
 
     private String[] loadDatasets(ExperimentType eType) {
-        Set<String> datasets = DatasetMapping.getDatasetsForExperimentType(eType);
-        String datasetNames[] = datasets.toArray(new String[datasets.size()]);
-        Arrays.sort(datasetNames);
-        return datasetNames;
+        List<String> datasets = DatasetMapping.getDatasetsForExperimentType(eType);
+        return datasets.toArray(new String[datasets.size()]);
     }
 
     private double[][] calculateCorrelations(double[][] results, String datasetNames[]) {
         DatasetMetaDataMapping mapping = DatasetMetaDataMapping.getInstance();
-        DatasetMetaData metadata[] = new DatasetMetaData[datasetNames.length];
+        // the values of the meta data in the order of the correlation table
+        double metadata[][] = new double[datasetNames.length][];
         for (int i = 0; i < datasetNames.length; ++i) {
-            metadata[i] = mapping.getMetaData(datasetNames[i]);
+            metadata[i] = getMetaDataValues(mapping.getMetaData(datasetNames[i]));
         }
         double correlations[][] = new double[results.length][CORRELATION_TABLE_COLUMN_HEADINGS.length];
         DoubleArrayList annotatorResults = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList numberOfDocuments = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList avgDocumentLength = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList numberOfEntities = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList entitiesPerDoc = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList entitiesPerToken = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList amountOfPersons = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList amountOfOrganizations = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList amountOfLocations = new DoubleArrayList(datasetNames.length);
-        DoubleArrayList amountOfOthers = new DoubleArrayList(datasetNames.length);
-        double annotatorResultsAsArray[];
+        DoubleArrayList metadataValues = new DoubleArrayList(datasetNames.length);
         int elementCount;
         for (int i = 0; i < correlations.length; ++i) {
             Arrays.fill(correlations[i], NOT_AVAILABLE_SENTINAL);
-            // load the values for this annotator
-            annotatorResults.clear();
-            numberOfDocuments.clear();
-            avgDocumentLength.clear();
-            numberOfEntities.clear();
-            entitiesPerDoc.clear();
-            entitiesPerToken.clear();
-            amountOfPersons.clear();
-            amountOfOrganizations.clear();
-            amountOfLocations.clear();
-            amountOfOthers.clear();
-            for (int j = 0; j < results[i].length; ++j) {
-                if ((metadata[j] != null) && (results[i][j] >= 0)) {
-                    annotatorResults.add(results[i][j]);
-                    numberOfDocuments.add(metadata[j].numberOfDocuments);
-                    avgDocumentLength.add(metadata[j].avgDocumentLength);
-                    numberOfEntities.add(metadata[j].numberOfEntities);
-                    entitiesPerDoc.add(metadata[j].entitiesPerDoc);
-                    entitiesPerToken.add(metadata[j].entitiesPerToken);
-                    amountOfPersons.add(metadata[j].amountOfPersons);
-                    amountOfOrganizations.add(metadata[j].amountOfOrganizations);
-                    amountOfLocations.add(metadata[j].amountOfLocations);
-                    amountOfOthers.add(metadata[j].amountOfOthers);
+            for (int c = 0; c < CORRELATION_TABLE_COLUMN_HEADINGS.length; ++c) {
+                // load the values for this annotator and the datasets for
+                // which this value of the meta data is known (the calculated
+                // statistics of a dataset might not contain all values)
+                annotatorResults.clear();
+                metadataValues.clear();
+                for (int j = 0; j < results[i].length; ++j) {
+                    if ((metadata[j] != null) && (results[i][j] >= 0) && !Double.isNaN(metadata[j][c])) {
+                        annotatorResults.add(results[i][j]);
+                        metadataValues.add(metadata[j][c]);
+                    }
+                }
+                // If we have enough datasets with metadata and results of the
+                // current annotator for these datasets
+                elementCount = annotatorResults.size();
+                if (elementCount > MIN_NUMBER_OF_VALUES_FOR_CORR_CALC) {
+                    correlations[i][c] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
+                            annotatorResults.toArray(new double[elementCount]),
+                            metadataValues.toArray(new double[elementCount]));
                 }
-            }
-            // If we have enough datasets with metadata and results of the
-            // current annotator for these datasets
-            elementCount = annotatorResults.size();
-            if (elementCount > MIN_NUMBER_OF_VALUES_FOR_CORR_CALC) {
-                annotatorResultsAsArray = annotatorResults.toArray(new double[elementCount]);
-                correlations[i][0] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, numberOfDocuments.toArray(new double[elementCount]));
-                correlations[i][1] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, avgDocumentLength.toArray(new double[elementCount]));
-                correlations[i][2] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, numberOfEntities.toArray(new double[elementCount]));
-                correlations[i][3] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, entitiesPerDoc.toArray(new double[elementCount]));
-                correlations[i][4] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, entitiesPerToken.toArray(new double[elementCount]));
-                correlations[i][5] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, amountOfPersons.toArray(new double[elementCount]));
-                correlations[i][6] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, amountOfOrganizations.toArray(new double[elementCount]));
-                correlations[i][7] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, amountOfLocations.toArray(new double[elementCount]));
-                correlations[i][8] = PearsonsSampleCorrelationCoefficient.calculateRankCorrelation(
-                        annotatorResultsAsArray, amountOfOthers.toArray(new double[elementCount]));
-                // correlations[i][9] = annotatorResultsAsArray.length;
             }
         }
 
         return correlations;
     }
 
+    private static double[] getMetaDataValues(DatasetMetaData metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return new double[] { metadata.numberOfDocuments, metadata.avgDocumentLength, metadata.numberOfEntities,
+                metadata.entitiesPerDoc, metadata.entitiesPerToken, metadata.amountOfPersons,
+                metadata.amountOfOrganizations, metadata.amountOfLocations, metadata.amountOfOthers };
+    }
+
     private String generateJson(double[][] results, double[][] correlations, String annotatorNames[],
             String datasetNames[]) {
         StringBuilder jsonBuilder = new StringBuilder();
@@ -0,0 +1,101 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.execute.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Offers a long-polling endpoint for the progress of the tasks of an
+ * experiment. The client sends the version of the last progress it received
+ * and gets an answer as soon as the state of a task or the progress of a
+ * running task has changed (see {@link ExperimentProgressMonitor}). The
+ * progress of an experiment whose tasks haven't been created yet contains an
+ * empty list of tasks.
+ */
+@Controller
+public class ExperimentProgressController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExperimentProgressController.class);
+
+    private static final MediaType JSON_MEDIA_TYPE = new MediaType("application", "json", Charset.forName("UTF-8"));
+    private static final long LONG_POLL_TIMEOUT = 25000;
+    private static final int MAX_WAITING_REQUESTS = 100;
+
+    @Autowired
+    @Qualifier("experimentDAO")
+    private ExperimentDAO dao;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    @Autowired
+    private TaskQueueDAO taskQueue;
+
+    private ExperimentProgressMonitor monitor;
+
+    @PostConstruct
+    public void init() {
+        monitor = new ExperimentProgressMonitor(scheduler, taskQueue, MAX_WAITING_REQUESTS);
+        dao.addTaskStateListener(monitor);
+        scheduler.addTaskStateListener(monitor);
+    }
+
+    @RequestMapping("/experimentprogress")
+    public ResponseEntity<String> experimentprogress(@RequestParam(value = "id") String id,
+            @RequestParam(value = "version", required = false) String version) {
+        LOGGER.debug("Got request on /experimentprogress(id={}, version={})", id, version);
+        List<ExperimentTaskResult> tasks = dao.getResultsOfExperiment(id);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        // Note that an experiment without tasks is not unknown but its tasks
+        // haven't been created yet
+        headers.setContentType(JSON_MEDIA_TYPE);
+        try {
+            return new ResponseEntity<String>(monitor.awaitProgress(tasks, version, LONG_POLL_TIMEOUT), headers,
+                    HttpStatus.OK);
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while waiting for the progress of experiment \"{}\".", id);
+            return new ResponseEntity<String>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
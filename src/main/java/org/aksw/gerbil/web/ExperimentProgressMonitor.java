@@ -0,0 +1,256 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.ExperimentTaskStateListener;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.ExperimentTaskState;
+import org.aksw.gerbil.execute.TaskScheduler;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Monitors the progress of the tasks of experiments for long-polling clients.
+ * A client sends the version of the progress it already knows and the request
+ * blocks until the progress of the experiment differs from this version or a
+ * timeout is reached. State changes of tasks are pushed into the waiting
+ * requests by {@link #experimentTaskFinished(int, String, String, String, String, int)}
+ * while the progress of the documents is read from the {@link TaskScheduler}.
+ * The progress of tasks that are executed by other workers is not known. For
+ * these tasks, the state inside the {@link TaskQueueDAO} is reported instead,
+ * i.e., whether they are waiting or executed by another worker. Every request
+ * lasts at least {@link #COALESCING_INTERVAL} milliseconds so
+ * that a client gets only a few updates per second.
+ */
+public class ExperimentProgressMonitor implements ExperimentTaskStateListener {
+
+    public static final long COALESCING_INTERVAL = 250;
+
+    /**
+     * Execution state of a task that is waiting for a worker.
+     */
+    public static final String EXECUTION_WAITING = "waiting";
+    /**
+     * Execution state of a task that is executed by another worker.
+     */
+    public static final String EXECUTION_REMOTE = "remote";
+
+    private final TaskScheduler scheduler;
+    private final TaskQueueDAO taskQueue;
+    private final Set<ProgressWaiter> waiters = Collections
+            .newSetFromMap(new ConcurrentHashMap<ProgressWaiter, Boolean>());
+    /**
+     * Limits the number of requests that are blocked at the same time since
+     * every blocked request occupies a thread of the servlet container.
+     */
+    private final Semaphore waitingSlots;
+
+    /**
+     * @param scheduler
+     *            the scheduler the progress of running tasks is read from
+     *            (can be null)
+     * @param maxWaitingRequests
+     *            the maximum number of requests that are allowed to wait at
+     *            the same time
+     */
+    public ExperimentProgressMonitor(TaskScheduler scheduler, int maxWaitingRequests) {
+        this(scheduler, null, maxWaitingRequests);
+    }
+
+    /**
+     * @param scheduler
+     *            the scheduler the progress of running tasks is read from
+     *            (can be null)
+     * @param taskQueue
+     *            the task queue the states of tasks that are not executed by
+     *            the scheduler are read from (can be null)
+     * @param maxWaitingRequests
+     *            the maximum number of requests that are allowed to wait at
+     *            the same time
+     */
+    public ExperimentProgressMonitor(TaskScheduler scheduler, TaskQueueDAO taskQueue, int maxWaitingRequests) {
+        this.scheduler = scheduler;
+        this.taskQueue = taskQueue;
+        this.waitingSlots = new Semaphore(maxWaitingRequests);
+    }
+
+    @Override
+    public void experimentTaskFinished(int experimentTaskId, String annotatorName, String datasetName,
+            String experimentType, String matching, int state) {
+        for (ProgressWaiter waiter : waiters) {
+            waiter.updateState(experimentTaskId, state);
+        }
+    }
+
+    /**
+     * Returns the progress of the given tasks as JSON object as soon as its
+     * version differs from the given version or the timeout is reached. If
+     * the version is null or too many requests are waiting, the current
+     * progress is returned immediately. An experiment without tasks is not
+     * finished since its tasks haven't been created yet.
+     * 
+     * @param tasks
+     *            the current states of the tasks of an experiment
+     * @param knownVersion
+     *            the version of the progress the client already knows
+     * @param timeout
+     *            the maximum time (in milliseconds) this method blocks
+     * @return the progress of the tasks
+     */
+    public String awaitProgress(List<ExperimentTaskResult> tasks, String knownVersion, long timeout)
+            throws InterruptedException {
+        ProgressWaiter waiter = new ProgressWaiter(tasks);
+        if ((knownVersion == null) || waiter.allTasksFinished() || !waitingSlots.tryAcquire()) {
+            return waiter.createProgressJSON();
+        }
+        waiters.add(waiter);
+        try {
+            long deadline = System.currentTimeMillis() + timeout;
+            // state changes happening in the meantime are stored by the waiter
+            Thread.sleep(Math.min(COALESCING_INTERVAL, timeout));
+            String progress = waiter.createProgressJSON();
+            long remaining = deadline - System.currentTimeMillis();
+            while (knownVersion.equals(waiter.getVersion()) && (remaining > 0)) {
+                waiter.await(Math.min(COALESCING_INTERVAL, remaining));
+                progress = waiter.createProgressJSON();
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return progress;
+        } finally {
+            waiters.remove(waiter);
+            waitingSlots.release();
+        }
+    }
+
+    /**
+     * Contains the states of the tasks of a single request.
+     */
+    protected class ProgressWaiter {
+
+        private final int taskIds[];
+        private final String annotators[];
+        private final String datasets[];
+        private final int states[];
+        /**
+         * The states of the tasks inside the task queue. They are read only
+         * once per request.
+         */
+        private final Int2IntMap queueStates;
+        private String version;
+
+        public ProgressWaiter(List<ExperimentTaskResult> tasks) {
+            taskIds = new int[tasks.size()];
+            annotators = new String[taskIds.length];
+            datasets = new String[taskIds.length];
+            states = new int[taskIds.length];
+            ExperimentTaskResult task;
+            for (int i = 0; i < taskIds.length; ++i) {
+                task = tasks.get(i);
+                taskIds[i] = task.idInDb;
+                annotators[i] = task.annotator;
+                datasets[i] = task.dataset;
+                states[i] = task.state;
+            }
+            if ((taskQueue != null) && !allTasksFinished()) {
+                queueStates = taskQueue.getStatesOfWaitingTasks(taskIds);
+            } else {
+                queueStates = null;
+            }
+        }
+
+        public synchronized void updateState(int taskId, int state) {
+            for (int i = 0; i < taskIds.length; ++i) {
+                if (taskIds[i] == taskId) {
+                    states[i] = state;
+                    notifyAll();
+                }
+            }
+        }
+
+        public synchronized boolean allTasksFinished() {
+            if (states.length == 0) {
+                return false;
+            }
+            for (int i = 0; i < states.length; ++i) {
+                if (states[i] == ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public synchronized void await(long timeout) throws InterruptedException {
+            wait(timeout);
+        }
+
+        @SuppressWarnings("unchecked")
+        public synchronized String createProgressJSON() {
+            JSONArray jsonTasks = new JSONArray();
+            JSONObject jsonTask;
+            ExperimentTaskState taskState;
+            for (int i = 0; i < taskIds.length; ++i) {
+                jsonTask = new JSONObject();
+                jsonTask.put("id", taskIds[i]);
+                jsonTask.put("annotator", annotators[i]);
+                jsonTask.put("dataset", datasets[i]);
+                jsonTask.put("state", states[i]);
+                if (states[i] == ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET) {
+                    taskState = (scheduler != null) ? scheduler.getTaskState(taskIds[i]) : null;
+                    if (taskState != null) {
+                        // the progress is reported in percent to avoid
+                        // updates that can't be seen
+                        jsonTask.put("progress", (int) (taskState.getExperimentTaskProcess() * 100));
+                    } else if ((queueStates != null) && queueStates.containsKey(taskIds[i])) {
+                        if (queueStates.get(taskIds[i]) != TaskQueueDAO.TASK_RUNNING) {
+                            jsonTask.put("execution", EXECUTION_WAITING);
+                        } else if ((scheduler == null) || !scheduler.isExecutingTask(taskIds[i])) {
+                            jsonTask.put("execution", EXECUTION_REMOTE);
+                        }
+                    }
+                }
+                jsonTasks.add(jsonTask);
+            }
+            String tasksString = jsonTasks.toJSONString();
+            version = Integer.toHexString(tasksString.hashCode());
+            StringBuilder builder = new StringBuilder(tasksString.length() + 64);
+            builder.append("{\"version\":\"").append(version).append("\",\"finished\":")
+                    .append(allTasksFinished()).append(",\"tasks\":").append(tasksString).append('}');
+            return builder.toString();
+        }
+
+        public synchronized String getVersion() {
+            return version;
+        }
+    }
+}
@@ -23,16 +23,29 @@
  */
 package org.aksw.gerbil.web;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.LinkedList;
 
 import javax.servlet.http.HttpServletResponse;
 
+import org.aksw.gerbil.datasets.NIFFileDatasetConfig;
 import org.aksw.gerbil.transfer.FileMeta;
+import org.aksw.gerbil.transfer.NIFStatisticsCounter;
 import org.aksw.gerbil.transfer.UploadFileContainer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -40,14 +53,18 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.util.FileCopyUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+
 @Controller
 @RequestMapping("/file")
 @PropertySource("gerbil.properties")
@@ -55,6 +72,18 @@ public class FileUploadController {
 
     private static final transient Logger logger = LoggerFactory
             .getLogger(FileUploadController.class);
+    /**
+     * The name of the property containing the maximum size of an upload in
+     * bytes. It is enforced by the multipart resolver while the request is
+     * read (see {@link org.aksw.gerbil.web.config.WebMvcConfig}).
+     */
+    public static final String MAX_UPLOAD_SIZE_PROPERTY_NAME = "org.aksw.gerbil.UploadMaxFileSize";
+    /**
+     * Uploaded files are stored under the SHA-256 hash of their content
+     * followed by this suffix.
+     */
+    public static final String STORED_FILE_SUFFIX = NIFFileDatasetConfig.FINGERPRINTED_FILE_SUFFIX;
+
     @Value("${org.aksw.gerbil.UploadPath}")
     private String path;
 
@@ -84,16 +113,13 @@ public class FileUploadController {
             logger.debug("{} uploaded", mpf.getOriginalFilename());
 
             FileMeta fileContainer = new FileMeta();
-            fileContainer.setName(mpf.getOriginalFilename());
+            fileContainer.setName(new File(mpf.getOriginalFilename())
+                    .getName());
             fileContainer.setSize(mpf.getSize() / 1024 + "Kb");
             fileContainer.setFileType(mpf.getContentType());
-
             try {
-                fileContainer.setBytes(mpf.getBytes());
                 createFolderIfNotExists();
-                FileCopyUtils.copy(mpf.getBytes(), new FileOutputStream(path
-                        + mpf.getOriginalFilename()));
-
+                storeFile(mpf, fileContainer);
             } catch (IOException e) {
                 logger.error("Error during file upload", e);
                 fileContainer.setError(e.getMessage());
@@ -106,6 +132,93 @@ public class FileUploadController {
                 HttpStatus.OK);
     }
 
+    /**
+     * Answers an upload that is larger than the maximum upload size. The
+     * multipart resolver rejects such a request while reading it.
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public @ResponseBody
+    ResponseEntity<UploadFileContainer> handleMaxUploadSizeExceeded(
+            MaxUploadSizeExceededException e) {
+        logger.warn("Rejected an upload that is larger than {} bytes.",
+                e.getMaxUploadSize());
+        // the request is rejected before its file name is read
+        FileMeta fileContainer = new FileMeta();
+        fileContainer.setName("File too large");
+        fileContainer.setError("The uploaded file is larger than the maximum of "
+                + (e.getMaxUploadSize() / 1024) + "Kb.");
+        LinkedList<FileMeta> files = new LinkedList<FileMeta>();
+        files.add(fileContainer);
+        return new ResponseEntity<UploadFileContainer>(
+                new UploadFileContainer(files), HttpStatus.OK);
+    }
+
+    /**
+     * Streams the uploaded file into a temporary file with a unique name
+     * inside the upload folder. While the file is written, it is hashed and
+     * parsed as NIF (Turtle) counting its documents and annotations, i.e., it
+     * is read only once and never loaded into memory. A file that can't be
+     * parsed or doesn't contain documents is removed. Otherwise, it is renamed
+     * to the hash of its content. Thus, concurrent uploads can't interfere and
+     * a stored file is never replaced by a file with a different content.
+     */
+    private void storeFile(MultipartFile mpf, FileMeta fileContainer)
+            throws IOException {
+        File tempFile = File.createTempFile("upload", ".part", new File(path));
+        NIFStatisticsCounter counter = new NIFStatisticsCounter();
+        HashingInputStream hashingIn = null;
+        OutputStream out = null;
+        boolean parsed = false;
+        try {
+            hashingIn = new HashingInputStream(Hashing.sha256(),
+                    mpf.getInputStream());
+            out = new BufferedOutputStream(new FileOutputStream(tempFile));
+            InputStream in = new TeeInputStream(hashingIn, out);
+            try {
+                // the parser closes the stream
+                RDFDataMgr.parse(counter, new CloseShieldInputStream(in),
+                        Lang.TTL);
+            } catch (RiotException e) {
+                logger.info("Couldn't parse the uploaded file {}: {}",
+                        fileContainer.getName(), e.getMessage());
+                fileContainer.setError("The file couldn't be parsed as NIF: "
+                        + e.getMessage());
+                return;
+            }
+            // write the remaining bytes the parser didn't read
+            IOUtils.skip(in, Long.MAX_VALUE);
+            parsed = true;
+        } finally {
+            IOUtils.closeQuietly(hashingIn);
+            IOUtils.closeQuietly(out);
+            if (!parsed) {
+                tempFile.delete();
+            }
+        }
+        if (counter.getNumberOfContexts() == 0) {
+            tempFile.delete();
+            fileContainer.setError("The file doesn't contain a nif:Context.");
+            return;
+        }
+        String hash = hashingIn.hash().toString();
+        File file = new File(path + hash + STORED_FILE_SUFFIX);
+        try {
+            Files.move(tempFile.toPath(), file.toPath());
+        } catch (FileAlreadyExistsException e) {
+            // the same content has already been uploaded
+            tempFile.delete();
+        }
+        fileContainer.setStoredName(file.getName());
+        fileContainer.setHash(hash);
+        fileContainer.setNumberOfDocuments(counter.getNumberOfContexts());
+        fileContainer.setNumberOfAnnotations(counter
+                .getNumberOfAnnotations());
+        logger.info("Stored {} as {} ({} documents, {} annotations).",
+                fileContainer.getName(), file.getName(),
+                counter.getNumberOfContexts(),
+                counter.getNumberOfAnnotations());
+    }
+
     private void createFolderIfNotExists() {
         // create the upload folder if it does not exist
         File folder = new File(path);
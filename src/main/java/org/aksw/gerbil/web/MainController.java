@@ -25,25 +25,26 @@ package org.aksw.gerbil.web;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 
+import org.aksw.gerbil.ExperimentIngestionQueue;
 import org.aksw.gerbil.Experimenter;
+import org.aksw.gerbil.annotators.AnnotatorConfiguration;
 import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.dataid.DataIDCache;
 import org.aksw.gerbil.dataid.DataIDGenerator;
+import org.aksw.gerbil.datasets.DatasetConfiguration;
 import org.aksw.gerbil.datatypes.ExperimentTaskConfiguration;
 import org.aksw.gerbil.datatypes.ExperimentTaskResult;
 import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.execute.TaskScheduler;
 import org.aksw.gerbil.matching.Matching;
 import org.aksw.gerbil.utils.AnnotatorMapping;
 import org.aksw.gerbil.utils.DatasetMapping;
 import org.aksw.gerbil.utils.IDCreator;
-import org.aksw.gerbil.utils.SingletonWikipediaApi;
-import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
 import org.apache.commons.io.FileUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -52,6 +53,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -78,8 +81,7 @@ public class MainController {
 			}
 			isInitialized = true;
 		}
-		// Simply call the dataset mapping so that it has to be instantiated
-		DatasetMapping.getDatasetsForExperimentType(ExperimentType.Sa2KB);
+		// the mappings are loaded in the background by the StartupInitializer
 	}
 
 	@PostConstruct
@@ -92,7 +94,10 @@ public class MainController {
 	private ExperimentDAO dao;
 
 	@Autowired
-	private Overseer overseer;
+	private TaskScheduler scheduler;
+
+	@Autowired
+	private ExperimentIngestionQueue ingestionQueue;
 
 	// DataID URL is generated automatically in the experiment method?
 	private DataIDGenerator dataIdGenerator;
@@ -136,36 +141,69 @@ public class MainController {
 	 */
 
 	@RequestMapping("/execute")
-	public @ResponseBody String execute(@RequestParam(value = "experimentData") String experimentData) {
+	public ResponseEntity<String> execute(@RequestParam(value = "experimentData") String experimentData) {
 		LOGGER.debug("Got request on /execute with experimentData=" + experimentData);
+		ExperimentTaskConfiguration[] configs;
+		try {
+			configs = parseExperimentData(experimentData);
+		} catch (Exception e) {
+			LOGGER.warn("Got an invalid experiment configuration: " + experimentData, e);
+			return new ResponseEntity<String>("Invalid experiment configuration.", HttpStatus.BAD_REQUEST);
+		}
+		String experimentId = IDCreator.getInstance().createID();
+		Experimenter exp = new Experimenter(scheduler, dao, configs, experimentId);
+		// the tasks are created in the background
+		if (!ingestionQueue.submit(exp)) {
+			return new ResponseEntity<String>("The server is busy. Please try again later.",
+					HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		return new ResponseEntity<String>(experimentId, HttpStatus.OK);
+	}
+
+	/**
+	 * Parses and validates the given experiment data.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the experiment data is not valid
+	 */
+	private static ExperimentTaskConfiguration[] parseExperimentData(String experimentData) {
 		Object obj = JSONValue.parse(experimentData);
+		if (!(obj instanceof JSONObject)) {
+			throw new IllegalArgumentException("The experiment data is not a JSON object.");
+		}
 		JSONObject configuration = (JSONObject) obj;
-		String type = (String) configuration.get("type");
-		String matching = (String) configuration.get("matching");
+		ExperimentType type = ExperimentType.valueOf((String) configuration.get("type"));
+		Matching matching = getMatching((String) configuration.get("matching"));
 		JSONArray jsonAnnotators = (JSONArray) configuration.get("annotator");
-		String[] annotators = new String[jsonAnnotators.size()];
+		JSONArray jsonDataset = (JSONArray) configuration.get("dataset");
+		if ((jsonAnnotators == null) || (jsonAnnotators.size() == 0) || (jsonDataset == null)
+				|| (jsonDataset.size() == 0)) {
+			throw new IllegalArgumentException("At least one annotator and one dataset are needed.");
+		}
+		AnnotatorConfiguration[] annotators = new AnnotatorConfiguration[jsonAnnotators.size()];
 		for (int i = 0; i < jsonAnnotators.size(); i++) {
-			annotators[i] = (String) jsonAnnotators.get(i);
+			annotators[i] = AnnotatorMapping.getAnnotatorConfig((String) jsonAnnotators.get(i));
+			if (annotators[i] == null) {
+				throw new IllegalArgumentException("Unknown annotator \"" + jsonAnnotators.get(i) + "\".");
+			}
 		}
-		JSONArray jsonDataset = (JSONArray) configuration.get("dataset");
-		String[] datasets = new String[jsonDataset.size()];
+		DatasetConfiguration[] datasets = new DatasetConfiguration[jsonDataset.size()];
 		for (int i = 0; i < jsonDataset.size(); i++) {
-			datasets[i] = (String) jsonDataset.get(i);
+			datasets[i] = DatasetMapping.getDatasetConfig((String) jsonDataset.get(i));
+			if (datasets[i] == null) {
+				throw new IllegalArgumentException("Unknown dataset \"" + jsonDataset.get(i) + "\".");
+			}
 		}
 		ExperimentTaskConfiguration[] configs = new ExperimentTaskConfiguration[annotators.length * datasets.length];
 		int count = 0;
-		for (String annotator : annotators) {
-			for (String dataset : datasets) {
-				configs[count] = new ExperimentTaskConfiguration(AnnotatorMapping.getAnnotatorConfig(annotator), DatasetMapping.getDatasetConfig(dataset), ExperimentType.valueOf(type), getMatching(matching));
+		for (AnnotatorConfiguration annotator : annotators) {
+			for (DatasetConfiguration dataset : datasets) {
+				configs[count] = new ExperimentTaskConfiguration(annotator, dataset, type, matching);
 				LOGGER.debug("Created config: " + configs[count]);
 				++count;
 			}
 		}
-		String experimentId = IDCreator.getInstance().createID();
-		Experimenter exp = new Experimenter(SingletonWikipediaApi.getInstance(), overseer, dao, configs, experimentId);
-		exp.run();
-
-		return experimentId;
+		return configs;
 	}
 
 	@RequestMapping("/experiment")
@@ -177,7 +215,12 @@ public class MainController {
 		ModelAndView model = new ModelAndView();
 		model.setViewName("experiment");
 		model.addObject("tasks", results);
-		model.addObject("dataid", dataIdGenerator.createDataIDModel(results, id));
+		DataIDCache dataIdCache = DataIDCache.getInstance();
+		if (dataIdCache != null) {
+			model.addObject("dataid", dataIdCache.getDataID(dataIdGenerator, results, id));
+		} else {
+			model.addObject("dataid", dataIdGenerator.createDataIDModel(results, id));
+		}
 		return model;
 	}
 
@@ -212,18 +255,12 @@ public class MainController {
 
 	@RequestMapping("/annotators")
 	public @ResponseBody List<String> annotatorsForExpType(@RequestParam(value = "experimentType") String experimentType) {
-		Set<String> annotatorsForExperimentType = AnnotatorMapping.getAnnotatorsForExperimentType(ExperimentType.valueOf(experimentType));
-		List<String> list = Lists.newArrayList(annotatorsForExperimentType);
-		Collections.sort(list);
-		return list;
+		return AnnotatorMapping.getAnnotatorsForExperimentType(ExperimentType.valueOf(experimentType));
 	}
 
 	@RequestMapping("/datasets")
 	public @ResponseBody List<String> datasets(@RequestParam(value = "experimentType") String experimentType) {
-		Set<String> datasets = DatasetMapping.getDatasetsForExperimentType(ExperimentType.valueOf(experimentType));
-		List<String> list = Lists.newArrayList(datasets);
-		Collections.sort(list);
-		return list;
+		return DatasetMapping.getDatasetsForExperimentType(ExperimentType.valueOf(experimentType));
 	}
 
 	/**
@@ -0,0 +1,143 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the independent initializers of the application in parallel background
+ * threads, so that the web application can serve requests while the heavy
+ * parts, e.g., the Wikipedia API caches or the annotator and dataset
+ * mappings, are still loading. Requests needing one of these parts simply
+ * wait until it has been loaded. The state of every initializer can be
+ * retrieved to inform the user about the parts that are still loading.
+ */
+public class StartupInitializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupInitializer.class);
+
+    public static enum State {
+        LOADING, READY, FAILED
+    }
+
+    private final Map<String, Runnable> initializers = new LinkedHashMap<String, Runnable>();
+    private final Map<String, State> states = new LinkedHashMap<String, State>();
+    private ExecutorService executor;
+    private AtomicInteger runningInitializers;
+    private volatile boolean ready = false;
+    private long startTime;
+
+    /**
+     * Adds an initializer. All initializers have to be added before
+     * {@link #start()} is called.
+     * 
+     * @param name
+     *            the name of the initialized part that is reported to the user
+     * @param initializer
+     *            the initialization
+     */
+    public synchronized void addInitializer(String name, Runnable initializer) {
+        if (executor != null) {
+            throw new IllegalStateException("The initializers have already been started.");
+        }
+        initializers.put(name, initializer);
+        states.put(name, State.LOADING);
+    }
+
+    /**
+     * Starts all initializers in parallel.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        startTime = System.currentTimeMillis();
+        if (initializers.isEmpty()) {
+            ready = true;
+            return;
+        }
+        executor = Executors.newFixedThreadPool(initializers.size(), new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("startup-%d").build());
+        runningInitializers = new AtomicInteger(initializers.size());
+        for (final Map.Entry<String, Runnable> initializer : initializers.entrySet()) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runInitializer(initializer.getKey(), initializer.getValue());
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    private void runInitializer(String name, Runnable initializer) {
+        long initializerStartTime = System.currentTimeMillis();
+        State state = State.FAILED;
+        try {
+            initializer.run();
+            state = State.READY;
+            LOGGER.info("Initialized {} in {}ms.", name, System.currentTimeMillis() - initializerStartTime);
+        } catch (Throwable e) {
+            LOGGER.error("Couldn't initialize " + name + ".", e);
+        } finally {
+            synchronized (this) {
+                states.put(name, state);
+            }
+            if (runningInitializers.decrementAndGet() == 0) {
+                ready = true;
+                LOGGER.info("Finished the startup after {}ms.", System.currentTimeMillis() - startTime);
+            }
+        }
+    }
+
+    /**
+     * @return true if all initializers have been finished
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return a copy of the current states of the initializers in the order
+     *         they have been added
+     */
+    public synchronized Map<String, State> getStates() {
+        return new LinkedHashMap<String, State>(states);
+    }
+
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,23 +1,67 @@
 package org.aksw.gerbil.web;
 
+import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Map;
 
+import org.aksw.gerbil.ExperimentIngestionQueue;
+import org.aksw.gerbil.bat.annotator.AnnotatorRequestCounter;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.datatypes.ExperimentTaskState;
+import org.aksw.gerbil.execute.ExperimentTask;
+import org.aksw.gerbil.execute.ProgressEvent;
+import org.aksw.gerbil.execute.ProgressEventBus;
+import org.aksw.gerbil.execute.TaskScheduler;
+import org.aksw.gerbil.web.StartupInitializer.State;
 import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
 import org.aksw.simba.topicmodeling.concurrent.tasks.TaskState;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+/**
+ * Reports the state of the task execution. While <code>/running</code> lists
+ * the stack traces of all running tasks for debugging, <code>/status</code>
+ * returns a JSON object for monitoring tools that is created from counters
+ * only, i.e., it can be polled every few seconds. <code>/ready</code> reports
+ * the parts of the application that are still loading. It answers with
+ * <code>503 Service Unavailable</code> until all of them have been loaded so
+ * that load balancers can rely on the status code.
+ */
 @Controller
 public class StateReportingController {
 
     // private static final Logger LOGGER =
     // LoggerFactory.getLogger(StateReportingController.class);
 
+    private static final MediaType JSON_MEDIA_TYPE = new MediaType("application", "json", Charset.forName("UTF-8"));
+    private static final long ONE_MINUTE = 60000;
+    private static final long FIFTEEN_MINUTES = 15 * ONE_MINUTE;
+    private static final long ONE_HOUR = 60 * ONE_MINUTE;
+    private static final int NUMBER_OF_RECENT_EVENTS = 20;
+
     @Autowired
     private List<Overseer> overseers;
 
+    @Autowired
+    private TaskScheduler scheduler;
+
+    @Autowired
+    private TaskQueueDAO taskQueue;
+
+    @Autowired
+    private ExperimentIngestionQueue ingestionQueue;
+
+    @Autowired
+    private StartupInitializer startupInitializer;
+
     @RequestMapping("/running")
     public @ResponseBody
     String running() {
@@ -49,4 +93,129 @@ public class StateReportingController {
         }
         return resultBuilder.toString();
     }
+
+    @RequestMapping("/status")
+    public ResponseEntity<String> status() {
+        JSONObject status = new JSONObject();
+        putValue(status, "timestamp", System.currentTimeMillis());
+        putValue(status, "workerId", scheduler.getWorkerId());
+        putValue(status, "startup", createStartupStatus(startupInitializer.isReady()));
+        putValue(status, "queue", createQueueStatus());
+        putValue(status, "worker", createWorkerStatus());
+        putValue(status, "completedTasks", createCompletedTasksStatus());
+        putValue(status, "annotators", createAnnotatorsStatus());
+        putValue(status, "recentEvents", createRecentEventsStatus());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        headers.setContentType(JSON_MEDIA_TYPE);
+        return new ResponseEntity<String>(status.toJSONString(), headers, HttpStatus.OK);
+    }
+
+    @RequestMapping("/ready")
+    public ResponseEntity<String> ready() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        headers.setContentType(JSON_MEDIA_TYPE);
+        boolean ready = startupInitializer.isReady();
+        return new ResponseEntity<String>(createStartupStatus(ready).toJSONString(), headers,
+                ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private JSONObject createStartupStatus(boolean ready) {
+        JSONObject startup = new JSONObject();
+        putValue(startup, "ready", ready);
+        JSONObject components = new JSONObject();
+        for (Map.Entry<String, State> component : startupInitializer.getStates().entrySet()) {
+            putValue(components, component.getKey(), component.getValue().name());
+        }
+        putValue(startup, "components", components);
+        return startup;
+    }
+
+    /**
+     * The queue contains the tasks of all workers sharing the database.
+     */
+    private JSONObject createQueueStatus() {
+        JSONObject queue = new JSONObject();
+        putValue(queue, "waitingExperiments", ingestionQueue.size());
+        putValue(queue, "queuedTasks", taskQueue.getNumberOfTasks(TaskQueueDAO.TASK_QUEUED));
+        putValue(queue, "leasedTasks", taskQueue.getNumberOfTasks(TaskQueueDAO.TASK_LEASED));
+        putValue(queue, "runningTasks", taskQueue.getNumberOfTasks(TaskQueueDAO.TASK_RUNNING));
+        return queue;
+    }
+
+    private JSONObject createWorkerStatus() {
+        JSONObject worker = new JSONObject();
+        int runningTasks = scheduler.getNumberOfRunningTasks();
+        int maxRunningTasks = scheduler.getMaxRunningTasks();
+        putValue(worker, "runningTasks", runningTasks);
+        putValue(worker, "maxRunningTasks", maxRunningTasks);
+        putValue(worker, "utilization", maxRunningTasks > 0 ? ((double) runningTasks / maxRunningTasks) : 0.0);
+        JSONArray tasks = new JSONArray();
+        JSONObject task;
+        ExperimentTaskState taskState;
+        for (ExperimentTask executedTask : scheduler.getExecutedTasks()) {
+            task = new JSONObject();
+            putValue(task, "id", executedTask.getExperimentTaskId());
+            putValue(task, "description", executedTask.getId());
+            taskState = executedTask.getTaskState();
+            if (taskState != null) {
+                putValue(task, "progress", taskState.getExperimentTaskProcess());
+            }
+            addValue(tasks, task);
+        }
+        putValue(worker, "tasks", tasks);
+        return worker;
+    }
+
+    private JSONObject createCompletedTasksStatus() {
+        JSONObject completedTasks = new JSONObject();
+        putValue(completedTasks, "total", scheduler.getNumberOfFinishedTasks());
+        putValue(completedTasks, "lastMinute", scheduler.getNumberOfRecentlyFinishedTasks(ONE_MINUTE));
+        putValue(completedTasks, "last15Minutes", scheduler.getNumberOfRecentlyFinishedTasks(FIFTEEN_MINUTES));
+        putValue(completedTasks, "lastHour", scheduler.getNumberOfRecentlyFinishedTasks(ONE_HOUR));
+        return completedTasks;
+    }
+
+    private JSONArray createAnnotatorsStatus() {
+        JSONArray annotators = new JSONArray();
+        JSONObject annotator;
+        for (AnnotatorRequestCounter counter : AnnotatorRequestCounter.getCounters()) {
+            annotator = new JSONObject();
+            putValue(annotator, "name", counter.getAnnotatorName());
+            putValue(annotator, "runningRequests", counter.getRunningRequests());
+            putValue(annotator, "finishedRequests", counter.getFinishedRequests());
+            putValue(annotator, "failedRequests", counter.getFailedRequests());
+            putValue(annotator, "averageRequestTime", counter.getAverageRequestTime());
+            putValue(annotator, "requestsLastMinute", counter.getRecentRequests(ONE_MINUTE));
+            putValue(annotator, "requestsLast15Minutes", counter.getRecentRequests(FIFTEEN_MINUTES));
+            addValue(annotators, annotator);
+        }
+        return annotators;
+    }
+
+    private JSONArray createRecentEventsStatus() {
+        JSONArray events = new JSONArray();
+        JSONObject event;
+        for (ProgressEvent progressEvent : ProgressEventBus.getInstance().getLatestEvents(NUMBER_OF_RECENT_EVENTS)) {
+            event = new JSONObject();
+            putValue(event, "timestamp", progressEvent.getTimestamp());
+            putValue(event, "type", progressEvent.getType().name());
+            putValue(event, "annotator", progressEvent.getAnnotatorName());
+            putValue(event, "dataset", progressEvent.getDatasetName());
+            putValue(event, "value", progressEvent.getValue());
+            addValue(events, event);
+        }
+        return events;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putValue(JSONObject object, String key, Object value) {
+        object.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addValue(JSONArray array, Object value) {
+        array.add(value);
+    }
 }
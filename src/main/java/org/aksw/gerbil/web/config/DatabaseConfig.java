@@ -24,6 +24,7 @@
 package org.aksw.gerbil.web.config;
 
 import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.TaskQueueDAO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
@@ -32,7 +33,8 @@ import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 /**
- * This {@link Configuration} creates the {@link ExperimentDAO} bean by loading the XML config from the class path.
+ * This {@link Configuration} creates the {@link ExperimentDAO} and the {@link TaskQueueDAO} beans by loading the XML
+ * config from the class path.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  * @author Bernd Eickmann
@@ -43,20 +45,37 @@ public class DatabaseConfig extends WebMvcConfigurerAdapter {
 
     private static final transient Logger LOGGER = LoggerFactory.getLogger(DatabaseConfig.class);
 
+    /**
+     * Loads the XML config of the database from the class path. The context is
+     * kept open while the application is running since it owns the pooled data
+     * source used by the DAO beans.
+     * 
+     * @return the context containing the database beans
+     */
+    @Bean(destroyMethod = "close")
+    public ClassPathXmlApplicationContext databaseContext() {
+        LOGGER.debug("Setting up database.");
+        return new ClassPathXmlApplicationContext("/spring/database/database-context.xml");
+    }
+
     /**
      * This {@link Configuration} creates the {@link ExperimentDAO} bean by loading the XML config from the class path.
      * After that, the bean is initialized using the {@link ExperimentDAO#initialize()} method.
      * 
      * @return the database bean
      */
-    @Bean
+    @Bean(destroyMethod = "")
     public ExperimentDAO experimentDAO() {
-        LOGGER.debug("Setting up database.");
-        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
-                "/spring/database/database-context.xml");
-        ExperimentDAO database = context.getBean(ExperimentDAO.class);
+        ExperimentDAO database = databaseContext().getBean(ExperimentDAO.class);
         database.initialize();
-        context.close();
         return database;
     }
+
+    /**
+     * @return the durable queue of experiment tasks
+     */
+    @Bean
+    public TaskQueueDAO taskQueueDAO() {
+        return databaseContext().getBean(TaskQueueDAO.class);
+    }
 }
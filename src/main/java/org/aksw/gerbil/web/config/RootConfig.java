@@ -23,9 +23,10 @@
  */
 package org.aksw.gerbil.web.config;
 
-import java.io.PrintStream;
-
-import org.aksw.gerbil.utils.ConsoleLogger;
+import org.aksw.gerbil.ExperimentIngestionQueue;
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.execute.ProgressEventBus;
+import org.aksw.gerbil.execute.ProgressEventLogger;
 import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
 import org.aksw.simba.topicmodeling.concurrent.overseers.pool.ExecutorBasedOverseer;
 import org.aksw.simba.topicmodeling.concurrent.reporter.LogReporter;
@@ -33,6 +34,7 @@ import org.aksw.simba.topicmodeling.concurrent.reporter.Reporter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.core.io.ClassPathResource;
@@ -46,9 +48,7 @@ import org.springframework.core.io.Resource;
  * <li>Starts a component scan inside the package
  * <code>org.aksw.gerbil.web.config</code> searching for other
  * {@link Configuration}s</li>
- * <li>Replaces the streams used by <code>System.out</code> and
- * <code>System.err</code> by two {@link ConsoleLogger} objects. (This is a very
- * ugly workaround that should be fixed in the near future)</li>
+ * <li>Registers a {@link ProgressEventLogger} at the {@link ProgressEventBus}</li>
  * </ul>
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
@@ -63,17 +63,6 @@ public class RootConfig {
 
     private static final int DEFAULT_NUMBER_OF_WORKERS = 20;
 
-    {
-        // FIXME this is an extremely ugly workaround to be able to log the
-        // stuff coming from the BAT-Framework
-        replaceSystemStreams();
-    }
-
-    protected static void replaceSystemStreams() {
-        System.setOut(new PrintStream(new ConsoleLogger(false), true));
-        System.setErr(new PrintStream(new ConsoleLogger(true), true));
-    }
-
     static @Bean
     public PropertySourcesPlaceholderConfigurer myPropertySourcesPlaceholderConfigurer() {
         PropertySourcesPlaceholderConfigurer p = new PropertySourcesPlaceholderConfigurer();
@@ -89,4 +78,26 @@ public class RootConfig {
         Reporter reporter = new LogReporter(overseer);
         return overseer;
     }
+
+    public static @Bean
+    ProgressEventLogger createProgressEventLogger() {
+        ProgressEventLogger logger = new ProgressEventLogger();
+        ProgressEventBus.getInstance().addListener(logger);
+        return logger;
+    }
+
+    /**
+     * The queue depends on the database and the task scheduler, so that it is
+     * closed before them and can still ingest the queued experiments.
+     */
+    public static @Bean(destroyMethod = "close")
+    @DependsOn({ "databaseContext", "taskScheduler" })
+    ExperimentIngestionQueue createIngestionQueue() {
+        int capacity = GerbilConfiguration.getInstance().getInt(ExperimentIngestionQueue.CAPACITY_PROPERTY_NAME,
+                ExperimentIngestionQueue.DEFAULT_CAPACITY);
+        long shutdownTimeout = GerbilConfiguration.getInstance().getLong(
+                ExperimentIngestionQueue.SHUTDOWN_TIMEOUT_PROPERTY_NAME,
+                ExperimentIngestionQueue.DEFAULT_SHUTDOWN_TIMEOUT);
+        return new ExperimentIngestionQueue(capacity, shutdownTimeout);
+    }
 }
@@ -0,0 +1,70 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web.config;
+
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.execute.TaskScheduler;
+import org.aksw.simba.topicmodeling.concurrent.overseers.Overseer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This {@link Configuration} creates the {@link TaskScheduler} that executes
+ * the tasks of the durable task queue using the {@link Overseer}. If the
+ * maximum number of running tasks is set to 0, the tasks are only submitted
+ * and have to be executed by headless workers.
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Autowired
+    @Qualifier("experimentDAO")
+    private ExperimentDAO experimentDAO;
+
+    @Autowired
+    private TaskQueueDAO taskQueueDAO;
+
+    @Autowired
+    private Overseer overseer;
+
+    /**
+     * Creates the scheduler and starts polling the task queue. Tasks that
+     * have been queued or executed while the server has been stopped are
+     * leased again as soon as their leases expired.
+     * 
+     * @return the scheduler bean
+     */
+    @Bean(destroyMethod = "close")
+    public TaskScheduler taskScheduler() {
+        int maxRunningTasks = GerbilConfiguration.getInstance().getInt(TaskScheduler.MAX_RUNNING_TASKS_PROPERTY_NAME,
+                TaskScheduler.DEFAULT_MAX_RUNNING_TASKS);
+        TaskScheduler scheduler = TaskScheduler.create(taskQueueDAO, experimentDAO, overseer, maxRunningTasks);
+        scheduler.start();
+        return scheduler;
+    }
+}
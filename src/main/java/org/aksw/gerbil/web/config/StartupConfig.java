@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web.config;
+
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.utils.AnnotatorMapping;
+import org.aksw.gerbil.utils.DatasetMapping;
+import org.aksw.gerbil.utils.SingletonWikipediaApi;
+import org.aksw.gerbil.web.StartupInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This {@link Configuration} creates the {@link StartupInitializer} that loads
+ * the Wikipedia API caches and the annotator and dataset mappings in the
+ * background. The mappings need the Wikipedia API and wait for it while it is
+ * loaded, but they are created in parallel to each other.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean(destroyMethod = "close")
+    public StartupInitializer startupInitializer() {
+        StartupInitializer initializer = new StartupInitializer();
+        initializer.addInitializer("Wikipedia API", new Runnable() {
+            @Override
+            public void run() {
+                SingletonWikipediaApi.getInstance();
+            }
+        });
+        initializer.addInitializer("annotators", new Runnable() {
+            @Override
+            public void run() {
+                // simply call the mapping so that it has to be instantiated
+                AnnotatorMapping.getAnnotatorsForExperimentType(ExperimentType.Sa2KB);
+            }
+        });
+        initializer.addInitializer("datasets", new Runnable() {
+            @Override
+            public void run() {
+                DatasetMapping.getDatasetsForExperimentType(ExperimentType.Sa2KB);
+            }
+        });
+        initializer.start();
+        return initializer;
+    }
+}
@@ -23,6 +23,8 @@
  */
 package org.aksw.gerbil.web.config;
 
+import org.aksw.gerbil.config.GerbilConfiguration;
+import org.aksw.gerbil.web.FileUploadController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
@@ -62,9 +64,19 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
         return viewResolver;
     }
 
+    /**
+     * @return the multipart resolver. It rejects uploads larger than the
+     *         configured maximum size while reading them. Since the requests
+     *         are resolved lazily, the {@link FileUploadController} can handle
+     *         the rejection.
+     */
     @Bean
     public CommonsMultipartResolver multipartResolver() {
-        return new CommonsMultipartResolver();
+        CommonsMultipartResolver resolver = new CommonsMultipartResolver();
+        resolver.setMaxUploadSize(GerbilConfiguration.getInstance().getLong(
+                FileUploadController.MAX_UPLOAD_SIZE_PROPERTY_NAME, -1));
+        resolver.setResolveLazily(true);
+        return resolver;
     }
 
     @Override
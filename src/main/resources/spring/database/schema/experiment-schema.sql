@@ -26,14 +26,50 @@ DROP INDEX IF EXISTS ExperimentTaskConfig;
 CREATE INDEX ExperimentTaskConfig ON ExperimentTasks (matching,experimentType,annotatorName,datasetName);
 
 -- Changes from version 1.0.0 to 1.1.0
-CREATE TABLE IF NOT EXISTS ExperimentTasks_Version (
-id int PRIMARY KEY,
-version VARCHAR(20)
-);
 UPDATE ExperimentTasks SET experimentType='D2KB' WHERE experimentType='D2W';
 UPDATE ExperimentTasks SET experimentType='A2KB' WHERE experimentType='A2W';
 UPDATE ExperimentTasks SET experimentType='Sa2KB' WHERE experimentType='Sa2W';
 UPDATE ExperimentTasks SET experimentType='C2KB' WHERE experimentType='C2W';
 UPDATE ExperimentTasks SET experimentType='Sc2KB' WHERE experimentType='Sc2W';
 UPDATE ExperimentTasks SET experimentType='Rc2KB' WHERE experimentType='Rc2W';
-UPDATE ExperimentTasks SET annotatorName='Babelfy' WHERE annotatorName='BabelFy';
\ No newline at end of file
+UPDATE ExperimentTasks SET annotatorName='Babelfy' WHERE annotatorName='BabelFy';
+
+-- Changes from version 1.1.0 to 1.1.1
+-- The versions are stored inside the ExperimentTasks table. The ExperimentDAOImpl moves them from an existing ExperimentTasks_Version table.
+-- The latest result of every annotator, dataset, experiment type and matching combination is stored separately
+CREATE TABLE IF NOT EXISTS LatestResults (
+annotatorName VARCHAR(100) NOT NULL,
+datasetName VARCHAR(100) NOT NULL,
+experimentType VARCHAR(10) NOT NULL,
+matching VARCHAR(50) NOT NULL,
+taskId int NOT NULL,
+state int,
+lastChanged TIMESTAMP,
+PRIMARY KEY (experimentType, matching, annotatorName, datasetName)
+);
+DROP INDEX IF EXISTS LatestResultsOverview;
+CREATE INDEX LatestResultsOverview ON LatestResults (experimentType,matching,state,lastChanged,taskId);
+INSERT INTO LatestResults (annotatorName, datasetName, experimentType, matching, taskId, state, lastChanged) SELECT t.annotatorName, t.datasetName, t.experimentType, t.matching, t.id, t.state, t.lastChanged FROM ExperimentTasks t WHERE t.state<>-1 AND t.annotatorName IS NOT NULL AND t.datasetName IS NOT NULL AND t.experimentType IS NOT NULL AND t.matching IS NOT NULL AND NOT EXISTS (SELECT n.id FROM ExperimentTasks n WHERE n.matching=t.matching AND n.experimentType=t.experimentType AND n.annotatorName=t.annotatorName AND n.datasetName=t.datasetName AND n.state<>-1 AND (n.lastChanged>t.lastChanged OR (n.lastChanged=t.lastChanged AND n.id>t.id))) AND NOT EXISTS (SELECT l.taskId FROM LatestResults l);
+-- Tasks that have to be executed are stored in a durable queue
+CREATE TABLE IF NOT EXISTS TaskQueue (
+taskId int NOT NULL PRIMARY KEY,
+state int NOT NULL,
+attempts int NOT NULL,
+annotatorDefinition VARCHAR(1000),
+datasetDefinition VARCHAR(1000),
+leaseOwner VARCHAR(100),
+leaseExpires TIMESTAMP,
+queued TIMESTAMP,
+lastChanged TIMESTAMP
+);
+DROP INDEX IF EXISTS TaskQueuePolling;
+CREATE INDEX TaskQueuePolling ON TaskQueue (state,leaseExpires,queued);
+DROP INDEX IF EXISTS TaskQueueDone;
+CREATE INDEX TaskQueueDone ON TaskQueue (state,lastChanged);
+-- The fingerprints of the content of uploaded datasets are used to reuse the results of identical datasets
+CREATE TABLE IF NOT EXISTS DatasetFingerprints (
+taskId int NOT NULL PRIMARY KEY,
+fingerprint VARCHAR(64) NOT NULL
+);
+DROP INDEX IF EXISTS DatasetFingerprintsLookup;
+CREATE INDEX DatasetFingerprintsLookup ON DatasetFingerprints (fingerprint);
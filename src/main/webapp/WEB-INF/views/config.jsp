@@ -64,6 +64,7 @@
 	<c:url var="datasets" value="/datasets" />
 	<c:url var="execute" value="/execute" />
 	<c:url var="testNifWs" value="/testNifWs" />
+	<c:url var="ready" value="/ready" />
 
 	<script src="/gerbil/webjars/jquery/2.1.1/jquery.min.js"></script>
 	<script src="/gerbil/webjars/bootstrap/3.2.0/js/bootstrap.min.js"></script>
@@ -80,7 +81,12 @@
 	<script src="${jqueryfileupload}"></script>
 	<%@include file="navbar.jsp"%>
 	<h1>GERBIL Experiment Configuration</h1>
-
+	<div id="infoStartup" class="alert alert-info" role="alert"
+		style="display: none;">
+		<strong>Please wait</strong> while GERBIL is loading the following
+		parts: <span id="startupComponents"></span>. The lists of annotators
+		and datasets will be updated afterwards.
+	</div>
 
 	<form id="configForm" class="form-horizontal">
 		<fieldset>
@@ -303,6 +309,40 @@
 		        $('#dataset').multiselect('rebuild');
 	        });
         }
+        //poll the state of the startup and reload the lists when it is done
+        var startupWasLoading = false;
+        function checkStartup() {
+	        //the server answers with 503 as long as the startup is not finished
+	        $.getJSON('${ready}', {
+	            ajax : 'false'
+	        }).done(showStartupState).fail(function(jqXHR) {
+		        if (jqXHR.responseJSON) {
+			        showStartupState(jqXHR.responseJSON);
+		        } else {
+			        setTimeout(checkStartup, 2000);
+		        }
+	        });
+        }
+        function showStartupState(data) {
+		        if (data.ready) {
+			        $('#infoStartup').hide();
+			        if (startupWasLoading) {
+				        loadAnnotator();
+				        loadDatasets();
+			        }
+		        } else {
+			        startupWasLoading = true;
+			        var loading = [];
+			        for ( var component in data.components) {
+				        if (data.components[component] == 'LOADING') {
+					        loading.push(component);
+				        }
+			        }
+			        $('#startupComponents').text(loading.join(', '));
+			        $('#infoStartup').show();
+			        setTimeout(checkStartup, 2000);
+		        }
+        }
         function checkExperimentConfiguration() {
 	        //fetch list of selected and manually added annotators
 	        var annotatorMultiselect = $('#annotator option:selected');
@@ -386,6 +426,7 @@
 	                $('#type').change(loadDatasets);
 
 	                loadExperimentTypes();
+	                checkStartup();
 
 	                //supervise configuration of experiment and let it only run
 	                //if everything is ok 
@@ -439,7 +480,7 @@
 			                        dataset.push($(this).val());
 		                        });
 		                        $("#datasetList li span.li_content").each(function() {
-			                        dataset.push("NIFDS_" + $(this).text());
+			                        dataset.push("NIFDS_" + $(this).data('definition'));
 		                        });
 		                        var type = $('#type').val() ? $('#type').val() : "D2KB";
 		                        var matching = $('#matching').val() ? $('#matching').val()
@@ -480,9 +521,18 @@
 	                    done : function(e, data) {
 		                    var name = $('#nameDataset').val();
 		                    $.each(data.result.files, function(index, file) {
-			                    $('#datasetList').append(
-			                            "<li><span class=\"glyphicon glyphicon-remove\"></span>&nbsp<span class=\"li_content\">"
-			                                    + name + "(" + file.name + ")</span></li>");
+			                    if (file.error) {
+				                    // a rejected request doesn't contain the name of the file
+				                    var fileName = data.files[index] ? data.files[index].name : file.name;
+				                    alert(fileName + "\n" + file.error);
+				                    return;
+			                    }
+			                    // the dataset is shown with the name of the uploaded file
+			                    // but refers to the file stored on the server
+			                    var item = $("<li><span class=\"glyphicon glyphicon-remove\"></span>&nbsp<span class=\"li_content\"></span></li>");
+			                    item.find('span.li_content').text(name + "(" + file.name + ")").data('definition',
+			                            name + "(" + file.storedName + ")");
+			                    $('#datasetList').append(item);
 			                    var listItems = $('#datasetList > li > span');
 			                    for ( var i = 0; i < listItems.length; i++) {
 				                    listItems[i].onclick = function() {
@@ -33,6 +33,7 @@
 <body class="container">
 	<!-- mappings to URLs in back-end controller -->
 	<c:url var="experiment" value="/experiment" />
+	<c:url var="experimentprogress" value="/experimentprogress" />
 
 	<script src="/gerbil/webjars/jquery/2.1.1/jquery.min.js"></script>
 	<script src="/gerbil/webjars/bootstrap/3.2.0/js/bootstrap.min.js"></script>
@@ -44,13 +45,18 @@
 
 	<%@include file="navbar.jsp"%>
 	<h1>GERBIL Experiment</h1>
+	<c:if test="${empty tasks}">
+		<p id="experimentPending" data-experiment-id="<c:out value="${param.id}" />">The tasks of this
+			experiment are being created. This page is updated as soon as they are available.</p>
+	</c:if>
 	<c:if test="${not empty tasks}">
 
 	Type: <c:out value="${tasks[0].type.label}" />
 		</br>
 	Matching: <c:out value="${tasks[0].matching.label}" />
 		<table id="resultTable"
-			class="table  table-hover table-condensed tablesorter tableScroll">
+			class="table  table-hover table-condensed tablesorter tableScroll"
+			data-experiment-id="<c:out value="${param.id}" />">
 			<thead>
 				<tr>
 					<th>Annotator</th>
@@ -69,7 +75,7 @@
 			</thead>
 			<tbody>
 				<c:forEach var="task" items="${tasks}">
-					<tr>
+					<tr data-task-id="${task.idInDb}" data-state="${task.state}">
 						<td>${task.annotator}</td>
 						<td>${task.dataset}</td>
 						<c:if test="${empty task.stateMsg}">
@@ -89,7 +95,7 @@
 							<td>${task.errorCount}</td>
 						</c:if>
 						<c:if test="${not empty task.stateMsg}">
-							<td colspan="7" style="text-align:center">${task.stateMsg}</td>
+							<td colspan="7" style="text-align:center" class="stateMsg">${task.stateMsg}</td>
 						</c:if>
 						<td>${task.timestampstring}</td>
 						<td>${task.gerbilVersion}</td>
@@ -102,10 +108,58 @@
 
 
 	<script type="text/javascript">
+		// waits for the next progress update of the running tasks. The page
+		// is only reloaded if the state of a task has changed or tasks have
+		// been added to the experiment.
+		function pollProgress(version) {
+			var request = {
+				id : $("[data-experiment-id]").attr("data-experiment-id")
+			};
+			if (version) {
+				request.version = version;
+			}
+			$.ajax({
+				url : "${experimentprogress}",
+				data : request,
+				dataType : "json",
+				cache : false
+			}).done(function(progress) {
+				var stateChanged = (progress.tasks.length != $("#resultTable tr[data-task-id]").length);
+				$.each(progress.tasks, function(i, task) {
+					var row = $("#resultTable tr[data-task-id='" + task.id + "']");
+					if (task.state != row.data("state")) {
+						stateChanged = true;
+					} else if (task.progress !== undefined) {
+						row.find(".stateMsg").text(
+								"The experiment is still running (" + task.progress
+										+ "% of the documents are done).");
+					} else if (task.execution == "waiting") {
+						row.find(".stateMsg").text("The experiment is waiting for a free worker.");
+					} else if (task.execution == "remote") {
+						row.find(".stateMsg").text(
+								"The experiment is still running on another worker (its progress is not available).");
+					}
+				});
+				if (stateChanged) {
+					location.reload();
+				} else if (!progress.finished) {
+					pollProgress(progress.version);
+				}
+			}).fail(function() {
+				setTimeout(function() {
+					pollProgress(version);
+				}, 5000);
+			});
+		}
+
 		$(document).ready(function() {
 	        $("#resultTable").tablesorter({
 		        sortList : [ [ 0, 0 ], [ 1, 0 ] ]
 	        });
+	        if (($("#experimentPending").length > 0)
+	                || ($("#resultTable tr[data-state='-1']").length > 0)) {
+		        pollProgress();
+	        }
         });
 	</script>
 </body>
\ No newline at end of file
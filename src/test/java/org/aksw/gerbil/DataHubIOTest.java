@@ -31,9 +31,9 @@ import org.junit.Ignore;
 @Ignore
 public class DataHubIOTest {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         DatahubNIFLoader loader = new DatahubNIFLoader();
-        Map<String, String> datasets = loader.getDataSets();
+        Map<String, String> datasets = loader.refresh();
         System.out.println(datasets.toString());
     }
 }
@@ -0,0 +1,116 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.gerbil.datatypes.ExperimentTaskConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExperimentIngestionQueueTest {
+
+    @Test
+    public void testIngestion() throws InterruptedException {
+        ExperimentIngestionQueue queue = new ExperimentIngestionQueue(2);
+        try {
+            CountDownLatch blocker = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch finished = new CountDownLatch(3);
+            Assert.assertTrue(queue.submit(new BlockingExperimenter("1", started, blocker, finished)));
+            // wait until the first experimenter is running and blocks the
+            // ingestion thread
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(queue.submit(new BlockingExperimenter("2", null, null, finished)));
+            Assert.assertTrue(queue.submit(new BlockingExperimenter("3", null, null, finished)));
+            // the queue is full
+            Assert.assertFalse(queue.submit(new BlockingExperimenter("4", null, null, finished)));
+            Assert.assertEquals(2, queue.size());
+
+            blocker.countDown();
+            Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, queue.size());
+        } finally {
+            queue.close();
+        }
+        Assert.assertFalse(queue.submit(new BlockingExperimenter("5", null, null, new CountDownLatch(1))));
+    }
+
+    @Test
+    public void testCloseDrainsQueue() throws InterruptedException {
+        ExperimentIngestionQueue queue = new ExperimentIngestionQueue(2, 10000);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        Assert.assertTrue(queue.submit(new BlockingExperimenter("1", started, blocker, finished)));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(queue.submit(new BlockingExperimenter("2", null, null, finished)));
+        Assert.assertTrue(queue.submit(new BlockingExperimenter("3", null, null, finished)));
+        // release the first experimenter while the queue is closed
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                }
+                blocker.countDown();
+            }
+        }).start();
+        queue.close();
+        // all queued experimenters have been run before close() returned
+        Assert.assertEquals(0, finished.getCount());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    private static class BlockingExperimenter extends Experimenter {
+
+        private CountDownLatch started;
+        private CountDownLatch blocker;
+        private CountDownLatch finished;
+
+        public BlockingExperimenter(String experimentId, CountDownLatch started, CountDownLatch blocker,
+                CountDownLatch finished) {
+            super(null, null, null, new ExperimentTaskConfiguration[0], experimentId);
+            this.started = started;
+            this.blocker = blocker;
+            this.finished = finished;
+        }
+
+        @Override
+        public void run() {
+            if (started != null) {
+                started.countDown();
+            }
+            if (blocker != null) {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                }
+            }
+            finished.countDown();
+        }
+    }
+}
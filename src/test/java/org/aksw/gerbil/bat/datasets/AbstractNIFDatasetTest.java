@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.bat.datasets;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.data.Mention;
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.utils.WikipediaApiInterface;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.gerbil.exceptions.GerbilException;
+import org.apache.jena.riot.Lang;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AbstractNIFDatasetTest {
+
+    private static final String NIF_DATA = "@prefix nif: <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#> .\n"
+            + "@prefix itsrdf: <http://www.w3.org/2005/11/its/rdf#> .\n"
+            + "<http://example.org/doc1#char=0,27> a nif:Context ;\n"
+            + "    nif:isString \"Angela Merkel visited Paris\" .\n"
+            + "<http://example.org/doc1#char=0,13> nif:referenceContext <http://example.org/doc1#char=0,27> ;\n"
+            + "    nif:anchorOf \"Angela Merkel\" ; nif:beginIndex 0 ; nif:endIndex 13 ;\n"
+            + "    itsrdf:taIdentRef <http://dbpedia.org/resource/Angela_Merkel> .\n"
+            + "<http://example.org/doc1#char=22,27> nif:referenceContext <http://example.org/doc1#char=0,27> ;\n"
+            + "    nif:anchorOf \"Paris\" ; nif:beginIndex 22 ; nif:endIndex 27 ;\n"
+            + "    itsrdf:taIdentRef <http://dbpedia.org/resource/Paris> .\n"
+            + "<http://example.org/doc1#char=28,33> nif:referenceContext <http://example.org/doc1#char=0,27> ;\n"
+            + "    nif:anchorOf \"Paris\" ; nif:beginIndex 28 ; nif:endIndex 33 ;\n"
+            + "    itsrdf:taIdentRef <http://dbpedia.org/resource/Unknown_Page> .\n";
+
+    /**
+     * The annotation is listed before its context and there is a second
+     * string without the type nif:Context that has to be ignored.
+     */
+    private static final String UNORDERED_NIF_DATA = "<http://example.org/a> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#anchorOf> \"Berlin\" .\n"
+            + "<http://example.org/a> <http://www.w3.org/2005/11/its/rdf#taIdentRef> <http://dbpedia.org/resource/Berlin> .\n"
+            + "<http://example.org/a> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#beginIndex> \"0\"^^<http://www.w3.org/2001/XMLSchema#nonNegativeInteger> .\n"
+            + "<http://example.org/a> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#endIndex> \"6\"^^<http://www.w3.org/2001/XMLSchema#nonNegativeInteger> .\n"
+            + "<http://example.org/a> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#referenceContext> <http://example.org/c> .\n"
+            + "<http://example.org/c> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#isString> \"Berlin is a city\" .\n"
+            + "<http://example.org/c> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#Context> .\n"
+            + "<http://example.org/x> <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#isString> \"no context\" .\n";
+
+    @Test
+    public void testViews() throws Exception {
+        TestWikipediaApi wikiApi = new TestWikipediaApi();
+        TestNIFDataset dataset = new TestNIFDataset(wikiApi, NIF_DATA, Lang.TTL);
+        dataset.init();
+        // all titles are requested at once
+        Assert.assertEquals(1, wikiApi.prefetchCalls);
+
+        Assert.assertEquals(1, dataset.getSize());
+        Assert.assertEquals("Angela Merkel visited Paris", dataset.getTextInstanceList().get(0));
+        HashSet<Annotation> annotations = dataset.getD2WGoldStandardList().get(0);
+        Assert.assertEquals(2, annotations.size());
+        Assert.assertTrue(annotations.contains(new Annotation(0, 13, 1)));
+        Assert.assertTrue(annotations.contains(new Annotation(22, 5, 2)));
+        Assert.assertEquals(2, dataset.getTagsCount());
+
+        HashSet<Mention> mentions = dataset.getMentionsInstanceList().get(0);
+        Assert.assertEquals(2, mentions.size());
+        Assert.assertTrue(mentions.contains(new Mention(22, 5)));
+        HashSet<Tag> tags = dataset.getC2WGoldStandardList().get(0);
+        Assert.assertEquals(2, tags.size());
+        Assert.assertTrue(tags.contains(new Tag(1)));
+
+        // the derived views are created only once
+        Assert.assertSame(dataset.getMentionsInstanceList(), dataset.getMentionsInstanceList());
+        Assert.assertSame(dataset.getC2WGoldStandardList(), dataset.getC2WGoldStandardList());
+    }
+
+    @Test
+    public void testUnorderedTriples() throws Exception {
+        TestNIFDataset dataset = new TestNIFDataset(new TestWikipediaApi(), UNORDERED_NIF_DATA, Lang.NTRIPLES);
+        dataset.init();
+
+        Assert.assertEquals(1, dataset.getSize());
+        Assert.assertEquals("Berlin is a city", dataset.getTextInstanceList().get(0));
+        HashSet<Annotation> annotations = dataset.getD2WGoldStandardList().get(0);
+        Assert.assertEquals(1, annotations.size());
+        Assert.assertTrue(annotations.contains(new Annotation(0, 6, 3)));
+    }
+
+    @Test(expected = GerbilException.class)
+    public void testMalformedData() throws Exception {
+        TestNIFDataset dataset = new TestNIFDataset(new TestWikipediaApi(), "<http://example.org/a> nif:isString",
+                Lang.TTL);
+        dataset.init();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyTexts() throws Exception {
+        TestNIFDataset dataset = new TestNIFDataset(new TestWikipediaApi(), NIF_DATA, Lang.TTL);
+        dataset.init();
+        List<String> texts = dataset.getTextInstanceList();
+        texts.add("another text");
+    }
+
+    private static class TestNIFDataset extends AbstractNIFDataset {
+
+        private String data;
+        private Lang language;
+
+        public TestNIFDataset(WikipediaApiInterface wikiApi, String data, Lang language) {
+            super(wikiApi, "test");
+            this.data = data;
+            this.language = language;
+        }
+
+        @Override
+        protected InputStream getDataAsInputStream() {
+            return new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
+        }
+
+        @Override
+        protected Lang getDataLanguage() {
+            return language;
+        }
+    }
+
+    private static class TestWikipediaApi extends WikipediaApiInterface {
+
+        private Map<String, Integer> ids = new HashMap<String, Integer>();
+        private int prefetchCalls = 0;
+
+        public TestWikipediaApi() throws Exception {
+            super(null, null);
+            ids.put("Angela_Merkel", 1);
+            ids.put("Paris", 2);
+            ids.put("Berlin", 3);
+        }
+
+        @Override
+        public int getIdByTitle(String title) throws IOException {
+            return ids.containsKey(title) ? ids.get(title) : -1;
+        }
+
+        @Override
+        public void prefetchTitles(List<String> titlesToPrefetch) {
+            ++prefetchCalls;
+        }
+    }
+}
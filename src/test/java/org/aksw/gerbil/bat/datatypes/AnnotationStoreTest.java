@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.bat.datatypes;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.data.Mention;
+import it.acubelab.batframework.data.ScoredAnnotation;
+import it.acubelab.batframework.data.ScoredTag;
+import it.acubelab.batframework.utils.ProblemReduction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the views of the {@link AnnotationStore} with the reductions of
+ * the {@link ProblemReduction} class.
+ */
+public class AnnotationStoreTest {
+
+    private static final int NUMBER_OF_DOCUMENTS = 30;
+    private static final float THRESHOLDS[] = { 0, 0.25f, 0.5f, 0.75f, 1 };
+
+    @Test
+    public void testScoredAnnotations() {
+        Random random = new Random(1);
+        List<HashSet<ScoredAnnotation>> documents = new ArrayList<HashSet<ScoredAnnotation>>();
+        List<HashSet<Mention>> mentions = new ArrayList<HashSet<Mention>>();
+        HashSet<ScoredAnnotation> annotations;
+        HashSet<Mention> documentMentions;
+        for (int i = 0; i < NUMBER_OF_DOCUMENTS; ++i) {
+            annotations = new HashSet<ScoredAnnotation>();
+            for (int j = random.nextInt(10); j > 0; --j) {
+                // use only a few different scores to create ties
+                annotations.add(new ScoredAnnotation(random.nextInt(50), random.nextInt(6), random.nextInt(10),
+                        random.nextInt(5) / 4f));
+            }
+            documents.add(annotations);
+            documentMentions = new HashSet<Mention>();
+            for (int j = random.nextInt(5); j > 0; --j) {
+                documentMentions.add(new Mention(random.nextInt(50), random.nextInt(6)));
+            }
+            mentions.add(documentMentions);
+        }
+
+        AnnotationStore store = AnnotationStore.fromScoredAnnotations(documents);
+        Assert.assertEquals(NUMBER_OF_DOCUMENTS, store.getNumberOfDocuments());
+        int lastSize = Integer.MAX_VALUE;
+        for (int i = 0; i < THRESHOLDS.length; ++i) {
+            AnnotationStore.View view = store.view(THRESHOLDS[i]);
+            List<HashSet<Annotation>> expectedA2W = ProblemReduction.Sa2WToA2WList(documents, THRESHOLDS[i]);
+            Assert.assertEquals(expectedA2W, view.toA2WList());
+            Assert.assertEquals(ProblemReduction.A2WToC2WList(expectedA2W), view.toC2WList());
+            Assert.assertEquals(ProblemReduction.Sa2WToD2WList(documents, mentions, THRESHOLDS[i]),
+                    view.toD2WList(mentions));
+            Assert.assertTrue(view.size() <= lastSize);
+            lastSize = view.size();
+        }
+    }
+
+    @Test
+    public void testScoredTags() {
+        Random random = new Random(2);
+        List<HashSet<ScoredTag>> documents = new ArrayList<HashSet<ScoredTag>>();
+        HashSet<ScoredTag> tags;
+        for (int i = 0; i < NUMBER_OF_DOCUMENTS; ++i) {
+            tags = new HashSet<ScoredTag>();
+            for (int j = random.nextInt(10); j > 0; --j) {
+                tags.add(new ScoredTag(random.nextInt(20), random.nextFloat()));
+            }
+            documents.add(tags);
+        }
+
+        AnnotationStore store = AnnotationStore.fromScoredTags(documents);
+        Assert.assertFalse(store.hasMentions());
+        for (int i = 0; i < THRESHOLDS.length; ++i) {
+            Assert.assertEquals(ProblemReduction.Sc2WToC2WList(documents, THRESHOLDS[i]), store.view(THRESHOLDS[i])
+                    .toC2WList());
+        }
+    }
+}
@@ -64,6 +64,20 @@ public class ExperimentDAOImplJUnitTest {
         Assert.assertTrue(taskId > 0);
     }
 
+    @Test
+    public void testTaskBatchCreation() {
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2" }, new String[] { "dataset1",
+                "dataset2" }, new String[] { "type1", "type1" }, new String[] { "matching1", "matching1" }, "id-777");
+        Assert.assertEquals(2, taskIds.length);
+        Assert.assertTrue(taskIds[0] > 0);
+        Assert.assertTrue(taskIds[1] > 0);
+        Assert.assertFalse(taskIds[0] == taskIds[1]);
+        for (int i = 0; i < taskIds.length; ++i) {
+            Assert.assertEquals(ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET, this.dao.getExperimentState(taskIds[i]));
+        }
+        Assert.assertEquals(2, this.dao.getResultsOfExperiment("id-777").size());
+    }
+
     @Test
     public void testStateSettingAndGetting() {
         int taskId = this.dao.createTask("annotator1", "dataset1", "type1", "matching1", "id-456");
@@ -201,4 +215,66 @@ public class ExperimentDAOImplJUnitTest {
         Assert.assertEquals("dataset1", results.get(0).dataset);
         Assert.assertEquals(0, results.get(0).state);
     }
+
+    @Test
+    public void testRunningTaskCoalescing() {
+        final String TYPE = ExperimentType.Sc2KB.name();
+        final String MATCHING = Matching.STRONG_ENTITY_MATCH.name();
+        dao.setResultDurability(60000);
+        int taskId = this.dao.connectCachedResultOrCreateTask("annotator3", "dataset3", TYPE, MATCHING, "id-600");
+        Assert.assertTrue(taskId >= 0);
+        // the task is still running but should be reused by another experiment
+        Assert.assertEquals(ExperimentDAO.CACHED_EXPERIMENT_TASK_CAN_BE_USED,
+                this.dao.connectCachedResultOrCreateTask("annotator3", "dataset3", TYPE, MATCHING, "id-601"));
+        // requesting the same task twice inside the same experiment shouldn't
+        // cause a problem
+        Assert.assertEquals(ExperimentDAO.CACHED_EXPERIMENT_TASK_CAN_BE_USED,
+                this.dao.connectCachedResultOrCreateTask("annotator3", "dataset3", TYPE, MATCHING, "id-600"));
+        Assert.assertEquals(1, this.dao.getResultsOfExperiment("id-600").size());
+        Assert.assertEquals(1, this.dao.getResultsOfExperiment("id-601").size());
+        Assert.assertEquals(taskId, this.dao.getResultsOfExperiment("id-601").get(0).idInDb);
+    }
+
+    @Test
+    public void testLatestResultReplacement() throws InterruptedException {
+        String type = ExperimentType.C2KB.name();
+        String matching = Matching.STRONG_ENTITY_MATCH.name();
+        int firstTaskId = this.dao.createTask("annotator1", "dataset1", type, matching, "id-555");
+        this.dao.setExperimentState(firstTaskId, ExperimentDAO.TASK_FINISHED);
+        // a newer task should not replace the first one as long as it is running
+        Thread.sleep(10);
+        int secondTaskId = this.dao.createTask("annotator1", "dataset1", type, matching, "id-556");
+        List<ExperimentTaskResult> results = this.dao.getLatestResultsOfExperiments(type, matching);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(firstTaskId, results.get(0).idInDb);
+        // after it has been finished, it should be the latest result
+        this.dao.setExperimentState(secondTaskId, ErrorTypes.UNEXPECTED_EXCEPTION.getErrorCode());
+        results = this.dao.getLatestResultsOfExperiments(type, matching);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(secondTaskId, results.get(0).idInDb);
+        Assert.assertEquals(ErrorTypes.UNEXPECTED_EXCEPTION.getErrorCode(), results.get(0).state);
+    }
+
+    @Test
+    public void testFingerprintCaching() {
+        final String TYPE = ExperimentType.A2KB.name();
+        final String MATCHING = Matching.WEAK_ANNOTATION_MATCH.name();
+        dao.setResultDurability(60000);
+        int taskId = this.dao.connectCachedResultOrCreateTask("annotator4", "upload1(uploaded)", "fingerprint1", TYPE,
+                MATCHING, "id-700");
+        Assert.assertTrue(taskId >= 0);
+        this.dao.setExperimentState(taskId, ExperimentDAO.TASK_FINISHED);
+        // the same content uploaded with a different name should be cached
+        Assert.assertEquals(ExperimentDAO.CACHED_EXPERIMENT_TASK_CAN_BE_USED, this.dao.connectCachedResultOrCreateTask(
+                "annotator4", "upload2(uploaded)", "fingerprint1", TYPE, MATCHING, "id-701"));
+        Assert.assertEquals(taskId, this.dao.getResultsOfExperiment("id-701").get(0).idInDb);
+        // a different content with the same name shouldn't be cached
+        Assert.assertTrue(this.dao.connectCachedResultOrCreateTask("annotator4", "upload1(uploaded)", "fingerprint2",
+                TYPE, MATCHING, "id-702") >= 0);
+        // the name alone doesn't identify an uploaded dataset
+        Assert.assertTrue(this.dao.connectCachedResultOrCreateTask("annotator4", "upload3(uploaded)", TYPE, MATCHING,
+                "id-703") >= 0);
+        Assert.assertTrue(this.dao.connectCachedResultOrCreateTask("annotator5", "upload1(uploaded)", "fingerprint1",
+                TYPE, MATCHING, "id-704") >= 0);
+    }
 }
@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+public class RetryingTransactionTemplateTest {
+
+    @Test
+    public void testRetryAfterConcurrencyFailure() {
+        CountingTransactionManager manager = new CountingTransactionManager();
+        RetryingTransactionTemplate template = new RetryingTransactionTemplate(manager, 3);
+        FailingCallback callback = new FailingCallback(2, new ConcurrencyFailureException("deadlock"));
+        Assert.assertEquals(Integer.valueOf(3), template.execute(callback));
+        Assert.assertEquals(2, manager.rollbacks);
+        Assert.assertEquals(1, manager.commits);
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() {
+        CountingTransactionManager manager = new CountingTransactionManager();
+        RetryingTransactionTemplate template = new RetryingTransactionTemplate(manager, 3);
+        FailingCallback callback = new FailingCallback(3, new ConcurrencyFailureException("deadlock"));
+        try {
+            template.execute(callback);
+            Assert.fail("Expected a ConcurrencyFailureException.");
+        } catch (ConcurrencyFailureException e) {
+            // expected
+        }
+        Assert.assertEquals(3, callback.calls);
+        Assert.assertEquals(0, manager.commits);
+    }
+
+    @Test
+    public void testNoRetryForOtherExceptions() {
+        CountingTransactionManager manager = new CountingTransactionManager();
+        RetryingTransactionTemplate template = new RetryingTransactionTemplate(manager, 3);
+        FailingCallback callback = new FailingCallback(1, new DataIntegrityViolationException("duplicate key"));
+        try {
+            template.execute(callback);
+            Assert.fail("Expected a DataIntegrityViolationException.");
+        } catch (DataIntegrityViolationException e) {
+            // expected
+        }
+        Assert.assertEquals(1, callback.calls);
+    }
+
+    private static class FailingCallback implements TransactionCallback<Integer> {
+
+        private final int failures;
+        private final RuntimeException exception;
+        private int calls = 0;
+
+        public FailingCallback(int failures, RuntimeException exception) {
+            this.failures = failures;
+            this.exception = exception;
+        }
+
+        @Override
+        public Integer doInTransaction(TransactionStatus status) {
+            ++calls;
+            if (calls <= failures) {
+                throw exception;
+            }
+            return calls;
+        }
+    }
+
+    private static class CountingTransactionManager implements PlatformTransactionManager {
+
+        private int commits = 0;
+        private int rollbacks = 0;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            ++commits;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            ++rollbacks;
+        }
+    }
+}
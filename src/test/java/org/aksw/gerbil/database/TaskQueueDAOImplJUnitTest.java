@@ -0,0 +1,212 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.database;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.aksw.gerbil.datatypes.ErrorTypes;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.QueuedExperimentTask;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring/database/database-context.xml" })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+public class TaskQueueDAOImplJUnitTest {
+
+    @Autowired
+    @Qualifier("experimentDAO")
+    private ExperimentDAO dao;
+
+    @Autowired
+    private TaskQueueDAO taskQueue;
+
+    @Test
+    public void testLeasing() throws InterruptedException {
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2" }, new String[] { "dataset1",
+                "dataset2" }, new String[] { "A2KB", "A2KB" }, new String[] { "WEAK_ANNOTATION_MATCH",
+                "WEAK_ANNOTATION_MATCH" }, "id-900");
+        this.taskQueue.enqueueTasks(taskIds, new String[] { "annotator1", null }, new String[2]);
+
+        List<QueuedExperimentTask> tasks = this.taskQueue.leaseTasks("worker1", 100, 50);
+        Assert.assertEquals(taskIds[0], getTask(tasks, taskIds[0]).taskId);
+        Assert.assertEquals(1, getTask(tasks, taskIds[0]).attempts);
+        Assert.assertEquals("annotator1", getTask(tasks, taskIds[0]).annotatorName);
+        // without a definition, the name of the task is used
+        Assert.assertEquals("annotator2", getTask(tasks, taskIds[1]).annotatorName);
+        Assert.assertEquals("WEAK_ANNOTATION_MATCH", getTask(tasks, taskIds[1]).matching);
+        // a second worker can't lease or start the tasks
+        Assert.assertNull(getTask(this.taskQueue.leaseTasks("worker2", 100, 60000), taskIds[0]));
+        Assert.assertFalse(this.taskQueue.markTaskRunning(taskIds[0], "worker2", 60000));
+        Assert.assertTrue(this.taskQueue.markTaskRunning(taskIds[0], "worker1", 50));
+
+        // after the leases expired, both tasks can be leased again
+        Thread.sleep(100);
+        tasks = this.taskQueue.leaseTasks("worker2", 100, 60000);
+        Assert.assertEquals(2, getTask(tasks, taskIds[0]).attempts);
+        Assert.assertEquals(2, getTask(tasks, taskIds[1]).attempts);
+        Assert.assertEquals(0, this.taskQueue.renewLeases("worker1", 60000));
+        Assert.assertFalse(this.taskQueue.markTaskRunning(taskIds[1], "worker1", 60000));
+
+        // released tasks are queued again
+        Assert.assertTrue(this.taskQueue.markTaskRunning(taskIds[0], "worker2", 60000));
+        Assert.assertTrue(this.taskQueue.releaseLeases("worker2") > 0);
+        this.taskQueue.markTaskDone(taskIds[0], "worker2");
+        tasks = this.taskQueue.leaseTasks("worker3", 100, 60000);
+        Assert.assertNull(getTask(tasks, taskIds[0]));
+        Assert.assertEquals(2, getTask(tasks, taskIds[1]).attempts);
+    }
+
+    @Test
+    public void testLeasesOfWaitingTasksAreRenewed() throws InterruptedException {
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2" }, new String[] { "dataset1",
+                "dataset2" }, new String[] { "A2KB", "A2KB" }, new String[] { "WEAK_ANNOTATION_MATCH",
+                "WEAK_ANNOTATION_MATCH" }, "id-904");
+        this.taskQueue.enqueueTasks(taskIds, new String[2], new String[2]);
+        List<QueuedExperimentTask> tasks = this.taskQueue.leaseTasks("worker7", 100, 50);
+        Assert.assertNotNull(getTask(tasks, taskIds[0]));
+        Assert.assertNotNull(getTask(tasks, taskIds[1]));
+
+        // the tasks haven't been started but their leases are renewed
+        Assert.assertTrue(this.taskQueue.renewLeases("worker7", 60000) >= 2);
+        Thread.sleep(100);
+        tasks = this.taskQueue.leaseTasks("worker8", 100, 60000);
+        Assert.assertNull(getTask(tasks, taskIds[0]));
+        Assert.assertNull(getTask(tasks, taskIds[1]));
+
+        // a released task can be leased by another worker but keeps its
+        // attempts
+        Assert.assertFalse(this.taskQueue.releaseLease(taskIds[0], "worker8"));
+        Assert.assertTrue(this.taskQueue.releaseLease(taskIds[0], "worker7"));
+        tasks = this.taskQueue.leaseTasks("worker8", 100, 60000);
+        Assert.assertEquals(2, getTask(tasks, taskIds[0]).attempts);
+        Assert.assertNull(getTask(tasks, taskIds[1]));
+    }
+
+    @Test
+    public void testStatesOfWaitingTasks() {
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2", "annotator3" },
+                new String[] { "dataset1", "dataset1", "dataset1" }, new String[] { "A2KB", "A2KB", "A2KB" },
+                new String[] { "WEAK_ANNOTATION_MATCH", "WEAK_ANNOTATION_MATCH", "WEAK_ANNOTATION_MATCH" }, "id-905");
+        this.taskQueue.enqueueTasks(new int[] { taskIds[0], taskIds[1] }, new String[2], new String[2]);
+        Assert.assertNotNull(getTask(this.taskQueue.leaseTasks("worker9", 100, 60000), taskIds[1]));
+        Assert.assertTrue(this.taskQueue.markTaskRunning(taskIds[1], "worker9", 60000));
+
+        Int2IntMap states = this.taskQueue.getStatesOfWaitingTasks(taskIds);
+        Assert.assertEquals(TaskQueueDAO.TASK_RUNNING, states.get(taskIds[1]));
+        // the third task is not queued
+        Assert.assertFalse(states.containsKey(taskIds[2]));
+        this.taskQueue.markTaskDone(taskIds[1], "worker9");
+        Assert.assertFalse(this.taskQueue.getStatesOfWaitingTasks(taskIds).containsKey(taskIds[1]));
+        Assert.assertEquals(0, this.taskQueue.getStatesOfWaitingTasks(new int[0]).size());
+    }
+
+    @Test
+    public void testQueuedTasksSurviveInitialization() {
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2" }, new String[] { "dataset1",
+                "dataset2" }, new String[] { "A2KB", "A2KB" }, new String[] { "WEAK_ANNOTATION_MATCH",
+                "WEAK_ANNOTATION_MATCH" }, "id-901");
+        this.taskQueue.enqueueTasks(new int[] { taskIds[0] }, new String[1], new String[1]);
+        ((AbstractExperimentDAO) this.dao).setRunningExperimentsToError();
+        Assert.assertEquals(ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET, this.dao.getExperimentState(taskIds[0]));
+        Assert.assertTrue(this.dao.getExperimentState(taskIds[1]) < ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET);
+    }
+
+    @Test
+    public void testFinishedTasksAreNotLeased() {
+        int taskId = this.dao.createTask("annotator1", "dataset1", "A2KB", "WEAK_ANNOTATION_MATCH", "id-902");
+        this.taskQueue.enqueueTasks(new int[] { taskId }, new String[1], new String[1]);
+        this.dao.setExperimentState(taskId, ExperimentDAO.TASK_FINISHED);
+        Assert.assertNull(getTask(this.taskQueue.leaseTasks("worker4", 100, 60000), taskId));
+    }
+
+    @Test
+    public void testTasksDoneByOtherWorkers() {
+        long start = System.currentTimeMillis() - 1000;
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2" }, new String[] { "dataset1",
+                "dataset2" }, new String[] { "D2KB", "D2KB" }, new String[] { "STRONG_ANNOTATION_MATCH",
+                "STRONG_ANNOTATION_MATCH" }, "id-903");
+        this.taskQueue.enqueueTasks(taskIds, new String[2], new String[2]);
+        Assert.assertNotNull(getTask(this.taskQueue.leaseTasks("worker5", 100, 60000), taskIds[0]));
+        for (int i = 0; i < taskIds.length; ++i) {
+            Assert.assertTrue(this.taskQueue.markTaskRunning(taskIds[i], "worker5", 60000));
+            this.dao.setExperimentState(taskIds[i], ErrorTypes.UNEXPECTED_EXCEPTION.getErrorCode());
+            this.taskQueue.markTaskDone(taskIds[i], "worker5");
+        }
+        List<ExperimentTaskResult> results = this.taskQueue.getTasksDoneSince(start, "worker6");
+        Set<Integer> ids = new HashSet<Integer>();
+        for (ExperimentTaskResult result : results) {
+            ids.add(result.idInDb);
+        }
+        Assert.assertTrue(ids.contains(taskIds[0]));
+        Assert.assertTrue(ids.contains(taskIds[1]));
+        // the tasks of the worker itself are not returned
+        for (ExperimentTaskResult result : this.taskQueue.getTasksDoneSince(start, "worker5")) {
+            Assert.assertFalse(result.idInDb == taskIds[0]);
+        }
+    }
+
+    @Test
+    public void testRemoveTasksDoneBefore() {
+        int taskIds[] = this.dao.createTasks(new String[] { "annotator1", "annotator2" }, new String[] { "dataset1",
+                "dataset2" }, new String[] { "C2KB", "C2KB" }, new String[] { "STRONG_ENTITY_MATCH",
+                "STRONG_ENTITY_MATCH" }, "id-904");
+        this.taskQueue.enqueueTasks(taskIds, new String[2], new String[2]);
+        Assert.assertNotNull(getTask(this.taskQueue.leaseTasks("worker7", 100, 60000), taskIds[0]));
+        Assert.assertTrue(this.taskQueue.markTaskRunning(taskIds[0], "worker7", 60000));
+        this.dao.setExperimentState(taskIds[0], ExperimentDAO.TASK_FINISHED);
+        this.taskQueue.markTaskDone(taskIds[0], "worker7");
+        long end = System.currentTimeMillis() + 1000;
+        // only the done task is removed
+        Assert.assertEquals(0, this.taskQueue.removeTasksDoneBefore(end - 60000));
+        Assert.assertTrue(this.taskQueue.removeTasksDoneBefore(end) > 0);
+        Int2IntMap states = this.taskQueue.getStatesOfWaitingTasks(taskIds);
+        Assert.assertFalse(states.containsKey(taskIds[0]));
+        Assert.assertTrue(states.containsKey(taskIds[1]));
+        Assert.assertNull(getTask(this.taskQueue.leaseTasks("worker7", 100, 60000), taskIds[0]));
+    }
+
+    private static QueuedExperimentTask getTask(List<QueuedExperimentTask> tasks, int taskId) {
+        for (QueuedExperimentTask task : tasks) {
+            if (task.taskId == taskId) {
+                return task;
+            }
+        }
+        return null;
+    }
+}
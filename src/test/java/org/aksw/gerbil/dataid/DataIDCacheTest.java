@@ -0,0 +1,102 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.dataid;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.dataid.vocabs.GERBIL;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.matching.Matching;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.jsonldjava.jena.JenaJSONLD;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+
+public class DataIDCacheTest {
+
+    private static final String EXPERIMENT_ID = "201501010001";
+
+    @Test
+    public void testCaching() throws IOException {
+        File directory = File.createTempFile("dataid", "");
+        directory.delete();
+        directory.mkdir();
+        try {
+            DataIDCache cache = new DataIDCache(directory);
+            DataIDGenerator generator = new DataIDGenerator("http://localhost/gerbil/",
+                    "http://localhost/gerbil/experiment?id=" + EXPERIMENT_ID);
+            List<ExperimentTaskResult> results = new ArrayList<ExperimentTaskResult>();
+            results.add(new ExperimentTaskResult("annotator1", "dataset1", ExperimentType.A2KB,
+                    Matching.WEAK_ANNOTATION_MATCH, new double[] { 0.1, 0.2, 0.3, 0.4, 0.5, 0.6 },
+                    ExperimentDAO.TASK_FINISHED, 0));
+            results.add(new ExperimentTaskResult("annotator2", "dataset1", ExperimentType.A2KB,
+                    Matching.WEAK_ANNOTATION_MATCH, new double[6], ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET, 0));
+
+            // the experiment is still running and shouldn't be cached
+            String dataid = cache.getDataID(generator, results, EXPERIMENT_ID);
+            Assert.assertEquals(generator.createDataIDModel(results, EXPERIMENT_ID), dataid);
+            Assert.assertEquals(0, directory.listFiles().length);
+
+            results.get(1).state = ExperimentDAO.TASK_FINISHED;
+            dataid = cache.getDataID(generator, results, EXPERIMENT_ID);
+            Assert.assertEquals(generator.createDataIDModel(results, EXPERIMENT_ID), dataid);
+            Assert.assertEquals(1, directory.listFiles().length);
+            // the cached DataID should be returned
+            Assert.assertEquals(dataid, cache.getDataID(generator, new ArrayList<ExperimentTaskResult>(results),
+                    EXPERIMENT_ID));
+
+            // the generated JSON-LD should be readable
+            JenaJSONLD.init();
+            Model model = ModelFactory.createDefaultModel();
+            RDFDataMgr.read(model, new StringReader(dataid), null, JenaJSONLD.JSONLD);
+            Assert.assertEquals(2, model.listSubjectsWithProperty(GERBIL.microF1).toList().size());
+            Assert.assertEquals(1, model.listSubjectsWithProperty(GERBIL.matching, GERBIL.WeakAnnoMatch).toList()
+                    .size());
+
+            // a task has been added to the experiment after its DataID has
+            // been cached
+            results.add(new ExperimentTaskResult("annotator3", "dataset1", ExperimentType.A2KB,
+                    Matching.WEAK_ANNOTATION_MATCH, new double[] { 0.1, 0.2, 0.3, 0.4, 0.5, 0.6 },
+                    ExperimentDAO.TASK_FINISHED, 0));
+            String newDataid = cache.getDataID(generator, results, EXPERIMENT_ID);
+            Assert.assertEquals(generator.createDataIDModel(results, EXPERIMENT_ID), newDataid);
+            Assert.assertFalse(dataid.equals(newDataid));
+            // the outdated DataID has been replaced
+            Assert.assertEquals(1, directory.listFiles().length);
+            Assert.assertEquals(newDataid, cache.getDataID(generator, results, EXPERIMENT_ID));
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+}
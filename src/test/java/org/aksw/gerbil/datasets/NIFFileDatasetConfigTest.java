@@ -0,0 +1,78 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.datasets;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.aksw.gerbil.datatypes.ErrorTypes;
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.exceptions.GerbilException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+public class NIFFileDatasetConfigTest {
+
+    private static final String FILE_CONTENT = "@prefix nif: <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#> .";
+
+    @Test
+    public void testGetFingerprintFromFileName() {
+        String hash = Hashing.sha256().hashString(FILE_CONTENT, Charsets.UTF_8).toString();
+        Assert.assertEquals(hash, NIFFileDatasetConfig.getFingerprintFromFileName(hash + ".ttl"));
+        Assert.assertNull(NIFFileDatasetConfig.getFingerprintFromFileName("dataset.ttl"));
+        Assert.assertNull(NIFFileDatasetConfig.getFingerprintFromFileName(hash));
+        Assert.assertNull(NIFFileDatasetConfig.getFingerprintFromFileName(hash.toUpperCase() + ".ttl"));
+    }
+
+    @Test
+    public void testExpectedFingerprint() throws IOException {
+        File file = File.createTempFile("dataset", ".ttl");
+        file.deleteOnExit();
+        Files.write(FILE_CONTENT, file, Charsets.UTF_8);
+        String hash = Hashing.sha256().hashString(FILE_CONTENT, Charsets.UTF_8).toString();
+
+        NIFFileDatasetConfig config = new NIFFileDatasetConfig(null, "test", file.getAbsolutePath(), false,
+                ExperimentType.Sa2KB);
+        Assert.assertEquals(hash, config.getFingerprint());
+
+        // the expected fingerprint is returned without reading the file
+        String otherHash = Hashing.sha256().hashString("other content", Charsets.UTF_8).toString();
+        config = new NIFFileDatasetConfig(null, "test", file.getAbsolutePath(), otherHash, false,
+                ExperimentType.Sa2KB);
+        Assert.assertEquals(otherHash, config.getFingerprint());
+        // but the file is not loaded since its content differs
+        try {
+            config.loadDataset();
+            Assert.fail("Expected a GerbilException.");
+        } catch (GerbilException e) {
+            Assert.assertEquals(ErrorTypes.DATASET_LOADING_ERROR, e.getErrorType());
+        } catch (Exception e) {
+            Assert.fail("Expected a GerbilException but got " + e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.datasets.datahub;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class DatahubCorpusDownloaderTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private String url;
+    private File directory;
+    private byte content[];
+    private AtomicInteger fullResponses = new AtomicInteger();
+    private AtomicInteger partialResponses = new AtomicInteger();
+    private AtomicInteger notModifiedResponses = new AtomicInteger();
+    /**
+     * If it is not negative, full responses are cut after this number of
+     * bytes.
+     */
+    private volatile int truncatedLength = -1;
+
+    @Before
+    public void startServer() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; ++i) {
+            builder.append("<http://example.org/doc").append(i).append("> a <http://example.org/Context> .\n");
+        }
+        content = builder.toString().getBytes(UTF8);
+        directory = Files.createTempDirectory("datahub").toFile();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/corpus.ttl", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                int start = 0;
+                if ((range != null) && ETAG.equals(exchange.getRequestHeaders().getFirst("If-Range"))) {
+                    start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                    exchange.getResponseHeaders().set("Content-Range",
+                            "bytes " + start + "-" + (content.length - 1) + "/" + content.length);
+                    partialResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(206, content.length - start);
+                } else {
+                    fullResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(200, content.length);
+                }
+                OutputStream out = exchange.getResponseBody();
+                if ((start == 0) && (truncatedLength >= 0)) {
+                    out.write(content, 0, truncatedLength);
+                    out.flush();
+                    // closing the exchange with missing bytes closes the
+                    // connection
+                    exchange.close();
+                    return;
+                }
+                out.write(content, start, content.length - start);
+                out.close();
+            }
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/corpus.ttl";
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.stop(0);
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testDownloadAndRevalidation() throws IOException {
+        DatahubCorpusDownloader downloader = new DatahubCorpusDownloader();
+        File file = new File(directory, "corpus/corpus.ttl");
+        downloader.download(url, file);
+        Assert.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        Assert.assertFalse(new File(file.getPath() + ".part").exists());
+        Assert.assertEquals(1, fullResponses.get());
+
+        downloader.download(url, file);
+        Assert.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        Assert.assertEquals(1, fullResponses.get());
+        Assert.assertEquals(1, notModifiedResponses.get());
+    }
+
+    @Test
+    public void testResumingDownload() throws IOException {
+        DatahubCorpusDownloader downloader = new DatahubCorpusDownloader();
+        File file = new File(directory, "corpus.ttl");
+        downloader.download(url, file);
+        // simulate an interrupted download
+        File partFile = new File(file.getPath() + ".part");
+        Files.write(partFile.toPath(), Arrays.copyOf(content, 1000));
+        Files.move(new File(file.getPath() + ".meta").toPath(), new File(partFile.getPath() + ".meta").toPath());
+        file.delete();
+
+        downloader.download(url, file);
+        Assert.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        Assert.assertEquals(1, fullResponses.get());
+        Assert.assertEquals(1, partialResponses.get());
+    }
+
+    @Test
+    public void testTruncatedDownload() throws IOException {
+        DatahubCorpusDownloader downloader = new DatahubCorpusDownloader();
+        File file = new File(directory, "corpus.ttl");
+        File partFile = new File(file.getPath() + ".part");
+        truncatedLength = 500;
+        try {
+            downloader.download(url, file);
+            Assert.fail("A truncated download should cause an IOException.");
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertFalse(file.exists());
+        Assert.assertEquals(500, partFile.length());
+
+        // the next download continues the partial file
+        truncatedLength = -1;
+        downloader.download(url, file);
+        Assert.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        Assert.assertFalse(partFile.exists());
+        Assert.assertEquals(1, fullResponses.get());
+        Assert.assertEquals(1, partialResponses.get());
+    }
+
+    @Test
+    public void testConcurrentDownloads() throws Exception {
+        final DatahubCorpusDownloader downloader = new DatahubCorpusDownloader();
+        final File file = new File(directory, "corpus.ttl");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<File>> downloads = new ArrayList<Callable<File>>();
+        for (int i = 0; i < 4; ++i) {
+            downloads.add(new Callable<File>() {
+                @Override
+                public File call() throws Exception {
+                    return downloader.download(url, file);
+                }
+            });
+        }
+        for (Future<File> result : executor.invokeAll(downloads)) {
+            Assert.assertEquals(file, result.get());
+        }
+        executor.shutdown();
+        Assert.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        // a thread that started after the download finished revalidates
+        Assert.assertEquals(1, fullResponses.get());
+    }
+}
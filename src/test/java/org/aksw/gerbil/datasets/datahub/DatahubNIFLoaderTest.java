@@ -0,0 +1,228 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.datasets.datahub;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class DatahubNIFLoaderTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String TAGS[] = new String[] { "nif", "gerbil" };
+
+    private HttpServer server;
+    private String baseUrl;
+    private File directory;
+    private File snapshotFile;
+    private Map<String, String> responses = new HashMap<String, String>();
+    /**
+     * The ETags of the datasets and the modification dates of the tags.
+     */
+    private Map<String, String> validators = new HashMap<String, String>();
+    private AtomicInteger fullResponses = new AtomicInteger();
+    private AtomicInteger notModifiedResponses = new AtomicInteger();
+    /**
+     * If it is set, all requests are answered with 500.
+     */
+    private volatile boolean failing = false;
+
+    @Before
+    public void startServer() throws IOException {
+        directory = Files.createTempDirectory("datahub").toFile();
+        snapshotFile = new File(directory, "cache/snapshot.json");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                if (failing) {
+                    exchange.sendResponseHeaders(500, -1);
+                    exchange.close();
+                    return;
+                }
+                if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                    return;
+                }
+                String body = responses.get(path);
+                String validator = validators.get(path);
+                if (body == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                    return;
+                }
+                boolean notModified;
+                // the tags are validated with the modification date, the
+                // datasets with an ETag
+                if (path.startsWith("/tag/")) {
+                    exchange.getResponseHeaders().set("Last-Modified", validator);
+                    notModified = validator.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+                } else {
+                    exchange.getResponseHeaders().set("ETag", validator);
+                    notModified = validator.equals(exchange.getRequestHeaders().getFirst("If-None-Match"));
+                }
+                if (notModified) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                fullResponses.incrementAndGet();
+                byte content[] = body.getBytes(UTF8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, content.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(content);
+                out.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        setResponse("/tag/nif", "[\"corpus1\",\"corpus2\"]", "Mon, 05 Jan 2015 10:00:00 GMT");
+        setResponse("/tag/gerbil", "[\"corpus1\"]", "Mon, 05 Jan 2015 10:00:00 GMT");
+        setResponse("/meta/corpus1", "{\"success\":true,\"result\":{\"name\":\"corpus1\",\"resources\":["
+                + "{\"url\":\"" + baseUrl + "/files/corpus1.ttl\"},{\"url\":\"" + baseUrl
+                + "/files/corpus1.dataid.ttl\"}]}}", "\"v1\"");
+    }
+
+    private void setResponse(String path, String body, String validator) {
+        responses.put(path, body);
+        validators.put(path, validator);
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.stop(0);
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private DatahubNIFLoader createLoader() {
+        return new DatahubNIFLoader(baseUrl + "/tag/", baseUrl + "/meta/", TAGS, snapshotFile, 2);
+    }
+
+    @Test
+    public void testRefreshAndRevalidation() throws InterruptedException {
+        DatahubNIFLoader loader = createLoader();
+        Assert.assertTrue(loader.getDataSets().isEmpty());
+        Map<String, String> datasets = loader.refresh();
+        Assert.assertEquals(1, datasets.size());
+        Assert.assertEquals(baseUrl + "/files/corpus1.ttl", datasets.get("corpus1"));
+        Assert.assertEquals(datasets, loader.getDataSets());
+        // two tags and one dataset
+        Assert.assertEquals(3, fullResponses.get());
+        Assert.assertEquals(0, notModifiedResponses.get());
+
+        Assert.assertEquals(datasets, loader.refresh());
+        Assert.assertEquals(3, fullResponses.get());
+        Assert.assertEquals(3, notModifiedResponses.get());
+    }
+
+    @Test
+    public void testSnapshot() throws InterruptedException {
+        Map<String, String> datasets = createLoader().refresh();
+        Assert.assertTrue(snapshotFile.exists());
+
+        // a new loader knows the datasets without a request and revalidates
+        // them with the stored validators
+        DatahubNIFLoader loader = createLoader();
+        Assert.assertEquals(datasets, loader.getDataSets());
+        Assert.assertEquals(3, fullResponses.get());
+        Assert.assertEquals(datasets, loader.refresh());
+        Assert.assertEquals(3, fullResponses.get());
+        Assert.assertEquals(3, notModifiedResponses.get());
+    }
+
+    @Test
+    public void testChangedCatalog() throws InterruptedException {
+        createLoader().refresh();
+        setResponse("/tag/gerbil", "[\"corpus1\",\"corpus2\"]", "Tue, 06 Jan 2015 10:00:00 GMT");
+        setResponse("/meta/corpus2", "{\"success\":true,\"result\":{\"name\":\"corpus2\",\"resources\":["
+                + "{\"url\":\"" + baseUrl + "/files/corpus2.ttl\"}]}}", "\"v1\"");
+
+        DatahubNIFLoader loader = createLoader();
+        Map<String, String> datasets = loader.refresh();
+        Assert.assertEquals(2, datasets.size());
+        Assert.assertEquals(baseUrl + "/files/corpus1.ttl", datasets.get("corpus1"));
+        Assert.assertEquals(baseUrl + "/files/corpus2.ttl", datasets.get("corpus2"));
+        // the unchanged tag and dataset are not transferred again
+        Assert.assertEquals(5, fullResponses.get());
+        Assert.assertEquals(2, notModifiedResponses.get());
+    }
+
+    @Test
+    public void testStaleSnapshotFallback() throws IOException, InterruptedException {
+        Map<String, String> datasets = createLoader().refresh();
+        String snapshot = FileUtils.readFileToString(snapshotFile, UTF8);
+
+        failing = true;
+        DatahubNIFLoader loader = createLoader();
+        Assert.assertEquals(datasets, loader.refresh());
+        Assert.assertEquals(datasets, loader.getDataSets());
+        // the snapshot is not replaced by the failed refresh
+        Assert.assertEquals(snapshot, FileUtils.readFileToString(snapshotFile, UTF8));
+
+        // an unreachable server has the same effect
+        server.stop(0);
+        Assert.assertEquals(datasets, loader.refresh());
+    }
+
+    @Test
+    public void testFailingDatasetRequest() throws InterruptedException {
+        Map<String, String> datasets = createLoader().refresh();
+        // the tags can be retrieved but the metadata of the dataset can't
+        responses.remove("/meta/corpus1");
+
+        DatahubNIFLoader loader = createLoader();
+        Assert.assertEquals(datasets, loader.refresh());
+        Assert.assertEquals(datasets, createLoader().getDataSets());
+    }
+
+    @Test
+    public void testCorruptSnapshot() throws IOException, InterruptedException {
+        snapshotFile.getParentFile().mkdirs();
+        FileUtils.writeStringToFile(snapshotFile, "{\"tags\":", UTF8);
+        DatahubNIFLoader loader = createLoader();
+        Assert.assertTrue(loader.getDataSets().isEmpty());
+        Assert.assertEquals(1, loader.refresh().size());
+        Assert.assertEquals(3, fullResponses.get());
+    }
+}
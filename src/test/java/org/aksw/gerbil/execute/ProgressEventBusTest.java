@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.execute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.gerbil.execute.ProgressEvent.Type;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProgressEventBusTest {
+
+    @Test
+    public void testRingBuffer() {
+        ProgressEventBus bus = new ProgressEventBus(4);
+        for (int i = 0; i < 3; ++i) {
+            bus.publish(Type.ANNOTATION_FINISHED, "a", "d", i);
+        }
+        List<ProgressEvent> events = new ArrayList<ProgressEvent>();
+        Assert.assertEquals(3, bus.readEvents(0, events));
+        Assert.assertEquals(3, events.size());
+        Assert.assertEquals(2, events.get(2).getValue());
+
+        // the first three events are overwritten
+        for (int i = 3; i < 7; ++i) {
+            bus.publish(Type.ANNOTATION_FINISHED, "a", "d", i);
+        }
+        events.clear();
+        Assert.assertEquals(7, bus.readEvents(0, events));
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals(3, events.get(0).getValue());
+        Assert.assertEquals(3, events.get(0).getSequenceNumber());
+
+        events = bus.getLatestEvents(2);
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(5, events.get(0).getValue());
+        Assert.assertEquals(6, events.get(1).getValue());
+    }
+
+    @Test
+    public void testListener() throws InterruptedException {
+        ProgressEventBus bus = new ProgressEventBus(16);
+        bus.publish(Type.CACHE_FLUSHED, null, null);
+        final CountDownLatch received = new CountDownLatch(2);
+        final List<ProgressEvent> receivedEvents = new ArrayList<ProgressEvent>();
+        bus.addListener(new ProgressEventListener() {
+            @Override
+            public void handleEvents(List<ProgressEvent> events, long lostEvents) {
+                for (ProgressEvent event : events) {
+                    receivedEvents.add(event);
+                    received.countDown();
+                }
+            }
+        });
+        bus.publish(Type.ANNOTATION_STARTED, "a", "d");
+        bus.publish(Type.ANNOTATION_FINISHED, "a", "d", 10);
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+        // the event published before the listener has been added is not
+        // dispatched
+        Assert.assertEquals(Type.ANNOTATION_STARTED, receivedEvents.get(0).getType());
+        Assert.assertEquals(Type.ANNOTATION_FINISHED, receivedEvents.get(1).getType());
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.utils.WikipediaApiInterface;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CanonicalConceptIdsTest {
+
+    @Test
+    public void test() throws Exception {
+        CountingWikiApi wikiApi = new CountingWikiApi();
+        CanonicalConceptIds conceptIds = new CanonicalConceptIds();
+
+        List<HashSet<Tag>> documents = new ArrayList<HashSet<Tag>>();
+        HashSet<Tag> tags = new HashSet<Tag>();
+        tags.add(new Tag(1));
+        tags.add(new Tag(2));
+        documents.add(tags);
+        tags = new HashSet<Tag>();
+        tags.add(new Tag(2));
+        tags.add(new Tag(5));
+        documents.add(tags);
+
+        Int2IntMap mapping = conceptIds.canonicalize(documents, wikiApi);
+        Assert.assertEquals(3, mapping.size());
+        Assert.assertEquals(0, mapping.get(1));
+        Assert.assertEquals(2, mapping.get(2));
+        Assert.assertEquals(4, mapping.get(5));
+        // all three IDs have been prefetched in a single batch
+        Assert.assertEquals(1, wikiApi.prefetchCalls);
+        Assert.assertEquals(3, wikiApi.prefetchedIds);
+
+        // known IDs are not dereferenced again
+        Assert.assertSame(mapping, conceptIds.canonicalize(documents, wikiApi));
+        Assert.assertEquals(1, wikiApi.prefetchCalls);
+
+        tags.add(new Tag(7));
+        mapping = conceptIds.canonicalize(documents, wikiApi);
+        Assert.assertEquals(4, mapping.size());
+        Assert.assertEquals(6, mapping.get(7));
+        Assert.assertEquals(2, wikiApi.prefetchCalls);
+        Assert.assertEquals(4, wikiApi.prefetchedIds);
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        CountingWikiApi wikiApi = new CountingWikiApi();
+        CanonicalConceptIds conceptIds = new CanonicalConceptIds(3);
+
+        List<HashSet<Tag>> documents = new ArrayList<HashSet<Tag>>();
+        HashSet<Tag> tags = new HashSet<Tag>();
+        tags.add(new Tag(1));
+        tags.add(new Tag(2));
+        documents.add(tags);
+        Assert.assertEquals(2, conceptIds.canonicalize(documents, wikiApi).size());
+
+        // the mapping would exceed its maximum size. Thus, the ID that is not
+        // needed anymore is removed.
+        tags.remove(new Tag(1));
+        tags.add(new Tag(3));
+        tags.add(new Tag(5));
+        Int2IntMap mapping = conceptIds.canonicalize(documents, wikiApi);
+        Assert.assertEquals(3, mapping.size());
+        Assert.assertFalse(mapping.containsKey(1));
+        Assert.assertEquals(2, mapping.get(2));
+        Assert.assertEquals(2, mapping.get(3));
+        Assert.assertEquals(4, mapping.get(5));
+        // the known ID has not been dereferenced again
+        Assert.assertEquals(4, wikiApi.prefetchedIds);
+    }
+
+    /**
+     * A Wikipedia API that does not send requests, redirects every concept
+     * with an odd ID to its predecessor and counts the prefetch requests.
+     */
+    private static class CountingWikiApi extends WikipediaApiInterface {
+
+        private int prefetchCalls = 0;
+        private int prefetchedIds = 0;
+
+        public CountingWikiApi() throws Exception {
+            super(null, null);
+        }
+
+        @Override
+        public int dereference(int wid) throws IOException {
+            return (wid % 2) == 1 ? wid - 1 : wid;
+        }
+
+        @Override
+        public void prefetchWids(List<Integer> widsToPrefetch) {
+            ++prefetchCalls;
+            prefetchedIds += widsToPrefetch.size();
+        }
+    }
+}
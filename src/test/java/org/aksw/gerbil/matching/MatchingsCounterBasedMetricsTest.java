@@ -0,0 +1,177 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.matching;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.data.Tag;
+import it.acubelab.batframework.metrics.MatchRelation;
+import it.acubelab.batframework.metrics.Metrics;
+import it.acubelab.batframework.metrics.MetricsResultSet;
+import it.acubelab.batframework.metrics.StrongAnnotationMatch;
+import it.acubelab.batframework.metrics.StrongTagMatch;
+import it.acubelab.batframework.metrics.WeakAnnotationMatch;
+import it.acubelab.batframework.utils.WikipediaApiInterface;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the results of the {@link MatchingsCounterBasedMetrics} with the
+ * results of the original BAT {@link Metrics} on random documents.
+ */
+public class MatchingsCounterBasedMetricsTest {
+
+    private static final int NUMBER_OF_RUNS = 50;
+    private static final int NUMBER_OF_DOCUMENTS = 20;
+    private static final int NUMBER_OF_CONCEPTS = 15;
+
+    @Test
+    public void testStrongAnnotationMatch() throws Exception {
+        WikipediaApiInterface wikiApi = new RedirectingWikiApi();
+        Random random = new Random(1);
+        for (int i = 0; i < NUMBER_OF_RUNS; ++i) {
+            compare(new StrongAnnotationMatch(wikiApi), wikiApi, randomAnnotations(random, NUMBER_OF_DOCUMENTS),
+                    randomAnnotations(random, NUMBER_OF_DOCUMENTS));
+        }
+    }
+
+    @Test
+    public void testWeakAnnotationMatch() throws Exception {
+        WikipediaApiInterface wikiApi = new RedirectingWikiApi();
+        Random random = new Random(2);
+        for (int i = 0; i < NUMBER_OF_RUNS; ++i) {
+            compare(new WeakAnnotationMatch(wikiApi), wikiApi, randomAnnotations(random, NUMBER_OF_DOCUMENTS),
+                    randomAnnotations(random, NUMBER_OF_DOCUMENTS));
+        }
+    }
+
+    /**
+     * Uses enough documents to make sure that the documents are counted in
+     * parallel.
+     */
+    @Test
+    public void testParallelCounting() throws Exception {
+        WikipediaApiInterface wikiApi = new RedirectingWikiApi();
+        Random random = new Random(4);
+        for (int i = 0; i < 5; ++i) {
+            compare(new WeakAnnotationMatch(wikiApi), wikiApi, randomAnnotations(random, 1000),
+                    randomAnnotations(random, 1000));
+        }
+    }
+
+    @Test
+    public void testStrongEntityMatch() throws Exception {
+        WikipediaApiInterface wikiApi = new RedirectingWikiApi();
+        Random random = new Random(3);
+        for (int i = 0; i < NUMBER_OF_RUNS; ++i) {
+            compare(new StrongTagMatch(wikiApi), wikiApi, randomTags(random), randomTags(random));
+        }
+    }
+
+    private <T extends Tag> void compare(MatchRelation<T> relation, WikipediaApiInterface wikiApi,
+            List<HashSet<T>> computed, List<HashSet<T>> gold) throws IOException {
+        MetricsResultSet expected = new Metrics<T>().getResult(computed, gold, relation);
+        Metrics<T> metrics = MatchingFactory.createMetrics(wikiApi, relation);
+        Assert.assertTrue(metrics instanceof MatchingsCounterBasedMetrics);
+        MetricsResultSet result = metrics.getResult(computed, gold, relation);
+
+        Assert.assertEquals(expected.getGlobalTp(), result.getGlobalTp());
+        Assert.assertEquals(expected.getGlobalFp(), result.getGlobalFp());
+        Assert.assertEquals(expected.getGlobalFn(), result.getGlobalFn());
+        Assert.assertEquals(expected.getMicroPrecision(), result.getMicroPrecision(), 0);
+        Assert.assertEquals(expected.getMicroRecall(), result.getMicroRecall(), 0);
+        Assert.assertEquals(expected.getMicroF1(), result.getMicroF1(), 0);
+        Assert.assertEquals(expected.getMacroPrecision(), result.getMacroPrecision(), 0);
+        Assert.assertEquals(expected.getMacroRecall(), result.getMacroRecall(), 0);
+        Assert.assertEquals(expected.getMacroF1(), result.getMacroF1(), 0);
+        for (int i = 0; i < computed.size(); ++i) {
+            Assert.assertEquals(expected.getTPs(i), result.getTPs(i));
+            Assert.assertEquals(expected.getFPs(i), result.getFPs(i));
+            Assert.assertEquals(expected.getFNs(i), result.getFNs(i));
+        }
+    }
+
+    private List<HashSet<Annotation>> randomAnnotations(Random random, int numberOfDocuments) {
+        List<HashSet<Annotation>> documents = new ArrayList<HashSet<Annotation>>();
+        HashSet<Annotation> annotations;
+        int count;
+        for (int i = 0; i < numberOfDocuments; ++i) {
+            annotations = new HashSet<Annotation>();
+            count = random.nextInt(12);
+            for (int j = 0; j < count; ++j) {
+                // lengths of 0 are allowed since they are a special case of
+                // the overlap check
+                annotations.add(new Annotation(random.nextInt(60), random.nextInt(8), random
+                        .nextInt(NUMBER_OF_CONCEPTS)));
+            }
+            documents.add(annotations);
+        }
+        return documents;
+    }
+
+    private List<HashSet<Tag>> randomTags(Random random) {
+        List<HashSet<Tag>> documents = new ArrayList<HashSet<Tag>>();
+        HashSet<Tag> tags;
+        int count;
+        for (int i = 0; i < NUMBER_OF_DOCUMENTS; ++i) {
+            tags = new HashSet<Tag>();
+            count = random.nextInt(12);
+            for (int j = 0; j < count; ++j) {
+                tags.add(new Tag(random.nextInt(NUMBER_OF_CONCEPTS)));
+            }
+            documents.add(tags);
+        }
+        return documents;
+    }
+
+    /**
+     * A Wikipedia API that does not send requests and redirects every concept
+     * with an odd ID to its predecessor.
+     */
+    private static class RedirectingWikiApi extends WikipediaApiInterface {
+
+        public RedirectingWikiApi() throws Exception {
+            super(null, null);
+        }
+
+        @Override
+        public int dereference(int wid) throws IOException {
+            return (wid % 2) == 1 ? wid - 1 : wid;
+        }
+
+        @Override
+        public void prefetchWids(List<Integer> widsToPrefetch) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
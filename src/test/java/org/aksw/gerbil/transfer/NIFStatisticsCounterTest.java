@@ -0,0 +1,61 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.transfer;
+
+import java.io.StringReader;
+
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NIFStatisticsCounterTest {
+
+    private static final String NIF_DOCUMENT = "@prefix nif: <http://persistence.uni-leipzig.org/nlp2rdf/ontologies/nif-core#> .\n"
+            + "@prefix itsrdf: <http://www.w3.org/2005/11/its/rdf#> .\n"
+            + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"
+            + "<http://example.org/doc1#char=0,27> a nif:String, nif:Context, nif:RFC5147String ;\n"
+            + "    nif:isString \"Angela Merkel visits Paris.\" ;\n"
+            + "    nif:beginIndex \"0\"^^xsd:nonNegativeInteger ;\n"
+            + "    nif:endIndex \"27\"^^xsd:nonNegativeInteger .\n"
+            + "<http://example.org/doc1#char=0,13> a nif:String, nif:RFC5147String ;\n"
+            + "    nif:referenceContext <http://example.org/doc1#char=0,27> ;\n"
+            + "    nif:anchorOf \"Angela Merkel\" ;\n"
+            + "    itsrdf:taIdentRef <http://dbpedia.org/resource/Angela_Merkel> .\n"
+            + "<http://example.org/doc1#char=21,26> a nif:String, nif:RFC5147String ;\n"
+            + "    nif:referenceContext <http://example.org/doc1#char=0,27> ;\n"
+            + "    nif:anchorOf \"Paris\" ;\n"
+            + "    itsrdf:taIdentRef <http://dbpedia.org/resource/Paris> .\n"
+            + "<http://example.org/doc2#char=0,5> a nif:Context ;\n"
+            + "    nif:isString \"Hello\" .\n";
+
+    @Test
+    public void test() {
+        NIFStatisticsCounter counter = new NIFStatisticsCounter();
+        RDFDataMgr.parse(counter, new StringReader(NIF_DOCUMENT), Lang.TTL);
+        Assert.assertEquals(2, counter.getNumberOfContexts());
+        Assert.assertEquals(2, counter.getNumberOfAnnotations());
+        Assert.assertEquals(18, counter.getNumberOfTriples());
+    }
+}
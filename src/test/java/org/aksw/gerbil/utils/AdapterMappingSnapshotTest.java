@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.gerbil.datatypes.AbstractAdapterConfiguration;
+import org.aksw.gerbil.datatypes.AdapterConfiguration;
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdapterMappingSnapshotTest {
+
+    @Test
+    public void testNamesPerExperimentType() {
+        Map<String, AdapterConfiguration> mapping = new HashMap<String, AdapterConfiguration>();
+        mapping.put("c", new TestAdapterConfiguration("c", ExperimentType.Sa2KB));
+        mapping.put("a", new TestAdapterConfiguration("a", ExperimentType.D2KB));
+        mapping.put("b", new TestAdapterConfiguration("b", ExperimentType.C2KB));
+        AdapterMappingSnapshot<AdapterConfiguration> snapshot = new AdapterMappingSnapshot<AdapterConfiguration>(
+                mapping);
+        // the snapshot is not affected by changes of the original mapping
+        mapping.remove("c");
+
+        Assert.assertEquals(Arrays.asList("a", "c"), snapshot.getNames(ExperimentType.D2KB));
+        Assert.assertEquals(Arrays.asList("b", "c"), snapshot.getNames(ExperimentType.C2KB));
+        Assert.assertEquals(Arrays.asList("c"), snapshot.getNames(ExperimentType.Sa2KB));
+        Assert.assertEquals("c", snapshot.get("c").getName());
+        Assert.assertNull(snapshot.get("d"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutableNames() {
+        Map<String, AdapterConfiguration> mapping = new HashMap<String, AdapterConfiguration>();
+        mapping.put("a", new TestAdapterConfiguration("a", ExperimentType.D2KB));
+        List<String> names = new AdapterMappingSnapshot<AdapterConfiguration>(mapping).getNames(ExperimentType.D2KB);
+        names.add("b");
+    }
+
+    private static class TestAdapterConfiguration extends AbstractAdapterConfiguration {
+
+        public TestAdapterConfiguration(String name, ExperimentType... applicableForExperiment) {
+            super(name, false, applicableForExperiment);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.data.Mention;
+import it.acubelab.batframework.problems.D2WDataset;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DatasetMetaDataCalculatorTest {
+
+    private static final double DELTA = 0.000001;
+
+    @Test
+    public void testCountTokens() {
+        Assert.assertEquals(0, DatasetMetaDataCalculator.countTokens(""));
+        Assert.assertEquals(0, DatasetMetaDataCalculator.countTokens(" \t\n"));
+        Assert.assertEquals(4, DatasetMetaDataCalculator.countTokens("Angela Merkel  visited\nParis"));
+        Assert.assertEquals(2, DatasetMetaDataCalculator.countTokens(" Paris . "));
+    }
+
+    @Test
+    public void testCalculateMetaData() {
+        HashSet<Annotation> first = new HashSet<Annotation>(Arrays.asList(new Annotation(0, 13, 1), new Annotation(
+                22, 5, 2)));
+        HashSet<Annotation> second = new HashSet<Annotation>(Arrays.asList(new Annotation(0, 6, 3)));
+        DatasetMetaData metadata = DatasetMetaDataCalculator.calculateMetaData(new TestDataset(Arrays.asList(
+                "Angela Merkel visited Paris", "Berlin"), Arrays.asList(first, second)));
+
+        Assert.assertEquals(2, metadata.numberOfDocuments);
+        Assert.assertEquals(3, metadata.numberOfEntities);
+        Assert.assertEquals(2.5, metadata.avgDocumentLength, DELTA);
+        Assert.assertEquals(1.5, metadata.entitiesPerDoc, DELTA);
+        Assert.assertEquals(0.6, metadata.entitiesPerToken, DELTA);
+        Assert.assertTrue(Double.isNaN(metadata.amountOfPersons));
+    }
+
+    @Test
+    public void testContentHash() {
+        List<String> texts = Arrays.asList("Angela Merkel visited Paris");
+        HashSet<Annotation> annotations = new HashSet<Annotation>(Arrays.asList(new Annotation(0, 13, 1),
+                new Annotation(22, 5, 2)));
+        String hash = DatasetMetaDataCalculator.calculateContentHash(new TestDataset(texts, Arrays.asList(annotations)));
+        // the hash does not depend on the order of the annotations
+        HashSet<Annotation> reversed = new HashSet<Annotation>(Arrays.asList(new Annotation(22, 5, 2),
+                new Annotation(0, 13, 1)));
+        Assert.assertEquals(hash,
+                DatasetMetaDataCalculator.calculateContentHash(new TestDataset(texts, Arrays.asList(reversed))));
+        // but it changes if the gold standard changes
+        HashSet<Annotation> changed = new HashSet<Annotation>(Arrays.asList(new Annotation(0, 13, 1),
+                new Annotation(22, 5, 3)));
+        Assert.assertFalse(hash.equals(DatasetMetaDataCalculator.calculateContentHash(new TestDataset(texts, Arrays
+                .asList(changed)))));
+    }
+
+    static class TestDataset implements D2WDataset {
+
+        private List<String> texts;
+        private List<HashSet<Annotation>> goldStandard;
+
+        public TestDataset(List<String> texts, List<HashSet<Annotation>> goldStandard) {
+            this.texts = texts;
+            this.goldStandard = goldStandard;
+        }
+
+        @Override
+        public int getSize() {
+            return texts.size();
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public List<String> getTextInstanceList() {
+            return texts;
+        }
+
+        @Override
+        public List<HashSet<Mention>> getMentionsInstanceList() {
+            return null;
+        }
+
+        @Override
+        public List<HashSet<Annotation>> getD2WGoldStandardList() {
+            return goldStandard;
+        }
+    }
+}
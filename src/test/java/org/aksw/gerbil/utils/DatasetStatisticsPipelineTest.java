@@ -0,0 +1,112 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import it.acubelab.batframework.data.Annotation;
+import it.acubelab.batframework.problems.TopicDataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.gerbil.utils.DatasetMetaDataCalculatorTest.TestDataset;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DatasetStatisticsPipelineTest {
+
+    @Test
+    public void testAnalysis() throws InterruptedException {
+        DatasetStatisticsPipeline pipeline = new DatasetStatisticsPipeline(null);
+        final AtomicInteger loadings = new AtomicInteger();
+        DatasetStatisticsPipeline.DatasetLoader loader = createLoader(loadings);
+        int version = pipeline.getVersion();
+        pipeline.datasetLoaded("dataset1|hash", "dataset1", loader);
+        // the same version of the dataset is analyzed only once
+        pipeline.datasetLoaded("dataset1|hash", "dataset1", loader);
+
+        waitForNewVersion(pipeline, version);
+        // the changed statistics are signaled by a new version
+        Assert.assertTrue(pipeline.getVersion() > version);
+        DatasetMetaData metadata = pipeline.getMetaData("dataset1");
+        Assert.assertNotNull(metadata);
+        Assert.assertEquals(1, metadata.numberOfDocuments);
+        Assert.assertEquals(1, metadata.numberOfEntities);
+        Assert.assertEquals(1, loadings.get());
+    }
+
+    @Test
+    public void testStoredKeys() throws InterruptedException, IOException {
+        File storeFile = File.createTempFile("statistics", ".json");
+        storeFile.delete();
+        try {
+            DatasetStatisticsPipeline pipeline = new DatasetStatisticsPipeline(storeFile);
+            final AtomicInteger loadings = new AtomicInteger();
+            int version = pipeline.getVersion();
+            pipeline.datasetLoaded("dataset1|hash", "dataset1", createLoader(loadings));
+            waitForNewVersion(pipeline, version);
+            Assert.assertEquals(1, loadings.get());
+
+            // after a restart, the known version is not loaded again
+            pipeline = new DatasetStatisticsPipeline(storeFile);
+            pipeline.datasetLoaded("dataset1|hash", "dataset1", createLoader(loadings));
+            DatasetMetaData metadata = pipeline.getMetaData("dataset1");
+            Assert.assertNotNull(metadata);
+            Assert.assertEquals(1, metadata.numberOfDocuments);
+            Assert.assertEquals(1, loadings.get());
+
+            // a changed key leads to a new analysis
+            final AtomicInteger newLoadings = new AtomicInteger();
+            pipeline.datasetLoaded("dataset1|newHash", "dataset1", createLoader(newLoadings));
+            long deadline = System.currentTimeMillis() + 10000;
+            while ((newLoadings.get() == 0) && (System.currentTimeMillis() < deadline)) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, newLoadings.get());
+        } finally {
+            storeFile.delete();
+        }
+    }
+
+    private static DatasetStatisticsPipeline.DatasetLoader createLoader(final AtomicInteger loadings) {
+        return new DatasetStatisticsPipeline.DatasetLoader() {
+            @Override
+            public TopicDataset loadDataset() throws Exception {
+                loadings.incrementAndGet();
+                HashSet<Annotation> annotations = new HashSet<Annotation>(Arrays.asList(new Annotation(0, 6, 1)));
+                return new TestDataset(Arrays.asList("Berlin is a city"), Arrays.asList(annotations));
+            }
+        };
+    }
+
+    private static void waitForNewVersion(DatasetStatisticsPipeline pipeline, int version)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((pipeline.getVersion() == version) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+    }
+}
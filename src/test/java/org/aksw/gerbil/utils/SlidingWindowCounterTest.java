@@ -0,0 +1,58 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void testCounting() {
+        // 4 buckets of 10 seconds
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, 10000);
+        long start = 1000000;
+        counter.increment(start);
+        counter.increment(start + 1000);
+        counter.increment(start + 15000);
+        Assert.assertEquals(1, counter.getCount(start + 15000, 10000));
+        Assert.assertEquals(3, counter.getCount(start + 15000, 20000));
+        // the time span is limited by the window
+        Assert.assertEquals(3, counter.getCount(start + 15000, 1000000));
+    }
+
+    @Test
+    public void testOutdatedBuckets() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, 10000);
+        long start = 1000000;
+        counter.increment(start);
+        counter.increment(start + 10000);
+        // the first bucket has been left by the window
+        Assert.assertEquals(1, counter.getCount(start + 40000, 40000));
+        // the first bucket is reused
+        counter.increment(start + 40000);
+        Assert.assertEquals(2, counter.getCount(start + 40000, 40000));
+        Assert.assertEquals(0, counter.getCount(start + 100000, 40000));
+    }
+}
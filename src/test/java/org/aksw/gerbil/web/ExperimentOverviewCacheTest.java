@@ -0,0 +1,103 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.matching.Matching;
+import org.aksw.gerbil.web.ExperimentOverviewCache.CachedOverview;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExperimentOverviewCacheTest {
+
+    private static final String JSON = "[[[\"Micro F1-measure\",\"dataset1\"],\n[\"annotator1\",\"0.500\"]]]";
+
+    @Test
+    public void testInvalidation() {
+        ExperimentOverviewCache cache = new ExperimentOverviewCache();
+        cache.put(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH, JSON, cache.getVersion());
+        cache.put(ExperimentType.D2KB, Matching.WEAK_ANNOTATION_MATCH, JSON, cache.getVersion());
+        Assert.assertNotNull(cache.get(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH));
+        Assert.assertNull(cache.get(ExperimentType.A2KB, Matching.STRONG_ANNOTATION_MATCH));
+
+        // a finished task should only remove the overview of its type and matching
+        cache.experimentTaskFinished(1, "annotator1", "dataset1", ExperimentType.A2KB.name(),
+                Matching.WEAK_ANNOTATION_MATCH.name(), 0);
+        Assert.assertNull(cache.get(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH));
+        Assert.assertNotNull(cache.get(ExperimentType.D2KB, Matching.WEAK_ANNOTATION_MATCH));
+    }
+
+    @Test
+    public void testChangedSources() {
+        ExperimentOverviewCache cache = new ExperimentOverviewCache();
+        cache.updateSourceVersion("0|0");
+        cache.put(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH, JSON, cache.getVersion());
+        cache.updateSourceVersion("0|0");
+        Assert.assertNotNull(cache.get(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH));
+
+        // the statistics of a dataset have been changed
+        int version = cache.getVersion();
+        cache.updateSourceVersion("0|1");
+        Assert.assertNull(cache.get(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH));
+        // an overview that has been generated before can't be cached anymore
+        cache.put(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH, JSON, version);
+        Assert.assertNull(cache.get(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH));
+    }
+
+    @Test
+    public void testOutdatedOverview() {
+        ExperimentOverviewCache cache = new ExperimentOverviewCache();
+        int version = cache.getVersion();
+        // a task is finished while the overview is generated
+        cache.experimentTaskFinished(1, "annotator1", "dataset1", ExperimentType.A2KB.name(),
+                Matching.WEAK_ANNOTATION_MATCH.name(), 0);
+        CachedOverview overview = cache.put(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH, JSON, version);
+        Assert.assertNotNull(overview);
+        Assert.assertNull(cache.get(ExperimentType.A2KB, Matching.WEAK_ANNOTATION_MATCH));
+    }
+
+    @Test
+    public void testConditionalRequestsAndCompression() throws IOException {
+        CachedOverview overview = new CachedOverview(JSON);
+        Assert.assertTrue(overview.isNotModified(overview.getETag(), -1));
+        Assert.assertTrue(overview.isNotModified("\"123\", " + overview.getETag(), -1));
+        Assert.assertFalse(overview.isNotModified("\"123\"", System.currentTimeMillis()));
+        Assert.assertTrue(overview.isNotModified(null, overview.getLastModified()));
+        Assert.assertFalse(overview.isNotModified(null, overview.getLastModified() - 1000));
+        Assert.assertFalse(overview.isNotModified(null, -1));
+        // the compressed version has its own ETag
+        Assert.assertFalse(overview.getETag().equals(overview.getETag(true)));
+        Assert.assertTrue(overview.isNotModified(overview.getETag(true), -1, true));
+        Assert.assertFalse(overview.isNotModified(overview.getETag(true), -1, false));
+        Assert.assertFalse(overview.isNotModified(overview.getETag(false), -1, true));
+
+        Assert.assertArrayEquals(overview.getJson(),
+                IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(overview.getGzippedJson()))));
+    }
+}
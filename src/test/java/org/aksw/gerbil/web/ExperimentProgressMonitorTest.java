@@ -0,0 +1,155 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.gerbil.database.ExperimentDAO;
+import org.aksw.gerbil.database.TaskQueueDAO;
+import org.aksw.gerbil.datatypes.ExperimentTaskResult;
+import org.aksw.gerbil.datatypes.ExperimentType;
+import org.aksw.gerbil.matching.Matching;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExperimentProgressMonitorTest {
+
+    @Test
+    public void testInitialRequest() throws InterruptedException {
+        ExperimentProgressMonitor monitor = new ExperimentProgressMonitor(null, 10);
+        long start = System.currentTimeMillis();
+        JSONObject progress = parse(monitor.awaitProgress(createTasks(), null, 10000));
+        Assert.assertTrue((System.currentTimeMillis() - start) < 5000);
+        Assert.assertNotNull(progress.get("version"));
+        Assert.assertEquals(Boolean.FALSE, progress.get("finished"));
+    }
+
+    @Test
+    public void testTimeout() throws InterruptedException {
+        ExperimentProgressMonitor monitor = new ExperimentProgressMonitor(null, 10);
+        String version = (String) parse(monitor.awaitProgress(createTasks(), null, 0)).get("version");
+        long start = System.currentTimeMillis();
+        JSONObject progress = parse(monitor.awaitProgress(createTasks(), version, 600));
+        Assert.assertTrue((System.currentTimeMillis() - start) >= 600);
+        Assert.assertEquals(version, progress.get("version"));
+    }
+
+    @Test
+    public void testStateChange() throws InterruptedException {
+        final ExperimentProgressMonitor monitor = new ExperimentProgressMonitor(null, 10);
+        String version = (String) parse(monitor.awaitProgress(createTasks(), null, 0)).get("version");
+        Thread finisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(2 * ExperimentProgressMonitor.COALESCING_INTERVAL);
+                } catch (InterruptedException e) {
+                }
+                monitor.experimentTaskFinished(2, "annotator2", "dataset1", ExperimentType.A2KB.name(),
+                        Matching.WEAK_ANNOTATION_MATCH.name(), ExperimentDAO.TASK_FINISHED);
+            }
+        });
+        long start = System.currentTimeMillis();
+        finisher.start();
+        JSONObject progress = parse(monitor.awaitProgress(createTasks(), version, 20000));
+        Assert.assertTrue((System.currentTimeMillis() - start) < 10000);
+        Assert.assertFalse(version.equals(progress.get("version")));
+        Assert.assertEquals(Boolean.TRUE, progress.get("finished"));
+    }
+
+    @Test
+    public void testExperimentWithoutTasks() throws InterruptedException {
+        ExperimentProgressMonitor monitor = new ExperimentProgressMonitor(null, 10);
+        JSONObject progress = parse(monitor.awaitProgress(new ArrayList<ExperimentTaskResult>(), null, 0));
+        // the tasks haven't been created yet
+        Assert.assertEquals(Boolean.FALSE, progress.get("finished"));
+        Assert.assertEquals(0, ((JSONArray) progress.get("tasks")).size());
+    }
+
+    @Test
+    public void testTasksOfOtherWorkers() throws InterruptedException {
+        final Int2IntOpenHashMap queueStates = new Int2IntOpenHashMap();
+        TaskQueueDAO taskQueue = (TaskQueueDAO) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { TaskQueueDAO.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("getStatesOfWaitingTasks")) {
+                            return queueStates;
+                        }
+                        throw new UnsupportedOperationException();
+                    }
+                });
+        ExperimentProgressMonitor monitor = new ExperimentProgressMonitor(null, taskQueue, 10);
+        queueStates.put(2, TaskQueueDAO.TASK_LEASED);
+        Assert.assertEquals(ExperimentProgressMonitor.EXECUTION_WAITING,
+                getTask(parse(monitor.awaitProgress(createTasks(), null, 0)), 2).get("execution"));
+        queueStates.put(2, TaskQueueDAO.TASK_RUNNING);
+        Assert.assertEquals(ExperimentProgressMonitor.EXECUTION_REMOTE,
+                getTask(parse(monitor.awaitProgress(createTasks(), null, 0)), 2).get("execution"));
+        // finished tasks have no execution state
+        Assert.assertNull(getTask(parse(monitor.awaitProgress(createTasks(), null, 0)), 1).get("execution"));
+    }
+
+    @Test
+    public void testTooManyWaitingRequests() throws InterruptedException {
+        ExperimentProgressMonitor monitor = new ExperimentProgressMonitor(null, 0);
+        String version = (String) parse(monitor.awaitProgress(createTasks(), null, 0)).get("version");
+        long start = System.currentTimeMillis();
+        // the request is answered immediately instead of blocking a thread
+        monitor.awaitProgress(createTasks(), version, 10000);
+        Assert.assertTrue((System.currentTimeMillis() - start) < 5000);
+    }
+
+    private static List<ExperimentTaskResult> createTasks() {
+        List<ExperimentTaskResult> tasks = new ArrayList<ExperimentTaskResult>();
+        tasks.add(new ExperimentTaskResult("annotator1", "dataset1", ExperimentType.A2KB,
+                Matching.WEAK_ANNOTATION_MATCH, new double[6], ExperimentDAO.TASK_FINISHED, 0, 0, 1));
+        tasks.add(new ExperimentTaskResult("annotator2", "dataset1", ExperimentType.A2KB,
+                Matching.WEAK_ANNOTATION_MATCH, new double[6], ExperimentDAO.TASK_STARTED_BUT_NOT_FINISHED_YET, 0,
+                0, 2));
+        return tasks;
+    }
+
+    private static JSONObject getTask(JSONObject progress, int taskId) {
+        for (Object task : (JSONArray) progress.get("tasks")) {
+            if (((Number) ((JSONObject) task).get("id")).intValue() == taskId) {
+                return (JSONObject) task;
+            }
+        }
+        return null;
+    }
+
+    private static JSONObject parse(String json) {
+        return (JSONObject) JSONValue.parse(json);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Agile Knowledge Engineering and Semantic Web (AKSW) (usbeck@informatik.uni-leipzig.de)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aksw.gerbil.web;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.aksw.gerbil.web.StartupInitializer.State;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StartupInitializerTest {
+
+    @Test
+    public void testParallelInitialization() throws InterruptedException {
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable waitingInitializer = new Runnable() {
+            @Override
+            public void run() {
+                bothStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        StartupInitializer initializer = new StartupInitializer();
+        initializer.addInitializer("first", waitingInitializer);
+        initializer.addInitializer("second", waitingInitializer);
+        initializer.addInitializer("failing", new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("expected");
+            }
+        });
+        initializer.start();
+        // both initializers have to run at the same time
+        bothStarted.await();
+        Assert.assertFalse(initializer.isReady());
+        Assert.assertEquals(State.LOADING, initializer.getStates().get("first"));
+
+        release.countDown();
+        for (int i = 0; (i < 100) && !initializer.isReady(); ++i) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(initializer.isReady());
+        Assert.assertEquals(State.READY, initializer.getStates().get("first"));
+        Assert.assertEquals(State.READY, initializer.getStates().get("second"));
+        Assert.assertEquals(State.FAILED, initializer.getStates().get("failing"));
+        initializer.close();
+    }
+}
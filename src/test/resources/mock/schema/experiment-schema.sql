@@ -21,4 +21,39 @@ CREATE TABLE IF NOT EXISTS Experiments (
   taskId int(10) unsigned NOT NULL,
    PRIMARY KEY (id, taskId)
   
-) ENGINE=InnoDB;
\ No newline at end of file
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS LatestResults (
+annotatorName VARCHAR(100) NOT NULL,
+datasetName VARCHAR(100) NOT NULL,
+experimentType VARCHAR(10) NOT NULL,
+matching VARCHAR(50) NOT NULL,
+taskId int(10) unsigned NOT NULL,
+state int(10),
+lastChanged TIMESTAMP,
+PRIMARY KEY (experimentType, matching, annotatorName, datasetName)
+) ENGINE=InnoDB;
+
+CREATE INDEX IF NOT EXISTS LatestResultsOverview ON LatestResults (experimentType,matching,state,lastChanged,taskId);
+
+CREATE TABLE IF NOT EXISTS TaskQueue (
+taskId int(10) unsigned NOT NULL PRIMARY KEY,
+state int(10) NOT NULL,
+attempts int(10) NOT NULL,
+annotatorDefinition VARCHAR(1000),
+datasetDefinition VARCHAR(1000),
+leaseOwner VARCHAR(100),
+leaseExpires TIMESTAMP,
+queued TIMESTAMP,
+lastChanged TIMESTAMP
+) ENGINE=InnoDB;
+
+CREATE INDEX IF NOT EXISTS TaskQueuePolling ON TaskQueue (state,leaseExpires,queued);
+CREATE INDEX IF NOT EXISTS TaskQueueDone ON TaskQueue (state,lastChanged);
+
+CREATE TABLE IF NOT EXISTS DatasetFingerprints (
+taskId int(10) unsigned NOT NULL PRIMARY KEY,
+fingerprint VARCHAR(64) NOT NULL
+) ENGINE=InnoDB;
+
+CREATE INDEX IF NOT EXISTS DatasetFingerprintsLookup ON DatasetFingerprints (fingerprint);